@@ -172,9 +172,11 @@ CREATE TABLE `xxl_job_task_executor_mapping`
     `group_id`         bigint       NOT NULL COMMENT '执行器组id',
     `app_name`         varchar(64)  NOT NULL COMMENT '执行器AppName',
     `title`            varchar(12)  NOT NULL COMMENT '执行器名称',
+    `partition_key`    varchar(64)  DEFAULT NULL COMMENT '数据分区键：父任务ID:参数SHA-1',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uidx_job_id` (`job_id`),
-    KEY                `idx_update_time` (`update_time`)
+    KEY                `idx_update_time` (`update_time`),
+    KEY                `idx_partition_key` (`partition_key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='任务执行器节点映射表';
 
 
@@ -0,0 +1,110 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 二进制编解码器基类：成员为元素ID，负载为按字段顺序写入的紧凑二进制
+ * <p>
+ * 负载格式：1字节版本号，之后依次为各字段；字符串为4字节长度(-1表示null)加UTF-8字节，
+ * 时间为8字节UTC秒数加4字节纳秒(秒数为Long.MIN_VALUE表示null)。
+ * 没有负载且成员以'{'开头时按JSON解析，兼容引入编解码器之前入队的元素。
+ */
+public abstract class AbstractBinaryCodec<T> implements QueueCodec<T> {
+
+    protected static final byte VERSION = 1;
+
+    private final QueueCodec<T> legacyCodec;
+
+    protected AbstractBinaryCodec(Class<T> clazz) {
+        this.legacyCodec = QueueCodecs.json(clazz);
+    }
+
+    @Override
+    public byte[] encode(T item) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            writeFields(item, out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new QueueCodecException("编码元素失败: " + memberOf(item), e);
+        }
+    }
+
+    @Override
+    public T decode(String member, byte[] payload) {
+        try {
+            if (payload == null || payload.length == 0) {
+                if (member.startsWith("{")) {
+                    return legacyCodec.decode(member, null);
+                }
+                // 负载缺失时只还原ID
+                return readFields(member, null);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new QueueCodecException("不支持的负载版本: " + version);
+            }
+            return readFields(member, in);
+        } catch (IOException e) {
+            throw new QueueCodecException("解码元素失败: " + member, e);
+        }
+    }
+
+    /**
+     * 写入除ID外的字段
+     */
+    protected abstract void writeFields(T item, DataOutputStream out) throws IOException;
+
+    /**
+     * 按写入顺序读取字段并还原元素
+     * @param in 负载，为null时只还原ID
+     */
+    protected abstract T readFields(String id, DataInputStream in) throws IOException;
+
+    protected static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    protected static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.writeLong(Long.MIN_VALUE);
+            out.writeInt(0);
+            return;
+        }
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    protected static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,47 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON编解码器：成员为元素完整的JSON，不使用负载哈希
+ * 与引入编解码器之前的存储格式一致，适用于没有唯一标识的元素类型
+ */
+public class JsonQueueCodec<T> implements QueueCodec<T> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> clazz;
+
+    public JsonQueueCodec(ObjectMapper objectMapper, Class<T> clazz) {
+        this.objectMapper = objectMapper;
+        this.clazz = clazz;
+    }
+
+    @Override
+    public String memberOf(T item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new QueueCodecException("序列化对象失败", e);
+        }
+    }
+
+    @Override
+    public byte[] encode(T item) {
+        return null;
+    }
+
+    @Override
+    public T decode(String member, byte[] payload) {
+        try {
+            return objectMapper.readValue(member, clazz);
+        } catch (JsonProcessingException e) {
+            throw new QueueCodecException("反序列化对象失败: " + member, e);
+        }
+    }
+
+    @Override
+    public boolean hasPayload() {
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+/**
+ * 队列元素编解码器
+ * <p>
+ * 队列中只存放成员(如分片ID)，元素其余内容编码为负载存放在队列的负载哈希中：
+ * 1. 成员相同的元素在队列中只保留一份，重复入队不会重复处理；
+ * 2. 负载可以使用紧凑的二进制格式，减少Redis内存和序列化开销。
+ */
+public interface QueueCodec<T> {
+
+    /**
+     * 元素在队列中的成员，同一成员在队列中只保留一份
+     */
+    String memberOf(T item);
+
+    /**
+     * 编码元素负载
+     * @return 负载字节，成员已包含元素全部内容时返回null
+     */
+    byte[] encode(T item);
+
+    /**
+     * 由成员和负载还原元素
+     * @param member 成员
+     * @param payload 负载，不存在时为null
+     */
+    T decode(String member, byte[] payload);
+
+    /**
+     * 是否使用负载哈希；为false时成员即元素全部内容，队列不写负载哈希
+     */
+    default boolean hasPayload() {
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+/**
+ * 队列元素编解码异常
+ */
+public class QueueCodecException extends RuntimeException {
+
+    public QueueCodecException(String message) {
+        super(message);
+    }
+
+    public QueueCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
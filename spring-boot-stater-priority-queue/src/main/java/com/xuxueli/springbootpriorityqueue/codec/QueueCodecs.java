@@ -0,0 +1,52 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.xuxueli.springbootpriorityqueue.model.SortedTask;
+import com.xuxueli.springbootpriorityqueue.model.Task;
+
+/**
+ * 编解码器选择
+ */
+public final class QueueCodecs {
+
+    /**
+     * 成员为元素完整JSON(默认，兼容已有数据)
+     */
+    public static final String JSON = "json";
+
+    /**
+     * 成员为元素ID，负载为紧凑二进制；仅 Task 和 SortedTask 支持，其他类型使用JSON
+     */
+    public static final String BINARY = "binary";
+
+    private QueueCodecs() {
+    }
+
+    /**
+     * 按名称获取编解码器
+     * @param name 编解码器名称，BINARY 或 JSON，无法识别时使用JSON
+     * @param clazz 队列元素类型
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> QueueCodec<T> of(String name, Class<T> clazz) {
+        if (BINARY.equalsIgnoreCase(name)) {
+            if (clazz == Task.class) {
+                return (QueueCodec<T>) new TaskBinaryCodec();
+            }
+            if (clazz == SortedTask.class) {
+                return (QueueCodec<T>) new SortedTaskBinaryCodec();
+            }
+        }
+        return json(clazz);
+    }
+
+    /**
+     * JSON编解码器，ObjectMapper配置与引入编解码器之前队列内部使用的一致，保证已有成员可以被确认和退回
+     */
+    public static <T> QueueCodec<T> json(Class<T> clazz) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return new JsonQueueCodec<>(objectMapper, clazz);
+    }
+}
@@ -0,0 +1,46 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+import com.xuxueli.springbootpriorityqueue.model.SortedTask;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * SortedTask二进制编解码器：成员为任务ID，负载依次为 name、description、priority、createdAt
+ */
+public class SortedTaskBinaryCodec extends AbstractBinaryCodec<SortedTask> {
+
+    public SortedTaskBinaryCodec() {
+        super(SortedTask.class);
+    }
+
+    @Override
+    public String memberOf(SortedTask item) {
+        if (item.getId() == null) {
+            throw new QueueCodecException("任务ID不能为空");
+        }
+        return item.getId();
+    }
+
+    @Override
+    protected void writeFields(SortedTask item, DataOutputStream out) throws IOException {
+        writeString(out, item.getName());
+        writeString(out, item.getDescription());
+        out.writeDouble(item.getPriority());
+        writeTime(out, item.getCreatedAt());
+    }
+
+    @Override
+    protected SortedTask readFields(String id, DataInputStream in) throws IOException {
+        SortedTask task = new SortedTask();
+        task.setId(id);
+        if (in != null) {
+            task.setName(readString(in));
+            task.setDescription(readString(in));
+            task.setPriority(in.readDouble());
+            task.setCreatedAt(readTime(in));
+        }
+        return task;
+    }
+}
@@ -0,0 +1,44 @@
+package com.xuxueli.springbootpriorityqueue.codec;
+
+import com.xuxueli.springbootpriorityqueue.model.Task;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Task二进制编解码器：成员为任务ID，负载依次为 name、description、createdAt
+ */
+public class TaskBinaryCodec extends AbstractBinaryCodec<Task> {
+
+    public TaskBinaryCodec() {
+        super(Task.class);
+    }
+
+    @Override
+    public String memberOf(Task item) {
+        if (item.getId() == null) {
+            throw new QueueCodecException("任务ID不能为空");
+        }
+        return item.getId();
+    }
+
+    @Override
+    protected void writeFields(Task item, DataOutputStream out) throws IOException {
+        writeString(out, item.getName());
+        writeString(out, item.getDescription());
+        writeTime(out, item.getCreatedAt());
+    }
+
+    @Override
+    protected Task readFields(String id, DataInputStream in) throws IOException {
+        Task task = new Task();
+        task.setId(id);
+        if (in != null) {
+            task.setName(readString(in));
+            task.setDescription(readString(in));
+            task.setCreatedAt(readTime(in));
+        }
+        return task;
+    }
+}
@@ -2,8 +2,13 @@ package com.xuxueli.springbootpriorityqueue.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.xuxueli.springbootpriorityqueue.metrics.MicrometerQueueMetrics;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
 import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueueFactory;
 import com.xuxueli.springbootpriorityqueue.queue.RedisSortedQueueFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -46,12 +51,31 @@ public class RedisConfig {
         return redisTemplate;
     }
     
+    /**
+     * 队列指标：存在 MeterRegistry(引入 actuator)时通过Micrometer导出，否则不记录
+     */
+    @Bean
+    public QueueMetrics queueMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        QueueMetrics.setInstance(registry != null ? new MicrometerQueueMetrics(registry) : null);
+        return QueueMetrics.getInstance();
+    }
+
     /**
      * 注册RedisPriorityQueueFactory
+     * priority-queue.backend 选择队列实现(zset/list/stream/embedded)，stream 实现的消费者名称由 priority-queue.stream.consumer 指定，默认 进程号@主机名；
+     * embedded 实现的日志目录由 priority-queue.embedded.log-dir 指定，为空时只保存在内存中；backend 只作用于本工厂创建的队列，
+     * RedisSortedQueueFactory 的有序队列和 RedisDelayQueue 始终使用Redis；
+     * stream 实现回收待确认消息的租约时长(秒)由 priority-queue.stream.lease-timeout 指定，默认与 xxl.job.taskqueue.lease.timeout 一致
+     * 依赖 queueMetrics，保证队列创建前指标已就绪
      */
     @Bean
-    public RedisPriorityQueueFactory redisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper) {
-        return new RedisPriorityQueueFactory(redisTemplate, objectMapper);
+    public RedisPriorityQueueFactory redisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                                                               @Value("${priority-queue.stream.consumer:}") String streamConsumer,
+                                                               @Value("${priority-queue.embedded.log-dir:}") String embeddedLogDir,
+                                                               @Value("${priority-queue.stream.lease-timeout:${xxl.job.taskqueue.lease.timeout:120}}") int streamLeaseTimeout,
+                                                               QueueMetrics queueMetrics) {
+        return new RedisPriorityQueueFactory(redisTemplate, objectMapper, streamConsumer, embeddedLogDir, streamLeaseTimeout * 1000L);
     }
     
     /**
@@ -0,0 +1,131 @@
+package com.xuxueli.springbootpriorityqueue.metrics;
+
+import com.xuxueli.springbootpriorityqueue.queue.DistributedPriorityQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的队列指标，通过 spring-boot-starter-actuator 的 MeterRegistry 导出：
+ * 1. priority_queue.enqueued / priority_queue.dequeued：入队、出队元素数(计数器，按队列和优先级)；
+ * 2. priority_queue.wait：元素从创建到出队的等待时间(直方图)；
+ * 3. priority_queue.redis：Redis调用耗时(按队列和操作)；
+ * 4. priority_queue.depth：分优先级的队列长度，采集时读取，DEPTH_CACHE_MS 内复用上一次结果。
+ */
+public class MicrometerQueueMetrics extends QueueMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(MicrometerQueueMetrics.class);
+
+    // 多个优先级的长度指标共用一次读取，避免每次采集对每个优先级单独访问Redis
+    private static final long DEPTH_CACHE_MS = 5000;
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Counter> enqueueCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> dequeueCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> redisTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DepthSampler> depthSamplers = new ConcurrentHashMap<>();
+
+    public MicrometerQueueMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordEnqueue(String queue, int priority, int count) {
+        if (count <= 0) {
+            return;
+        }
+        enqueueCounters.computeIfAbsent(queue + "|" + priority, k -> Counter.builder("priority_queue.enqueued")
+                .description("入队元素数")
+                .tag("queue", queue)
+                .tag("priority", String.valueOf(priority))
+                .register(registry)).increment(count);
+    }
+
+    @Override
+    public void recordDequeue(String queue, int count) {
+        if (count <= 0) {
+            return;
+        }
+        dequeueCounters.computeIfAbsent(queue, k -> Counter.builder("priority_queue.dequeued")
+                .description("出队元素数")
+                .tag("queue", queue)
+                .register(registry)).increment(count);
+    }
+
+    @Override
+    public void recordWait(String queue, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+        Duration wait = Duration.between(createdAt, LocalDateTime.now());
+        waitTimers.computeIfAbsent(queue, k -> Timer.builder("priority_queue.wait")
+                .description("元素从创建到出队的等待时间")
+                .tag("queue", queue)
+                .publishPercentileHistogram()
+                .register(registry)).record(wait.isNegative() ? Duration.ZERO : wait);
+    }
+
+    @Override
+    public void recordRedisCall(String queue, String operation, long startNanos) {
+        redisTimers.computeIfAbsent(queue + "|" + operation, k -> Timer.builder("priority_queue.redis")
+                .description("队列Redis调用耗时")
+                .tag("queue", queue)
+                .tag("operation", operation)
+                .register(registry)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void registerDepth(String queue, DistributedPriorityQueue<?> priorityQueue) {
+        if (depthSamplers.containsKey(queue)) {
+            return;
+        }
+        DepthSampler sampler = new DepthSampler(queue, priorityQueue);
+        if (depthSamplers.putIfAbsent(queue, sampler) != null) {
+            return;
+        }
+        for (int priority = 1; priority <= 10; priority++) {
+            final int index = priority - 1;
+            Gauge.builder("priority_queue.depth", sampler, s -> s.depth(index))
+                    .description("分优先级的队列长度")
+                    .tag("queue", queue)
+                    .tag("priority", String.valueOf(priority))
+                    .register(registry);
+        }
+    }
+
+    private static class DepthSampler {
+        private final String queue;
+        private final DistributedPriorityQueue<?> priorityQueue;
+        private volatile long[] depths = new long[10];
+        private volatile long sampledAt = 0;
+
+        DepthSampler(String queue, DistributedPriorityQueue<?> priorityQueue) {
+            this.queue = queue;
+            this.priorityQueue = priorityQueue;
+        }
+
+        double depth(int index) {
+            long now = System.currentTimeMillis();
+            if (now - sampledAt >= DEPTH_CACHE_MS) {
+                sampledAt = now;
+                try {
+                    depths = priorityQueue.sizeByPriority();
+                } catch (Exception e) {
+                    logger.warn("采集队列长度失败，队列: {}", queue, e);
+                    return Double.NaN;
+                }
+            }
+            long[] current = depths;
+            return index < current.length ? current[index] : 0;
+        }
+    }
+}
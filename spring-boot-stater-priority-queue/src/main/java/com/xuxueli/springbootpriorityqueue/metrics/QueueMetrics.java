@@ -0,0 +1,66 @@
+package com.xuxueli.springbootpriorityqueue.metrics;
+
+import com.xuxueli.springbootpriorityqueue.queue.DistributedPriorityQueue;
+
+import java.time.LocalDateTime;
+
+/**
+ * 队列指标
+ * <p>
+ * 默认实现不记录任何指标；存在 MeterRegistry 时 RedisConfig 替换为 MicrometerQueueMetrics。
+ * 队列实例由工厂和服务直接创建，指标通过 getInstance() 获取，不需要逐个注入。
+ */
+public class QueueMetrics {
+
+    private static volatile QueueMetrics instance = new QueueMetrics();
+
+    public static QueueMetrics getInstance() {
+        return instance;
+    }
+
+    public static void setInstance(QueueMetrics metrics) {
+        instance = metrics != null ? metrics : new QueueMetrics();
+    }
+
+    /**
+     * 记录入队
+     * @param queue 队列key
+     * @param priority 优先级，有序队列为0
+     * @param count 实际入队的元素数量
+     */
+    public void recordEnqueue(String queue, int priority, int count) {
+    }
+
+    /**
+     * 记录出队(含租约出队)
+     * @param queue 队列key
+     * @param count 出队的元素数量
+     */
+    public void recordDequeue(String queue, int count) {
+    }
+
+    /**
+     * 记录元素从创建到出队的等待时间
+     * @param queue 队列名称
+     * @param createdAt 元素创建时间
+     */
+    public void recordWait(String queue, LocalDateTime createdAt) {
+    }
+
+    /**
+     * 记录一次Redis调用的耗时
+     * @param queue 队列key
+     * @param operation 操作名称，如 enqueue、dequeue、lease、ack、nack
+     * @param startNanos 调用开始时的 System.nanoTime()
+     */
+    public void recordRedisCall(String queue, String operation, long startNanos) {
+    }
+
+    /**
+     * 登记队列的分优先级长度，同一队列只登记一次
+     * @param queue 队列key
+     * @param priorityQueue 队列实例
+     */
+    public void registerDepth(String queue, DistributedPriorityQueue<?> priorityQueue) {
+    }
+}
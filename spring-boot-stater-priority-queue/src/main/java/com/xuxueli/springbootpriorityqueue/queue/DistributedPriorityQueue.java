@@ -0,0 +1,142 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 分布式优先级队列
+ * 支持1-10的优先级，数字越小优先级越高，同优先级按入队顺序出队
+ *
+ * 实现：
+ * 1. RedisPriorityQueue：单个ZSET，支持公平模式和按分数范围查询；
+ * 2. RedisListPriorityQueue：每个优先级一个LIST，入队出队O(1)，支持跨优先级阻塞出队；
+ * 3. RedisStreamPriorityQueue：每个优先级一个STREAM，多个调度中心以消费组读取，待确认列表记录租约；
+ * 4. EmbeddedPriorityQueue：进程内跳表，不依赖Redis，可选追加日志，只适用于单个调度中心。
+ */
+public interface DistributedPriorityQueue<T> {
+
+    /**
+     * 将元素添加到队列中
+     * @param item 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @return 添加是否成功
+     */
+    boolean enqueue(T item, int priority);
+
+    /**
+     * 将元素添加到队列中，公平模式下写入公平键对应的子队列
+     * @param item 要添加的元素
+     * @param priority 优先级(1-10)
+     * @param fairKey 公平键(如父任务ID)，不支持公平模式的实现忽略该参数
+     * @return 添加是否成功
+     */
+    boolean enqueue(T item, int priority, String fairKey);
+
+    /**
+     * 批量添加同一优先级的元素
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)
+     * @return 成功添加的元素数量
+     */
+    int enqueueAll(Collection<T> items, int priority);
+
+    /**
+     * 批量添加同一优先级的元素，公平模式下写入公平键对应的子队列
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)
+     * @param fairKey 公平键(如父任务ID)，不支持公平模式的实现忽略该参数
+     * @return 成功添加的元素数量
+     */
+    int enqueueAll(Collection<T> items, int priority, String fairKey);
+
+    /**
+     * 获取并移除优先级最高的元素
+     * @return 优先级最高的元素，如果队列为空则返回null
+     */
+    T dequeue();
+
+    /**
+     * 阻塞获取并移除优先级最高的元素，队列为空时最多等待timeoutMs毫秒
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 优先级最高的元素，超时返回null
+     */
+    T dequeue(long timeoutMs);
+
+    /**
+     * 原子地批量获取并移除优先级最高的前count个元素
+     * @param count 最多获取的元素数量
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    List<T> dequeue(int count);
+
+    /**
+     * 租约出队：原子地取出优先级最高的前count个元素，移入处理中集合
+     * @param count 最多获取的元素数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    List<T> lease(int count, long leaseTimeoutMs);
+
+    /**
+     * 确认已租约的元素处理完成
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被移除返回true
+     */
+    boolean ack(T item);
+
+    /**
+     * 退回已租约的元素，按原优先级立即重新入队
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被退回返回true
+     */
+    boolean nack(T item);
+
+    /**
+     * 回收租约到期的元素，按原优先级重新入队
+     * @param limit 单次最多回收的元素数量
+     * @return 本次回收的元素数量
+     */
+    long requeueExpired(int limit);
+
+    /**
+     * 获取处理中(已租约未确认)的元素数量
+     */
+    long leasedSize();
+
+    /**
+     * 查看优先级最高的元素但不移除
+     * @return 优先级最高的元素，如果队列为空则返回null
+     */
+    T peek();
+
+    /**
+     * 获取队列长度
+     */
+    long size();
+
+    /**
+     * 获取各优先级的队列长度
+     * @return 长度为10的数组，下标0对应优先级1
+     */
+    long[] sizeByPriority();
+
+    /**
+     * 判断队列是否为空
+     */
+    boolean isEmpty();
+
+    /**
+     * 清空队列
+     * @return 操作是否成功
+     */
+    boolean clear();
+
+    /**
+     * 获取指定优先级范围的元素，最多返回1000个
+     * @param minPriority 最小优先级(包含)
+     * @param maxPriority 最大优先级(包含)
+     * @return 指定优先级范围内的元素集合
+     */
+    Set<T> getItemsByPriorityRange(int minPriority, int maxPriority);
+}
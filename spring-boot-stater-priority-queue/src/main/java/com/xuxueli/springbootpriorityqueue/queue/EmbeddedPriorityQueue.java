@@ -0,0 +1,627 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue.QueueException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内优先级队列，不依赖Redis，适用于单个调度中心和测试环境
+ * <p>
+ * 分数规则与 RedisPriorityQueue 相同(priority·2^49 + 序号)，元素按分数存放在 ConcurrentSkipListMap 中：
+ * 1. 入队、出队都是内存中的 O(log n) 操作，修改在同一把锁内完成，查看和长度读取不加锁；
+ * 2. 成员由编解码器决定，使用负载(binary)时同一成员(含已租约未确认的)重复入队被忽略，否则以新序号覆盖；
+ * 3. 不支持公平模式，公平键被忽略。
+ * <p>
+ * 指定日志文件时，入队和移除追加写入日志，启动时回放恢复并压缩；日志只刷到操作系统缓冲区，不逐条 fsync。
+ * 租约不写日志，已租约未确认的元素重启后回到队列。
+ * <p>
+ * 只用于 TaskService 的执行器组队列(priority-queue.backend=embedded)；有序队列、延迟队列和失败重试队列
+ * 没有对应的进程内实现，调度中心仍需连接Redis。
+ */
+public class EmbeddedPriorityQueue<T> implements DistributedPriorityQueue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedPriorityQueue.class);
+
+    private static final int MIN_PRIORITY = 1;
+    private static final int MAX_PRIORITY = 10;
+    private static final long SEQUENCE_MASK = (1L << RedisPriorityQueue.SEQUENCE_BITS) - 1;
+    private static final int RANGE_LIMIT = 1000;
+
+    // 日志中失效的记录超过该数量且多于存活元素时压缩日志
+    private static final int COMPACT_THRESHOLD = 10000;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final String queueKey;
+    private final QueueCodec<T> codec;
+    private final File logFile;                 // 为null时只保存在内存中
+    private final ConcurrentSkipListMap<Long, Entry<T>> queue = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Long> scores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Lease<T>> leases = new ConcurrentHashMap<>();
+    private final AtomicLongArray depths = new AtomicLongArray(MAX_PRIORITY);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // 以下字段只在持有锁时访问
+    private long sequence = 0;
+    private long staleRecords = 0;
+    private DataOutputStream logWriter;
+
+    /**
+     * 构造函数，只保存在内存中
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     */
+    public EmbeddedPriorityQueue(String queueName, Class<T> clazz) {
+        this(queueName, QueueCodecs.json(clazz), null);
+    }
+
+    /**
+     * 构造函数
+     * @param queueName 队列名称
+     * @param codec 元素编解码器，决定成员和日志中负载的格式
+     * @param logFile 追加日志文件，为null时只保存在内存中
+     */
+    public EmbeddedPriorityQueue(String queueName, QueueCodec<T> codec, File logFile) {
+        this.queueKey = "embedded_queue:" + queueName;
+        this.codec = codec;
+        this.logFile = logFile;
+        if (logFile != null) {
+            lock.lock();
+            try {
+                replay();
+                compact();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        QueueMetrics.getInstance().registerDepth(queueKey, this);
+    }
+
+    private static void checkPriority(int priority) {
+        if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("优先级必须在1-10之间");
+        }
+    }
+
+    private static int priorityOf(long score) {
+        return (int) (score >>> RedisPriorityQueue.SEQUENCE_BITS);
+    }
+
+    public boolean enqueue(T item, int priority) {
+        return enqueueAll(Collections.singletonList(item), priority) > 0;
+    }
+
+    public boolean enqueue(T item, int priority, String fairKey) {
+        return enqueue(item, priority);
+    }
+
+    public int enqueueAll(Collection<T> items, int priority, String fairKey) {
+        return enqueueAll(items, priority);
+    }
+
+    /**
+     * 批量添加同一优先级的元素，日志在整批写入后刷新一次
+     *
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @return 新入队的元素数量，已在队列中的元素不计入
+     */
+    public int enqueueAll(Collection<T> items, int priority) {
+        checkPriority(priority);
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        int added = 0;
+        lock.lock();
+        try {
+            for (T item : items) {
+                String member = codec.memberOf(item);
+                // 使用负载时已租约未确认的成员也视为在队列中，与Redis实现的负载哈希一致
+                if (codec.hasPayload() && leases.containsKey(member)) {
+                    continue;
+                }
+                Long oldScore = scores.get(member);
+                if (oldScore != null) {
+                    if (codec.hasPayload()) {
+                        continue;
+                    }
+                    removeQueued(oldScore);
+                    staleRecords++;
+                }
+                long score = ((long) priority << RedisPriorityQueue.SEQUENCE_BITS) + (sequence++ & SEQUENCE_MASK);
+                addQueued(score, new Entry<>(member, item));
+                appendAdd(score, member, item);
+                if (oldScore == null) {
+                    added++;
+                }
+            }
+            flushLog();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        logger.debug("【压栈成功】队列: {}, 优先级: {}, 数量: {}", queueKey, priority, added);
+        QueueMetrics.getInstance().recordEnqueue(queueKey, priority, added);
+        return added;
+    }
+
+    private void addQueued(long score, Entry<T> entry) {
+        queue.put(score, entry);
+        scores.put(entry.member, score);
+        depths.incrementAndGet(priorityOf(score) - 1);
+    }
+
+    private Entry<T> removeQueued(long score) {
+        Entry<T> entry = queue.remove(score);
+        if (entry != null) {
+            scores.remove(entry.member, score);
+            depths.decrementAndGet(priorityOf(score) - 1);
+        }
+        return entry;
+    }
+
+    public T dequeue() {
+        List<T> items = dequeue(1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 阻塞获取并移除优先级最高的元素，入队时唤醒等待的线程
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 优先级最高的元素，超时或被中断返回null
+     */
+    public T dequeue(long timeoutMs) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                try {
+                    nanos = notEmpty.awaitNanos(nanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<T> dequeue(int count) {
+        return poll(count, 0);
+    }
+
+    public List<T> lease(int count, long leaseTimeoutMs) {
+        return poll(count, System.currentTimeMillis() + leaseTimeoutMs);
+    }
+
+    /**
+     * 按分数顺序取出最多count个元素
+     * @param deadline 租约到期时间，0表示直接出队不租约
+     */
+    private List<T> poll(int count, long deadline) {
+        List<T> result = new ArrayList<>();
+        if (count <= 0) {
+            return result;
+        }
+        lock.lock();
+        try {
+            while (result.size() < count) {
+                Map.Entry<Long, Entry<T>> head = queue.firstEntry();
+                if (head == null) {
+                    break;
+                }
+                Entry<T> entry = removeQueued(head.getKey());
+                if (deadline > 0) {
+                    leases.put(entry.member, new Lease<>(entry, head.getKey(), deadline));
+                } else {
+                    appendRemove(entry.member);
+                }
+                result.add(entry.item);
+            }
+            if (deadline == 0) {
+                flushLog();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        QueueMetrics.getInstance().recordDequeue(queueKey, result.size());
+        return result;
+    }
+
+    /**
+     * 确认已租约的元素处理完成
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被移除返回true
+     */
+    public boolean ack(T item) {
+        String member = codec.memberOf(item);
+        lock.lock();
+        try {
+            if (leases.remove(member) == null) {
+                return false;
+            }
+            // 租约期间同一成员已重新入队时保留日志中的记录
+            if (!scores.containsKey(member)) {
+                appendRemove(member);
+                flushLog();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 退回已租约的元素，按原始分数立即重新入队
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被退回返回true
+     */
+    public boolean nack(T item) {
+        lock.lock();
+        try {
+            Lease<T> lease = leases.remove(codec.memberOf(item));
+            if (lease == null) {
+                return false;
+            }
+            restore(lease);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void restore(Lease<T> lease) {
+        if (!scores.containsKey(lease.entry.member)) {
+            addQueued(lease.score, lease.entry);
+            notEmpty.signalAll();
+        }
+    }
+
+    public long requeueExpired(int limit) {
+        long now = System.currentTimeMillis();
+        long requeued = 0;
+        lock.lock();
+        try {
+            Iterator<Lease<T>> iterator = leases.values().iterator();
+            while (iterator.hasNext() && requeued < limit) {
+                Lease<T> lease = iterator.next();
+                if (lease.deadline <= now) {
+                    iterator.remove();
+                    restore(lease);
+                    requeued++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (requeued > 0) {
+            logger.warn("回收租约到期的任务，队列: {}, 数量: {}", queueKey, requeued);
+        }
+        return requeued;
+    }
+
+    public long leasedSize() {
+        return leases.size();
+    }
+
+    public T peek() {
+        Map.Entry<Long, Entry<T>> head = queue.firstEntry();
+        return head != null ? head.getValue().item : null;
+    }
+
+    public long size() {
+        return scores.size();
+    }
+
+    public long[] sizeByPriority() {
+        long[] result = new long[MAX_PRIORITY];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = depths.get(i);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * 清空队列和租约，日志同时清空
+     */
+    public boolean clear() {
+        logger.info("【清空队列】准备清空队列: {}", queueKey);
+        lock.lock();
+        try {
+            queue.clear();
+            scores.clear();
+            leases.clear();
+            for (int i = 0; i < MAX_PRIORITY; i++) {
+                depths.set(i, 0);
+            }
+            if (logFile != null) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Set<T> getItemsByPriorityRange(int minPriority, int maxPriority) {
+        if (minPriority > maxPriority) {
+            throw new IllegalArgumentException("最小优先级不能大于最大优先级");
+        }
+        if (minPriority < MIN_PRIORITY || maxPriority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("优先级必须在1-10范围内");
+        }
+        Set<T> result = new HashSet<>();
+        long from = (long) minPriority << RedisPriorityQueue.SEQUENCE_BITS;
+        long to = (long) (maxPriority + 1) << RedisPriorityQueue.SEQUENCE_BITS;
+        for (Entry<T> entry : queue.subMap(from, to).values()) {
+            if (result.size() >= RANGE_LIMIT) {
+                break;
+            }
+            result.add(entry.item);
+        }
+        return result;
+    }
+
+    /**
+     * 是否写入日志；写入日志的队列释放后可以由日志重新恢复
+     */
+    public boolean isPersistent() {
+        return logFile != null;
+    }
+
+    /**
+     * 关闭日志文件，关闭后的队列不应再使用
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closeLog();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------------------- 追加日志 ----------------------
+
+    private void appendAdd(long score, String member, T item) {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.writeByte(OP_ADD);
+            logWriter.writeLong(score);
+            writeBytes(logWriter, member.getBytes(StandardCharsets.UTF_8));
+            writeBytes(logWriter, codec.hasPayload() ? codec.encode(item) : null);
+        } catch (IOException e) {
+            throw new QueueException("写入队列日志失败: " + logFile, e);
+        }
+    }
+
+    private void appendRemove(String member) {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.writeByte(OP_REMOVE);
+            writeBytes(logWriter, member.getBytes(StandardCharsets.UTF_8));
+            staleRecords += 2;
+        } catch (IOException e) {
+            throw new QueueException("写入队列日志失败: " + logFile, e);
+        }
+    }
+
+    private void flushLog() {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.flush();
+        } catch (IOException e) {
+            throw new QueueException("写入队列日志失败: " + logFile, e);
+        }
+        if (staleRecords > COMPACT_THRESHOLD && staleRecords > scores.size() + leases.size()) {
+            compact();
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 回放日志恢复队列；日志末尾不完整的记录(写入时进程退出)被丢弃，随后的压缩会将其清除
+     */
+    private void replay() {
+        if (!logFile.exists()) {
+            return;
+        }
+        Map<String, LogRecord> live = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    if (op == OP_ADD) {
+                        long score = in.readLong();
+                        String member = new String(readBytes(in), StandardCharsets.UTF_8);
+                        live.put(member, new LogRecord(score, readBytes(in)));
+                    } else if (op == OP_REMOVE) {
+                        live.remove(new String(readBytes(in), StandardCharsets.UTF_8));
+                    } else {
+                        logger.warn("队列日志包含未知记录，停止回放，队列: {}, 文件: {}", queueKey, logFile);
+                        break;
+                    }
+                } catch (EOFException e) {
+                    logger.warn("队列日志末尾记录不完整，已丢弃，队列: {}, 文件: {}", queueKey, logFile);
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new QueueException("读取队列日志失败: " + logFile, e);
+        }
+
+        long maxSequence = -1;
+        for (Map.Entry<String, LogRecord> record : live.entrySet()) {
+            long score = record.getValue().score;
+            int priority = priorityOf(score);
+            if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+                continue;
+            }
+            T item;
+            try {
+                item = codec.decode(record.getKey(), record.getValue().payload);
+            } catch (Exception e) {
+                logger.error("反序列化对象失败: {}", record.getKey(), e);
+                continue;
+            }
+            if (item == null) {
+                continue;
+            }
+            addQueued(score, new Entry<>(record.getKey(), item));
+            maxSequence = Math.max(maxSequence, score & SEQUENCE_MASK);
+        }
+        sequence = maxSequence + 1;
+        logger.info("由日志恢复队列: {}, 元素数量: {}", queueKey, scores.size());
+    }
+
+    /**
+     * 以当前存活元素(队列中和租约中)重写日志，写入临时文件后替换原文件
+     */
+    private void compact() {
+        closeLog();
+        File parent = logFile.getAbsoluteFile().getParentFile();
+        File tmpFile = new File(parent, logFile.getName() + ".tmp");
+        try {
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("无法创建目录: " + parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                logWriter = out;
+                for (Map.Entry<Long, Entry<T>> entry : queue.entrySet()) {
+                    appendAdd(entry.getKey(), entry.getValue().member, entry.getValue().item);
+                }
+                for (Lease<T> lease : leases.values()) {
+                    if (!scores.containsKey(lease.entry.member)) {
+                        appendAdd(lease.score, lease.entry.member, lease.entry.item);
+                    }
+                }
+            } finally {
+                logWriter = null;
+            }
+            Files.move(tmpFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+            staleRecords = 0;
+        } catch (IOException e) {
+            throw new QueueException("压缩队列日志失败: " + logFile, e);
+        }
+    }
+
+    private void closeLog() {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.close();
+        } catch (IOException e) {
+            logger.warn("关闭队列日志失败: {}", logFile, e);
+        } finally {
+            logWriter = null;
+        }
+    }
+
+    private static class Entry<T> {
+        private final String member;
+        private final T item;
+
+        Entry(String member, T item) {
+            this.member = member;
+            this.item = item;
+        }
+    }
+
+    private static class Lease<T> {
+        private final Entry<T> entry;
+        private final long score;
+        private final long deadline;
+
+        Lease(Entry<T> entry, long score, long deadline) {
+            this.entry = entry;
+            this.score = score;
+            this.deadline = deadline;
+        }
+    }
+
+    private static class LogRecord {
+        private final long score;
+        private final byte[] payload;
+
+        LogRecord(long score, byte[] payload) {
+            this.score = score;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 消费端预取缓冲
+ * <p>
+ * 在本地保留少量已租约的元素，消费者优先从内存取出，减少每次出队的Redis往返：
+ * 1. 缓冲中的元素数降到低水位以下时，在 refillExecutor 中异步批量租约补满；
+ * 2. 本地缓冲为空时直接同步租约本次所需的数量，不等待异步补充；
+ * 3. 元素在缓冲中停留超过租约时长的一半仍未被取走，退回队列，由其他消费者(包括其他调度中心)处理；
+ * 4. 关闭时退回缓冲中的全部元素。
+ * <p>
+ * 缓冲容量应远小于队列中的元素数，避免单个消费者占住过多元素，破坏多个消费者之间的公平性。
+ */
+public class PrefetchBuffer<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchBuffer.class);
+
+    private final String name;
+    private final BiFunction<Integer, Long, List<T>> leaseFunction;
+    private final Consumer<T> returnFunction;
+    private final int capacity;
+    private final int lowWaterMark;
+    private final long leaseTimeoutMs;
+    private final long maxHoldMs;
+    private final Executor refillExecutor;
+
+    // 按租约时间排列，队首最早租约
+    private final ArrayDeque<Entry<T>> buffer = new ArrayDeque<>();
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+    // 上一次租约未取满，说明队列已取空，暂停异步补充直到同步租约再次取到元素
+    private volatile boolean exhausted = false;
+    private volatile boolean closed = false;
+
+    /**
+     * 构造函数
+     * @param name 缓冲名称，用于日志
+     * @param leaseFunction 租约出队：(数量, 租约时长毫秒) -> 元素列表
+     * @param returnFunction 退回租约：元素按原优先级重新入队
+     * @param capacity 缓冲容量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @param refillExecutor 异步补充使用的线程池
+     */
+    public PrefetchBuffer(String name,
+                          BiFunction<Integer, Long, List<T>> leaseFunction,
+                          Consumer<T> returnFunction,
+                          int capacity,
+                          long leaseTimeoutMs,
+                          Executor refillExecutor) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("预取缓冲容量必须大于0");
+        }
+        this.name = name;
+        this.leaseFunction = leaseFunction;
+        this.returnFunction = returnFunction;
+        this.capacity = capacity;
+        this.lowWaterMark = Math.max(1, capacity / 2);
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.maxHoldMs = leaseTimeoutMs / 2;
+        this.refillExecutor = refillExecutor;
+    }
+
+    /**
+     * 取出最多max个元素：先从本地缓冲取，不足时同步租约补齐，取完后按水位触发异步补充
+     * @param max 最多获取的元素数量
+     * @return 已租约的元素，处理完成后由调用方确认或退回
+     */
+    public List<T> take(int max) {
+        List<T> result = new ArrayList<>();
+        if (max <= 0) {
+            return result;
+        }
+        expireStale();
+
+        synchronized (buffer) {
+            while (result.size() < max && !buffer.isEmpty()) {
+                result.add(buffer.pollFirst().item);
+            }
+        }
+
+        if (result.size() < max) {
+            int missing = max - result.size();
+            List<T> leased = leaseFunction.apply(missing, leaseTimeoutMs);
+            if (leased != null) {
+                result.addAll(leased);
+            }
+            exhausted = leased == null || leased.size() < missing;
+        }
+
+        if (!exhausted && size() < lowWaterMark) {
+            scheduleRefill();
+        }
+        return result;
+    }
+
+    /**
+     * 退回在缓冲中停留过久的元素，避免租约在本地到期
+     * @return 本次退回的元素数量
+     */
+    public int expireStale() {
+        long deadline = System.currentTimeMillis() - maxHoldMs;
+        List<T> stale = new ArrayList<>();
+        synchronized (buffer) {
+            while (!buffer.isEmpty() && buffer.peekFirst().leasedAt <= deadline) {
+                stale.add(buffer.pollFirst().item);
+            }
+        }
+        if (!stale.isEmpty()) {
+            logger.info("【预取缓冲】退回停留过久的元素，缓冲: {}, 数量: {}", name, stale.size());
+            returnAll(stale);
+        }
+        return stale.size();
+    }
+
+    /**
+     * 关闭缓冲，退回缓冲中的全部元素；关闭后不再异步补充
+     */
+    public void close() {
+        closed = true;
+        List<T> remaining = new ArrayList<>();
+        synchronized (buffer) {
+            while (!buffer.isEmpty()) {
+                remaining.add(buffer.pollFirst().item);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            logger.info("【预取缓冲】关闭并退回未消费的元素，缓冲: {}, 数量: {}", name, remaining.size());
+            returnAll(remaining);
+        }
+    }
+
+    /**
+     * 当前缓冲中的元素数量
+     */
+    public int size() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    private void scheduleRefill() {
+        if (closed || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+            logger.warn("【预取缓冲】异步补充被拒绝，缓冲: {}", name);
+        }
+    }
+
+    private void refill() {
+        try {
+            int missing = capacity - size();
+            if (closed || missing <= 0) {
+                return;
+            }
+            long leasedAt = System.currentTimeMillis();
+            List<T> leased = leaseFunction.apply(missing, leaseTimeoutMs);
+            exhausted = leased == null || leased.size() < missing;
+            if (leased == null || leased.isEmpty()) {
+                return;
+            }
+
+            synchronized (buffer) {
+                if (!closed) {
+                    for (T item : leased) {
+                        buffer.addLast(new Entry<>(item, leasedAt));
+                    }
+                    leased = null;
+                }
+            }
+            // 补充期间缓冲被关闭，取回的元素直接退回
+            if (leased != null) {
+                returnAll(leased);
+            }
+        } catch (Exception e) {
+            logger.error("【预取缓冲】异步补充失败，缓冲: {}", name, e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private void returnAll(List<T> items) {
+        for (T item : items) {
+            try {
+                returnFunction.accept(item);
+            } catch (Exception e) {
+                // 退回失败时租约到期后由回收兜底重新入队
+                logger.error("【预取缓冲】退回元素失败，缓冲: {}", name, e);
+            }
+        }
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final long leasedAt;
+
+        Entry(T item, long leasedAt) {
+            this.item = item;
+            this.leasedAt = leasedAt;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 队列元素负载存储
+ * <p>
+ * 编解码器使用负载时，队列中只存放成员(元素ID)，负载存放在 queueKey + ":payload" 哈希中：
+ * 入队脚本用 HSETNX 写入负载，写入成功才把成员加入队列，负载存在即表示元素在队列中或处理中，
+ * 同一ID重复入队被忽略；直接出队和确认后删除负载，退回和回收保留负载。
+ * <p>
+ * 负载以原始字节读写，不经过 RedisTemplate 的JSON序列化；成员仍使用 RedisTemplate 的值序列化器，与队列中的成员一致。
+ */
+class QueuePayloadStore<T> {
+    private static final Logger logger = LoggerFactory.getLogger(QueuePayloadStore.class);
+
+    // Lua脚本，取出负载：HMGET 后删除，返回与成员一一对应的负载(不存在为空串)
+    private static final String TAKE_SCRIPT =
+            "local payloads = redis.call('HMGET', KEYS[1], unpack(ARGV)) " +
+            "redis.call('HDEL', KEYS[1], unpack(ARGV)) " +
+            "for i = 1, #ARGV do " +
+            "    payloads[i] = payloads[i] or '' " +
+            "end " +
+            "return payloads";
+
+    // Lua脚本，读取负载：只读，返回与成员一一对应的负载(不存在为空串)
+    private static final String LOAD_SCRIPT =
+            "local payloads = redis.call('HMGET', KEYS[1], unpack(ARGV)) " +
+            "for i = 1, #ARGV do " +
+            "    payloads[i] = payloads[i] or '' " +
+            "end " +
+            "return payloads";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final QueueCodec<T> codec;
+    private final String payloadKey;
+    private final RedisSerializer<Object> rawSerializer;
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> takeScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> loadScript;
+
+    QueuePayloadStore(RedisTemplate<String, Object> redisTemplate, QueueCodec<T> codec, String queueKey) {
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+        this.payloadKey = queueKey + ":payload";
+        this.rawSerializer = new RawArgsSerializer(redisTemplate.getValueSerializer());
+        this.takeScript = new DefaultRedisScript<>(TAKE_SCRIPT, List.class);
+        this.loadScript = new DefaultRedisScript<>(LOAD_SCRIPT, List.class);
+    }
+
+    String getPayloadKey() {
+        return payloadKey;
+    }
+
+    boolean isIndexed() {
+        return codec.hasPayload();
+    }
+
+    String memberOf(T item) {
+        return codec.memberOf(item);
+    }
+
+    /**
+     * 入队脚本的元素参数：使用负载时为 成员,负载 交替排列，否则只有成员
+     */
+    void appendEnqueueArgs(List<Object> args, T item) {
+        args.add(codec.memberOf(item));
+        if (codec.hasPayload()) {
+            byte[] payload = codec.encode(item);
+            args.add(payload != null ? payload : new byte[0]);
+        }
+    }
+
+    /**
+     * 执行参数中含负载字节的脚本，byte[] 参数原样传递，其余参数使用值序列化器
+     */
+    @SuppressWarnings("unchecked")
+    <R> R execute(DefaultRedisScript<R> script, List<String> keys, Object... args) {
+        return redisTemplate.execute(script, rawSerializer, (RedisSerializer<R>) rawSerializer, keys, args);
+    }
+
+    /**
+     * 直接出队后还原元素并删除负载
+     * @param members 已从队列移除的成员
+     */
+    List<T> take(List<Object> members) {
+        List<T> items = decodeAll(members, true);
+        items.removeIf(item -> item == null);
+        return items;
+    }
+
+    /**
+     * 还原仍在队列中或处理中的元素，不删除负载
+     * @param members 成员
+     */
+    List<T> load(Collection<Object> members) {
+        List<T> items = decodeAll(members, false);
+        items.removeIf(item -> item == null);
+        return items;
+    }
+
+    /**
+     * 还原单个仍在队列中的元素，不删除负载
+     * @return 元素，无法反序列化时返回null
+     */
+    T loadOne(Object member) {
+        List<T> items = load(Collections.singletonList(member));
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 按分数范围分页查询：一次 ZRANGEBYSCORE WITHSCORES LIMIT 取出成员和分数，再一次 HMGET 取出负载
+     * @param zsetKey 查询的ZSET
+     * @param minScore 最小分数(包含)
+     * @param maxScore 最大分数(包含)
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页最多元素数
+     */
+    ScoredPage<T> page(String zsetKey, double minScore, double maxScore, String cursor, int limit) {
+        return page(minScore, cursor, limit, (startScore, offset, count, members, scores) -> {
+            Set<ZSetOperations.TypedTuple<Object>> tuples =
+                    redisTemplate.opsForZSet().rangeByScoreWithScores(zsetKey, startScore, maxScore, offset, count);
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                    members.add(tuple.getValue());
+                    scores.add(tuple.getScore());
+                }
+            }
+        });
+    }
+
+    /**
+     * 按分数范围分页查询，成员和分数由 range 读取，适用于元素分散在多个ZSET中的情况(如公平模式)
+     * @param minScore 最小分数(包含)
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页最多元素数
+     * @param range 按分数顺序读取成员和分数，同分数的元素顺序须在各页之间保持一致
+     */
+    ScoredPage<T> page(double minScore, String cursor, int limit, ScoredRange range) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("每页数量必须大于0");
+        }
+        double startScore = minScore;
+        long offset = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            startScore = Math.max(minScore, ScoredPage.cursorScore(cursor));
+            offset = startScore == ScoredPage.cursorScore(cursor) ? ScoredPage.cursorOffset(cursor) : 0;
+        }
+
+        // 多取一个用于判断是否还有下一页
+        List<Object> fetched = new ArrayList<>();
+        List<Double> fetchedScores = new ArrayList<>();
+        range.fetch(startScore, offset, limit + 1, fetched, fetchedScores);
+        boolean hasMore = fetched.size() > limit;
+        List<Object> members = hasMore ? fetched.subList(0, limit) : fetched;
+        List<Double> scores = hasMore ? fetchedScores.subList(0, limit) : fetchedScores;
+
+        // 反序列化失败的元素跳过，但仍计入游标，避免下一页重复返回
+        List<T> decoded = decodeAll(members, false);
+        List<T> items = new ArrayList<>(decoded.size());
+        List<Double> itemScores = new ArrayList<>(decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            if (decoded.get(i) != null) {
+                items.add(decoded.get(i));
+                itemScores.add(scores.get(i));
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            double lastScore = scores.get(scores.size() - 1);
+            long sameScore = lastScore == startScore ? offset : 0;
+            for (Double score : scores) {
+                if (score == lastScore) {
+                    sameScore++;
+                }
+            }
+            nextCursor = ScoredPage.cursor(lastScore, sameScore);
+        }
+        return new ScoredPage<>(items, itemScores, nextCursor);
+    }
+
+    /**
+     * 按分数顺序读取成员和分数
+     */
+    interface ScoredRange {
+        /**
+         * @param startScore 起始分数(包含)
+         * @param offset 跳过的元素数
+         * @param count 最多读取的元素数
+         * @param members 读取的成员
+         * @param scores 与成员一一对应的分数
+         */
+        void fetch(double startScore, long offset, int count, List<Object> members, List<Double> scores);
+    }
+
+    /**
+     * 还原元素，结果与成员一一对应，无法反序列化的元素为null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<T> decodeAll(Collection<Object> members, boolean remove) {
+        if (members == null || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> payloads = Collections.emptyList();
+        if (codec.hasPayload()) {
+            payloads = redisTemplate.execute(remove ? takeScript : loadScript, rawSerializer, (RedisSerializer) rawSerializer,
+                    Collections.singletonList(payloadKey), members.toArray());
+        }
+
+        List<T> result = new ArrayList<>(members.size());
+        int index = 0;
+        for (Object memberObj : members) {
+            String member = (String) memberObj;
+            byte[] payload = index < payloads.size() ? (byte[]) payloads.get(index) : null;
+            index++;
+            try {
+                result.add(codec.decode(member, payload != null && payload.length > 0 ? payload : null));
+            } catch (Exception e) {
+                // 已出队的元素无法回滚，记录后跳过，不影响同批其他元素
+                logger.error("反序列化对象失败: {}", member, e);
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 脚本参数序列化器：byte[] 原样传递，其余委托给值序列化器；反序列化返回原始字节
+     */
+    private static class RawArgsSerializer implements RedisSerializer<Object> {
+        private final RedisSerializer<?> valueSerializer;
+
+        RawArgsSerializer(RedisSerializer<?> valueSerializer) {
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public byte[] serialize(Object value) throws SerializationException {
+            if (value instanceof byte[]) {
+                return (byte[]) value;
+            }
+            return ((RedisSerializer<Object>) valueSerializer).serialize(value);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) throws SerializationException {
+            return bytes;
+        }
+    }
+}
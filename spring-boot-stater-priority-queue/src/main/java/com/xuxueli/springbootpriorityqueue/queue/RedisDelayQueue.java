@@ -0,0 +1,334 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于Redis的延迟队列
+ * <p>
+ * 元素按就绪时间(毫秒时间戳)作为分数存放在ZSET中，到期前不可见：
+ * 1. schedule 写入元素、就绪时间和转入目标队列时使用的优先级，同一成员再次写入覆盖就绪时间；
+ * 2. transferReady 在一个Lua脚本内把到期元素原子地移入目标优先级队列或有序队列，由单个定时线程驱动；
+ * 3. pollReady 直接取出到期元素，适合不需要再经过优先级队列的场景(如失败重试的日志ID)。
+ * <p>
+ * 编解码器须与目标队列一致：使用负载时负载随成员一起移入目标队列的负载哈希，目标队列中已有同一ID时忽略。
+ */
+public class RedisDelayQueue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(RedisDelayQueue.class);
+    private static final int MAX_RETRY = 3;
+    private static final long RETRY_DELAY_MS = 50;
+
+    // 单次写入或转移的最大元素数，避免单个脚本执行过久阻塞Redis
+    private static final int BATCH_SIZE = 1000;
+
+    // 转移目标的分数计算方式
+    private static final int SCORE_PRIORITY_SEQUENCE = 0;   // RedisPriorityQueue：优先级 * 2^49 + 入队序号
+    private static final int SCORE_FIFO = 1;                // FIFO模式的RedisSortedQueue：转移时刻的纳秒时间戳递增
+    private static final int SCORE_PRIORITY = 2;            // 非FIFO模式的RedisSortedQueue：优先级加微小增量
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String queueKey;
+    private final String priorityKey;       // 元素转入目标队列时使用的优先级(HASH)
+    private final QueuePayloadStore<T> payloads;
+
+    // Lua脚本，延迟写入：ARGV[1]为就绪时间，ARGV[2]为优先级；
+    // ARGV[3]为1(使用负载)时其后为 成员,负载 交替排列，否则其后均为成员；同一成员再次写入覆盖就绪时间、优先级和负载
+    private static final String SCHEDULE_SCRIPT =
+            "local indexed = ARGV[3] == '1' " +
+            "local n = 0 " +
+            "for i = 4, #ARGV, indexed and 2 or 1 do " +
+            "    redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i]) " +
+            "    redis.call('HSET', KEYS[2], ARGV[i], ARGV[2]) " +
+            "    if indexed then " +
+            "        redis.call('HSET', KEYS[3], ARGV[i], ARGV[i + 1]) " +
+            "    end " +
+            "    n = n + 1 " +
+            "end " +
+            "return n";
+
+    // Lua脚本，转移到期元素：取出就绪时间不晚于ARGV[1]的前ARGV[2]个元素，按ARGV[4]指定的方式计算分数后一次 ZADD 写入目标队列，
+    // ARGV[3]为1(使用负载)时负载 HSETNX 写入目标负载哈希，目标中已有同一ID的元素被忽略；
+    // 分数用 %.17g 格式化，整数分数不丢失精度，小数分数保留增量
+    private static final String TRANSFER_SCRIPT =
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "local indexed = ARGV[3] == '1' " +
+            "local mode = tonumber(ARGV[4]) " +
+            "local args = {} " +
+            "for i = 1, #items do " +
+            "    local member = items[i] " +
+            "    local priority = tonumber(redis.call('HGET', KEYS[2], member) or '0') " +
+            "    local add = true " +
+            "    if indexed then " +
+            "        local payload = redis.call('HGET', KEYS[3], member) " +
+            "        add = payload and redis.call('HSETNX', KEYS[5], member, payload) == 1 " +
+            "    end " +
+            "    if add then " +
+            "        local n = #args / 2 " +
+            "        local score " +
+            "        if mode == " + SCORE_PRIORITY_SEQUENCE + " then " +
+            "            score = priority * " + (1L << RedisPriorityQueue.SEQUENCE_BITS) + " + redis.call('INCR', KEYS[6]) % " + (1L << RedisPriorityQueue.SEQUENCE_BITS) + " " +
+            "        elseif mode == " + SCORE_FIFO + " then " +
+            "            score = tonumber(ARGV[5]) + n " +
+            "        else " +
+            "            score = priority + n / 1000000000 " +
+            "        end " +
+            "        args[#args + 1] = string.format('%.17g', score) " +
+            "        args[#args + 1] = member " +
+            "    end " +
+            "    redis.call('ZREM', KEYS[1], member) " +
+            "    redis.call('HDEL', KEYS[2], member) " +
+            "    redis.call('HDEL', KEYS[3], member) " +
+            "end " +
+            "if #args > 0 then " +
+            "    redis.call('ZADD', KEYS[4], unpack(args)) " +
+            "end " +
+            "return #args / 2";
+
+    // Lua脚本，取出到期元素：移出ZSET和优先级哈希，负载由 QueuePayloadStore 取出
+    private static final String POLL_SCRIPT =
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "if #items > 0 then " +
+            "    redis.call('ZREM', KEYS[1], unpack(items)) " +
+            "    redis.call('HDEL', KEYS[2], unpack(items)) " +
+            "end " +
+            "return items";
+
+    // Lua脚本，取消延迟元素
+    private static final String REMOVE_SCRIPT =
+            "local removed = redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "return removed";
+
+    private final DefaultRedisScript<Long> scheduleScript;
+    private final DefaultRedisScript<Long> transferScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> pollScript;
+    private final DefaultRedisScript<Long> removeScript;
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     */
+    public RedisDelayQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz) {
+        this(redisTemplate, queueName, QueueCodecs.json(clazz));
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器，须与转移的目标队列一致
+     */
+    public RedisDelayQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec) {
+        this.redisTemplate = redisTemplate;
+        this.queueKey = "delay_queue:" + queueName;
+        this.priorityKey = this.queueKey + ":priority";
+        this.payloads = new QueuePayloadStore<>(redisTemplate, codec, this.queueKey);
+
+        this.scheduleScript = new DefaultRedisScript<>(SCHEDULE_SCRIPT, Long.class);
+        this.transferScript = new DefaultRedisScript<>(TRANSFER_SCRIPT, Long.class);
+        this.pollScript = new DefaultRedisScript<>(POLL_SCRIPT, List.class);
+        this.removeScript = new DefaultRedisScript<>(REMOVE_SCRIPT, Long.class);
+    }
+
+    /**
+     * 延迟写入元素，到达就绪时间后才可被转移或取出
+     * @param item 元素
+     * @param priority 转入目标队列时使用的优先级
+     * @param readyAtMillis 就绪时间(毫秒时间戳)
+     * @return 写入是否成功
+     */
+    public boolean schedule(T item, double priority, long readyAtMillis) {
+        return scheduleAll(Collections.singletonList(item), priority, readyAtMillis) > 0;
+    }
+
+    /**
+     * 批量延迟写入同一优先级、同一就绪时间的元素，每 BATCH_SIZE 个元素一次往返
+     * 同一元素再次写入覆盖原就绪时间，可用于推迟或提前
+     *
+     * @param items 元素
+     * @param priority 转入目标队列时使用的优先级
+     * @param readyAtMillis 就绪时间(毫秒时间戳)
+     * @return 写入的元素数量
+     */
+    public int scheduleAll(Collection<T> items, double priority, long readyAtMillis) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        int scheduled = 0;
+        List<T> batch = new ArrayList<>();
+        for (T item : items) {
+            batch.add(item);
+            if (batch.size() >= BATCH_SIZE) {
+                scheduled += scheduleWithRetry(batch, priority, readyAtMillis);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            scheduled += scheduleWithRetry(batch, priority, readyAtMillis);
+        }
+        logger.debug("【延迟写入】队列: {}, 优先级: {}, 就绪时间: {}, 数量: {}", queueKey, priority, readyAtMillis, scheduled);
+        return scheduled;
+    }
+
+    private int scheduleWithRetry(List<T> batch, double priority, long readyAtMillis) {
+        List<Object> args = new ArrayList<>(batch.size() * 2 + 3);
+        args.add(readyAtMillis);
+        args.add(priority);
+        args.add(payloads.isIndexed() ? 1 : 0);
+        for (T item : batch) {
+            payloads.appendEnqueueArgs(args, item);
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                Long scheduled = payloads.execute(scheduleScript,
+                        Arrays.asList(queueKey, priorityKey, payloads.getPayloadKey()), args.toArray());
+                return scheduled != null ? scheduled.intValue() : 0;
+            } catch (Exception e) {
+                logger.warn("延迟写入失败，等待{}ms后重试, 当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new RedisPriorityQueue.QueueException("延迟写入失败，已达到最大重试次数", e);
+                }
+                sleepBeforeRetry("延迟写入重试被中断");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 把到期元素原子地移入优先级队列，分数与直接入队相同，同优先级内按转移顺序排在已有元素之后
+     * 公平模式下移入主队列(默认子队列)
+     *
+     * @param target 目标优先级队列
+     * @param limit 单次最多转移的元素数量
+     * @return 本次转移的元素数量
+     */
+    public int transferReady(RedisPriorityQueue<T> target, int limit) {
+        checkTarget(target.getPayloads());
+        return transfer(Arrays.asList(queueKey, priorityKey, payloads.getPayloadKey(),
+                        target.getQueueKey(), target.getPayloads().getPayloadKey(), target.getSequenceKey()),
+                limit, SCORE_PRIORITY_SEQUENCE, 0);
+    }
+
+    /**
+     * 把到期元素原子地移入有序队列
+     * FIFO模式下排在队列中已有元素之后；否则以写入时的优先级作为分数
+     *
+     * @param target 目标有序队列
+     * @param limit 单次最多转移的元素数量
+     * @return 本次转移的元素数量
+     */
+    public int transferReady(RedisSortedQueue<T> target, int limit) {
+        checkTarget(target.getPayloads());
+        return transfer(Arrays.asList(queueKey, priorityKey, payloads.getPayloadKey(),
+                        target.getQueueKey(), target.getPayloads().getPayloadKey()),
+                limit, target.isFifoMode() ? SCORE_FIFO : SCORE_PRIORITY, System.nanoTime());
+    }
+
+    private void checkTarget(QueuePayloadStore<T> targetPayloads) {
+        if (targetPayloads.isIndexed() != payloads.isIndexed()) {
+            throw new IllegalArgumentException("延迟队列与目标队列的编解码器不一致: " + queueKey);
+        }
+    }
+
+    private int transfer(List<String> keys, int limit, int scoreMode, long baseScore) {
+        if (limit <= 0) {
+            return 0;
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                Long moved = redisTemplate.execute(transferScript, keys,
+                        System.currentTimeMillis(), Math.min(limit, BATCH_SIZE), payloads.isIndexed() ? 1 : 0, scoreMode, baseScore);
+                int result = moved != null ? moved.intValue() : 0;
+                if (result > 0) {
+                    logger.debug("【延迟转移】队列: {}, 目标: {}, 数量: {}", queueKey, keys.get(3), result);
+                }
+                return result;
+            } catch (Exception e) {
+                logger.warn("转移到期元素失败，等待{}ms后重试, 当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new RedisPriorityQueue.QueueException("转移到期元素失败，已达到最大重试次数", e);
+                }
+                sleepBeforeRetry("转移到期元素重试被中断");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 取出到期元素，按就绪时间先后排列
+     * @param limit 单次最多取出的元素数量
+     * @return 到期元素，没有到期元素时返回空列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> pollReady(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        try {
+            List<Object> members = redisTemplate.execute(pollScript, Arrays.asList(queueKey, priorityKey),
+                    System.currentTimeMillis(), Math.min(limit, BATCH_SIZE));
+            return payloads.take(members);
+        } catch (Exception e) {
+            logger.error("取出到期元素时出错", e);
+            throw new RedisPriorityQueue.QueueException("取出到期元素失败", e);
+        }
+    }
+
+    /**
+     * 取消尚未到期的元素
+     * @param item 元素
+     * @return 元素仍在延迟队列中并被移除返回true
+     */
+    public boolean remove(T item) {
+        try {
+            Long removed = redisTemplate.execute(removeScript,
+                    Arrays.asList(queueKey, priorityKey, payloads.getPayloadKey()), payloads.memberOf(item));
+            return removed != null && removed > 0;
+        } catch (Exception e) {
+            logger.error("取消延迟元素时出错", e);
+            throw new RedisPriorityQueue.QueueException("取消延迟元素失败", e);
+        }
+    }
+
+    /**
+     * 获取延迟中(含已到期未转移)的元素数量
+     */
+    public long size() {
+        Long size = redisTemplate.opsForZSet().size(queueKey);
+        return size != null ? size : 0;
+    }
+
+    /**
+     * 清空延迟队列
+     * @return 操作是否成功
+     */
+    public boolean clear() {
+        Long deleted = redisTemplate.delete(Arrays.asList(queueKey, priorityKey, payloads.getPayloadKey()));
+        return deleted != null && deleted > 0;
+    }
+
+    private static void sleepBeforeRetry(String interruptedMessage) {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RedisPriorityQueue.QueueException(interruptedMessage, ie);
+        }
+    }
+}
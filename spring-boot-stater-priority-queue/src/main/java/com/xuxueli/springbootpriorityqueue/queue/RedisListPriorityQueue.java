@@ -0,0 +1,466 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue.QueueException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于Redis LIST的分布式优先级队列实现
+ * 每个优先级一个LIST：LPUSH 入队，从右端出队，同优先级先进先出；
+ * 出队按优先级1到10依次检查各LIST，入队和出队均为O(1)，无需ZSET的分数和跳表开销。
+ *
+ * 不支持公平模式，fairKey参数被忽略；阻塞出队使用多key的 BRPOP，Redis按key顺序检查，即按优先级顺序。
+ * 使用二进制编解码器时LIST中只存放元素ID，负载存放在负载哈希中，同一ID重复入队被忽略。
+ */
+public class RedisListPriorityQueue<T> implements DistributedPriorityQueue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(RedisListPriorityQueue.class);
+    private static final int MAX_RETRY = 3;
+    private static final long RETRY_DELAY_MS = 50;
+    private static final int MIN_PRIORITY = 1;
+    private static final int MAX_PRIORITY = 10;
+
+    // 批量入队时单次 LPUSH 的最大元素数，避免单条命令过大阻塞Redis
+    private static final int ENQUEUE_BATCH_SIZE = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String queueKey;
+    private final List<String> listKeys;        // 下标0对应优先级1
+    private final String processingKey;         // 处理中(已租约)元素，score 为租约到期时间
+    private final String leasePriorityKey;      // 处理中元素的原始优先级，重新入队时放回对应LIST
+    private final QueuePayloadStore<T> payloads;
+
+    // Lua脚本，批量入队：KEYS[1] 为目标LIST，KEYS[2] 为负载哈希
+    // ARGV[1]为1(使用负载)时其后为 成员,负载 交替排列，HSETNX 写入负载成功的成员才入队，否则其后均为成员
+    private static final String ENQUEUE_SCRIPT =
+            "local indexed = ARGV[1] == '1' " +
+            "local members = {} " +
+            "for i = 2, #ARGV, indexed and 2 or 1 do " +
+            "    if not indexed or redis.call('HSETNX', KEYS[2], ARGV[i], ARGV[i + 1]) == 1 then " +
+            "        members[#members + 1] = ARGV[i] " +
+            "    end " +
+            "end " +
+            "if #members > 0 then " +
+            "    redis.call('LPUSH', KEYS[1], unpack(members)) " +
+            "end " +
+            "return #members";
+
+    private final DefaultRedisScript<Long> enqueueScript;
+
+    // 以下脚本的 KEYS[1..10] 为优先级1-10的LIST，KEYS[11] 为处理中集合，KEYS[12] 为原始优先级，KEYS[13] 为负载哈希
+
+    // Lua脚本，批量出队：按优先级顺序从各LIST右端取出共N个元素
+    // ARGV[2] 大于0时为租约出队，取出的元素移入处理中集合并记录原始优先级
+    private static final String POLL_SCRIPT =
+            "local count = tonumber(ARGV[1]) " +
+            "local deadline = tonumber(ARGV[2]) " +
+            "local result = {} " +
+            "for p = 1, 10 do " +
+            "    if #result >= count then " +
+            "        break " +
+            "    end " +
+            "    local items = redis.call('LRANGE', KEYS[p], -(count - #result), -1) " +
+            "    if #items > 0 then " +
+            "        redis.call('LTRIM', KEYS[p], 0, -#items - 1) " +
+            "        for i = #items, 1, -1 do " +
+            "            if deadline > 0 then " +
+            "                redis.call('ZADD', KEYS[11], deadline, items[i]) " +
+            "                redis.call('HSET', KEYS[12], items[i], p) " +
+            "            end " +
+            "            result[#result + 1] = items[i] " +
+            "        end " +
+            "    end " +
+            "end " +
+            "return result";
+
+    // Lua脚本，确认：从处理中集合移除，并删除负载
+    private static final String ACK_SCRIPT =
+            "local removed = redis.call('ZREM', KEYS[11], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[12], ARGV[1]) " +
+            "if removed == 1 then " +
+            "    redis.call('HDEL', KEYS[13], ARGV[1]) " +
+            "end " +
+            "return removed";
+
+    // Lua函数，元素放回原优先级LIST的右端，下一次最先出队
+    private static final String RESTORE_FUNCTION =
+            "local function restore(item) " +
+            "    local p = tonumber(redis.call('HGET', KEYS[12], item)) or 10 " +
+            "    redis.call('HDEL', KEYS[12], item) " +
+            "    redis.call('RPUSH', KEYS[p], item) " +
+            "end ";
+
+    // Lua脚本，退回：从处理中集合移除，放回原优先级
+    private static final String NACK_SCRIPT =
+            RESTORE_FUNCTION +
+            "if redis.call('ZREM', KEYS[11], ARGV[1]) == 0 then " +
+            "    return 0 " +
+            "end " +
+            "restore(ARGV[1]) " +
+            "return 1";
+
+    // Lua脚本，回收：租约到期的元素放回原优先级
+    private static final String REQUEUE_EXPIRED_SCRIPT =
+            RESTORE_FUNCTION +
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[11], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "for i = 1, #items do " +
+            "    redis.call('ZREM', KEYS[11], items[i]) " +
+            "    restore(items[i]) " +
+            "end " +
+            "return #items";
+
+    // Lua脚本，查看：第一个非空LIST的右端元素
+    private static final String PEEK_SCRIPT =
+            "for p = 1, 10 do " +
+            "    local item = redis.call('LINDEX', KEYS[p], -1) " +
+            "    if item then " +
+            "        return item " +
+            "    end " +
+            "end " +
+            "return nil";
+
+    // Lua脚本，队列长度：各优先级LIST长度之和
+    private static final String SIZE_SCRIPT =
+            "local total = 0 " +
+            "for p = 1, 10 do " +
+            "    total = total + redis.call('LLEN', KEYS[p]) " +
+            "end " +
+            "return total";
+
+    // Lua脚本，各优先级长度
+    private static final String DEPTH_SCRIPT =
+            "local result = {} " +
+            "for p = 1, 10 do " +
+            "    result[p] = redis.call('LLEN', KEYS[p]) " +
+            "end " +
+            "return result";
+
+    // Lua脚本，按优先级范围查询：ARGV[1]-ARGV[2] 为优先级范围，最多返回ARGV[3]个元素
+    private static final String RANGE_SCRIPT =
+            "local limit = tonumber(ARGV[3]) " +
+            "local result = {} " +
+            "for p = tonumber(ARGV[1]), tonumber(ARGV[2]) do " +
+            "    if #result >= limit then " +
+            "        break " +
+            "    end " +
+            "    local items = redis.call('LRANGE', KEYS[p], -(limit - #result), -1) " +
+            "    for i = #items, 1, -1 do " +
+            "        result[#result + 1] = items[i] " +
+            "    end " +
+            "end " +
+            "return result";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> pollScript;
+    private final DefaultRedisScript<Long> ackScript;
+    private final DefaultRedisScript<Long> nackScript;
+    private final DefaultRedisScript<Long> requeueExpiredScript;
+    private final DefaultRedisScript<String> peekScript;
+    private final DefaultRedisScript<Long> sizeScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> depthScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> rangeScript;
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     */
+    public RedisListPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz) {
+        this(redisTemplate, queueName, QueueCodecs.json(clazz));
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器，决定队列成员和负载的格式
+     */
+    public RedisListPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec) {
+        this.redisTemplate = redisTemplate;
+        this.queueKey = "priority_list:" + queueName;
+        List<String> keys = new ArrayList<>();
+        for (int priority = MIN_PRIORITY; priority <= MAX_PRIORITY; priority++) {
+            keys.add(this.queueKey + ":p" + priority);
+        }
+        this.listKeys = Collections.unmodifiableList(keys);
+        this.processingKey = this.queueKey + ":processing";
+        this.leasePriorityKey = this.queueKey + ":lease_priority";
+        this.payloads = new QueuePayloadStore<>(redisTemplate, codec, this.queueKey);
+
+        this.enqueueScript = new DefaultRedisScript<>(ENQUEUE_SCRIPT, Long.class);
+        this.pollScript = new DefaultRedisScript<>(POLL_SCRIPT, List.class);
+        this.ackScript = new DefaultRedisScript<>(ACK_SCRIPT, Long.class);
+        this.nackScript = new DefaultRedisScript<>(NACK_SCRIPT, Long.class);
+        this.requeueExpiredScript = new DefaultRedisScript<>(REQUEUE_EXPIRED_SCRIPT, Long.class);
+        this.peekScript = new DefaultRedisScript<>(PEEK_SCRIPT, String.class);
+        this.sizeScript = new DefaultRedisScript<>(SIZE_SCRIPT, Long.class);
+        this.depthScript = new DefaultRedisScript<>(DEPTH_SCRIPT, List.class);
+        this.rangeScript = new DefaultRedisScript<>(RANGE_SCRIPT, List.class);
+
+        QueueMetrics.getInstance().registerDepth(queueKey, this);
+    }
+
+    /**
+     * 脚本使用的key：优先级1-10的LIST、处理中集合、原始优先级、负载哈希
+     */
+    private List<String> scriptKeys() {
+        List<String> keys = new ArrayList<>(listKeys);
+        keys.add(processingKey);
+        keys.add(leasePriorityKey);
+        keys.add(payloads.getPayloadKey());
+        return keys;
+    }
+
+    private static void checkPriority(int priority) {
+        if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("优先级必须在1-10之间");
+        }
+    }
+
+    public boolean enqueue(T item, int priority) {
+        return enqueueAll(Collections.singletonList(item), priority) > 0;
+    }
+
+    public boolean enqueue(T item, int priority, String fairKey) {
+        return enqueue(item, priority);
+    }
+
+    public int enqueueAll(Collection<T> items, int priority, String fairKey) {
+        return enqueueAll(items, priority);
+    }
+
+    /**
+     * 批量添加同一优先级的元素，每 ENQUEUE_BATCH_SIZE 个元素一次多成员 LPUSH
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @return 成功添加的元素数量
+     */
+    public int enqueueAll(Collection<T> items, int priority) {
+        checkPriority(priority);
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        String listKey = listKeys.get(priority - MIN_PRIORITY);
+        int added = 0;
+        List<T> batch = new ArrayList<>();
+        for (T item : items) {
+            batch.add(item);
+            if (batch.size() >= ENQUEUE_BATCH_SIZE) {
+                added += pushWithRetry(listKey, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            added += pushWithRetry(listKey, batch);
+        }
+
+        logger.debug("【压栈成功】队列: {}, 优先级: {}, 数量: {}", queueKey, priority, added);
+        QueueMetrics.getInstance().recordEnqueue(queueKey, priority, added);
+        return added;
+    }
+
+    /**
+     * 一次 LPUSH 写入一批元素，失败按固定间隔重试
+     * 与ZSET不同，LIST重复写入会产生重复元素(使用负载时被忽略)，只在命令未送达(连接异常)时重试
+     */
+    private int pushWithRetry(String listKey, List<T> batch) {
+        List<Object> args = new ArrayList<>(batch.size() * 2 + 1);
+        args.add(payloads.isIndexed() ? 1 : 0);
+        for (T item : batch) {
+            payloads.appendEnqueueArgs(args, item);
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                long start = System.nanoTime();
+                Long added = payloads.execute(enqueueScript, Arrays.asList(listKey, payloads.getPayloadKey()), args.toArray());
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "enqueue", start);
+                return added != null ? added.intValue() : 0;
+            } catch (Exception e) {
+                logger.warn("添加任务失败，等待{}ms后重试, 当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new QueueException("添加任务失败，已达到最大重试次数", e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new QueueException("添加任务重试被中断", ie);
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    public T dequeue() {
+        List<T> items = dequeue(1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 阻塞获取并移除优先级最高的元素：多key BRPOP，队列为空时最多等待timeoutMs毫秒(按秒向上取整)
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 优先级最高的元素，超时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T dequeue(long timeoutMs) {
+        int timeoutSeconds = (int) Math.max(1, (timeoutMs + 999) / 1000);
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        byte[][] rawKeys = new byte[listKeys.size()][];
+        for (int i = 0; i < listKeys.size(); i++) {
+            rawKeys[i] = keySerializer.serialize(listKeys.get(i));
+        }
+
+        List<byte[]> popped = redisTemplate.execute((RedisCallback<List<byte[]>>) (RedisConnection connection) ->
+                connection.listCommands().bRPop(timeoutSeconds, rawKeys));
+        if (popped == null || popped.size() < 2) {
+            return null;
+        }
+        Object member = redisTemplate.getValueSerializer().deserialize(popped.get(1));
+        List<T> items = payloads.take(Collections.singletonList(member));
+        QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    public List<T> dequeue(int count) {
+        return poll(count, 0);
+    }
+
+    public List<T> lease(int count, long leaseTimeoutMs) {
+        return poll(count, System.currentTimeMillis() + leaseTimeoutMs);
+    }
+
+    /**
+     * 按优先级顺序取出最多count个元素
+     * @param deadline 租约到期时间，0表示直接出队不租约
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> poll(int count, long deadline) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                long start = System.nanoTime();
+                List<Object> itemJsonList = redisTemplate.execute(pollScript, scriptKeys(), count, deadline);
+                // 租约出队的负载保留到确认，直接出队的负载随之删除
+                List<T> items = deadline > 0 ? payloads.load(itemJsonList) : payloads.take(itemJsonList);
+                QueueMetrics.getInstance().recordRedisCall(queueKey, deadline > 0 ? "lease" : "dequeue", start);
+                QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+                return items;
+            } catch (RedisSystemException e) {
+                logger.warn("执行出队Lua脚本时出错，等待{}ms后重试，当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new QueueException("获取任务失败，已达到最大重试次数", e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new QueueException("获取任务重试被中断", ie);
+                }
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    public boolean ack(T item) {
+        return executeItemScript(ackScript, item, "ack", "确认任务");
+    }
+
+    public boolean nack(T item) {
+        return executeItemScript(nackScript, item, "nack", "退回任务");
+    }
+
+    private boolean executeItemScript(DefaultRedisScript<Long> script, T item, String operation, String action) {
+        try {
+            long start = System.nanoTime();
+            Long result = redisTemplate.execute(script, scriptKeys(), payloads.memberOf(item));
+            QueueMetrics.getInstance().recordRedisCall(queueKey, operation, start);
+            return result != null && result > 0;
+        } catch (Exception e) {
+            logger.error("{}时出错", action, e);
+            throw new QueueException(action + "失败", e);
+        }
+    }
+
+    public long requeueExpired(int limit) {
+        try {
+            Long result = redisTemplate.execute(requeueExpiredScript, scriptKeys(), System.currentTimeMillis(), limit);
+            long requeued = result != null ? result : 0;
+            if (requeued > 0) {
+                logger.warn("回收租约到期的任务，队列: {}, 数量: {}", queueKey, requeued);
+            }
+            return requeued;
+        } catch (Exception e) {
+            logger.error("回收租约到期的任务时出错", e);
+            throw new QueueException("回收租约到期的任务失败", e);
+        }
+    }
+
+    public long leasedSize() {
+        Long size = redisTemplate.opsForZSet().size(processingKey);
+        return size != null ? size : 0;
+    }
+
+    public T peek() {
+        String itemJson = redisTemplate.execute(peekScript, scriptKeys());
+        return itemJson != null ? payloads.loadOne(itemJson) : null;
+    }
+
+    public long size() {
+        Long size = redisTemplate.execute(sizeScript, scriptKeys());
+        return size != null ? size : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public long[] sizeByPriority() {
+        List<Object> counts = redisTemplate.execute(depthScript, listKeys);
+        return RedisPriorityQueue.toDepths(counts);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean clear() {
+        logger.info("【清空队列】准备清空队列: {}", queueKey);
+        Long result = redisTemplate.delete(scriptKeys());
+        return result != null && result > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<T> getItemsByPriorityRange(int minPriority, int maxPriority) {
+        if (minPriority > maxPriority) {
+            throw new IllegalArgumentException("最小优先级不能大于最大优先级");
+        }
+        checkPriority(minPriority);
+        checkPriority(maxPriority);
+
+        List<Object> itemJsonList = redisTemplate.execute(rangeScript, scriptKeys(), minPriority, maxPriority, 1000);
+        return new HashSet<>(payloads.load(itemJsonList));
+    }
+}
@@ -1,48 +1,327 @@
 package com.xuxueli.springbootpriorityqueue.queue;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.RedisSystemException;
-import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 基于Redis的分布式优先级队列实现
  * 支持1-10的优先级，数字越小优先级越高
+ *
+ * 分数为整数：优先级 * 2^49 + 入队序号，不超过 2^53，double 可以精确表示。
+ * 入队序号由Redis计数器在入队脚本内分配，多个调度中心共享同一序列，同优先级内严格按入队顺序出队。
+ *
+ * 队列成员由编解码器决定：默认为元素完整JSON；使用二进制编解码器时成员为元素ID，负载存放在负载哈希中，同一ID重复入队被忽略。
  */
-public class RedisPriorityQueue<T> {
+public class RedisPriorityQueue<T> implements DistributedPriorityQueue<T> {
     private static final Logger logger = LoggerFactory.getLogger(RedisPriorityQueue.class);
     private static final int MAX_RETRY = 3;
     private static final long RETRY_DELAY_MS = 50;
-    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    // 分数中入队序号占低49位，优先级占其上的高位
+    static final int SEQUENCE_BITS = 49;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
     
     private final RedisTemplate<String, Object> redisTemplate;
     private final String queueKey;
-    private final ObjectMapper objectMapper;
-    private final Class<T> clazz;
-    
-    // Lua脚本，用于原子地执行dequeue操作
-    private static final String DEQUEUE_SCRIPT = 
-            "local items = redis.call('ZRANGE', KEYS[1], 0, 0) " +
-            "if #items > 0 then " +
-            "    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, 0) " +
-            "    return items[1] " +
-            "else " +
-            "    return nil " +
-            "end";
+    private final String sequenceKey;       // 入队序号计数器
+    private final String processingKey;     // 处理中(已租约)元素，score 为租约到期时间
+    private final String leaseScoreKey;     // 处理中元素的原始分数，重新入队时恢复
+    private final QueuePayloadStore<T> payloads;
+
+    // 公平模式：每个公平键(如父任务ID)一个子队列(ZSET)，按优先级加权的赤字轮询(DRR)出队
+    // 未指定公平键的元素和主队列中的存量元素作为默认子队列，子队列即 queueKey 本身
+    private final boolean fairMode;
+    private final String flowKeyPrefix;     // 子队列key前缀
+    private final String activeFlowKey;     // 非空子队列的轮询顺序(LIST)，元素为子队列key
+    private final String activeFlowSetKey;  // 非空子队列集合(SET)，用于去重
+    private final String deficitKey;        // 子队列剩余配额(HASH)
+    private final String leaseFlowKey;      // 处理中元素所属子队列(HASH)，退回时放回原子队列
     
-    private final DefaultRedisScript<String> dequeueScript;
+    // 批量入队时单次 ZADD 的最大元素数，避免单条命令过大阻塞Redis
+    private static final int ENQUEUE_BATCH_SIZE = 1000;
+
+    // Lua脚本，批量入队：从计数器分配连续的入队序号，按"优先级 * 2^49 + 序号"计算分数后一次多成员 ZADD
+    // ARGV[1]为1(公平模式)时子队列首次变为非空后追加到轮询尾部；ARGV[2]为优先级；
+    // ARGV[3]为1(使用负载)时其后为 成员,负载 交替排列，HSETNX 写入负载成功的成员才入队，否则其后均为成员
+    // 分数用 %.0f 格式化，避免Lua数字默认14位有效数字的字符串转换丢失精度
+    private static final String ENQUEUE_SCRIPT =
+            "local indexed = ARGV[3] == '1' " +
+            "local members = {} " +
+            "for i = 4, #ARGV, indexed and 2 or 1 do " +
+            "    if not indexed or redis.call('HSETNX', KEYS[5], ARGV[i], ARGV[i + 1]) == 1 then " +
+            "        members[#members + 1] = ARGV[i] " +
+            "    end " +
+            "end " +
+            "local n = #members " +
+            "if n == 0 then " +
+            "    return 0 " +
+            "end " +
+            "local first = redis.call('INCRBY', KEYS[4], n) - n + 1 " +
+            "local base = tonumber(ARGV[2]) * " + (1L << SEQUENCE_BITS) + " " +
+            "local args = {} " +
+            "for i = 1, n do " +
+            "    local sequence = (first + i - 1) % " + (1L << SEQUENCE_BITS) + " " +
+            "    args[#args + 1] = string.format('%.0f', base + sequence) " +
+            "    args[#args + 1] = members[i] " +
+            "end " +
+            "redis.call('ZADD', KEYS[1], unpack(args)) " +
+            "if ARGV[1] == '1' and redis.call('SADD', KEYS[3], KEYS[1]) == 1 then " +
+            "    redis.call('RPUSH', KEYS[2], KEYS[1]) " +
+            "end " +
+            "return n";
+
+    private final DefaultRedisScript<Long> enqueueScript;
+
+    // Lua脚本，租约出队：取出分数最小的前N个元素移入处理中集合(score为租约到期时间)，并记录原始分数
+    private static final String LEASE_SCRIPT =
+            "local items = redis.call('ZRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1, 'WITHSCORES') " +
+            "local result = {} " +
+            "for i = 1, #items, 2 do " +
+            "    redis.call('ZADD', KEYS[2], ARGV[2], items[i]) " +
+            "    redis.call('HSET', KEYS[3], items[i], items[i + 1]) " +
+            "    result[#result + 1] = items[i] " +
+            "end " +
+            "if #result > 0 then " +
+            "    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, #result - 1) " +
+            "end " +
+            "return result";
+
+    // Lua脚本，确认：从处理中集合移除，并删除负载
+    private static final String ACK_SCRIPT =
+            "local removed = redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "if removed == 1 then " +
+            "    redis.call('HDEL', KEYS[4], ARGV[1]) " +
+            "end " +
+            "return removed";
+
+    // Lua函数，元素放回原子队列：公平模式租出的元素放回所属子队列并登记为活跃，其余放回主队列
+    private static final String RESTORE_FUNCTION =
+            "local function restore(item, score) " +
+            "    local flowKey = redis.call('HGET', KEYS[4], item) " +
+            "    if flowKey then " +
+            "        redis.call('HDEL', KEYS[4], item) " +
+            "        redis.call('ZADD', flowKey, score or 0, item) " +
+            "        if redis.call('SADD', KEYS[6], flowKey) == 1 then " +
+            "            redis.call('RPUSH', KEYS[5], flowKey) " +
+            "        end " +
+            "    else " +
+            "        redis.call('ZADD', KEYS[1], score or 0, item) " +
+            "    end " +
+            "end ";
+
+    // Lua脚本，退回：从处理中集合移除，按原始分数重新入队
+    private static final String NACK_SCRIPT =
+            RESTORE_FUNCTION +
+            "if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then " +
+            "    return 0 " +
+            "end " +
+            "local score = redis.call('HGET', KEYS[3], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "restore(ARGV[1], score) " +
+            "return 1";
+
+    // Lua脚本，回收：租约到期的元素按原始分数重新入队
+    private static final String REQUEUE_EXPIRED_SCRIPT =
+            RESTORE_FUNCTION +
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "for i = 1, #items do " +
+            "    local score = redis.call('HGET', KEYS[3], items[i]) " +
+            "    redis.call('ZREM', KEYS[2], items[i]) " +
+            "    redis.call('HDEL', KEYS[3], items[i]) " +
+            "    restore(items[i], score) " +
+            "end " +
+            "return #items";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> leaseScript;
+    private final DefaultRedisScript<Long> ackScript;
+    private final DefaultRedisScript<Long> nackScript;
+    private final DefaultRedisScript<Long> requeueExpiredScript;
+
+    // Lua脚本，公平模式出队(赤字轮询)：
+    // 轮到的子队列配额不足1时按队首元素优先级补充配额(优先级1补10，优先级10补1)，
+    // 每取出一个元素消耗1配额；配额用尽移到轮询尾部，子队列取空则移出轮询。
+    // ARGV[2] 大于0时为租约出队，取出的元素移入处理中集合并记录原始分数和所属子队列
+    private static final String FAIR_POLL_SCRIPT =
+            "local count = tonumber(ARGV[1]) " +
+            "local deadline = tonumber(ARGV[2]) " +
+            "local result = {} " +
+            "if redis.call('ZCARD', KEYS[1]) > 0 and redis.call('SADD', KEYS[3], KEYS[1]) == 1 then " +
+            "    redis.call('RPUSH', KEYS[2], KEYS[1]) " +
+            "end " +
+            "local function retire(flowKey) " +
+            "    redis.call('LPOP', KEYS[2]) " +
+            "    redis.call('SREM', KEYS[3], flowKey) " +
+            "    redis.call('HDEL', KEYS[4], flowKey) " +
+            "end " +
+            "while #result < count do " +
+            "    local flowKey = redis.call('LINDEX', KEYS[2], 0) " +
+            "    if not flowKey then " +
+            "        break " +
+            "    end " +
+            "    local head = redis.call('ZRANGE', flowKey, 0, 0, 'WITHSCORES') " +
+            "    if #head == 0 then " +
+            "        retire(flowKey) " +
+            "    else " +
+            "        local deficit = tonumber(redis.call('HGET', KEYS[4], flowKey) or '0') " +
+            "        if deficit < 1 then " +
+            "            local priority = math.max(1, math.floor(tonumber(head[2]) / " + (1L << SEQUENCE_BITS) + ")) " +
+            "            deficit = deficit + math.max(1, 11 - priority) " +
+            "        end " +
+            "        local take = math.min(math.floor(deficit), count - #result) " +
+            "        local items = redis.call('ZRANGE', flowKey, 0, take - 1, 'WITHSCORES') " +
+            "        local taken = #items / 2 " +
+            "        redis.call('ZREMRANGEBYRANK', flowKey, 0, taken - 1) " +
+            "        for i = 1, #items, 2 do " +
+            "            if deadline > 0 then " +
+            "                redis.call('ZADD', KEYS[5], deadline, items[i]) " +
+            "                redis.call('HSET', KEYS[6], items[i], items[i + 1]) " +
+            "                redis.call('HSET', KEYS[7], items[i], flowKey) " +
+            "            end " +
+            "            result[#result + 1] = items[i] " +
+            "        end " +
+            "        deficit = deficit - taken " +
+            "        if redis.call('ZCARD', flowKey) == 0 then " +
+            "            retire(flowKey) " +
+            "        elseif deficit < 1 then " +
+            "            redis.call('HSET', KEYS[4], flowKey, deficit) " +
+            "            redis.call('RPUSH', KEYS[2], redis.call('LPOP', KEYS[2])) " +
+            "        else " +
+            "            redis.call('HSET', KEYS[4], flowKey, deficit) " +
+            "        end " +
+            "    end " +
+            "end " +
+            "return result";
+
+    // Lua脚本，公平模式队列长度：主队列与所有活跃子队列的元素数之和
+    private static final String FAIR_SIZE_SCRIPT =
+            "local total = redis.call('ZCARD', KEYS[1]) " +
+            "local flows = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "for i = 1, #flows do " +
+            "    if flows[i] ~= KEYS[1] then " +
+            "        total = total + redis.call('ZCARD', flows[i]) " +
+            "    end " +
+            "end " +
+            "return total";
+
+    // Lua脚本，各优先级长度：按分数区间 ZCOUNT，ARGV[1]为1(公平模式)时累加所有活跃子队列
+    private static final String DEPTH_SCRIPT =
+            "local flows = {KEYS[1]} " +
+            "if ARGV[1] == '1' then " +
+            "    local active = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "    for i = 1, #active do " +
+            "        if active[i] ~= KEYS[1] then " +
+            "            flows[#flows + 1] = active[i] " +
+            "        end " +
+            "    end " +
+            "end " +
+            "local result = {} " +
+            "for p = 1, 10 do " +
+            "    local min = string.format('%.0f', p * " + (1L << SEQUENCE_BITS) + ") " +
+            "    local max = '(' .. string.format('%.0f', (p + 1) * " + (1L << SEQUENCE_BITS) + ") " +
+            "    local total = 0 " +
+            "    for i = 1, #flows do " +
+            "        total = total + redis.call('ZCOUNT', flows[i], min, max) " +
+            "    end " +
+            "    result[p] = total " +
+            "end " +
+            "return result";
+
+    // Lua脚本，公平模式查看：轮询队首子队列的第一个元素
+    private static final String FAIR_PEEK_SCRIPT =
+            "local flowKey = redis.call('LINDEX', KEYS[2], 0) " +
+            "if not flowKey or redis.call('ZCARD', flowKey) == 0 then " +
+            "    flowKey = KEYS[1] " +
+            "end " +
+            "return redis.call('ZRANGE', flowKey, 0, 0)[1]";
+
+    // Lua脚本，公平模式按分数范围查询：依次查询主队列和各活跃子队列，最多返回ARGV[3]个元素
+    private static final String FAIR_RANGE_SCRIPT =
+            "local limit = tonumber(ARGV[3]) " +
+            "local result = {} " +
+            "local flows = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "table.insert(flows, 1, KEYS[1]) " +
+            "for i = 1, #flows do " +
+            "    if #result >= limit then " +
+            "        break " +
+            "    end " +
+            "    if i == 1 or flows[i] ~= KEYS[1] then " +
+            "        local items = redis.call('ZRANGEBYSCORE', flows[i], ARGV[1], ARGV[2], 'LIMIT', 0, limit - #result) " +
+            "        for j = 1, #items do " +
+            "            result[#result + 1] = items[j] " +
+            "        end " +
+            "    end " +
+            "end " +
+            "return result";
+
+    // Lua脚本，公平模式分页查询：各子队列按分数取前ARGV[3]个元素后合并，按 分数、成员 排序，
+    // 返回前ARGV[3]个 成员,分数 交替排列；同分数按成员排序，与单个ZSET的顺序一致
+    private static final String FAIR_PAGE_SCRIPT =
+            "local count = tonumber(ARGV[3]) " +
+            "local entries = {} " +
+            "local flows = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "table.insert(flows, 1, KEYS[1]) " +
+            "for i = 1, #flows do " +
+            "    if i == 1 or flows[i] ~= KEYS[1] then " +
+            "        local items = redis.call('ZRANGEBYSCORE', flows[i], ARGV[1], ARGV[2], 'WITHSCORES', 'LIMIT', 0, count) " +
+            "        for j = 1, #items, 2 do " +
+            "            entries[#entries + 1] = {items[j], tonumber(items[j + 1]), items[j + 1]} " +
+            "        end " +
+            "    end " +
+            "end " +
+            "table.sort(entries, function(a, b) " +
+            "    if a[2] ~= b[2] then " +
+            "        return a[2] < b[2] " +
+            "    end " +
+            "    return a[1] < b[1] " +
+            "end) " +
+            "local result = {} " +
+            "for i = 1, math.min(count, #entries) do " +
+            "    result[#result + 1] = entries[i][1] " +
+            "    result[#result + 1] = entries[i][3] " +
+            "end " +
+            "return result";
+
+    // Lua脚本，清空队列：删除主队列、处理中集合、负载、公平模式的轮询状态和所有活跃子队列
+    private static final String CLEAR_SCRIPT =
+            "local removed = 0 " +
+            "local flows = redis.call('LRANGE', KEYS[2], 0, -1) " +
+            "for i = 1, #flows do " +
+            "    if flows[i] ~= KEYS[1] then " +
+            "        removed = removed + redis.call('DEL', flows[i]) " +
+            "    end " +
+            "end " +
+            "return removed + redis.call('DEL', unpack(KEYS))";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> fairPollScript;
+    private final DefaultRedisScript<Long> fairSizeScript;
+    private final DefaultRedisScript<String> fairPeekScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> fairRangeScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> fairPageScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> depthScript;
+    private final DefaultRedisScript<Long> clearScript;
 
     /**
      * 自定义队列异常类
@@ -64,15 +343,86 @@ public class RedisPriorityQueue<T> {
      * @param clazz 队列元素类型
      */
     public RedisPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz) {
+        this(redisTemplate, queueName, clazz, false);
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param fairMode 是否启用公平模式，启用后按公平键分子队列轮询出队，同一公平键的大批量元素不会饿死其他公平键
+     */
+    public RedisPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz, boolean fairMode) {
+        this(redisTemplate, queueName, QueueCodecs.json(clazz), fairMode);
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器，决定队列成员和负载的格式
+     * @param fairMode 是否启用公平模式
+     */
+    public RedisPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec, boolean fairMode) {
         this.redisTemplate = redisTemplate;
         this.queueKey = "priority_queue:" + queueName;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-        this.clazz = clazz;
+        this.sequenceKey = this.queueKey + ":seq";
+        this.processingKey = this.queueKey + ":processing";
+        this.leaseScoreKey = this.queueKey + ":lease_score";
+        this.fairMode = fairMode;
+        this.flowKeyPrefix = this.queueKey + ":fair:flow:";
+        this.activeFlowKey = this.queueKey + ":fair:active";
+        this.activeFlowSetKey = this.queueKey + ":fair:active_set";
+        this.deficitKey = this.queueKey + ":fair:deficit";
+        this.leaseFlowKey = this.queueKey + ":lease_flow";
+        this.payloads = new QueuePayloadStore<>(redisTemplate, codec, this.queueKey);
         
-        this.dequeueScript = new DefaultRedisScript<>();
-        this.dequeueScript.setScriptText(DEQUEUE_SCRIPT);
-        this.dequeueScript.setResultType(String.class);
+        this.enqueueScript = new DefaultRedisScript<>(ENQUEUE_SCRIPT, Long.class);
+
+        this.leaseScript = new DefaultRedisScript<>(LEASE_SCRIPT, List.class);
+        this.ackScript = new DefaultRedisScript<>(ACK_SCRIPT, Long.class);
+        this.nackScript = new DefaultRedisScript<>(NACK_SCRIPT, Long.class);
+        this.requeueExpiredScript = new DefaultRedisScript<>(REQUEUE_EXPIRED_SCRIPT, Long.class);
+
+        this.fairPollScript = new DefaultRedisScript<>(FAIR_POLL_SCRIPT, List.class);
+        this.fairSizeScript = new DefaultRedisScript<>(FAIR_SIZE_SCRIPT, Long.class);
+        this.fairPeekScript = new DefaultRedisScript<>(FAIR_PEEK_SCRIPT, String.class);
+        this.fairRangeScript = new DefaultRedisScript<>(FAIR_RANGE_SCRIPT, List.class);
+        this.fairPageScript = new DefaultRedisScript<>(FAIR_PAGE_SCRIPT, List.class);
+        this.depthScript = new DefaultRedisScript<>(DEPTH_SCRIPT, List.class);
+        this.clearScript = new DefaultRedisScript<>(CLEAR_SCRIPT, Long.class);
+
+        QueueMetrics.getInstance().registerDepth(queueKey, this);
+    }
+
+    /**
+     * 从分数中解出优先级
+     * @param score 元素分数
+     * @return 优先级(1-10)
+     */
+    public static int priorityOf(double score) {
+        return (int) ((long) score >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * 是否启用公平模式
+     */
+    public boolean isFairMode() {
+        return fairMode;
+    }
+
+    // 延迟队列转移到期元素时直接写入以下key
+    String getQueueKey() {
+        return queueKey;
+    }
+
+    String getSequenceKey() {
+        return sequenceKey;
+    }
+
+    QueuePayloadStore<T> getPayloads() {
+        return payloads;
     }
 
     /**
@@ -82,61 +432,97 @@ public class RedisPriorityQueue<T> {
      * @return 添加是否成功
      */
     public boolean enqueue(T item, int priority) {
+        return enqueue(item, priority, null);
+    }
+
+    /**
+     * 将元素添加到队列中，公平模式下写入公平键对应的子队列
+     * @param item 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @param fairKey 公平键(如父任务ID)，为空或未启用公平模式时写入主队列
+     * @return 添加是否成功
+     */
+    public boolean enqueue(T item, int priority, String fairKey) {
+        return enqueueAll(Collections.singletonList(item), priority, fairKey) > 0;
+    }
+
+    /**
+     * 批量添加同一优先级的元素，每 ENQUEUE_BATCH_SIZE 个元素一次多成员 ZADD
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @return 成功添加的元素数量
+     */
+    public int enqueueAll(Collection<T> items, int priority) {
+        return enqueueAll(items, priority, null);
+    }
+
+    /**
+     * 批量添加同一优先级的元素，公平模式下写入公平键对应的子队列
+     * 元素按集合顺序分配入队序号，同优先级内保持入队顺序
+     *
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @param fairKey 公平键(如父任务ID)，为空或未启用公平模式时写入主队列
+     * @return 成功添加的元素数量
+     */
+    public int enqueueAll(Collection<T> items, int priority, String fairKey) {
         if (priority < 1 || priority > 10) {
             throw new IllegalArgumentException("优先级必须在1-10之间");
         }
-        
-        // 重试机制
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        String flowKey = (fairMode && fairKey != null && !fairKey.isEmpty()) ? flowKeyPrefix + fairKey : queueKey;
+        int added = 0;
+        List<T> batch = new ArrayList<>();
+        for (T item : items) {
+            batch.add(item);
+            if (batch.size() >= ENQUEUE_BATCH_SIZE) {
+                added += addWithRetry(flowKey, priority, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            added += addWithRetry(flowKey, priority, batch);
+        }
+
+        logger.debug("【压栈成功】队列: {}, 子队列: {}, 优先级: {}, 数量: {}", queueKey, flowKey, priority, added);
+        QueueMetrics.getInstance().recordEnqueue(queueKey, priority, added);
+        return added;
+    }
+
+    /**
+     * 一次 ZADD 写入一批元素，失败按固定间隔重试
+     * 重复写入同一元素只会以新序号覆盖分数(使用负载时被忽略)，重试是安全的
+     *
+     * @param flowKey 目标ZSET，非公平模式下为主队列
+     * @param priority 优先级(1-10)
+     * @param batch 本批元素
+     * @return 本批实际入队的元素数量
+     */
+    private int addWithRetry(String flowKey, int priority, List<T> batch) {
+        List<Object> args = new ArrayList<>(batch.size() * 2 + 3);
+        args.add(fairMode ? 1 : 0);
+        args.add(priority);
+        args.add(payloads.isIndexed() ? 1 : 0);
+        for (T item : batch) {
+            payloads.appendEnqueueArgs(args, item);
+        }
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                // 序列化对象
-                String itemJson = objectMapper.writeValueAsString(item);
-                
-                // 使用原子序列号作为微小增量，确保分数唯一
-                // 即使在高并发下也能保证顺序
-                long sequence = SEQUENCE.getAndIncrement() % 1000000;
-                long timestamp = System.currentTimeMillis() % 1000000;
-                double score = priority + (timestamp / 1000000.0) + (sequence / 1000000000.0);
-                
-                // 增加更详细的压栈日志
-                logger.info("【压栈操作】队列: {}, 优先级: {}, 计算分数: {} (优先级部分:{}, 时间戳部分:{}, 序列号部分:{}), 元素内容: {}", 
-                        queueKey, priority, score, priority, timestamp / 1000000.0, sequence / 1000000000.0, itemJson);
-                
-                // 使用Redis事务确保操作完整性
-                Boolean result = redisTemplate.execute(new SessionCallback<Boolean>() {
-                    @SuppressWarnings("unchecked")
-                    @Override
-                    public Boolean execute(RedisOperations operations) throws DataAccessException {
-                        try {
-                            operations.multi();
-                            operations.opsForZSet().add(queueKey, itemJson, score);
-                            return operations.exec() != null;
-                        } catch (Exception e) {
-                            logger.error("Redis事务执行失败", e);
-                            return false;
-                        }
-                    }
-                });
-                
-                if (result != null && result) {
-                    // 增加压栈成功日志
-                    logger.info("【压栈成功】队列: {}, 优先级: {}, 元素内容: {}, 当前队列长度: {}", 
-                            queueKey, priority, itemJson, redisTemplate.opsForZSet().size(queueKey));
-                    return true;
-                } else {
-                    logger.warn("添加任务失败，优先级: {}, 等待{}ms后重试, 当前尝试次数: {}/{}", 
-                            priority, RETRY_DELAY_MS, attempt + 1, MAX_RETRY);
-                    Thread.sleep(RETRY_DELAY_MS);
+                long start = System.nanoTime();
+                Long added = payloads.execute(enqueueScript,
+                        Arrays.asList(flowKey, activeFlowKey, activeFlowSetKey, sequenceKey, payloads.getPayloadKey()),
+                        args.toArray());
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "enqueue", start);
+                if (added != null && added < batch.size()) {
+                    logger.debug("【压栈操作】队列: {}, 忽略已在队列中的元素: {}", queueKey, batch.size() - added);
                 }
-            } catch (JsonProcessingException e) {
-                logger.error("序列化对象失败", e);
-                throw new QueueException("序列化对象失败", e);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("添加任务被中断", e);
-                throw new QueueException("添加任务被中断", e);
+                return added != null ? added.intValue() : 0;
             } catch (Exception e) {
-                logger.error("添加任务时发生未预期的错误", e);
+                logger.warn("添加任务失败，等待{}ms后重试, 当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
                 if (attempt == MAX_RETRY - 1) {
                     throw new QueueException("添加任务失败，已达到最大重试次数", e);
                 }
@@ -148,47 +534,217 @@ public class RedisPriorityQueue<T> {
                 }
             }
         }
-        
-        return false;
+
+        return 0;
     }
 
     /**
      * 从队列中获取并移除优先级最高的元素
      * @return 优先级最高的元素，如果队列为空则返回null
      */
-    @SuppressWarnings("unchecked")
     public T dequeue() {
+        List<T> items = dequeue(1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 阻塞获取并移除优先级最高的元素(BZPOPMIN)，队列为空时最多等待timeoutMs毫秒
+     * 公平模式的出队需要在脚本内轮询子队列，无法阻塞，直接返回当前结果
+     *
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 优先级最高的元素，超时返回null
+     */
+    public T dequeue(long timeoutMs) {
+        if (fairMode) {
+            return dequeue();
+        }
+        ZSetOperations.TypedTuple<Object> tuple = redisTemplate.opsForZSet().popMin(queueKey, timeoutMs, TimeUnit.MILLISECONDS);
+        if (tuple == null || tuple.getValue() == null) {
+            return null;
+        }
+        List<T> items = payloads.take(Collections.singletonList(tuple.getValue()));
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 原子地批量获取并移除优先级最高的前count个元素，一次 ZPOPMIN count 完成
+     * 公平模式下按赤字轮询从各子队列取出
+     *
+     * @param count 最多获取的元素数量
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    public List<T> dequeue(int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                // 使用Lua脚本原子地执行dequeue操作
-                String itemJson = redisTemplate.execute(
-                        dequeueScript, 
-                        Collections.singletonList(queueKey));
-                
-                if (itemJson == null) {
-                    return null;
+                long start = System.nanoTime();
+                List<Object> itemJsonList = new ArrayList<>();
+                if (fairMode) {
+                    itemJsonList.addAll(fairPoll(count, 0));
+                } else {
+                    Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().popMin(queueKey, count);
+                    if (tuples != null) {
+                        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                            itemJsonList.add(tuple.getValue());
+                        }
+                    }
                 }
-                
-                return objectMapper.readValue(itemJson, clazz);
+
+                List<T> items = payloads.take(itemJsonList);
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "dequeue", start);
+                QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+                return items;
             } catch (RedisSystemException e) {
-                logger.warn("执行Lua脚本时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
+                logger.warn("批量出队时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
                 if (attempt == MAX_RETRY - 1) {
-                    throw new QueueException("获取任务失败，已达到最大重试次数", e);
+                    throw new QueueException("批量获取任务失败，已达到最大重试次数", e);
                 }
                 try {
                     Thread.sleep(RETRY_DELAY_MS);
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
-                    throw new QueueException("获取任务重试被中断", ie);
+                    throw new QueueException("批量获取任务重试被中断", ie);
                 }
-            } catch (Exception e) {
-                logger.error("反序列化对象失败", e);
-                throw new QueueException("反序列化对象失败", e);
             }
         }
         
-        return null;
+        return new ArrayList<>();
+    }
+
+    /**
+     * 租约出队：原子地取出优先级最高的前count个元素，移入处理中集合
+     * 处理完成后调用 ack 确认；处理失败调用 nack 立即退回；既未确认也未退回的元素在租约到期后由 requeueExpired 重新入队
+     *
+     * @param count 最多获取的元素数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> lease(int count, long leaseTimeoutMs) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                long start = System.nanoTime();
+                long deadline = System.currentTimeMillis() + leaseTimeoutMs;
+                List<Object> itemJsonList = fairMode
+                        ? fairPoll(count, deadline)
+                        : redisTemplate.execute(
+                                leaseScript,
+                                Arrays.asList(queueKey, processingKey, leaseScoreKey),
+                                count, deadline);
+
+                // 无法反序列化的元素留在处理中集合，租约到期后重新入队前需人工处理
+                List<T> items = payloads.load(itemJsonList);
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "lease", start);
+                QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+                return items;
+            } catch (RedisSystemException e) {
+                logger.warn("执行租约出队Lua脚本时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new QueueException("租约获取任务失败，已达到最大重试次数", e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new QueueException("租约获取任务重试被中断", ie);
+                }
+            }
+        }
+        
+        return new ArrayList<>();
+    }
+
+    /**
+     * 公平模式出队，按赤字轮询从各子队列取出元素
+     * @param count 最多获取的元素数量
+     * @param deadline 租约到期时间，0表示直接出队不租约
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> fairPoll(int count, long deadline) {
+        return redisTemplate.execute(fairPollScript,
+                Arrays.asList(queueKey, activeFlowKey, activeFlowSetKey, deficitKey, processingKey, leaseScoreKey, leaseFlowKey),
+                count, deadline);
+    }
+
+    /**
+     * 确认已租约的元素处理完成，从处理中集合移除
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被移除返回true；租约已到期被重新入队或已确认返回false
+     */
+    public boolean ack(T item) {
+        try {
+            String member = payloads.memberOf(item);
+            long start = System.nanoTime();
+            Long result = redisTemplate.execute(ackScript,
+                    Arrays.asList(processingKey, leaseScoreKey, leaseFlowKey, payloads.getPayloadKey()), member);
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "ack", start);
+            return result != null && result > 0;
+        } catch (Exception e) {
+            logger.error("确认任务时出错", e);
+            throw new QueueException("确认任务失败", e);
+        }
+    }
+
+    /**
+     * 退回已租约的元素，按原始分数立即重新入队
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被退回返回true，否则返回false
+     */
+    public boolean nack(T item) {
+        try {
+            String member = payloads.memberOf(item);
+            long start = System.nanoTime();
+            Long result = redisTemplate.execute(nackScript, restoreKeys(), member);
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "nack", start);
+            return result != null && result > 0;
+        } catch (Exception e) {
+            logger.error("退回任务时出错", e);
+            throw new QueueException("退回任务失败", e);
+        }
+    }
+
+    /**
+     * 回收租约到期的元素，按原始分数重新入队
+     * @param limit 单次最多回收的元素数量
+     * @return 本次回收的元素数量
+     */
+    public long requeueExpired(int limit) {
+        try {
+            Long result = redisTemplate.execute(requeueExpiredScript,
+                    restoreKeys(),
+                    System.currentTimeMillis(), limit);
+            long requeued = result != null ? result : 0;
+            if (requeued > 0) {
+                logger.warn("回收租约到期的任务，队列: {}, 数量: {}", queueKey, requeued);
+            }
+            return requeued;
+        } catch (Exception e) {
+            logger.error("回收租约到期的任务时出错", e);
+            throw new QueueException("回收租约到期的任务失败", e);
+        }
+    }
+
+    /**
+     * 退回和回收脚本使用的key，顺序与 RESTORE_FUNCTION 对应
+     */
+    private List<String> restoreKeys() {
+        return Arrays.asList(queueKey, processingKey, leaseScoreKey, leaseFlowKey, activeFlowKey, activeFlowSetKey);
+    }
+
+    /**
+     * 获取处理中(已租约未确认)的元素数量
+     * @return 处理中的元素数量
+     */
+    public long leasedSize() {
+        Long size = redisTemplate.opsForZSet().size(processingKey);
+        return size != null ? size : 0;
     }
 
     /**
@@ -199,14 +755,19 @@ public class RedisPriorityQueue<T> {
     public T peek() {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
+                if (fairMode) {
+                    // 公平模式：下一次出队的元素来自轮询队首的子队列
+                    String itemJson = redisTemplate.execute(fairPeekScript, Arrays.asList(queueKey, activeFlowKey));
+                    return itemJson != null ? payloads.loadOne(itemJson) : null;
+                }
+
                 // 获取分数最低的元素(优先级最高)
                 Set<Object> items = redisTemplate.opsForZSet().range(queueKey, 0, 0);
                 if (items == null || items.isEmpty()) {
                     return null;
                 }
                 
-                String itemJson = (String) items.iterator().next();
-                return objectMapper.readValue(itemJson, clazz);
+                return payloads.loadOne(items.iterator().next());
             } catch (Exception e) {
                 logger.warn("查看任务时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
@@ -232,9 +793,11 @@ public class RedisPriorityQueue<T> {
     public long size() {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                Long size = redisTemplate.opsForZSet().size(queueKey);
+                Long size = fairMode
+                        ? redisTemplate.execute(fairSizeScript, Arrays.asList(queueKey, activeFlowKey))
+                        : redisTemplate.opsForZSet().size(queueKey);
                 long result = size != null ? size : 0;
-                logger.info("【队列长度】队列: {}, 当前元素数量: {}", queueKey, result);
+                logger.debug("【队列长度】队列: {}, 当前元素数量: {}", queueKey, result);
                 return result;
             } catch (Exception e) {
                 logger.warn("获取队列长度时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
@@ -254,6 +817,26 @@ public class RedisPriorityQueue<T> {
         return 0;
     }
 
+    /**
+     * 获取各优先级的队列长度，一次脚本往返完成
+     * @return 长度为10的数组，下标0对应优先级1
+     */
+    @SuppressWarnings("unchecked")
+    public long[] sizeByPriority() {
+        List<Object> counts = redisTemplate.execute(depthScript, Arrays.asList(queueKey, activeFlowKey), fairMode ? 1 : 0);
+        return toDepths(counts);
+    }
+
+    static long[] toDepths(List<Object> counts) {
+        long[] depths = new long[10];
+        if (counts != null) {
+            for (int i = 0; i < depths.length && i < counts.size(); i++) {
+                depths[i] = ((Number) counts.get(i)).longValue();
+            }
+        }
+        return depths;
+    }
+
     /**
      * 判断队列是否为空
      * @return 如果队列为空则返回true，否则返回false
@@ -270,8 +853,10 @@ public class RedisPriorityQueue<T> {
         logger.info("【清空队列】准备清空队列: {}", queueKey);
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                Boolean result = redisTemplate.delete(queueKey);
-                return result != null && result;
+                Long result = redisTemplate.execute(clearScript,
+                        Arrays.asList(queueKey, activeFlowKey, activeFlowSetKey, deficitKey, leaseFlowKey, processingKey, leaseScoreKey,
+                                payloads.getPayloadKey()));
+                return result != null && result > 0;
             } catch (Exception e) {
                 logger.warn("清空队列时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
@@ -290,6 +875,54 @@ public class RedisPriorityQueue<T> {
         return false;
     }
     
+    /**
+     * 按优先级范围分页获取元素，每页一次 ZRANGEBYSCORE WITHSCORES LIMIT，适合元素很多的队列
+     * 公平模式的元素分散在主队列和各活跃子队列中，每页由一个脚本合并各子队列的前 偏移+每页数量 个元素
+     *
+     * @param minPriority 最小优先级(包含)
+     * @param maxPriority 最大优先级(包含)
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页最多元素数
+     * @return 本页元素、分数和下一页游标，分数可用 priorityOf 解出优先级
+     */
+    public ScoredPage<T> getItemsByPriorityRange(int minPriority, int maxPriority, String cursor, int limit) {
+        if (minPriority > maxPriority) {
+            throw new IllegalArgumentException("最小优先级不能大于最大优先级");
+        }
+        if (minPriority < 1 || maxPriority > 10) {
+            throw new IllegalArgumentException("优先级必须在1-10范围内");
+        }
+        double minScore = (double) ((long) minPriority << SEQUENCE_BITS);
+        double maxScore = (double) (((long) maxPriority << SEQUENCE_BITS) | SEQUENCE_MASK);
+        try {
+            if (fairMode) {
+                return payloads.page(minScore, cursor, limit, (startScore, offset, count, members, scores) ->
+                        fairPage(startScore, maxScore, offset, count, members, scores));
+            }
+            return payloads.page(queueKey, minScore, maxScore, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("分页获取任务时出错", e);
+            throw new QueueException("分页获取任务失败", e);
+        }
+    }
+
+    /**
+     * 公平模式分页读取：合并主队列和各活跃子队列后跳过offset个元素
+     */
+    @SuppressWarnings("unchecked")
+    private void fairPage(double startScore, double maxScore, long offset, int count, List<Object> members, List<Double> scores) {
+        List<Object> entries = redisTemplate.execute(fairPageScript, Arrays.asList(queueKey, activeFlowKey), startScore, maxScore, offset + count);
+        if (entries == null) {
+            return;
+        }
+        for (int i = (int) offset * 2; i + 1 < entries.size(); i += 2) {
+            members.add(entries.get(i));
+            scores.add(Double.parseDouble(String.valueOf(entries.get(i + 1))));
+        }
+    }
+
     /**
      * 获取指定优先级范围的元素
      * @param minPriority 最小优先级(包含)
@@ -306,9 +939,9 @@ public class RedisPriorityQueue<T> {
             throw new IllegalArgumentException("优先级必须在1-10范围内");
         }
         
-        // 计算分数范围：优先级数值直接作为分数的整数部分
-        double minScore = minPriority;
-        double maxScore = maxPriority + 0.999999; // 加上0.999999确保包含所有该优先级的元素
+        // 计算分数范围：优先级位于分数的高位，低49位为入队序号
+        double minScore = (double) ((long) minPriority << SEQUENCE_BITS);
+        double maxScore = (double) (((long) maxPriority << SEQUENCE_BITS) | SEQUENCE_MASK);
         
         logger.debug("查询优先级范围: {}-{}", minPriority, maxPriority);
         logger.debug("转换为分数范围: {}-{}", minScore, maxScore);
@@ -316,25 +949,15 @@ public class RedisPriorityQueue<T> {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
                 // 获取指定分数范围内的元素，限制最大获取数量为1000以防内存溢出
-                Set<Object> itemJsonSet = redisTemplate.opsForZSet().rangeByScore(queueKey, minScore, maxScore, 0, 1000);
+                Collection<Object> itemJsonSet = fairMode
+                        ? redisTemplate.execute(fairRangeScript, Arrays.asList(queueKey, activeFlowKey), minScore, maxScore, 1000)
+                        : redisTemplate.opsForZSet().rangeByScore(queueKey, minScore, maxScore, 0, 1000);
                 Set<T> result = new HashSet<>();
                 
                 if (itemJsonSet != null && !itemJsonSet.isEmpty()) {
                     logger.debug("找到的元素数量: {}", itemJsonSet.size());
-                    for (Object itemJsonObj : itemJsonSet) {
-                        String itemJson = (String) itemJsonObj;
-                        Double score = redisTemplate.opsForZSet().score(queueKey, itemJson);
-                        int itemPriority = score != null ? (int) Math.floor(score) : 0;
-                        logger.debug("元素分数: {}, 对应优先级: {}", score, itemPriority);
-                        
-                        try {
-                            T item = objectMapper.readValue(itemJson, clazz);
-                            result.add(item);
-                        } catch (Exception e) {
-                            logger.error("反序列化对象失败: {}", itemJson, e);
-                            // 继续处理其他项，不因一个项的失败而终止整个操作
-                        }
-                    }
+                    // 反序列化失败的元素记录后跳过，不因一个项的失败而终止整个操作
+                    result.addAll(payloads.load(itemJsonSet));
                 } else {
                     logger.debug("未找到符合条件的元素");
                 }
@@ -1,12 +1,17 @@
 package com.xuxueli.springbootpriorityqueue.queue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * Redis优先级队列工厂类
@@ -17,12 +22,66 @@ public class RedisPriorityQueueFactory {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
-    private final ConcurrentMap<String, RedisPriorityQueue<?>> queueCache = new ConcurrentHashMap<>();
+    private final String streamConsumerName;
+    private final String embeddedLogDir;
+    private final long streamLeaseTimeoutMs;
+    private final ConcurrentMap<String, DistributedPriorityQueue<?>> queueCache = new ConcurrentHashMap<>();
+
+    /**
+     * 队列实现：ZSET(默认)
+     */
+    public static final String BACKEND_ZSET = "zset";
+
+    /**
+     * 队列实现：每个优先级一个LIST
+     */
+    public static final String BACKEND_LIST = "list";
+
+    /**
+     * 队列实现：每个优先级一个STREAM，消费组读取
+     */
+    public static final String BACKEND_STREAM = "stream";
+
+    /**
+     * 队列实现：进程内队列，不访问Redis
+     */
+    public static final String BACKEND_EMBEDDED = "embedded";
     private final ReentrantLock createQueueLock = new ReentrantLock();
 
     public RedisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper) {
+        this(redisTemplate, objectMapper, null);
+    }
+
+    /**
+     * @param streamConsumerName STREAM实现的消费者名称，每个调度中心唯一；为空时使用 进程号@主机名
+     */
+    public RedisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper, String streamConsumerName) {
+        this(redisTemplate, objectMapper, streamConsumerName, null);
+    }
+
+    /**
+     * @param streamConsumerName STREAM实现的消费者名称，每个调度中心唯一；为空时使用 进程号@主机名
+     * @param embeddedLogDir 进程内实现的日志目录，每个队列一个日志文件；为空时只保存在内存中
+     */
+    public RedisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                                     String streamConsumerName, String embeddedLogDir) {
+        this(redisTemplate, objectMapper, streamConsumerName, embeddedLogDir, RedisStreamPriorityQueue.DEFAULT_LEASE_TIMEOUT_MS);
+    }
+
+    /**
+     * @param streamConsumerName STREAM实现的消费者名称，每个调度中心唯一；为空时使用 进程号@主机名
+     * @param embeddedLogDir 进程内实现的日志目录，每个队列一个日志文件；为空时只保存在内存中
+     * @param streamLeaseTimeoutMs STREAM实现回收待确认消息的租约时长(毫秒)，应与出队时的租约时长一致；小于等于0时使用默认值
+     */
+    public RedisPriorityQueueFactory(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                                     String streamConsumerName, String embeddedLogDir, long streamLeaseTimeoutMs) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.streamConsumerName = streamConsumerName != null && !streamConsumerName.isEmpty()
+                ? streamConsumerName
+                : ManagementFactory.getRuntimeMXBean().getName();
+        this.embeddedLogDir = embeddedLogDir != null && !embeddedLogDir.isEmpty() ? embeddedLogDir : null;
+        this.streamLeaseTimeoutMs = streamLeaseTimeoutMs;
     }
 
     /**
@@ -33,14 +92,127 @@ public class RedisPriorityQueueFactory {
      * @param clazz 队列元素类型
      * @return 优先级队列实例
      */
-    @SuppressWarnings("unchecked")
     public <T> RedisPriorityQueue<T> getQueue(String queueName, Class<T> clazz) {
-        String cacheKey = queueName + ":" + clazz.getName();
-        
+        return getQueue(queueName, clazz, false);
+    }
+
+    /**
+     * 获取指定名称和元素类型的优先级队列实例，可指定是否启用公平模式
+     * 同名队列只创建一次，以首次创建时的模式为准
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param fairMode 是否启用公平模式
+     * @return 优先级队列实例
+     */
+    public <T> RedisPriorityQueue<T> getQueue(String queueName, Class<T> clazz, boolean fairMode) {
+        return getQueue(queueName, clazz, fairMode, QueueCodecs.json(clazz));
+    }
+
+    private <T> RedisPriorityQueue<T> getQueue(String queueName, Class<T> clazz, boolean fairMode, QueueCodec<T> codec) {
+        return getOrCreate(queueName + ":" + clazz.getName(),
+                () -> new RedisPriorityQueue<>(redisTemplate, queueName, codec, fairMode));
+    }
+
+    /**
+     * 获取指定名称和元素类型的LIST实现优先级队列实例
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @return 优先级队列实例
+     */
+    public <T> RedisListPriorityQueue<T> getListQueue(String queueName, Class<T> clazz) {
+        return getListQueue(queueName, clazz, QueueCodecs.json(clazz));
+    }
+
+    private <T> RedisListPriorityQueue<T> getListQueue(String queueName, Class<T> clazz, QueueCodec<T> codec) {
+        return getOrCreate(queueName + ":" + clazz.getName() + ":" + BACKEND_LIST,
+                () -> new RedisListPriorityQueue<>(redisTemplate, queueName, codec));
+    }
+
+    /**
+     * 获取指定名称和元素类型的STREAM实现优先级队列实例
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @return 优先级队列实例
+     */
+    public <T> RedisStreamPriorityQueue<T> getStreamQueue(String queueName, Class<T> clazz) {
+        return getStreamQueue(queueName, clazz, QueueCodecs.json(clazz));
+    }
+
+    private <T> RedisStreamPriorityQueue<T> getStreamQueue(String queueName, Class<T> clazz, QueueCodec<T> codec) {
+        return getOrCreate(queueName + ":" + clazz.getName() + ":" + BACKEND_STREAM,
+                () -> new RedisStreamPriorityQueue<>(redisTemplate, queueName, codec, streamConsumerName, streamLeaseTimeoutMs));
+    }
+
+    /**
+     * 获取指定名称和元素类型的进程内优先级队列实例
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @return 优先级队列实例
+     */
+    public <T> EmbeddedPriorityQueue<T> getEmbeddedQueue(String queueName, Class<T> clazz) {
+        return getEmbeddedQueue(queueName, clazz, QueueCodecs.json(clazz));
+    }
+
+    private <T> EmbeddedPriorityQueue<T> getEmbeddedQueue(String queueName, Class<T> clazz, QueueCodec<T> codec) {
+        return getOrCreate(queueName + ":" + clazz.getName() + ":" + BACKEND_EMBEDDED,
+                () -> new EmbeddedPriorityQueue<>(queueName, codec, embeddedLogFile(queueName)));
+    }
+
+    private File embeddedLogFile(String queueName) {
+        if (embeddedLogDir == null) {
+            return null;
+        }
+        return new File(embeddedLogDir, queueName.replaceAll("[^A-Za-z0-9._-]", "_") + ".log");
+    }
+
+    /**
+     * 按配置的实现获取优先级队列实例
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param backend 队列实现，BACKEND_LIST 为LIST实现，BACKEND_STREAM 为STREAM实现，BACKEND_EMBEDDED 为进程内实现，其他为ZSET实现
+     * @param fairMode 是否启用公平模式，仅ZSET实现支持
+     * @return 优先级队列实例
+     */
+    public <T> DistributedPriorityQueue<T> getQueue(String queueName, Class<T> clazz, String backend, boolean fairMode) {
+        return getQueue(queueName, clazz, backend, fairMode, QueueCodecs.JSON);
+    }
+
+    /**
+     * 按配置的实现和编解码器获取优先级队列实例
+     * 同名队列只创建一次，以首次创建时的编解码器为准
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param backend 队列实现，BACKEND_LIST 为LIST实现，BACKEND_STREAM 为STREAM实现，BACKEND_EMBEDDED 为进程内实现，其他为ZSET实现
+     * @param fairMode 是否启用公平模式，仅ZSET实现支持
+     * @param codec 编解码器名称，QueueCodecs.BINARY 时成员为元素ID、负载为紧凑二进制，其他为JSON
+     * @return 优先级队列实例
+     */
+    public <T> DistributedPriorityQueue<T> getQueue(String queueName, Class<T> clazz, String backend, boolean fairMode, String codec) {
+        QueueCodec<T> queueCodec = QueueCodecs.of(codec, clazz);
+        if (BACKEND_LIST.equalsIgnoreCase(backend)) {
+            return getListQueue(queueName, clazz, queueCodec);
+        }
+        if (BACKEND_STREAM.equalsIgnoreCase(backend)) {
+            return getStreamQueue(queueName, clazz, queueCodec);
+        }
+        if (BACKEND_EMBEDDED.equalsIgnoreCase(backend)) {
+            return getEmbeddedQueue(queueName, clazz, queueCodec);
+        }
+        return getQueue(queueName, clazz, fairMode, queueCodec);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <Q extends DistributedPriorityQueue<?>> Q getOrCreate(String cacheKey, Supplier<Q> creator) {
         // 首先尝试从缓存中获取已存在的队列实例
-        RedisPriorityQueue<?> queue = queueCache.get(cacheKey);
+        DistributedPriorityQueue<?> queue = queueCache.get(cacheKey);
         if (queue != null) {
-            return (RedisPriorityQueue<T>) queue;
+            return (Q) queue;
         }
         
         // 如果缓存中不存在，则创建新实例（使用双重检查锁定模式）
@@ -50,7 +222,7 @@ public class RedisPriorityQueueFactory {
             queue = queueCache.get(cacheKey);
             if (queue == null) {
                 // 创建新的队列实例
-                RedisPriorityQueue<T> newQueue = new RedisPriorityQueue<>(redisTemplate, queueName, clazz);
+                Q newQueue = creator.get();
                 queueCache.put(cacheKey, newQueue);
                 return newQueue;
             }
@@ -58,6 +230,30 @@ public class RedisPriorityQueueFactory {
             createQueueLock.unlock();
         }
         
-        return (RedisPriorityQueue<T>) queue;
+        return (Q) queue;
+    }
+
+    /**
+     * 移除指定名称和元素类型的队列实例缓存
+     * 只释放本地实例，不删除Redis中的数据，再次获取时重新创建
+     * 进程内实现的数据只在实例中，未写日志且仍有元素时保留实例
+     *
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     */
+    public void removeQueue(String queueName, Class<?> clazz) {
+        queueCache.remove(queueName + ":" + clazz.getName());
+        queueCache.remove(queueName + ":" + clazz.getName() + ":" + BACKEND_LIST);
+        queueCache.remove(queueName + ":" + clazz.getName() + ":" + BACKEND_STREAM);
+
+        String embeddedKey = queueName + ":" + clazz.getName() + ":" + BACKEND_EMBEDDED;
+        DistributedPriorityQueue<?> embedded = queueCache.get(embeddedKey);
+        if (embedded instanceof EmbeddedPriorityQueue) {
+            EmbeddedPriorityQueue<?> embeddedQueue = (EmbeddedPriorityQueue<?>) embedded;
+            if (embeddedQueue.isPersistent() || (embeddedQueue.isEmpty() && embeddedQueue.leasedSize() == 0)) {
+                queueCache.remove(embeddedKey, embedded);
+                embeddedQueue.close();
+            }
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,21 @@
 package com.xuxueli.springbootpriorityqueue.queue;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.RedisSystemException;
-import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -20,6 +23,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * 基于Redis的分布式有序队列实现
  * 可以直接指定元素的score，分数越小越靠前
  * 支持FIFO模式，此时score参数将被忽略，完全按照入队顺序排序
+ * 使用二进制编解码器时成员为元素ID，负载存放在负载哈希中，同一ID重复入队被忽略
  */
 public class RedisSortedQueue<T> {
     private static final Logger logger = LoggerFactory.getLogger(RedisSortedQueue.class);
@@ -29,21 +33,90 @@ public class RedisSortedQueue<T> {
     
     private final RedisTemplate<String, Object> redisTemplate;
     private final String queueKey;
-    private final ObjectMapper objectMapper;
-    private final Class<T> clazz;
+    private final String processingKey;     // 处理中(已租约)元素，score 为租约到期时间
+    private final String leaseScoreKey;     // 处理中元素的原始分数，重新入队时恢复
+    private final QueuePayloadStore<T> payloads;
     private final boolean fifoMode;  // 是否为FIFO模式
     
-    // Lua脚本，用于原子地执行出队操作
-    private static final String DEQUEUE_SCRIPT = 
-            "local items = redis.call('ZRANGE', KEYS[1], 0, 0) " +
-            "if #items > 0 then " +
-            "    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, 0) " +
-            "    return items[1] " +
-            "else " +
-            "    return nil " +
-            "end";
-    
-    private final DefaultRedisScript<String> dequeueScript;
+    // 批量入队时单次 ZADD 的最大元素数，避免单条命令过大阻塞Redis
+    private static final int ENQUEUE_BATCH_SIZE = 1000;
+
+    // Lua脚本，批量入队：ARGV[1]为1(使用负载)时其后为 分数,成员,负载 交替排列，HSETNX 写入负载成功的成员才入队，
+    // 否则其后为 分数,成员 交替排列
+    private static final String ENQUEUE_SCRIPT =
+            "local indexed = ARGV[1] == '1' " +
+            "local args = {} " +
+            "for i = 2, #ARGV, indexed and 3 or 2 do " +
+            "    if not indexed or redis.call('HSETNX', KEYS[2], ARGV[i + 1], ARGV[i + 2]) == 1 then " +
+            "        args[#args + 1] = ARGV[i] " +
+            "        args[#args + 1] = ARGV[i + 1] " +
+            "    end " +
+            "end " +
+            "if #args > 0 then " +
+            "    redis.call('ZADD', KEYS[1], unpack(args)) " +
+            "end " +
+            "return #args / 2";
+
+    private final DefaultRedisScript<Long> enqueueScript;
+
+    // Lua脚本，租约出队：取出分数最小的前N个元素移入处理中集合(score为租约到期时间)，并记录原始分数
+    private static final String LEASE_SCRIPT =
+            "local items = redis.call('ZRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1, 'WITHSCORES') " +
+            "local result = {} " +
+            "for i = 1, #items, 2 do " +
+            "    redis.call('ZADD', KEYS[2], ARGV[2], items[i]) " +
+            "    redis.call('HSET', KEYS[3], items[i], items[i + 1]) " +
+            "    result[#result + 1] = items[i] " +
+            "end " +
+            "if #result > 0 then " +
+            "    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, #result - 1) " +
+            "end " +
+            "return result";
+
+    // Lua脚本，确认：从处理中集合移除，并删除负载
+    private static final String ACK_SCRIPT =
+            "local removed = redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "if removed == 1 then " +
+            "    redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "end " +
+            "return removed";
+
+    // Lua脚本，退回：从处理中集合移除，按原始分数重新入队
+    private static final String NACK_SCRIPT =
+            "if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then " +
+            "    return 0 " +
+            "end " +
+            "local score = redis.call('HGET', KEYS[3], ARGV[1]) " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "redis.call('ZADD', KEYS[1], score or 0, ARGV[1]) " +
+            "return 1";
+
+    // Lua脚本，回收：租约到期的元素按原始分数重新入队
+    private static final String REQUEUE_EXPIRED_SCRIPT =
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "for i = 1, #items do " +
+            "    local score = redis.call('HGET', KEYS[3], items[i]) " +
+            "    redis.call('ZREM', KEYS[2], items[i]) " +
+            "    redis.call('HDEL', KEYS[3], items[i]) " +
+            "    redis.call('ZADD', KEYS[1], score or 0, items[i]) " +
+            "end " +
+            "return #items";
+
+    // Lua脚本，移除：从队列移除，并删除负载
+    private static final String REMOVE_SCRIPT =
+            "local removed = redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "if removed == 1 then " +
+            "    redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "end " +
+            "return removed";
+
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> leaseScript;
+    private final DefaultRedisScript<Long> ackScript;
+    private final DefaultRedisScript<Long> nackScript;
+    private final DefaultRedisScript<Long> requeueExpiredScript;
+    private final DefaultRedisScript<Long> removeScript;
 
     /**
      * 自定义队列异常类
@@ -74,20 +147,51 @@ public class RedisSortedQueue<T> {
      * @param fifoMode 是否启用FIFO模式，为true时完全按照入队顺序排序，忽略score参数
      */
     public RedisSortedQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz, boolean fifoMode) {
+        this(redisTemplate, queueName, QueueCodecs.json(clazz), fifoMode);
+    }
+
+    /**
+     * 构造函数 - 指定编解码器
+     *
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器，决定队列成员和负载的格式
+     * @param fifoMode 是否启用FIFO模式
+     */
+    public RedisSortedQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec, boolean fifoMode) {
         this.redisTemplate = redisTemplate;
         this.queueKey = "sorted_queue:" + queueName;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-        this.clazz = clazz;
+        this.processingKey = this.queueKey + ":processing";
+        this.leaseScoreKey = this.queueKey + ":lease_score";
+        this.payloads = new QueuePayloadStore<>(redisTemplate, codec, this.queueKey);
         this.fifoMode = fifoMode;
         
-        this.dequeueScript = new DefaultRedisScript<>();
-        this.dequeueScript.setScriptText(DEQUEUE_SCRIPT);
-        this.dequeueScript.setResultType(String.class);
+        this.enqueueScript = new DefaultRedisScript<>(ENQUEUE_SCRIPT, Long.class);
+        this.leaseScript = new DefaultRedisScript<>(LEASE_SCRIPT, List.class);
+        this.ackScript = new DefaultRedisScript<>(ACK_SCRIPT, Long.class);
+        this.nackScript = new DefaultRedisScript<>(NACK_SCRIPT, Long.class);
+        this.requeueExpiredScript = new DefaultRedisScript<>(REQUEUE_EXPIRED_SCRIPT, Long.class);
+        this.removeScript = new DefaultRedisScript<>(REMOVE_SCRIPT, Long.class);
         
         logger.info("创建有序队列: {}, FIFO模式: {}", this.queueKey, this.fifoMode);
     }
 
+    /**
+     * 是否为FIFO模式
+     */
+    public boolean isFifoMode() {
+        return fifoMode;
+    }
+
+    // 延迟队列转移到期元素时直接写入以下key
+    String getQueueKey() {
+        return queueKey;
+    }
+
+    QueuePayloadStore<T> getPayloads() {
+        return payloads;
+    }
+
     /**
      * 将元素添加到队列中
      * 在FIFO模式下，score参数将被忽略，完全按照入队顺序排序
@@ -97,61 +201,81 @@ public class RedisSortedQueue<T> {
      * @return 添加是否成功
      */
     public boolean enqueue(T item, double score) {
-        // 重试机制
+        return enqueueAll(Collections.singletonList(item), score) > 0;
+    }
+
+    /**
+     * 批量添加同一分数的元素，每 ENQUEUE_BATCH_SIZE 个元素一次多成员 ZADD
+     * 元素按集合顺序计算最终分数，同分数内保持入队顺序；在FIFO模式下，score参数将被忽略
+     *
+     * @param items 要添加的元素
+     * @param score 分数值（在FIFO模式下会被忽略）
+     * @return 成功添加的元素数量
+     */
+    public int enqueueAll(Collection<T> items, double score) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        int added = 0;
+        int batchSize = 0;
+        List<Object> args = newEnqueueArgs();
+        for (T item : items) {
+            // 在FIFO模式下，使用时间戳作为score，确保先进先出
+            double finalScore;
+            if (fifoMode) {
+                // 使用纳秒级时间戳作为基础分数
+                long timestamp = System.nanoTime();
+                // 添加序列号作为微小增量，确保严格的顺序性
+                long sequence = SEQUENCE.getAndIncrement();
+                finalScore = timestamp + (sequence / 1000000.0);  // 将序列号转换为小数部分
+            } else {
+                // 原有的score计算逻辑
+                long sequence = SEQUENCE.getAndIncrement() % 1000000;
+                finalScore = score + (sequence / 1000000000.0);
+            }
+            logger.debug("添加元素到队列，FIFO模式: {}, 原始分数: {}, 最终分数: {}", fifoMode, score, finalScore);
+
+            args.add(finalScore);
+            payloads.appendEnqueueArgs(args, item);
+            if (++batchSize >= ENQUEUE_BATCH_SIZE) {
+                added += addWithRetry(args);
+                args = newEnqueueArgs();
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            added += addWithRetry(args);
+        }
+
+        logger.debug("添加元素成功，队列: {}, 数量: {}", queueKey, added);
+        QueueMetrics.getInstance().recordEnqueue(queueKey, 0, added);
+        return added;
+    }
+
+    private List<Object> newEnqueueArgs() {
+        List<Object> args = new ArrayList<>();
+        args.add(payloads.isIndexed() ? 1 : 0);
+        return args;
+    }
+
+    /**
+     * 一次 ZADD 写入一批元素，失败按固定间隔重试
+     * 重复写入同一元素只会覆盖分数(使用负载时被忽略)，重试是安全的
+     *
+     * @param args 入队脚本参数
+     * @return 本批实际入队的元素数量
+     */
+    private int addWithRetry(List<Object> args) {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                // 序列化对象
-                String itemJson = objectMapper.writeValueAsString(item);
-                
-                // 在FIFO模式下，使用时间戳作为score，确保先进先出
-                double finalScore;
-                if (fifoMode) {
-                    // 使用纳秒级时间戳作为基础分数
-                    long timestamp = System.nanoTime();
-                    // 添加序列号作为微小增量，确保严格的顺序性
-                    long sequence = SEQUENCE.getAndIncrement();
-                    finalScore = timestamp + (sequence / 1000000.0);  // 将序列号转换为小数部分
-                } else {
-                    // 原有的score计算逻辑
-                    long sequence = SEQUENCE.getAndIncrement() % 1000000;
-                    finalScore = score + (sequence / 1000000000.0);
-                }
-                
-                logger.debug("添加元素到队列，FIFO模式: {}, 原始分数: {}, 最终分数: {}", fifoMode, score, finalScore);
-                
-                // 使用Redis事务确保操作完整性
-                Boolean result = redisTemplate.execute(new SessionCallback<Boolean>() {
-                    @SuppressWarnings("unchecked")
-                    @Override
-                    public Boolean execute(RedisOperations operations) throws DataAccessException {
-                        try {
-                            operations.multi();
-                            operations.opsForZSet().add(queueKey, itemJson, finalScore);
-                            return operations.exec() != null;
-                        } catch (Exception e) {
-                            logger.error("Redis事务执行失败", e);
-                            return false;
-                        }
-                    }
-                });
-                
-                if (result != null && result) {
-                    logger.debug("添加元素成功，最终分数: {}", finalScore);
-                    return true;
-                } else {
-                    logger.warn("添加元素失败，等待{}ms后重试, 当前尝试次数: {}/{}", 
-                            RETRY_DELAY_MS, attempt + 1, MAX_RETRY);
-                    Thread.sleep(RETRY_DELAY_MS);
-                }
-            } catch (JsonProcessingException e) {
-                logger.error("序列化对象失败", e);
-                throw new QueueException("序列化对象失败", e);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("添加元素被中断", e);
-                throw new QueueException("添加元素被中断", e);
+                long start = System.nanoTime();
+                Long added = payloads.execute(enqueueScript, Arrays.asList(queueKey, payloads.getPayloadKey()), args.toArray());
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "enqueue", start);
+                return added != null ? added.intValue() : 0;
             } catch (Exception e) {
-                logger.error("添加元素时发生未预期的错误", e);
+                logger.warn("添加元素失败，等待{}ms后重试, 当前尝试次数: {}/{}",
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
                 if (attempt == MAX_RETRY - 1) {
                     throw new QueueException("添加元素失败，已达到最大重试次数", e);
                 }
@@ -163,47 +287,170 @@ public class RedisSortedQueue<T> {
                 }
             }
         }
-        
-        return false;
+
+        return 0;
     }
 
     /**
      * 从队列中获取并移除分数最小的元素
      * @return 分数最小的元素，如果队列为空则返回null
      */
-    @SuppressWarnings("unchecked")
     public T dequeue() {
+        List<T> items = dequeue(1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 原子地批量获取并移除分数最小的前count个元素，一次 ZPOPMIN count 完成
+     * @param count 最多获取的元素数量
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    public List<T> dequeue(int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                // 使用Lua脚本原子地执行dequeue操作
-                String itemJson = redisTemplate.execute(
-                        dequeueScript, 
-                        Collections.singletonList(queueKey));
-                
-                if (itemJson == null) {
-                    return null;
+                long start = System.nanoTime();
+                Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().popMin(queueKey, count);
+
+                List<Object> itemJsonList = new ArrayList<>();
+                if (tuples != null) {
+                    for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                        itemJsonList.add(tuple.getValue());
+                    }
                 }
-                
-                return objectMapper.readValue(itemJson, clazz);
+                List<T> items = payloads.take(itemJsonList);
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "dequeue", start);
+                QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+                return items;
             } catch (RedisSystemException e) {
-                logger.warn("执行Lua脚本时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
+                logger.warn("批量出队时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
                 if (attempt == MAX_RETRY - 1) {
-                    throw new QueueException("获取元素失败，已达到最大重试次数", e);
+                    throw new QueueException("批量获取元素失败，已达到最大重试次数", e);
                 }
                 try {
                     Thread.sleep(RETRY_DELAY_MS);
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
-                    throw new QueueException("获取元素重试被中断", ie);
+                    throw new QueueException("批量获取元素重试被中断", ie);
                 }
-            } catch (Exception e) {
-                logger.error("反序列化对象失败", e);
-                throw new QueueException("反序列化对象失败", e);
             }
         }
         
-        return null;
+        return new ArrayList<>();
+    }
+
+    /**
+     * 租约出队：原子地取出分数最小的前count个元素，移入处理中集合
+     * 处理完成后调用 ack 确认；处理失败调用 nack 立即退回；既未确认也未退回的元素在租约到期后由 requeueExpired 重新入队
+     *
+     * @param count 最多获取的元素数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按出队顺序排列的元素列表，队列为空时返回空列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> lease(int count, long leaseTimeoutMs) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
+            try {
+                long start = System.nanoTime();
+                long deadline = System.currentTimeMillis() + leaseTimeoutMs;
+                List<Object> itemJsonList = redisTemplate.execute(
+                        leaseScript,
+                        Arrays.asList(queueKey, processingKey, leaseScoreKey),
+                        count, deadline);
+
+                // 无法反序列化的元素留在处理中集合，租约到期后重新入队前需人工处理
+                List<T> items = payloads.load(itemJsonList);
+                QueueMetrics.getInstance().recordRedisCall(queueKey, "lease", start);
+                QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+                return items;
+            } catch (RedisSystemException e) {
+                logger.warn("执行租约出队Lua脚本时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
+                        RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
+                if (attempt == MAX_RETRY - 1) {
+                    throw new QueueException("租约获取元素失败，已达到最大重试次数", e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new QueueException("租约获取元素重试被中断", ie);
+                }
+            }
+        }
+        
+        return new ArrayList<>();
+    }
+
+    /**
+     * 确认已租约的元素处理完成，从处理中集合移除
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被移除返回true；租约已到期被重新入队或已确认返回false
+     */
+    public boolean ack(T item) {
+        try {
+            String member = payloads.memberOf(item);
+            long start = System.nanoTime();
+            Long result = redisTemplate.execute(ackScript, Arrays.asList(processingKey, leaseScoreKey, payloads.getPayloadKey()), member);
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "ack", start);
+            return result != null && result > 0;
+        } catch (Exception e) {
+            logger.error("确认元素时出错", e);
+            throw new QueueException("确认元素失败", e);
+        }
+    }
+
+    /**
+     * 退回已租约的元素，按原始分数立即重新入队
+     * @param item 租约出队得到的元素
+     * @return 元素仍在租约中并被退回返回true，否则返回false
+     */
+    public boolean nack(T item) {
+        try {
+            String member = payloads.memberOf(item);
+            long start = System.nanoTime();
+            Long result = redisTemplate.execute(nackScript, Arrays.asList(queueKey, processingKey, leaseScoreKey), member);
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "nack", start);
+            return result != null && result > 0;
+        } catch (Exception e) {
+            logger.error("退回元素时出错", e);
+            throw new QueueException("退回元素失败", e);
+        }
+    }
+
+    /**
+     * 回收租约到期的元素，按原始分数重新入队
+     * @param limit 单次最多回收的元素数量
+     * @return 本次回收的元素数量
+     */
+    public long requeueExpired(int limit) {
+        try {
+            Long result = redisTemplate.execute(requeueExpiredScript,
+                    Arrays.asList(queueKey, processingKey, leaseScoreKey),
+                    System.currentTimeMillis(), limit);
+            long requeued = result != null ? result : 0;
+            if (requeued > 0) {
+                logger.warn("回收租约到期的元素，队列: {}, 数量: {}", queueKey, requeued);
+            }
+            return requeued;
+        } catch (Exception e) {
+            logger.error("回收租约到期的元素时出错", e);
+            throw new QueueException("回收租约到期的元素失败", e);
+        }
+    }
+
+    /**
+     * 获取处理中(已租约未确认)的元素数量
+     * @return 处理中的元素数量
+     */
+    public long leasedSize() {
+        Long size = redisTemplate.opsForZSet().size(processingKey);
+        return size != null ? size : 0;
     }
 
     /**
@@ -220,8 +467,7 @@ public class RedisSortedQueue<T> {
                     return null;
                 }
                 
-                String itemJson = (String) items.iterator().next();
-                return objectMapper.readValue(itemJson, clazz);
+                return payloads.loadOne(items.iterator().next());
             } catch (Exception e) {
                 logger.warn("查看元素时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
@@ -282,8 +528,8 @@ public class RedisSortedQueue<T> {
     public boolean clear() {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                Boolean result = redisTemplate.delete(queueKey);
-                return result != null && result;
+                Long result = redisTemplate.delete(Arrays.asList(queueKey, processingKey, leaseScoreKey, payloads.getPayloadKey()));
+                return result != null && result > 0;
             } catch (Exception e) {
                 logger.warn("清空队列时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
                         RETRY_DELAY_MS, attempt + 1, MAX_RETRY, e);
@@ -320,19 +566,8 @@ public class RedisSortedQueue<T> {
                 
                 if (itemJsonSet != null && !itemJsonSet.isEmpty()) {
                     logger.debug("找到的元素数量: {}", itemJsonSet.size());
-                    for (Object itemJsonObj : itemJsonSet) {
-                        String itemJson = (String) itemJsonObj;
-                        Double score = redisTemplate.opsForZSet().score(queueKey, itemJson);
-                        logger.debug("元素分数: {}", score);
-                        
-                        try {
-                            T item = objectMapper.readValue(itemJson, clazz);
-                            result.add(item);
-                        } catch (Exception e) {
-                            logger.error("反序列化对象失败: {}", itemJson, e);
-                            // 继续处理其他项，不因一个项的失败而终止整个操作
-                        }
-                    }
+                    // 反序列化失败的元素记录后跳过，不因一个项的失败而终止整个操作
+                    result.addAll(payloads.load(itemJsonSet));
                 } else {
                     logger.debug("未找到符合条件的元素");
                 }
@@ -356,6 +591,28 @@ public class RedisSortedQueue<T> {
         return new HashSet<>();
     }
     
+    /**
+     * 按分数范围分页获取元素，每页一次 ZRANGEBYSCORE WITHSCORES LIMIT，适合元素很多的队列
+     * @param minScore 最小分数(包含)
+     * @param maxScore 最大分数(包含)
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页最多元素数
+     * @return 本页元素、分数和下一页游标
+     */
+    public ScoredPage<T> getItemsByScoreRange(double minScore, double maxScore, String cursor, int limit) {
+        if (minScore > maxScore) {
+            throw new IllegalArgumentException("最小分数不能大于最大分数");
+        }
+        try {
+            return payloads.page(queueKey, minScore, maxScore, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("分页获取元素时出错", e);
+            throw new QueueException("分页获取元素失败", e);
+        }
+    }
+
     /**
      * 获取指定排名范围的元素
      * @param start 起始排名(包含)，0表示第一个元素
@@ -374,16 +631,8 @@ public class RedisSortedQueue<T> {
                 
                 if (itemJsonSet != null && !itemJsonSet.isEmpty()) {
                     logger.debug("找到的元素数量: {}", itemJsonSet.size());
-                    for (Object itemJsonObj : itemJsonSet) {
-                        String itemJson = (String) itemJsonObj;
-                        try {
-                            T item = objectMapper.readValue(itemJson, clazz);
-                            result.add(item);
-                        } catch (Exception e) {
-                            logger.error("反序列化对象失败: {}", itemJson, e);
-                            // 继续处理其他项，不因一个项的失败而终止整个操作
-                        }
-                    }
+                    // 反序列化失败的元素记录后跳过，不因一个项的失败而终止整个操作
+                    result.addAll(payloads.load(itemJsonSet));
                 } else {
                     logger.debug("未找到符合条件的元素");
                 }
@@ -415,7 +664,7 @@ public class RedisSortedQueue<T> {
     public Double getScore(T item) {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                String itemJson = objectMapper.writeValueAsString(item);
+                String itemJson = payloads.memberOf(item);
                 return redisTemplate.opsForZSet().score(queueKey, itemJson);
             } catch (Exception e) {
                 logger.warn("获取元素分数时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
@@ -452,7 +701,7 @@ public class RedisSortedQueue<T> {
         // 原有的updateScore逻辑
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                String itemJson = objectMapper.writeValueAsString(item);
+                String itemJson = payloads.memberOf(item);
                 long sequence = SEQUENCE.getAndIncrement() % 1000000;
                 double uniqueScore = score + (sequence / 1000000000.0);
                 
@@ -494,7 +743,7 @@ public class RedisSortedQueue<T> {
     public Long getRank(T item) {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                String itemJson = objectMapper.writeValueAsString(item);
+                String itemJson = payloads.memberOf(item);
                 return redisTemplate.opsForZSet().rank(queueKey, itemJson);
             } catch (Exception e) {
                 logger.warn("获取元素排名时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
@@ -522,8 +771,8 @@ public class RedisSortedQueue<T> {
     public boolean remove(T item) {
         for (int attempt = 0; attempt < MAX_RETRY; attempt++) {
             try {
-                String itemJson = objectMapper.writeValueAsString(item);
-                Long result = redisTemplate.opsForZSet().remove(queueKey, itemJson);
+                String itemJson = payloads.memberOf(item);
+                Long result = redisTemplate.execute(removeScript, Arrays.asList(queueKey, payloads.getPayloadKey()), itemJson);
                 return result != null && result > 0;
             } catch (Exception e) {
                 logger.warn("移除元素时出错，等待{}ms后重试，当前尝试次数: {}/{}", 
@@ -1,5 +1,6 @@
 package com.xuxueli.springbootpriorityqueue.queue;
 
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -54,6 +55,20 @@ public class RedisSortedQueueFactory {
     }
 
     public <T> RedisSortedQueue<T> getQueue(String queueName, Class<T> clazz, boolean fifoMode) {
+        return getQueue(queueName, clazz, fifoMode, QueueCodecs.JSON);
+    }
+
+    /**
+     * 获取指定类型和编解码器的队列实例，同名队列以首次创建时的配置为准
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param fifoMode 是否启用FIFO模式
+     * @param codec 编解码器名称，QueueCodecs.BINARY 时成员为元素ID、负载为紧凑二进制，其他为JSON
+     * @param <T> 元素泛型
+     * @return 队列实例
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RedisSortedQueue<T> getQueue(String queueName, Class<T> clazz, boolean fifoMode, String codec) {
         String cacheKey = queueName + ":" + clazz.getName();
 
         // 首先尝试从缓存获取
@@ -65,7 +80,7 @@ public class RedisSortedQueueFactory {
                 queue = queueCache.get(cacheKey);
                 if (queue == null) {
                     logger.info("创建新的Redis有序队列实例: {}", cacheKey);
-                    queue = new RedisSortedQueue<>(redisTemplate, queueName, clazz, fifoMode);
+                    queue = new RedisSortedQueue<>(redisTemplate, queueName, QueueCodecs.of(codec, clazz), fifoMode);
                     queueCache.put(cacheKey, queue);
                 }
             } finally {
@@ -76,6 +91,17 @@ public class RedisSortedQueueFactory {
         return (RedisSortedQueue<T>) queue;
     }
     
+    /**
+     * 移除指定名称和元素类型的队列实例缓存
+     * 只释放本地实例，不删除Redis中的数据，再次获取时重新创建
+     */
+    public void removeQueue(String queueName, Class<?> clazz) {
+        String cacheKey = queueName + ":" + clazz.getName();
+        if (queueCache.remove(cacheKey) != null) {
+            logger.info("移除Redis有序队列实例: {}", cacheKey);
+        }
+    }
+
     /**
      * 清除队列缓存
      */
@@ -0,0 +1,674 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue.QueueException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于Redis Streams消费组的分布式优先级队列实现
+ * 每个优先级一个STREAM，所有调度中心共用一个消费组，各自以独立的消费者名称读取：
+ * 1. 入队为 XADD，元素字段 m 为成员，使用负载时字段 p 为负载字节，不需要负载哈希；
+ * 2. 出队按优先级1到10依次 XREADGROUP，直接出队立即 XACK + XDEL，租约出队的元素留在消费者的待确认列表(PEL)中；
+ * 3. 确认为 XACK + XDEL；退回重新 XADD 到原优先级STREAM尾部后确认原元素；
+ * 4. 回收：XPENDING 找出空闲超过租约时长的元素，XCLAIM(带最小空闲时间，多个调度中心并发回收同一元素只有一个成功)后重新 XADD。
+ *
+ * 与ZSET/LIST实现的差异：
+ * 1. 不支持公平模式，fairKey参数被忽略；
+ * 2. 同一ID重复入队不会被忽略，会投递多次；
+ * 3. 退回和回收的元素排到原优先级的队尾；
+ * 4. 确认依赖本机租约时记录的消息ID，调度中心重启后之前租约的元素只能等租约到期回收。
+ */
+public class RedisStreamPriorityQueue<T> implements DistributedPriorityQueue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamPriorityQueue.class);
+    private static final int MIN_PRIORITY = 1;
+    private static final int MAX_PRIORITY = 10;
+
+    /**
+     * 消费组名称
+     */
+    public static final String GROUP = "xxl-job";
+
+    private static final byte[] FIELD_MEMBER = "m".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_PAYLOAD = "p".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 默认租约时长
+     */
+    public static final long DEFAULT_LEASE_TIMEOUT_MS = 120000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final QueueCodec<T> codec;
+    private final String queueKey;
+    private final List<String> streamKeys;      // 下标0对应优先级1
+    private final byte[][] rawStreamKeys;
+    private final Consumer consumer;
+
+    // 本机租约出队的元素：成员 -> 所在STREAM和消息ID，确认和退回时使用；JSON编码下相同成员可重复入队，按出队顺序保存多个租约
+    private final ConcurrentMap<String, Deque<Lease>> leases = new ConcurrentHashMap<>();
+    // 回收时的最小空闲时间：待确认列表只记录消息的空闲时间，不记录每次出队的租约时长
+    private final long leaseTimeoutMs;
+    private volatile boolean groupsReady = false;
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param clazz 队列元素类型
+     * @param consumerName 消费者名称，每个调度中心唯一
+     */
+    public RedisStreamPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, Class<T> clazz, String consumerName) {
+        this(redisTemplate, queueName, QueueCodecs.json(clazz), consumerName);
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器
+     * @param consumerName 消费者名称，每个调度中心唯一
+     */
+    public RedisStreamPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec, String consumerName) {
+        this(redisTemplate, queueName, codec, consumerName, DEFAULT_LEASE_TIMEOUT_MS);
+    }
+
+    /**
+     * 构造函数
+     * @param redisTemplate Redis操作模板
+     * @param queueName 队列名称
+     * @param codec 元素编解码器
+     * @param consumerName 消费者名称，每个调度中心唯一
+     * @param leaseTimeoutMs 租约时长(毫秒)，空闲超过该时长的待确认消息由 requeueExpired 回收；小于等于0时使用默认值
+     */
+    public RedisStreamPriorityQueue(RedisTemplate<String, Object> redisTemplate, String queueName, QueueCodec<T> codec,
+                                    String consumerName, long leaseTimeoutMs) {
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+        this.queueKey = "priority_stream:" + queueName;
+        List<String> keys = new ArrayList<>();
+        for (int priority = MIN_PRIORITY; priority <= MAX_PRIORITY; priority++) {
+            keys.add(this.queueKey + ":p" + priority);
+        }
+        this.streamKeys = Collections.unmodifiableList(keys);
+        this.rawStreamKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            this.rawStreamKeys[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.consumer = Consumer.from(GROUP, consumerName);
+        this.leaseTimeoutMs = leaseTimeoutMs > 0 ? leaseTimeoutMs : DEFAULT_LEASE_TIMEOUT_MS;
+
+        QueueMetrics.getInstance().registerDepth(queueKey, this);
+    }
+
+    private static void checkPriority(int priority) {
+        if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("优先级必须在1-10之间");
+        }
+    }
+
+    /**
+     * 首次使用时为各优先级STREAM创建消费组，STREAM不存在时一并创建；消费组已存在(BUSYGROUP)时忽略
+     */
+    private void ensureGroups(RedisConnection connection) {
+        if (groupsReady) {
+            return;
+        }
+        for (byte[] rawKey : rawStreamKeys) {
+            try {
+                connection.streamCommands().xGroupCreate(rawKey, GROUP, ReadOffset.from("0"), true);
+            } catch (Exception e) {
+                if (!isBusyGroup(e)) {
+                    throw e;
+                }
+            }
+        }
+        groupsReady = true;
+    }
+
+    private static boolean isBusyGroup(Throwable e) {
+        return hasError(e, "BUSYGROUP");
+    }
+
+    private static boolean hasError(Throwable e, String code) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在确保消费组存在的连接上执行命令；STREAM被其他调度中心清空(NOGROUP)时重新创建消费组后重试一次
+     */
+    private <R> R execute(RedisCallback<R> callback) {
+        RedisCallback<R> action = connection -> {
+            ensureGroups(connection);
+            return callback.doInRedis(connection);
+        };
+        try {
+            return redisTemplate.execute(action);
+        } catch (RuntimeException e) {
+            if (!hasError(e, "NOGROUP")) {
+                throw e;
+            }
+            groupsReady = false;
+            return redisTemplate.execute(action);
+        }
+    }
+
+    public boolean enqueue(T item, int priority) {
+        return enqueueAll(Collections.singletonList(item), priority) > 0;
+    }
+
+    public boolean enqueue(T item, int priority, String fairKey) {
+        return enqueue(item, priority);
+    }
+
+    public int enqueueAll(Collection<T> items, int priority, String fairKey) {
+        return enqueueAll(items, priority);
+    }
+
+    /**
+     * 批量添加同一优先级的元素，一次管道往返完成全部 XADD
+     * XADD 会自动创建STREAM，消费组在首次读取时从头创建，入队不需要消费组；重复执行会产生重复元素，失败时不重试
+     *
+     * @param items 要添加的元素
+     * @param priority 优先级(1-10)，数字越小优先级越高
+     * @return 成功添加的元素数量
+     */
+    public int enqueueAll(Collection<T> items, int priority) {
+        checkPriority(priority);
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        byte[] rawKey = rawStreamKeys[priority - MIN_PRIORITY];
+        List<Map<byte[], byte[]>> bodies = new ArrayList<>(items.size());
+        for (T item : items) {
+            bodies.add(encode(item));
+        }
+        try {
+            long start = System.nanoTime();
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map<byte[], byte[]> body : bodies) {
+                    connection.streamCommands().xAdd(StreamRecords.rawBytes(body).withStreamKey(rawKey));
+                }
+                return null;
+            });
+            int added = results != null ? results.size() : 0;
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "enqueue", start);
+            logger.debug("【压栈成功】队列: {}, 优先级: {}, 数量: {}", queueKey, priority, added);
+            QueueMetrics.getInstance().recordEnqueue(queueKey, priority, added);
+            return added;
+        } catch (Exception e) {
+            logger.error("添加任务时出错", e);
+            throw new QueueException("添加任务失败", e);
+        }
+    }
+
+    private Map<byte[], byte[]> encode(T item) {
+        Map<byte[], byte[]> body = new HashMap<>();
+        body.put(FIELD_MEMBER, codec.memberOf(item).getBytes(StandardCharsets.UTF_8));
+        if (codec.hasPayload()) {
+            byte[] payload = codec.encode(item);
+            body.put(FIELD_PAYLOAD, payload != null ? payload : new byte[0]);
+        }
+        return body;
+    }
+
+    private static String memberOf(ByteRecord record) {
+        byte[] member = field(record, FIELD_MEMBER);
+        return member != null ? new String(member, StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] field(ByteRecord record, byte[] name) {
+        for (Map.Entry<byte[], byte[]> entry : record.getValue().entrySet()) {
+            if (Arrays.equals(entry.getKey(), name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 还原元素，无法反序列化时返回null
+     */
+    private T decode(ByteRecord record) {
+        String member = memberOf(record);
+        try {
+            byte[] payload = field(record, FIELD_PAYLOAD);
+            return codec.decode(member, payload != null && payload.length > 0 ? payload : null);
+        } catch (Exception e) {
+            logger.error("反序列化对象失败: {}", member, e);
+            return null;
+        }
+    }
+
+    private int priorityIndexOf(byte[] rawKey) {
+        for (int i = 0; i < rawStreamKeys.length; i++) {
+            if (Arrays.equals(rawStreamKeys[i], rawKey)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("未知的STREAM: " + new String(rawKey, StandardCharsets.UTF_8));
+    }
+
+    public T dequeue() {
+        List<T> items = dequeue(1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 阻塞获取并移除优先级最高的元素：各优先级STREAM都为空时，对全部STREAM执行一次 XREADGROUP BLOCK
+     * 阻塞期间多个STREAM同时有新元素时，只取优先级最高的一个，其余重新放回原优先级队尾
+     *
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 优先级最高的元素，超时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T dequeue(long timeoutMs) {
+        T item = dequeue();
+        if (item != null || timeoutMs <= 0) {
+            return item;
+        }
+        StreamOffset<byte[]>[] offsets = new StreamOffset[rawStreamKeys.length];
+        for (int i = 0; i < rawStreamKeys.length; i++) {
+            offsets[i] = StreamOffset.create(rawStreamKeys[i], ReadOffset.lastConsumed());
+        }
+        T blocked = execute(connection -> {
+            List<ByteRecord> records = connection.streamCommands().xReadGroup(consumer,
+                    StreamReadOptions.empty().count(1).block(Duration.ofMillis(timeoutMs)), offsets);
+            if (records == null || records.isEmpty()) {
+                return null;
+            }
+            List<ByteRecord> sorted = new ArrayList<>(records);
+            sorted.sort((a, b) -> Integer.compare(priorityIndexOf(a.getStream()), priorityIndexOf(b.getStream())));
+            T result = null;
+            for (ByteRecord record : sorted) {
+                T decoded = result == null ? decode(record) : null;
+                if (decoded != null) {
+                    result = decoded;
+                } else if (result != null) {
+                    connection.streamCommands().xAdd(StreamRecords.rawBytes(new HashMap<>(record.getValue())).withStreamKey(record.getStream()));
+                }
+                ackAndDelete(connection, record.getStream(), record.getId());
+            }
+            return result;
+        });
+        if (blocked != null) {
+            QueueMetrics.getInstance().recordDequeue(queueKey, 1);
+        }
+        return blocked;
+    }
+
+    public List<T> dequeue(int count) {
+        return poll(count, false);
+    }
+
+    /**
+     * 租约出队；STREAM 实现按构造时指定的租约时长回收，忽略参数 leaseTimeoutMs
+     */
+    public List<T> lease(int count, long leaseTimeoutMs) {
+        return poll(count, true);
+    }
+
+    /**
+     * 按优先级顺序依次 XREADGROUP，直到取满count个元素或所有STREAM都没有新元素
+     * 无法反序列化的元素直接确认删除，不再投递
+     *
+     * @param lease 是否租约出队：租约出队的元素留在待确认列表中，直接出队立即确认并删除
+     */
+    private List<T> poll(int count, boolean lease) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            List<T> items = execute(connection -> {
+                List<T> result = new ArrayList<>();
+                for (int p = 0; p < rawStreamKeys.length && result.size() < count; p++) {
+                    List<ByteRecord> records = connection.streamCommands().xReadGroup(consumer,
+                            StreamReadOptions.empty().count(count - result.size()),
+                            StreamOffset.create(rawStreamKeys[p], ReadOffset.lastConsumed()));
+                    if (records == null || records.isEmpty()) {
+                        continue;
+                    }
+                    List<RecordId> done = new ArrayList<>();
+                    for (ByteRecord record : records) {
+                        T item = decode(record);
+                        if (item == null || !lease) {
+                            done.add(record.getId());
+                        } else {
+                            addLease(memberOf(record), new Lease(p, record.getId()));
+                        }
+                        if (item != null) {
+                            result.add(item);
+                        }
+                    }
+                    if (!done.isEmpty()) {
+                        ackAndDelete(connection, rawStreamKeys[p], done.toArray(new RecordId[0]));
+                    }
+                }
+                return result;
+            });
+            QueueMetrics.getInstance().recordRedisCall(queueKey, lease ? "lease" : "dequeue", start);
+            QueueMetrics.getInstance().recordDequeue(queueKey, items.size());
+            return items;
+        } catch (Exception e) {
+            logger.error("读取STREAM时出错", e);
+            throw new QueueException("获取任务失败", e);
+        }
+    }
+
+    private static long ackAndDelete(RedisConnection connection, byte[] rawKey, RecordId... ids) {
+        Long acked = connection.streamCommands().xAck(rawKey, GROUP, ids);
+        connection.streamCommands().xDel(rawKey, ids);
+        return acked != null ? acked : 0;
+    }
+
+    /**
+     * 确认已租约的元素处理完成：XACK 并删除消息
+     * @param item 租约出队得到的元素
+     * @return 元素仍在本机租约中并被确认返回true
+     */
+    public boolean ack(T item) {
+        Lease lease = takeLease(codec.memberOf(item));
+        if (lease == null) {
+            return false;
+        }
+        try {
+            long start = System.nanoTime();
+            Long acked = execute(connection -> ackAndDelete(connection, rawStreamKeys[lease.priorityIndex], lease.id));
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "ack", start);
+            return acked != null && acked > 0;
+        } catch (Exception e) {
+            logger.error("确认任务时出错", e);
+            throw new QueueException("确认任务失败", e);
+        }
+    }
+
+    /**
+     * 退回已租约的元素：重新 XADD 到原优先级STREAM尾部，再确认原消息；原消息已被回收时撤销新消息
+     * @param item 租约出队得到的元素
+     * @return 元素仍在本机租约中并被退回返回true
+     */
+    public boolean nack(T item) {
+        Lease lease = takeLease(codec.memberOf(item));
+        if (lease == null) {
+            return false;
+        }
+        byte[] rawKey = rawStreamKeys[lease.priorityIndex];
+        try {
+            long start = System.nanoTime();
+            Long acked = execute(connection -> {
+                RecordId readded = connection.streamCommands().xAdd(StreamRecords.rawBytes(encode(item)).withStreamKey(rawKey));
+                long result = ackAndDelete(connection, rawKey, lease.id);
+                if (result == 0 && readded != null) {
+                    connection.streamCommands().xDel(rawKey, readded);
+                }
+                return result;
+            });
+            QueueMetrics.getInstance().recordRedisCall(queueKey, "nack", start);
+            return acked != null && acked > 0;
+        } catch (Exception e) {
+            logger.error("退回任务时出错", e);
+            throw new QueueException("退回任务失败", e);
+        }
+    }
+
+    /**
+     * 回收租约到期的元素：XPENDING 找出空闲超过租约时长的消息，XCLAIM 到本消费者后重新 XADD 并确认原消息
+     * XCLAIM 带最小空闲时间，多个调度中心同时回收时每条消息只会被一个调度中心重新入队
+     *
+     * @param limit 单次最多回收的元素数量
+     * @return 本次回收的元素数量
+     */
+    public long requeueExpired(int limit) {
+        long minIdleMs = leaseTimeoutMs;
+        try {
+            Long result = execute(connection -> {
+                long requeued = 0;
+                for (byte[] rawKey : rawStreamKeys) {
+                    if (requeued >= limit) {
+                        break;
+                    }
+                    PendingMessages pending = connection.streamCommands().xPending(rawKey, GROUP,
+                            RedisStreamCommands.XPendingOptions.unbounded(limit - requeued));
+                    List<RecordId> expired = new ArrayList<>();
+                    if (pending != null) {
+                        for (PendingMessage message : pending) {
+                            if (message.getElapsedTimeSinceLastDelivery().toMillis() >= minIdleMs) {
+                                expired.add(message.getId());
+                            }
+                        }
+                    }
+                    if (expired.isEmpty()) {
+                        continue;
+                    }
+                    List<ByteRecord> claimed = connection.streamCommands().xClaim(rawKey, GROUP, consumer.getName(),
+                            RedisStreamCommands.XClaimOptions.minIdle(Duration.ofMillis(minIdleMs)).ids(expired.toArray(new RecordId[0])));
+                    if (claimed == null) {
+                        continue;
+                    }
+                    for (ByteRecord record : claimed) {
+                        connection.streamCommands().xAdd(StreamRecords.rawBytes(new HashMap<>(record.getValue())).withStreamKey(rawKey));
+                        ackAndDelete(connection, rawKey, record.getId());
+                        String member = memberOf(record);
+                        if (member != null) {
+                            removeLease(member, record.getId());
+                        }
+                        requeued++;
+                    }
+                }
+                return requeued;
+            });
+            long requeued = result != null ? result : 0;
+            if (requeued > 0) {
+                logger.warn("回收租约到期的任务，队列: {}, 数量: {}", queueKey, requeued);
+            }
+            return requeued;
+        } catch (Exception e) {
+            logger.error("回收租约到期的任务时出错", e);
+            throw new QueueException("回收租约到期的任务失败", e);
+        }
+    }
+
+    /**
+     * 获取处理中(所有调度中心已读取未确认)的元素数量
+     */
+    public long leasedSize() {
+        Long size = execute(this::pendingCount);
+        return size != null ? size : 0;
+    }
+
+    private long pendingCount(RedisConnection connection) {
+        long total = 0;
+        for (byte[] rawKey : rawStreamKeys) {
+            PendingMessagesSummary summary = connection.streamCommands().xPending(rawKey, GROUP);
+            if (summary != null) {
+                total += summary.getTotalPendingMessages();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 查看优先级最高的元素但不移除：从消费组最后投递的位置之后读取第一条消息
+     */
+    public T peek() {
+        List<T> items = range(MIN_PRIORITY, MAX_PRIORITY, 1);
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    /**
+     * 获取队列长度：各STREAM长度之和减去待确认的消息数(确认后的消息已删除)
+     */
+    public long size() {
+        Long size = execute(connection -> {
+            long total = 0;
+            for (byte[] rawKey : rawStreamKeys) {
+                Long length = connection.streamCommands().xLen(rawKey);
+                total += length != null ? length : 0;
+            }
+            return Math.max(0, total - pendingCount(connection));
+        });
+        return size != null ? size : 0;
+    }
+
+    /**
+     * 获取各优先级的队列长度：每个STREAM的长度减去其待确认的消息数
+     */
+    public long[] sizeByPriority() {
+        long[] depths = execute(connection -> {
+            long[] result = new long[rawStreamKeys.length];
+            for (int i = 0; i < rawStreamKeys.length; i++) {
+                Long length = connection.streamCommands().xLen(rawStreamKeys[i]);
+                PendingMessagesSummary summary = connection.streamCommands().xPending(rawStreamKeys[i], GROUP);
+                long pending = summary != null ? summary.getTotalPendingMessages() : 0;
+                result[i] = Math.max(0, (length != null ? length : 0) - pending);
+            }
+            return result;
+        });
+        return depths != null ? depths : new long[rawStreamKeys.length];
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 清空队列：删除全部STREAM(连同消费组)，下次使用时重新创建消费组
+     */
+    public boolean clear() {
+        logger.info("【清空队列】准备清空队列: {}", queueKey);
+        Long result = redisTemplate.delete(streamKeys);
+        groupsReady = false;
+        leases.clear();
+        return result != null && result > 0;
+    }
+
+    public Set<T> getItemsByPriorityRange(int minPriority, int maxPriority) {
+        if (minPriority > maxPriority) {
+            throw new IllegalArgumentException("最小优先级不能大于最大优先级");
+        }
+        checkPriority(minPriority);
+        checkPriority(maxPriority);
+        return new HashSet<>(range(minPriority, maxPriority, 1000));
+    }
+
+    /**
+     * 按优先级顺序读取尚未投递的消息，最多limit条
+     */
+    private List<T> range(int minPriority, int maxPriority, int limit) {
+        return execute(connection -> {
+            List<T> result = new ArrayList<>();
+            for (int p = minPriority - MIN_PRIORITY; p <= maxPriority - MIN_PRIORITY && result.size() < limit; p++) {
+                String lastDeliveredId = lastDeliveredId(connection, rawStreamKeys[p]);
+                Range<String> range = lastDeliveredId != null
+                        ? Range.rightUnbounded(Range.Bound.exclusive(lastDeliveredId))
+                        : Range.unbounded();
+                List<ByteRecord> records = connection.streamCommands().xRange(rawStreamKeys[p], range,
+                        Limit.limit().count(limit - result.size()));
+                if (records == null) {
+                    continue;
+                }
+                for (ByteRecord record : records) {
+                    T item = decode(record);
+                    if (item != null) {
+                        result.add(item);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    private static String lastDeliveredId(RedisConnection connection, byte[] rawKey) {
+        StreamInfo.XInfoGroups groups = connection.streamCommands().xInfoGroups(rawKey);
+        if (groups == null) {
+            return null;
+        }
+        for (int i = 0; i < groups.groupCount(); i++) {
+            StreamInfo.XInfoGroup group = groups.get(i);
+            if (GROUP.equals(group.groupName())) {
+                return group.lastDeliveredId();
+            }
+        }
+        return null;
+    }
+
+    private void addLease(String member, Lease lease) {
+        leases.compute(member, (key, queue) -> {
+            Deque<Lease> result = queue != null ? queue : new ArrayDeque<>();
+            result.addLast(lease);
+            return result;
+        });
+    }
+
+    /**
+     * 取出成员最早的一个租约，成员没有租约时返回null
+     */
+    private Lease takeLease(String member) {
+        Lease[] taken = new Lease[1];
+        leases.computeIfPresent(member, (key, queue) -> {
+            taken[0] = queue.pollFirst();
+            return queue.isEmpty() ? null : queue;
+        });
+        return taken[0];
+    }
+
+    /**
+     * 移除成员指定消息ID的租约，消息已被回收时调用
+     */
+    private void removeLease(String member, RecordId id) {
+        leases.computeIfPresent(member, (key, queue) -> {
+            queue.removeIf(lease -> lease.id.equals(id));
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    private static class Lease {
+        private final int priorityIndex;
+        private final RecordId id;
+
+        Lease(int priorityIndex, RecordId id) {
+            this.priorityIndex = priorityIndex;
+            this.id = id;
+        }
+    }
+}
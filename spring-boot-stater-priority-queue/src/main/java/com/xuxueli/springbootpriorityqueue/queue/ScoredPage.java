@@ -0,0 +1,68 @@
+package com.xuxueli.springbootpriorityqueue.queue;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按分数范围分页查询的结果
+ * <p>
+ * 游标格式为 "分数:偏移"：下一页从该分数开始(包含)，跳过该分数上已返回的元素数。
+ * 游标只依赖分数，翻页期间有元素入队或出队不会导致重复或遗漏已存在的元素。
+ */
+public class ScoredPage<T> {
+
+    private final List<T> items;
+    private final List<Double> scores;
+    private final String nextCursor;
+
+    public ScoredPage(List<T> items, List<Double> scores, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.scores = Collections.unmodifiableList(scores);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 本页元素，按分数从小到大排列
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * 与 items 一一对应的分数
+     */
+    public List<Double> getScores() {
+        return scores;
+    }
+
+    /**
+     * 下一页游标，没有更多元素时为null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    static String cursor(double score, long offset) {
+        return score + ":" + offset;
+    }
+
+    static double cursorScore(String cursor) {
+        return Double.parseDouble(cursor.substring(0, separator(cursor)));
+    }
+
+    static long cursorOffset(String cursor) {
+        return Long.parseLong(cursor.substring(separator(cursor) + 1));
+    }
+
+    private static int separator(String cursor) {
+        int index = cursor.lastIndexOf(':');
+        if (index <= 0 || index == cursor.length() - 1) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor);
+        }
+        return index;
+    }
+}
@@ -1,16 +1,28 @@
 package com.xuxueli.springbootpriorityqueue.service;
 
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
 import com.xuxueli.springbootpriorityqueue.model.SortedTask;
+import com.xuxueli.springbootpriorityqueue.queue.RedisDelayQueue;
 import com.xuxueli.springbootpriorityqueue.queue.RedisSortedQueue;
 import com.xuxueli.springbootpriorityqueue.queue.RedisSortedQueueFactory;
+import com.xuxueli.springbootpriorityqueue.queue.ScoredPage;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 排序任务服务类
@@ -25,19 +37,34 @@ import java.util.Set;
  * 4. 按分数范围获取任务
  * 5. 更新任务优先级
  * 6. 从队列中移除指定任务
+ * 7. 延迟到指定时间后才入队(执行器组队列)
  */
 @Service
 public class SortedTaskService {
     private static final Logger logger = LoggerFactory.getLogger(SortedTaskService.class);
+    private static final String TASK_QUEUE_NAME = "sorted_tasks";
 
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
+    private RedisSortedQueueFactory redisSortedQueueFactory;
     private RedisSortedQueue<SortedTask> taskQueue;
 
+    /**
+     * 执行器组延迟队列
+     * key: 执行器组ID
+     */
+    private final ConcurrentMap<Integer, RedisDelayQueue<SortedTask>> delayQueues = new ConcurrentHashMap<>();
+
+    /**
+     * 编解码器：json(默认，成员为任务完整JSON) 或 binary(成员为任务ID，负载为紧凑二进制，同一ID重复入队被忽略)
+     */
+    @Value("${priority-queue.codec:json}")
+    private String codec;
+
     @PostConstruct
     public void init() {
-        RedisSortedQueueFactory redisSortedQueueFactory = new RedisSortedQueueFactory(redisTemplate);
-        this.taskQueue = redisSortedQueueFactory.getQueue("sorted_tasks", SortedTask.class);
+        this.redisSortedQueueFactory = new RedisSortedQueueFactory(redisTemplate);
+        this.taskQueue = redisSortedQueueFactory.getQueue(TASK_QUEUE_NAME, SortedTask.class, true, codec);
     }
 
     /**
@@ -51,6 +78,215 @@ public class SortedTaskService {
         return taskQueue.enqueue(task, task.getPriority());
     }
 
+    /**
+     * 添加任务到指定执行器组的队列
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     任务对象
+     * @return 添加是否成功
+     */
+    public boolean addTask(int jobGroup, SortedTask task) {
+        logger.debug("添加任务到执行器组队列: {}, 任务: {}, 优先级: {}", jobGroup, task.getId(), task.getPriority());
+        return groupQueue(jobGroup).enqueue(task, task.getPriority());
+    }
+
+    /**
+     * 批量添加任务到指定执行器组的队列，相同优先级的任务一次往返写入
+     *
+     * @param jobGroup 执行器组ID
+     * @param tasks    任务列表
+     * @return 成功添加的任务数量
+     */
+    public int addTasks(int jobGroup, Collection<SortedTask> tasks) {
+        return addTasks(groupQueue(jobGroup), tasks);
+    }
+
+    /**
+     * 批量添加任务到队列，相同优先级的任务一次往返写入
+     *
+     * @param tasks 任务列表
+     * @return 成功添加的任务数量
+     */
+    public int addTasks(Collection<SortedTask> tasks) {
+        return addTasks(taskQueue, tasks);
+    }
+
+    private int addTasks(RedisSortedQueue<SortedTask> queue, Collection<SortedTask> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return 0;
+        }
+        Map<Double, List<SortedTask>> tasksByPriority = new LinkedHashMap<>();
+        for (SortedTask task : tasks) {
+            tasksByPriority.computeIfAbsent(task.getPriority(), k -> new ArrayList<>()).add(task);
+        }
+        int added = 0;
+        for (Map.Entry<Double, List<SortedTask>> entry : tasksByPriority.entrySet()) {
+            added += queue.enqueueAll(entry.getValue(), entry.getKey());
+        }
+        logger.debug("批量添加任务, 请求数量: {}, 实际数量: {}", tasks.size(), added);
+        return added;
+    }
+
+    /**
+     * 延迟添加任务到指定执行器组的队列，到达就绪时间后由 transferReadyTasks 移入执行器组队列
+     *
+     * @param jobGroup      执行器组ID
+     * @param tasks         任务列表
+     * @param readyAtMillis 就绪时间(毫秒时间戳)
+     * @return 写入延迟队列的任务数量
+     */
+    public int scheduleTasks(int jobGroup, Collection<SortedTask> tasks, long readyAtMillis) {
+        if (tasks == null || tasks.isEmpty()) {
+            return 0;
+        }
+        Map<Double, List<SortedTask>> tasksByPriority = new LinkedHashMap<>();
+        for (SortedTask task : tasks) {
+            tasksByPriority.computeIfAbsent(task.getPriority(), k -> new ArrayList<>()).add(task);
+        }
+        RedisDelayQueue<SortedTask> delayQueue = groupDelayQueue(jobGroup);
+        int scheduled = 0;
+        for (Map.Entry<Double, List<SortedTask>> entry : tasksByPriority.entrySet()) {
+            scheduled += delayQueue.scheduleAll(entry.getValue(), entry.getKey(), readyAtMillis);
+        }
+        logger.debug("延迟添加执行器组任务: {}, 数量: {}, 就绪时间: {}", jobGroup, scheduled, readyAtMillis);
+        return scheduled;
+    }
+
+    /**
+     * 把指定执行器组延迟队列中到期的任务原子地移入执行器组队列
+     *
+     * @param jobGroup 执行器组ID
+     * @param limit    单次最多转移的任务数量
+     * @return 转移的任务数量
+     */
+    public int transferReadyTasks(int jobGroup, int limit) {
+        return groupDelayQueue(jobGroup).transferReady(groupQueue(jobGroup), limit);
+    }
+
+    /**
+     * 原子地批量获取并移除指定执行器组队列中优先级最高的前count个任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param count    最多获取的任务数量
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<SortedTask> getNextTasks(int jobGroup, int count) {
+        List<SortedTask> tasks = recordWait(groupQueueName(jobGroup), groupQueue(jobGroup).dequeue(count));
+        logger.debug("批量获取执行器组任务: {}, 请求数量: {}, 实际数量: {}", jobGroup, count, tasks.size());
+        return tasks;
+    }
+
+    /**
+     * 租约获取指定执行器组队列中优先级最高的前count个任务，任务移入处理中集合
+     * 触发成功后调用 ackTask 确认，触发失败调用 nackTask 退回；未确认的任务在租约到期后重新入队
+     *
+     * @param jobGroup       执行器组ID
+     * @param count          最多获取的任务数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<SortedTask> leaseNextTasks(int jobGroup, int count, long leaseTimeoutMs) {
+        return recordWait(groupQueueName(jobGroup), groupQueue(jobGroup).lease(count, leaseTimeoutMs));
+    }
+
+    /**
+     * 确认执行器组队列中已租约的任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     租约获取的任务
+     * @return 确认是否成功，租约已到期返回false
+     */
+    public boolean ackTask(int jobGroup, SortedTask task) {
+        return groupQueue(jobGroup).ack(task);
+    }
+
+    /**
+     * 退回执行器组队列中已租约的任务，按原优先级立即重新入队
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     租约获取的任务
+     * @return 退回是否成功
+     */
+    public boolean nackTask(int jobGroup, SortedTask task) {
+        return groupQueue(jobGroup).nack(task);
+    }
+
+    /**
+     * 回收执行器组队列中租约到期的任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param limit    单次最多回收的任务数量
+     * @return 回收的任务数量
+     */
+    public long requeueExpiredTasks(int jobGroup, int limit) {
+        return groupQueue(jobGroup).requeueExpired(limit);
+    }
+
+    /**
+     * 租约获取全局队列中优先级最高的前count个任务
+     *
+     * @param count          最多获取的任务数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<SortedTask> leaseNextTasks(int count, long leaseTimeoutMs) {
+        return recordWait(TASK_QUEUE_NAME, taskQueue.lease(count, leaseTimeoutMs));
+    }
+
+    /**
+     * 确认全局队列中已租约的任务
+     */
+    public boolean ackTask(SortedTask task) {
+        return taskQueue.ack(task);
+    }
+
+    /**
+     * 退回全局队列中已租约的任务
+     */
+    public boolean nackTask(SortedTask task) {
+        return taskQueue.nack(task);
+    }
+
+    /**
+     * 回收全局队列中租约到期的任务
+     */
+    public long requeueExpiredTasks(int limit) {
+        return taskQueue.requeueExpired(limit);
+    }
+
+    /**
+     * 释放执行器组队列的本地实例，Redis中未消费的任务保留
+     *
+     * @param jobGroup 执行器组ID
+     */
+    public void releaseGroupQueue(int jobGroup) {
+        redisSortedQueueFactory.removeQueue(groupQueueName(jobGroup), SortedTask.class);
+        delayQueues.remove(jobGroup);
+    }
+
+    private RedisSortedQueue<SortedTask> groupQueue(int jobGroup) {
+        return redisSortedQueueFactory.getQueue(groupQueueName(jobGroup), SortedTask.class, true, codec);
+    }
+
+    private RedisDelayQueue<SortedTask> groupDelayQueue(int jobGroup) {
+        return delayQueues.computeIfAbsent(jobGroup,
+                k -> new RedisDelayQueue<>(redisTemplate, groupQueueName(k), QueueCodecs.of(codec, SortedTask.class)));
+    }
+
+    private static String groupQueueName(int jobGroup) {
+        return "sorted_tasks:group:" + jobGroup;
+    }
+
+    /**
+     * 记录任务从创建到出队的等待时间，取自任务的创建时间
+     */
+    private static List<SortedTask> recordWait(String queueName, List<SortedTask> tasks) {
+        for (SortedTask task : tasks) {
+            QueueMetrics.getInstance().recordWait(queueName, task.getCreatedAt());
+        }
+        return tasks;
+    }
+
     /**
      * 获取并移除优先级最高的任务
      *
@@ -59,6 +295,7 @@ public class SortedTaskService {
     public SortedTask getNextTask() {
         SortedTask task = taskQueue.dequeue();
         if (task != null) {
+            QueueMetrics.getInstance().recordWait(TASK_QUEUE_NAME, task.getCreatedAt());
             logger.debug("获取到优先级最高的任务: {}", task.getId());
         } else {
             logger.debug("队列为空，没有获取到任务");
@@ -66,6 +303,18 @@ public class SortedTaskService {
         return task;
     }
 
+    /**
+     * 原子地批量获取并移除优先级最高的前count个任务
+     *
+     * @param count 最多获取的任务数量
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<SortedTask> getNextTasks(int count) {
+        List<SortedTask> tasks = recordWait(TASK_QUEUE_NAME, taskQueue.dequeue(count));
+        logger.debug("批量获取任务, 请求数量: {}, 实际数量: {}", count, tasks.size());
+        return tasks;
+    }
+
     /**
      * 查看下一个要处理的任务但不移除
      *
@@ -93,6 +342,33 @@ public class SortedTaskService {
         return taskQueue.getItemsByScoreRange(minScore, maxScore);
     }
 
+    /**
+     * 按分数范围分页获取任务，每页一次Redis往返，适合队列看板翻页
+     *
+     * @param minScore 最小分数（包含）
+     * @param maxScore 最大分数（包含）
+     * @param cursor   上一页返回的游标，第一页为null
+     * @param limit    每页最多任务数
+     * @return 本页任务、分数和下一页游标
+     */
+    public ScoredPage<SortedTask> getTasksByScoreRange(double minScore, double maxScore, String cursor, int limit) {
+        return taskQueue.getItemsByScoreRange(minScore, maxScore, cursor, limit);
+    }
+
+    /**
+     * 按分数范围分页获取指定执行器组队列中的任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param minScore 最小分数（包含）
+     * @param maxScore 最大分数（包含）
+     * @param cursor   上一页返回的游标，第一页为null
+     * @param limit    每页最多任务数
+     * @return 本页任务、分数和下一页游标
+     */
+    public ScoredPage<SortedTask> getTasksByScoreRange(int jobGroup, double minScore, double maxScore, String cursor, int limit) {
+        return groupQueue(jobGroup).getItemsByScoreRange(minScore, maxScore, cursor, limit);
+    }
+
     /**
      * 获取高优先级任务（分数0-3）
      *
@@ -1,14 +1,16 @@
 package com.xuxueli.springbootpriorityqueue.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xuxueli.springbootpriorityqueue.metrics.QueueMetrics;
 import com.xuxueli.springbootpriorityqueue.model.Task;
-import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue;
+import com.xuxueli.springbootpriorityqueue.queue.DistributedPriorityQueue;
 import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueueFactory;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -16,19 +18,38 @@ import java.util.Set;
  */
 @Service
 public class TaskService {
+    private static final String TASK_QUEUE_NAME = "tasks";
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
-    @Autowired
-    private ObjectMapper objectMapper;
-    private RedisPriorityQueue<Task> taskQueue;
+    private RedisPriorityQueueFactory redisPriorityQueueFactory;
+    private DistributedPriorityQueue<Task> taskQueue;
+
+    /**
+     * 公平模式：执行器组队列按父任务分子队列轮询出队，避免大批量分片饿死其他任务
+     */
+    @Value("${priority-queue.fair-share:false}")
+    private boolean fairShare;
+
+    /**
+     * 队列实现：zset(默认)、list(每个优先级一个LIST，入队出队O(1)，不支持公平模式)、
+     * stream(每个优先级一个STREAM，消费组读取，不支持公平模式)
+     * 或 embedded(进程内队列，只适用于单个调度中心，不支持公平模式)
+     * embedded 只替换本服务的执行器组队列；SortedTaskService 的有序队列、延迟队列和失败重试队列仍使用Redis
+     */
+    @Value("${priority-queue.backend:zset}")
+    private String backend;
+
+    /**
+     * 编解码器：json(默认，成员为任务完整JSON) 或 binary(成员为任务ID，负载为紧凑二进制，同一ID重复入队被忽略)
+     */
+    @Value("${priority-queue.codec:json}")
+    private String codec;
 
 
     @PostConstruct
     public void init() {
-        RedisPriorityQueueFactory redisPriorityQueueFactory = new RedisPriorityQueueFactory(redisTemplate, objectMapper);
         // 获取或创建一个Task类型的优先级队列
-        this.taskQueue = redisPriorityQueueFactory.getQueue("tasks", Task.class);
+        this.taskQueue = redisPriorityQueueFactory.getQueue(TASK_QUEUE_NAME, Task.class, backend, false, codec);
     }
 
     /**
@@ -41,13 +62,205 @@ public class TaskService {
         taskQueue.enqueue(task, priority);
     }
 
+    /**
+     * 批量添加同一优先级的任务到队列
+     *
+     * @param tasks    任务列表
+     * @param priority 优先级(1-10)
+     * @return 成功添加的任务数量
+     */
+    public int addTasks(Collection<Task> tasks, int priority) {
+        return taskQueue.enqueueAll(tasks, priority);
+    }
+
+    /**
+     * 添加任务到指定执行器组的队列
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     任务对象
+     * @param priority 优先级(1-10)
+     */
+    public void addTask(int jobGroup, Task task, int priority) {
+        groupQueue(jobGroup).enqueue(task, priority);
+    }
+
+    /**
+     * 添加任务到指定执行器组的队列，公平模式下同一父任务的分片进入同一子队列
+     *
+     * @param jobGroup  执行器组ID
+     * @param task      任务对象
+     * @param priority  优先级(1-10)
+     * @param parentKey 父任务标识，为空时进入默认子队列
+     */
+    public void addTask(int jobGroup, Task task, int priority, String parentKey) {
+        groupQueue(jobGroup).enqueue(task, priority, parentKey);
+    }
+
+    /**
+     * 批量添加同一优先级的任务到指定执行器组的队列，一次往返写入一批任务
+     *
+     * @param jobGroup  执行器组ID
+     * @param tasks     任务列表
+     * @param priority  优先级(1-10)
+     * @param parentKey 父任务标识，为空时进入默认子队列
+     * @return 成功添加的任务数量
+     */
+    public int addTasks(int jobGroup, Collection<Task> tasks, int priority, String parentKey) {
+        return groupQueue(jobGroup).enqueueAll(tasks, priority, parentKey);
+    }
+
+    /**
+     * 原子地批量获取并移除指定执行器组队列中优先级最高的前count个任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param count    最多获取的任务数量
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<Task> getNextTasks(int jobGroup, int count) {
+        return recordWait(groupQueueName(jobGroup), groupQueue(jobGroup).dequeue(count));
+    }
+
+    /**
+     * 阻塞获取指定执行器组队列中优先级最高的任务，队列为空时最多等待timeoutMs毫秒
+     *
+     * @param jobGroup  执行器组ID
+     * @param timeoutMs 最长等待时间(毫秒)
+     * @return 下一个任务，超时返回null
+     */
+    public Task getNextTask(int jobGroup, long timeoutMs) {
+        Task task = groupQueue(jobGroup).dequeue(timeoutMs);
+        if (task != null) {
+            QueueMetrics.getInstance().recordWait(groupQueueName(jobGroup), task.getCreatedAt());
+        }
+        return task;
+    }
+
+    /**
+     * 租约获取指定执行器组队列中优先级最高的前count个任务，任务移入处理中集合
+     * 触发成功后调用 ackTask 确认，触发失败调用 nackTask 退回；未确认的任务在租约到期后重新入队
+     *
+     * @param jobGroup       执行器组ID
+     * @param count          最多获取的任务数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<Task> leaseNextTasks(int jobGroup, int count, long leaseTimeoutMs) {
+        return recordWait(groupQueueName(jobGroup), groupQueue(jobGroup).lease(count, leaseTimeoutMs));
+    }
+
+    /**
+     * 确认执行器组队列中已租约的任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     租约获取的任务
+     * @return 确认是否成功，租约已到期返回false
+     */
+    public boolean ackTask(int jobGroup, Task task) {
+        return groupQueue(jobGroup).ack(task);
+    }
+
+    /**
+     * 退回执行器组队列中已租约的任务，按原优先级立即重新入队
+     *
+     * @param jobGroup 执行器组ID
+     * @param task     租约获取的任务
+     * @return 退回是否成功
+     */
+    public boolean nackTask(int jobGroup, Task task) {
+        return groupQueue(jobGroup).nack(task);
+    }
+
+    /**
+     * 回收执行器组队列中租约到期的任务
+     *
+     * @param jobGroup 执行器组ID
+     * @param limit    单次最多回收的任务数量
+     * @return 回收的任务数量
+     */
+    public long requeueExpiredTasks(int jobGroup, int limit) {
+        return groupQueue(jobGroup).requeueExpired(limit);
+    }
+
+    /**
+     * 租约获取全局队列中优先级最高的前count个任务
+     *
+     * @param count          最多获取的任务数量
+     * @param leaseTimeoutMs 租约时长(毫秒)
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<Task> leaseNextTasks(int count, long leaseTimeoutMs) {
+        return recordWait(TASK_QUEUE_NAME, taskQueue.lease(count, leaseTimeoutMs));
+    }
+
+    /**
+     * 确认全局队列中已租约的任务
+     */
+    public boolean ackTask(Task task) {
+        return taskQueue.ack(task);
+    }
+
+    /**
+     * 退回全局队列中已租约的任务
+     */
+    public boolean nackTask(Task task) {
+        return taskQueue.nack(task);
+    }
+
+    /**
+     * 回收全局队列中租约到期的任务
+     */
+    public long requeueExpiredTasks(int limit) {
+        return taskQueue.requeueExpired(limit);
+    }
+
+    /**
+     * 释放执行器组队列的本地实例，Redis中未消费的任务保留
+     *
+     * @param jobGroup 执行器组ID
+     */
+    public void releaseGroupQueue(int jobGroup) {
+        redisPriorityQueueFactory.removeQueue(groupQueueName(jobGroup), Task.class);
+    }
+
+    private DistributedPriorityQueue<Task> groupQueue(int jobGroup) {
+        return redisPriorityQueueFactory.getQueue(groupQueueName(jobGroup), Task.class, backend, fairShare, codec);
+    }
+
+    private static String groupQueueName(int jobGroup) {
+        return "tasks:group:" + jobGroup;
+    }
+
+    /**
+     * 记录任务从创建到出队的等待时间：队列分数只包含优先级和序号，等待时间取自任务的创建时间
+     */
+    private static List<Task> recordWait(String queueName, List<Task> tasks) {
+        for (Task task : tasks) {
+            QueueMetrics.getInstance().recordWait(queueName, task.getCreatedAt());
+        }
+        return tasks;
+    }
+
     /**
      * 获取下一个要处理的任务(优先级最高的)
      *
      * @return 下一个任务，如果队列为空则返回null
      */
     public Task getNextTask() {
-        return taskQueue.dequeue();
+        Task task = taskQueue.dequeue();
+        if (task != null) {
+            QueueMetrics.getInstance().recordWait(TASK_QUEUE_NAME, task.getCreatedAt());
+        }
+        return task;
+    }
+
+    /**
+     * 原子地批量获取并移除优先级最高的前count个任务
+     *
+     * @param count 最多获取的任务数量
+     * @return 按优先级排列的任务列表，队列为空时返回空列表
+     */
+    public List<Task> getNextTasks(int count) {
+        return recordWait(TASK_QUEUE_NAME, taskQueue.dequeue(count));
     }
 
     /**
@@ -3,6 +3,7 @@ package com.xxl.job.admin.controller;
 import com.xxl.job.admin.controller.annotation.PermissionLimit;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -67,6 +68,9 @@ public class JobApiController {
         } else if ("reportRunningThreads".equals(uri)) {
             List<ThreadInfo> threadInfoList = GsonTool.fromJson(data, List.class, ThreadInfo.class);
             return adminBiz.reportRunningThreads(threadInfoList);
+        } else if ("reportLoad".equals(uri)) {
+            ExecutorLoadParam executorLoadParam = GsonTool.fromJson(data, ExecutorLoadParam.class);
+            return adminBiz.reportLoad(executorLoadParam);
         } else {
             return new ReturnT<String>(ReturnT.FAIL_CODE, "invalid request, uri-mapping("+ uri +") not found.");
         }
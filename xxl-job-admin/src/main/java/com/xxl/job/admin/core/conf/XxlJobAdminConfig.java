@@ -67,6 +67,24 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
     @Value("${xxl.job.triggerpool.slow.max}")
     private int triggerPoolSlowMax;
 
+    @Value("${xxl.job.triggerpool.broadcast.max:50}")
+    private int triggerPoolBroadcastMax;
+
+    @Value("${xxl.job.taskqueue.lane.parallelism:1}")
+    private int taskQueueLaneParallelism;
+
+    @Value("${xxl.job.taskqueue.lease.timeout:120}")
+    private int taskQueueLeaseTimeout;
+
+    @Value("${xxl.job.taskqueue.prefetch.size:20}")
+    private int taskQueuePrefetchSize;
+
+    @Value("${xxl.job.failretry.backoff.base:10}")
+    private int failRetryBackoffBase;
+
+    @Value("${xxl.job.failretry.backoff.max:600}")
+    private int failRetryBackoffMax;
+
     @Value("${xxl.job.logretentiondays}")
     private int logretentiondays;
 
@@ -96,6 +114,13 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
         return xxlJobShardingInfoDao;
     }
 
+    @Resource
+    private XxlJobTaskExecutorMappingMapper xxlJobTaskExecutorMappingMapper;
+
+    public XxlJobTaskExecutorMappingMapper getXxlJobTaskExecutorMappingMapper() {
+        return xxlJobTaskExecutorMappingMapper;
+    }
+
 
     public String getI18n() {
         if (!Arrays.asList("zh_CN", "zh_TC", "en").contains(i18n)) {
@@ -130,6 +155,54 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
         return triggerPoolSlowMax;
     }
 
+    public int getTriggerPoolBroadcastMax() {
+        if (triggerPoolBroadcastMax < 10) {
+            return 10;
+        }
+        return triggerPoolBroadcastMax;
+    }
+
+    public int getTaskQueueLaneParallelism() {
+        if (taskQueueLaneParallelism < 1) {
+            return 1;
+        }
+        if (taskQueueLaneParallelism > 16) {
+            return 16;
+        }
+        return taskQueueLaneParallelism;
+    }
+
+    public int getTaskQueueLeaseTimeout() {
+        if (taskQueueLeaseTimeout < 10) {
+            return 10;
+        }
+        return taskQueueLeaseTimeout;
+    }
+
+    public int getFailRetryBackoffBase() {
+        if (failRetryBackoffBase < 0) {
+            return 0;
+        }
+        return failRetryBackoffBase;
+    }
+
+    public int getFailRetryBackoffMax() {
+        if (failRetryBackoffMax < getFailRetryBackoffBase()) {
+            return getFailRetryBackoffBase();
+        }
+        return failRetryBackoffMax;
+    }
+
+    public int getTaskQueuePrefetchSize() {
+        if (taskQueuePrefetchSize < 0) {
+            return 0;
+        }
+        if (taskQueuePrefetchSize > 200) {
+            return 200;
+        }
+        return taskQueuePrefetchSize;
+    }
+
     public int getLogretentiondays() {
         if (logretentiondays < 7) {
             return -1;  // Limit greater than or equal to 7, otherwise close
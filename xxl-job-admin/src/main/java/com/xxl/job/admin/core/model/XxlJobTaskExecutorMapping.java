@@ -14,6 +14,7 @@ public class XxlJobTaskExecutorMapping {
     private Long groupId;
     private String appName;
     private String title;
+    private String partitionKey;    // 数据分区键，用于分区亲和路由
 
     public Long getGroupId() {
         return groupId;
@@ -71,4 +72,12 @@ public class XxlJobTaskExecutorMapping {
         this.executorAddress = executorAddress;
     }
 
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
 }
@@ -0,0 +1,398 @@
+package com.xxl.job.admin.core.route;
+
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
+import com.xxl.job.core.enums.RegistryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行器负载表
+ * <p>
+ * 执行器在负载变化及心跳时主动推送 running/pending/capacity，调度中心在内存中维护最新快照，
+ * 路由时直接读表，不再逐个地址同步调用 status()。
+ * <p>
+ * 1. 单个地址的读取/预占为 O(1)，选择空闲节点只做一次内存遍历，无网络 IO；
+ * 2. 超过 LOAD_STALE_TIMEOUT 未上报的快照视为过期，不参与选择；
+ * 3. 派发成功后先在本地预占一个槽位，避免两次上报之间把任务全部派给同一节点；
+ *    新快照只保留晚于其采样时间的预占(仍在途、执行器尚未计入)，早于采样时间的预占已体现在上报的运行数/等待数中；
+ * 4. 上报使空闲槽位增加时异步通知容量监听器，派发线程据此唤醒，无需定时轮询，上报/心跳线程不执行监听器。
+ */
+public class ExecutorLoadTable {
+    private static Logger logger = LoggerFactory.getLogger(ExecutorLoadTable.class);
+
+    /**
+     * 快照过期时间：超过该时间未收到上报，认为数据不可信
+     */
+    public static final long LOAD_STALE_TIMEOUT = RegistryConfig.DEAD_TIMEOUT * 1000L;
+
+    private static ExecutorLoadTable instance = new ExecutorLoadTable();
+
+    public static ExecutorLoadTable getInstance() {
+        return instance;
+    }
+
+    /**
+     * 负载表
+     * key: 执行器地址
+     */
+    private final ConcurrentMap<String, ExecutorLoad> loadTable = new ConcurrentHashMap<>();
+
+    /**
+     * 选择起点轮转计数
+     */
+    private final AtomicInteger roundCount = new AtomicInteger(0);
+
+    /**
+     * 容量变化监听器：执行器空闲槽位增加时回调
+     */
+    private final List<Runnable> capacityListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 容量通知线程：多次通知在执行前合并为一次
+     */
+    private final ThreadPoolExecutor notifyPool = new ThreadPoolExecutor(
+            1,
+            1,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            r -> {
+                Thread thread = new Thread(r, "xxl-job, admin ExecutorLoadTable-notifyPool-" + r.hashCode());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final AtomicBoolean notifyPending = new AtomicBoolean(false);
+
+    public ExecutorLoadTable() {
+        notifyPool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 执行器上报负载，覆盖旧快照
+     * <p>
+     * 以执行器的采样时间为准保留在途预占；采样时间晚于本地时间(时钟偏差)时按本地时间处理
+     *
+     * @param loadParam 负载上报参数
+     */
+    public void report(ExecutorLoadParam loadParam) {
+        if (loadParam == null || loadParam.getAddress() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long sampleTime = (loadParam.getReportTime() > 0) ? Math.min(loadParam.getReportTime(), now) : now;
+        update(loadParam.getAddress(), loadParam.getRunningTaskCount(), loadParam.getPendingTaskCount(), loadParam.getMaxThreadCount(), sampleTime);
+    }
+
+    /**
+     * 更新执行器负载快照，采样时间取当前时间
+     */
+    public void update(String address, int running, int pending, int capacity) {
+        update(address, running, pending, capacity, System.currentTimeMillis());
+    }
+
+    /**
+     * 更新执行器负载快照（上报或主动探测结果）
+     *
+     * @param sampleTime 执行器采集运行数/等待数的时间，晚于该时间的本地预占仍在途，带入新快照
+     */
+    public void update(String address, int running, int pending, int capacity, long sampleTime) {
+        ExecutorLoad load = new ExecutorLoad(address, running, pending, capacity, System.currentTimeMillis());
+        ExecutorLoad old = loadTable.get(address);
+        if (old != null) {
+            load.carryReservations(old, sampleTime);
+        }
+        loadTable.put(address, load);
+
+        // 新节点有空闲，或空闲槽位增加(任务完成、预占被覆盖)时通知
+        if (load.getFree() > 0 && (old == null || load.getFree() > old.getFree())) {
+            fireCapacityChanged();
+        }
+    }
+
+    /**
+     * 注册心跳只携带运行数和容量，等待数沿用未过期的上报快照
+     */
+    public void heartbeat(String address, int running, int capacity) {
+        ExecutorLoad old = get(address);
+        int pending = (old != null) ? old.getPending() : 0;
+        update(address, running, pending, capacity);
+    }
+
+    /**
+     * 归还一个未使用的预占槽位（已预占但最终没有派发任务）
+     */
+    public void release(String address) {
+        ExecutorLoad load = loadTable.get(address);
+        if (load != null) {
+            load.release();
+        }
+    }
+
+    /**
+     * 执行器下线，移除快照
+     */
+    public void remove(String address) {
+        if (address != null) {
+            loadTable.remove(address);
+        }
+    }
+
+    /**
+     * 获取未过期的负载快照
+     *
+     * @param address 执行器地址
+     * @return 负载快照，不存在或已过期返回 null
+     */
+    public ExecutorLoad get(String address) {
+        ExecutorLoad load = loadTable.get(address);
+        if (load == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - load.getReportTime() > LOAD_STALE_TIMEOUT) {
+            return null;
+        }
+        return load;
+    }
+
+    /**
+     * 在给定地址中选择空闲槽位最多的执行器，并预占一个槽位
+     *
+     * @param addressList 执行器地址列表
+     * @return 执行器地址，没有可用的未过期空闲节点时返回 null
+     */
+    public String choiceIdle(List<String> addressList) {
+        if (addressList == null || addressList.isEmpty()) {
+            return null;
+        }
+
+        // 空闲槽位相同时按轮转起点打散，避免总是命中列表头部
+        int size = addressList.size();
+        int offset = Math.floorMod(roundCount.getAndIncrement(), size);
+        for (int attempt = 0; attempt < size; attempt++) {
+            ExecutorLoad best = null;
+            for (int i = 0; i < size; i++) {
+                ExecutorLoad load = get(addressList.get((offset + i) % size));
+                if (load != null && load.getFree() > 0 && (best == null || load.getFree() > best.getFree())) {
+                    best = load;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.tryReserve()) {
+                return best.getAddress();
+            }
+            // 并发预占失败，重新选择
+        }
+        return null;
+    }
+
+    /**
+     * 在给定地址中按空闲槽位批量预占，每轮每个执行器最多预占一个槽位，使同一批任务分散到不同节点
+     *
+     * @param addressList 执行器地址列表
+     * @param maxCount    最多预占的槽位数
+     * @return 已预占的槽位，每个元素对应一个执行器地址（同一地址可出现多次），无空闲时返回空列表
+     */
+    public List<String> reserveIdle(List<String> addressList, int maxCount) {
+        List<String> slots = new ArrayList<>();
+        if (addressList == null || addressList.isEmpty() || maxCount <= 0) {
+            return slots;
+        }
+
+        List<ExecutorLoad> candidates = new ArrayList<>();
+        int size = addressList.size();
+        int offset = Math.floorMod(roundCount.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ExecutorLoad load = get(addressList.get((offset + i) % size));
+            if (load != null && load.getFree() > 0) {
+                candidates.add(load);
+            }
+        }
+
+        while (!candidates.isEmpty() && slots.size() < maxCount) {
+            for (int i = 0; i < candidates.size() && slots.size() < maxCount; ) {
+                ExecutorLoad load = candidates.get(i);
+                if (load.tryReserve()) {
+                    slots.add(load.getAddress());
+                    i++;
+                } else {
+                    candidates.remove(i);
+                }
+            }
+        }
+        return slots;
+    }
+
+    public void addCapacityListener(Runnable listener) {
+        capacityListeners.add(listener);
+    }
+
+    public void removeCapacityListener(Runnable listener) {
+        capacityListeners.remove(listener);
+    }
+
+    private void fireCapacityChanged() {
+        if (capacityListeners.isEmpty() || !notifyPending.compareAndSet(false, true)) {
+            return;
+        }
+        notifyPool.execute(() -> {
+            // 先清除标记，执行期间的新通知会再排一轮
+            notifyPending.set(false);
+            for (Runnable listener : capacityListeners) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    logger.error(">>>>>>>>>>> xxl-job, capacity listener error.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 按容量加权比较两个执行器的负载率：(load + 1) / capacity，值越小越空闲
+     * 无快照(未上报或已过期)的执行器按容量 1、负载 0 处理，即一个新任务即占满
+     *
+     * @return 负数表示 a 更空闲，正数表示 b 更空闲
+     */
+    public static int compareUtilization(ExecutorLoad a, ExecutorLoad b) {
+        long aLoad = (a != null) ? a.getLoad() + 1 : 1;
+        long aCapacity = (a != null) ? Math.max(a.getCapacity(), 1) : 1;
+        long bLoad = (b != null) ? b.getLoad() + 1 : 1;
+        long bCapacity = (b != null) ? Math.max(b.getCapacity(), 1) : 1;
+        return Long.compare(aLoad * bCapacity, bLoad * aCapacity);
+    }
+
+    /**
+     * 单个执行器的负载快照，上报字段不可变，本地预占计数可变
+     */
+    public static class ExecutorLoad {
+        private final String address;
+        private final int running;
+        private final int pending;
+        private final int capacity;
+        private final long reportTime;
+        private final AtomicInteger reserved = new AtomicInteger(0);
+        /**
+         * 预占时间，与 reserved 一一对应，用于新快照判断预占是否仍在途
+         */
+        private final ConcurrentLinkedDeque<Long> reserveTimes = new ConcurrentLinkedDeque<>();
+
+        public ExecutorLoad(String address, int running, int pending, int capacity, long reportTime) {
+            this.address = address;
+            this.running = running;
+            this.pending = pending;
+            this.capacity = capacity;
+            this.reportTime = reportTime;
+        }
+
+        /**
+         * 预占一个槽位
+         *
+         * @return 预占成功返回 true，已无空闲槽位返回 false
+         */
+        public boolean tryReserve() {
+            while (true) {
+                int current = reserved.get();
+                if (capacity - running - pending - current <= 0) {
+                    return false;
+                }
+                if (reserved.compareAndSet(current, current + 1)) {
+                    reserveTimes.addLast(System.currentTimeMillis());
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 归还一个预占槽位
+         */
+        public void release() {
+            while (true) {
+                int current = reserved.get();
+                if (current <= 0) {
+                    return;
+                }
+                if (reserved.compareAndSet(current, current - 1)) {
+                    reserveTimes.pollLast();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 无条件占用一个槽位，用于不以空闲为前提的负载感知路由
+         */
+        public void reserve() {
+            reserved.incrementAndGet();
+            reserveTimes.addLast(System.currentTimeMillis());
+        }
+
+        /**
+         * 带入旧快照中晚于采样时间的预占
+         *
+         * @param old        旧快照
+         * @param sampleTime 新快照的采样时间
+         */
+        void carryReservations(ExecutorLoad old, long sampleTime) {
+            for (Long reserveTime : old.reserveTimes) {
+                if (reserveTime > sampleTime) {
+                    reserveTimes.addLast(reserveTime);
+                    reserved.incrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * 当前负载 = 运行中 + 等待中 + 本地已预占
+         */
+        public int getLoad() {
+            return running + pending + reserved.get();
+        }
+
+        /**
+         * 空闲槽位 = 容量 - 运行中 - 等待中 - 本地已预占
+         */
+        public int getFree() {
+            return capacity - running - pending - reserved.get();
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getReportTime() {
+            return reportTime;
+        }
+
+        public int getReserved() {
+            return reserved.get();
+        }
+    }
+
+}
@@ -73,7 +73,25 @@ public enum ExecutorRouteStrategyEnum {
     /**
      * 根据是否有空闲线程来调度
      */
-    IDLE_THREAD_BASED_TASK_ALLOCATOR(I18nUtil.getString("idle_thread_based_task_allocator"), new IdleThreadBasedTaskAllocator());
+    IDLE_THREAD_BASED_TASK_ALLOCATOR(I18nUtil.getString("idle_thread_based_task_allocator"), new IdleThreadBasedTaskAllocator()),
+
+    /**
+     * 最小负载
+     * 按执行器上报的运行数/容量计算负载率，负载率最低的机器优先被选举，不发探测请求
+     */
+    LEAST_LOADED(I18nUtil.getString("jobconf_route_least_loaded"), new ExecutorRouteLeastLoaded()),
+
+    /**
+     * 两次随机选择
+     * 随机抽取两台机器，选择负载率更低的一台
+     */
+    P2C(I18nUtil.getString("jobconf_route_p2c"), new ExecutorRouteP2C()),
+
+    /**
+     * 数据分区亲和
+     * 同一数据分区优先路由到上一次处理该分区的机器，该机器繁忙时退化为最小负载
+     */
+    PARTITION_AFFINITY(I18nUtil.getString("jobconf_route_partition_affinity"), new ExecutorRoutePartitionAffinity());
 
     ExecutorRouteStrategyEnum(String title, ExecutorRouter router) {
         this.title = title;
@@ -4,17 +4,19 @@ import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Map;
 
 /**
  * 分组下机器地址相同，不同JOB均匀散列在不同机器上，保证分组下机器分配JOB平均；且每个JOB固定调度其中一台机器；
  *      a、virtual node：解决不均衡问题
  *      b、hash method replace hashCode：String的hashCode可能重复，需要进一步扩大hashCode的取值范围
+ *      c、ring cache：按与顺序无关的地址哈希缓存哈希环，命中后与环中排序地址逐个比对，地址不变时不排序、不构建；
+ *         环为有序数组，二分查找定位
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteConsistentHash extends ExecutorRouter {
@@ -22,58 +24,209 @@ public class ExecutorRouteConsistentHash extends ExecutorRouter {
     private static int VIRTUAL_NODE_NUM = 100;
 
     /**
-     * get hash code on 2^32 ring (md5散列的方式计算hash值)
+     * 哈希环缓存上限，超过后淘汰最久未使用的环
+     */
+    private static final int RING_CACHE_MAX = 256;
+
+    /**
+     * 哈希环缓存，按访问顺序 LRU 淘汰
+     * key: 地址列表的顺序无关哈希
+     */
+    private static final Map<Long, HashRing> ringCache = new LinkedHashMap<Long, HashRing>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, HashRing> eldest) {
+            return size() > RING_CACHE_MAX;
+        }
+    };
+
+    /**
+     * 数组实现的哈希环：hashes 升序，addresses 与之一一对应
+     */
+    private static final class HashRing {
+        private final long[] hashes;
+        private final String[] addresses;
+        /**
+         * 构建该环的排序后地址列表，用于校验缓存命中
+         */
+        private final String[] members;
+
+        private HashRing(long[] hashes, String[] addresses, String[] members) {
+            this.hashes = hashes;
+            this.addresses = addresses;
+            this.members = members;
+        }
+
+        /**
+         * 地址列表与构建该环的地址相同(与顺序无关)
+         */
+        private boolean matches(List<String> addressList) {
+            if (addressList.size() != members.length) {
+                return false;
+            }
+            for (String address : addressList) {
+                if (address == null || Arrays.binarySearch(members, address) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String locate(long hash) {
+            int index = Arrays.binarySearch(hashes, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index == hashes.length) {
+                index = 0;
+            }
+            return addresses[index];
+        }
+    }
+
+    /**
+     * get hash code on 2^64 ring (MurmurHash3 x64_128 取低 64 位)
      * @param key
      * @return
      */
     private static long hash(String key) {
+        byte[] data = key.getBytes(StandardCharsets.UTF_8);
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        int length = data.length;
+        int nblocks = length >> 4;
+        long h1 = 0;
+        long h2 = 0;
 
-        // md5 byte
-        MessageDigest md5;
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 not supported", e);
-        }
-        md5.reset();
-        byte[] keyBytes = null;
-        try {
-            keyBytes = key.getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Unknown string :" + key, e);
+        // body
+        for (int i = 0; i < nblocks; i++) {
+            long k1 = getLongLittleEndian(data, i << 4);
+            long k2 = getLongLittleEndian(data, (i << 4) + 8);
+
+            k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
         }
 
-        md5.update(keyBytes);
-        byte[] digest = md5.digest();
+        // tail
+        int offset = nblocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15: k2 ^= ((long) data[offset + 14] & 0xff) << 48;
+            case 14: k2 ^= ((long) data[offset + 13] & 0xff) << 40;
+            case 13: k2 ^= ((long) data[offset + 12] & 0xff) << 32;
+            case 12: k2 ^= ((long) data[offset + 11] & 0xff) << 24;
+            case 11: k2 ^= ((long) data[offset + 10] & 0xff) << 16;
+            case 10: k2 ^= ((long) data[offset + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= ((long) data[offset + 8] & 0xff);
+                k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            case 8: k1 ^= ((long) data[offset + 7] & 0xff) << 56;
+            case 7: k1 ^= ((long) data[offset + 6] & 0xff) << 48;
+            case 6: k1 ^= ((long) data[offset + 5] & 0xff) << 40;
+            case 5: k1 ^= ((long) data[offset + 4] & 0xff) << 32;
+            case 4: k1 ^= ((long) data[offset + 3] & 0xff) << 24;
+            case 3: k1 ^= ((long) data[offset + 2] & 0xff) << 16;
+            case 2: k1 ^= ((long) data[offset + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= ((long) data[offset] & 0xff);
+                k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            default:
+                break;
+        }
 
-        // hash code, Truncate to 32-bits
-        long hashCode = ((long) (digest[3] & 0xFF) << 24)
-                | ((long) (digest[2] & 0xFF) << 16)
-                | ((long) (digest[1] & 0xFF) << 8)
-                | (digest[0] & 0xFF);
+        // finalization
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        return h1;
+    }
 
-        long truncateHashCode = hashCode & 0xffffffffL;
-        return truncateHashCode;
+    private static long getLongLittleEndian(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
     }
 
-    public String hashJob(Long jobId, List<String> addressList) {
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
 
-        // ------A1------A2-------A3------
-        // -----------J1------------------
-        TreeMap<Long, String> addressRing = new TreeMap<Long, String>();
-        for (String address: addressList) {
+    /**
+     * 构建哈希环：地址先排序，保证同一组地址无论顺序如何都得到相同的环
+     */
+    private static HashRing buildRing(List<String> sortedAddressList) {
+        int size = sortedAddressList.size() * VIRTUAL_NODE_NUM;
+        long[][] nodes = new long[size][];
+        int n = 0;
+        for (int a = 0; a < sortedAddressList.size(); a++) {
+            String address = sortedAddressList.get(a);
             for (int i = 0; i < VIRTUAL_NODE_NUM; i++) {
-                long addressHash = hash("SHARD-" + address + "-NODE-" + i);
-                addressRing.put(addressHash, address);
+                nodes[n++] = new long[]{hash("SHARD-" + address + "-NODE-" + i), a};
             }
         }
+        Arrays.sort(nodes, (o1, o2) -> Long.compare(o1[0], o2[0]));
 
-        long jobHash = hash(String.valueOf(jobId));
-        SortedMap<Long, String> lastRing = addressRing.tailMap(jobHash);
-        if (!lastRing.isEmpty()) {
-            return lastRing.get(lastRing.firstKey());
+        long[] hashes = new long[size];
+        String[] addresses = new String[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = nodes[i][0];
+            addresses[i] = sortedAddressList.get((int) nodes[i][1]);
+        }
+        return new HashRing(hashes, addresses, sortedAddressList.toArray(new String[0]));
+    }
+
+    /**
+     * 地址列表的顺序无关哈希：各地址哈希混合后求和，不排序、不分配
+     */
+    private static long addressListKey(List<String> addressList) {
+        long key = addressList.size();
+        for (String address : addressList) {
+            key += fmix64(address != null ? address.hashCode() : 0);
         }
-        return addressRing.firstEntry().getValue();
+        return key;
+    }
+
+    private static HashRing loadRing(List<String> addressList) {
+        Long key = addressListKey(addressList);
+        HashRing ring;
+        synchronized (ringCache) {
+            ring = ringCache.get(key);
+        }
+        if (ring != null && ring.matches(addressList)) {
+            return ring;
+        }
+
+        // 未命中或哈希冲突，在锁外构建后替换
+        List<String> sortedAddressList = new ArrayList<>(addressList);
+        sortedAddressList.sort(null);
+        ring = buildRing(sortedAddressList);
+        synchronized (ringCache) {
+            ringCache.put(key, ring);
+        }
+        return ring;
+    }
+
+    public String hashJob(Long jobId, List<String> addressList) {
+
+        // ------A1------A2-------A3------
+        // -----------J1------------------
+        HashRing addressRing = loadRing(addressList);
+        long jobHash = hash(String.valueOf(jobId));
+        return addressRing.locate(jobHash);
     }
 
     @Override
@@ -4,70 +4,52 @@ import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 单个JOB对应的每个执行器，使用频率最低的优先被选举
  *      a(*)、LFU(Least Frequently Used)：最不经常使用，频率/次数
  *      b、LRU(Least Recently Used)：最近最久未使用，时间
  *
+ * 计数为无锁 AtomicLong，一次遍历取最小值，不排序；空闲JOB按 IDLE_TIMEOUT 淘汰，JOB数量上限 MAX_JOB_COUNT
+ *
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteLFU extends ExecutorRouter {
 
-    private static ConcurrentMap<Long, HashMap<String, Integer>> jobLfuMap = new ConcurrentHashMap<Long, HashMap<String, Integer>>();
-    private static long CACHE_VALID_TIME = 0;
+    private static final int MAX_JOB_COUNT = 10000;
+    private static final long IDLE_TIMEOUT = 1000 * 60 * 60;
+    private static final long MAX_COUNT = 1000000;
+
+    private static JobRouteCounters.Cache jobLfuCache = new JobRouteCounters.Cache(MAX_JOB_COUNT, IDLE_TIMEOUT);
 
     public String route(Long jobId, List<String> addressList) {
 
-        // cache clear
-        if (System.currentTimeMillis() > CACHE_VALID_TIME) {
-            jobLfuMap.clear();
-            CACHE_VALID_TIME = System.currentTimeMillis() + 1000*60*60*24;
-        }
+        JobRouteCounters lfuItem = jobLfuCache.get(jobId);
 
-        // lfu item init
-        HashMap<String, Integer> lfuItemMap = jobLfuMap.get(jobId);     // Key排序可以用TreeMap+构造入参Compare；Value排序暂时只能通过ArrayList；
-        if (lfuItemMap == null) {
-            lfuItemMap = new HashMap<String, Integer>();
-            jobLfuMap.putIfAbsent(jobId, lfuItemMap);   // 避免重复覆盖
-        }
-
-        // put new
+        // load least used count address
+        AtomicLong minCounter = null;
+        String minAddress = null;
+        long minCount = Long.MAX_VALUE;
         for (String address: addressList) {
-            if (!lfuItemMap.containsKey(address) || lfuItemMap.get(address) >1000000 ) {
-                lfuItemMap.put(address, new Random().nextInt(addressList.size()));  // 初始化时主动Random一次，缓解首次压力
+            // 初始化时主动Random一次，缓解首次压力
+            AtomicLong counter = lfuItem.counter(address, ThreadLocalRandom.current().nextInt(addressList.size()));
+            long count = counter.get();
+            if (count < minCount) {
+                minCount = count;
+                minCounter = counter;
+                minAddress = address;
             }
         }
         // remove old
-        List<String> delKeys = new ArrayList<>();
-        for (String existKey: lfuItemMap.keySet()) {
-            if (!addressList.contains(existKey)) {
-                delKeys.add(existKey);
-            }
-        }
-        if (delKeys.size() > 0) {
-            for (String delKey: delKeys) {
-                lfuItemMap.remove(delKey);
-            }
-        }
-
-        // load least userd count address
-        List<Map.Entry<String, Integer>> lfuItemList = new ArrayList<Map.Entry<String, Integer>>(lfuItemMap.entrySet());
-        Collections.sort(lfuItemList, new Comparator<Map.Entry<String, Integer>>() {
-            @Override
-            public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2) {
-                return o1.getValue().compareTo(o2.getValue());
-            }
-        });
-
-        Map.Entry<String, Integer> addressItem = lfuItemList.get(0);
-        String minAddress = addressItem.getKey();
-        addressItem.setValue(addressItem.getValue() + 1);
+        lfuItem.retain(addressList);
 
-        return addressItem.getKey();
+        if (minCounter.incrementAndGet() > MAX_COUNT) {
+            lfuItem.resetAll();
+        }
+        return minAddress;
     }
 
     @Override
@@ -4,67 +4,57 @@ import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 单个JOB对应的每个执行器，最久为使用的优先被选举
  *      a、LFU(Least Frequently Used)：最不经常使用，频率/次数
  *      b(*)、LRU(Least Recently Used)：最近最久未使用，时间
  *
+ * 每个地址记录JOB内单调递增的"最近使用序号"，一次遍历取最小值，选中后 CAS 更新为最新序号；
+ * 空闲JOB按 IDLE_TIMEOUT 淘汰，JOB数量上限 MAX_JOB_COUNT
+ *
  * Created by xuxueli on 17/3/10.
  */
 public class ExecutorRouteLRU extends ExecutorRouter {
 
-    private static ConcurrentMap<Long, LinkedHashMap<String, String>> jobLRUMap = new ConcurrentHashMap<Long, LinkedHashMap<String, String>>();
-    private static long CACHE_VALID_TIME = 0;
+    private static final int MAX_JOB_COUNT = 10000;
+    private static final long IDLE_TIMEOUT = 1000 * 60 * 60;
+    private static final int MAX_ATTEMPTS = 3;
 
-    public String route(Long jobId, List<String> addressList) {
+    private static JobRouteCounters.Cache jobLruCache = new JobRouteCounters.Cache(MAX_JOB_COUNT, IDLE_TIMEOUT);
 
-        // cache clear
-        if (System.currentTimeMillis() > CACHE_VALID_TIME) {
-            jobLRUMap.clear();
-            CACHE_VALID_TIME = System.currentTimeMillis() + 1000*60*60*24;
-        }
+    public String route(Long jobId, List<String> addressList) {
 
-        // init lru
-        LinkedHashMap<String, String> lruItem = jobLRUMap.get(jobId);
-        if (lruItem == null) {
-            /**
-             * LinkedHashMap
-             *      a、accessOrder：true=访问顺序排序（get/put时排序）；false=插入顺序排期；
-             *      b、removeEldestEntry：新增元素时将会调用，返回true时会删除最老元素；可封装LinkedHashMap并重写该方法，比如定义最大容量，超出是返回true即可实现固定长度的LRU算法；
-             */
-            lruItem = new LinkedHashMap<String, String>(16, 0.75f, true);
-            jobLRUMap.putIfAbsent(jobId, lruItem);
-        }
+        JobRouteCounters lruItem = jobLruCache.get(jobId);
+        AtomicLong sequence = lruItem.sequence();
 
-        // put new
-        for (String address: addressList) {
-            if (!lruItem.containsKey(address)) {
-                lruItem.put(address, address);
+        String eldestAddress = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            // load eldest
+            AtomicLong eldestCounter = null;
+            long eldestValue = Long.MAX_VALUE;
+            for (String address: addressList) {
+                // 新地址视为刚使用过，排在已有地址之后
+                AtomicLong counter = lruItem.counter(address, sequence.get());
+                long value = counter.get();
+                if (value < eldestValue) {
+                    eldestValue = value;
+                    eldestCounter = counter;
+                    eldestAddress = address;
+                }
             }
-        }
-        // remove old
-        List<String> delKeys = new ArrayList<>();
-        for (String existKey: lruItem.keySet()) {
-            if (!addressList.contains(existKey)) {
-                delKeys.add(existKey);
-            }
-        }
-        if (delKeys.size() > 0) {
-            for (String delKey: delKeys) {
-                lruItem.remove(delKey);
+
+            // 标记为最近使用；并发下被其他线程抢先选中则重新选择
+            if (eldestCounter.compareAndSet(eldestValue, sequence.incrementAndGet())) {
+                break;
             }
         }
 
-        // load
-        String eldestKey = lruItem.entrySet().iterator().next().getKey();
-        String eldestValue = lruItem.get(eldestKey);
-        return eldestValue;
+        // remove old
+        lruItem.retain(addressList);
+        return eldestAddress;
     }
 
     @Override
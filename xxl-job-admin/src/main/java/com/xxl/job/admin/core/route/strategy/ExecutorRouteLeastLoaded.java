@@ -0,0 +1,43 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
+import com.xxl.job.admin.core.route.ExecutorRouter;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最小负载：按容量加权的负载率最低的机器优先被选举
+ *      a、负载数据来自执行器心跳(RegistryParam.threadRunningCount/maxThreadCount)及负载上报，读内存负载表，不发探测请求；
+ *      b、负载率 = (运行中 + 等待中 + 本地已预占 + 1) / 容量，异构执行器按容量比例分摊；
+ *      c、选中后本地预占一个槽位，两次上报之间的连续触发不会集中到同一台机器。
+ */
+public class ExecutorRouteLeastLoaded extends ExecutorRouter {
+
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+
+        // 随机起点，负载率相同时打散
+        int size = addressList.size();
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        String bestAddress = null;
+        ExecutorLoadTable.ExecutorLoad bestLoad = null;
+        for (int i = 0; i < size; i++) {
+            String address = addressList.get((offset + i) % size);
+            ExecutorLoadTable.ExecutorLoad load = loadTable.get(address);
+            if (bestAddress == null || ExecutorLoadTable.compareUtilization(load, bestLoad) < 0) {
+                bestAddress = address;
+                bestLoad = load;
+            }
+        }
+
+        if (bestLoad != null) {
+            bestLoad.reserve();
+        }
+        return new ReturnT<String>(bestAddress);
+    }
+
+}
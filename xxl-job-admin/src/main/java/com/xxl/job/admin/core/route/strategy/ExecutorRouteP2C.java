@@ -0,0 +1,46 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
+import com.xxl.job.admin.core.route.ExecutorRouter;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 两次随机选择(P2C, Power of Two Choices)：随机抽取两台机器，选择容量加权负载率更低的一台
+ *      a、只比较两台机器，选择代价与集群规模无关；
+ *      b、相比全局最小负载，多个调度中心并发路由时不会同时扎堆到同一台"最空闲"机器；
+ *      c、负载数据读内存负载表，选中后本地预占一个槽位。
+ */
+public class ExecutorRouteP2C extends ExecutorRouter {
+
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        int size = addressList.size();
+        if (size == 1) {
+            return new ReturnT<String>(addressList.get(0));
+        }
+
+        // 抽取两个不同的下标
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+        ExecutorLoadTable.ExecutorLoad firstLoad = loadTable.get(addressList.get(first));
+        ExecutorLoadTable.ExecutorLoad secondLoad = loadTable.get(addressList.get(second));
+
+        boolean chooseFirst = ExecutorLoadTable.compareUtilization(firstLoad, secondLoad) <= 0;
+        ExecutorLoadTable.ExecutorLoad chosenLoad = chooseFirst ? firstLoad : secondLoad;
+        if (chosenLoad != null) {
+            chosenLoad.reserve();
+        }
+        return new ReturnT<String>(addressList.get(chooseFirst ? first : second));
+    }
+
+}
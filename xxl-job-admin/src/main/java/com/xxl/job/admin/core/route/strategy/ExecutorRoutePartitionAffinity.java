@@ -0,0 +1,81 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
+import com.xxl.job.admin.core.route.ExecutorRouter;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 数据分区亲和：同一数据分区(父任务ID + 时间范围)优先路由到上一次处理该分区的执行器，复用执行器本地缓存和连接
+ *      a、分区键由调度中心写入 TriggerParam.partitionKey，未拆分的任务以 jobId 作为分区键；
+ *      b、亲和关系先查本地缓存，未命中再查 xxl_job_task_executor_mapping 中该分区最近一次的执行器；
+ *      c、亲和节点已下线或没有空闲槽位时，退化为最小负载路由，并把新节点记为该分区的亲和节点。
+ */
+public class ExecutorRoutePartitionAffinity extends ExecutorRouter {
+
+    private static final int MAX_AFFINITY_COUNT = 10000;
+
+    /**
+     * 未查到亲和节点的占位，避免同一分区重复查库
+     */
+    private static final String NO_AFFINITY = "";
+
+    /**
+     * 亲和关系缓存
+     * key: 分区键，value: 执行器地址
+     */
+    private static ConcurrentMap<String, String> affinityMap = new ConcurrentHashMap<String, String>();
+
+    private static ExecutorRouteLeastLoaded leastLoadedRouter = new ExecutorRouteLeastLoaded();
+
+    @Override
+    public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+        String partitionKey = triggerParam.getPartitionKey() != null
+                ? triggerParam.getPartitionKey()
+                : "job:" + triggerParam.getJobId();
+
+        // 亲和节点在线且有空闲槽位（或负载未知）时直接使用
+        String affinityAddress = loadAffinityAddress(partitionKey);
+        if (affinityAddress != null && addressList.contains(affinityAddress)) {
+            ExecutorLoadTable.ExecutorLoad load = ExecutorLoadTable.getInstance().get(affinityAddress);
+            if (load == null || load.tryReserve()) {
+                return new ReturnT<String>(affinityAddress);
+            }
+            logger.debug("分区亲和节点繁忙，退化为最小负载路由 [分区:{}] [地址:{}]", partitionKey, affinityAddress);
+        }
+
+        // 退化为最小负载路由，记录新的亲和节点
+        ReturnT<String> routeResult = leastLoadedRouter.route(triggerParam, addressList);
+        String address = routeResult.getContent();
+        if (address != null && !address.equals(affinityAddress)) {
+            if (affinityMap.size() >= MAX_AFFINITY_COUNT) {
+                affinityMap.clear();
+            }
+            affinityMap.put(partitionKey, address);
+            IdleThreadBasedTaskAllocator.asyncUpdateTaskExecutorMapping(triggerParam.getJobId(), address, partitionKey);
+        }
+        return routeResult;
+    }
+
+    private String loadAffinityAddress(String partitionKey) {
+        String address = affinityMap.get(partitionKey);
+        if (address == null) {
+            try {
+                address = XxlJobAdminConfig.getAdminConfig().getXxlJobTaskExecutorMappingMapper().loadLatestAddressByPartitionKey(partitionKey);
+            } catch (Exception e) {
+                logger.warn("查询分区亲和节点失败 [分区:{}] [异常:{}]", partitionKey, e.getMessage());
+            }
+            if (affinityMap.size() >= MAX_AFFINITY_COUNT) {
+                affinityMap.clear();
+            }
+            affinityMap.putIfAbsent(partitionKey, address != null ? address : NO_AFFINITY);
+        }
+        return (address == null || NO_AFFINITY.equals(address)) ? null : address;
+    }
+
+}
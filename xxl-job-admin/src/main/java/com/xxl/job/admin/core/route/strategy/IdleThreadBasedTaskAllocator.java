@@ -3,83 +3,63 @@ package com.xxl.job.admin.core.route.strategy;
 import cn.hutool.core.util.StrUtil;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobGroup;
-import com.xxl.job.admin.core.model.XxlJobTaskExecutorMapping;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
 import com.xxl.job.admin.core.route.ExecutorRouter;
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.admin.core.thread.TaskExecutorMappingWriteHelper;
 import com.xxl.job.admin.core.util.I18nUtil;
-import com.xxl.job.admin.dao.XxlJobGroupDao;
-import com.xxl.job.admin.dao.XxlJobTaskExecutorMappingMapper;
-import com.xxl.job.admin.util.SpringContextUtil;
 import com.xxl.job.core.biz.model.ExecutorStatus;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.CollectionUtils;
 
-import java.sql.Date;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class IdleThreadBasedTaskAllocator extends ExecutorRouter {
 
-    private static ThreadPoolTaskExecutor taskExecutor;
-    private static XxlJobTaskExecutorMappingMapper xxlJobTaskExecutorMappingMapper;
-    private static XxlJobGroupDao xxlJobGroupDao;
+    /**
+     * 同一地址两次探测的最小间隔
+     */
+    private static final long PROBE_INTERVAL_MS = 3000;
+
+    /**
+     * 上次提交探测的时间
+     * key: 执行器地址
+     */
+    private static final ConcurrentMap<String, Long> lastProbeTime = new ConcurrentHashMap<>();
+
+    /**
+     * 探测线程池：status() 在此执行，不占用路由/派发线程；队列满时丢弃，间隔到期后再次提交
+     */
+    private static final ThreadPoolExecutor probePool = new ThreadPoolExecutor(
+            4,
+            4,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(1000),
+            r -> {
+                Thread thread = new Thread(r, "xxl-job, admin IdleThreadBasedTaskAllocator-probePool-" + r.hashCode());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
 
     static {
-        // 初始化线程池
-        taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setCorePoolSize(1);
-        taskExecutor.setMaxPoolSize(3);
-        taskExecutor.setQueueCapacity(20);
-        taskExecutor.setThreadNamePrefix("TaskExecutorMapper-");
-        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        taskExecutor.initialize();
-
-        // 获取Mapper
-        xxlJobTaskExecutorMappingMapper = SpringContextUtil.getBean(XxlJobTaskExecutorMappingMapper.class);
-        xxlJobGroupDao = SpringContextUtil.getBean(XxlJobGroupDao.class);
+        probePool.allowCoreThreadTimeOut(true);
     }
 
     /**
-     * 异步更新任务执行器映射
+     * 更新任务执行器映射：写入写缓冲，由 TaskExecutorMappingWriteHelper 去重后批量落库
      */
-    private void asyncUpdateTaskExecutorMapping(Long jobId, String executorAddress) {
-        taskExecutor.execute(() -> {
-            try {
-                List<Map<String, Object>> maps = xxlJobGroupDao.selectByAddressList(executorAddress);
-                // 执行器组id
-                Long groupId = null;
-                // 执行器appname
-                String appName = null;
-                // 执行器名称
-                String title = null;
-
-                if (Objects.nonNull(maps)) {
-                    Map<String, Object> group = maps.get(0);
-                    groupId = (Long) group.get("id");
-                    appName = (String) group.get("app_name");
-                    title = (String) group.get("title");
-                }
-
-                XxlJobTaskExecutorMapping mapping = new XxlJobTaskExecutorMapping();
-                mapping.setJobId(jobId);
-                mapping.setExecutorAddress(executorAddress);
-                mapping.setUpdateTime(new Date(System.currentTimeMillis()));
-                // 设置新增字段
-                mapping.setGroupId(groupId);
-                mapping.setAppName(appName);
-                mapping.setTitle(title);
-
-                xxlJobTaskExecutorMappingMapper.saveOrUpdate(mapping);
-                logger.info("更新任务执行器映射 [任务ID:{}] [执行器:{}] [执行器组ID:{}] [AppName:{}] [名称:{}]",
-                        jobId, executorAddress, groupId, appName, title);
-            } catch (Exception e) {
-                logger.error("更新任务执行器映射失败 [任务ID:{}] [执行器:{}] [异常:{}]", jobId, executorAddress, e.getMessage());
-            }
-        });
+    static void asyncUpdateTaskExecutorMapping(Long jobId, String executorAddress, String partitionKey) {
+        TaskExecutorMappingWriteHelper.getInstance().submit(jobId, executorAddress, partitionKey);
     }
 
     /**
@@ -107,6 +87,10 @@ public class IdleThreadBasedTaskAllocator extends ExecutorRouter {
 
     /**
      * 从执行器列表中查找有空闲线程的执行器IP
+     * <p>
+     * 只读取执行器主动上报的内存负载表，无网络 IO；
+     * 负载表中没有未过期快照的地址(老版本执行器、刚启动、上报中断)在后台异步探测 status()，探测结果回填负载表，
+     * 供后续路由使用，本次不等待探测结果。
      *
      * @param registryList 执行器IP列表
      * @return 有空闲线程的执行器IP，如果没有找到则返回null
@@ -116,72 +100,118 @@ public class IdleThreadBasedTaskAllocator extends ExecutorRouter {
             return null;
         }
 
-        String ip = null;
+        ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+        String ip = loadTable.choiceIdle(registryList);
+        if (ip == null) {
+            probeMissing(registryList);
+        }
+        return ip;
+    }
+
+    /**
+     * 在执行器列表中批量预占空闲槽位，供队列派发线程一次取出等量任务
+     * <p>
+     * 与 findIdleExecutor 相同，只读负载表，槽位不足时异步探测负载表中缺失或过期的地址，
+     * 探测结果回填负载表后触发容量通知，派发线程被唤醒后再次预占。
+     *
+     * @param registryList 执行器IP列表
+     * @param maxCount     最多预占的槽位数
+     * @return 已预占的槽位，每个元素对应一个执行器地址，无空闲时返回空列表
+     */
+    public static List<String> reserveIdleSlots(List<String> registryList, int maxCount) {
+        if (CollectionUtils.isEmpty(registryList)) {
+            return new ArrayList<>();
+        }
+
+        ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+        List<String> slots = loadTable.reserveIdle(registryList, maxCount);
+        if (slots.size() < maxCount) {
+            probeMissing(registryList);
+        }
+        return slots;
+    }
+
+    /**
+     * 异步探测负载表中缺失或过期的地址，结果回填负载表；同一地址 PROBE_INTERVAL_MS 内最多提交一次
+     */
+    private static void probeMissing(List<String> registryList) {
+        ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+        long now = System.currentTimeMillis();
+        for (String address : registryList) {
+            if (loadTable.get(address) != null) {
+                continue;
+            }
+            Long last = lastProbeTime.get(address);
+            if (last != null && now - last < PROBE_INTERVAL_MS) {
+                continue;
+            }
+            boolean claimed = (last == null)
+                    ? lastProbeTime.putIfAbsent(address, now) == null
+                    : lastProbeTime.replace(address, last, now);
+            if (!claimed) {
+                continue;
+            }
+            probePool.execute(() -> probe(address));
+        }
+    }
+
+    /**
+     * 同步探测单个执行器状态，在探测线程中执行；单个节点异常不影响其他节点
+     */
+    private static void probe(String address) {
         try {
-            // 遍历ip，选择ip
-            for (String address : registryList) {
-                ReturnT<ExecutorStatus> executorStatusResult = XxlJobScheduler.getExecutorBiz(address).status();
-                ExecutorStatus content = executorStatusResult.getContent();
-                int threadCount = content.getThreadCount();
-                int pendingTaskCount = content.getPendingTaskCount();
-                int runningTaskCount = content.getRunningTaskCount();
-                int remainingThreadCount = threadCount - (pendingTaskCount + runningTaskCount);
-                // 有空闲节点直接退出
-                if (remainingThreadCount > 0) {
-                    ip = address;
-                    break;
-                }
-                // 继续检查下一个IP
+            long sampleTime = System.currentTimeMillis();
+            ReturnT<ExecutorStatus> executorStatusResult = XxlJobScheduler.getExecutorBiz(address).status();
+            ExecutorStatus content = executorStatusResult.getContent();
+            if (content == null) {
+                return;
             }
-            return ip;
+            ExecutorLoadTable.getInstance().update(address, content.getRunningTaskCount(), content.getPendingTaskCount(),
+                    content.getThreadCount(), sampleTime);
         } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-            return null;
+            logger.warn("获取执行器状态失败 [地址:{}] [异常:{}]", address, e.getMessage());
         }
     }
 
+    /**
+     * 使用已预占槽位的地址，不再读取负载表预占；用于任务队列派发线程预占后触发
+     *
+     * @param triggerParam 触发参数
+     * @param address      已预占槽位的执行器地址
+     * @return 该地址
+     */
+    public static ReturnT<String> routeReserved(TriggerParam triggerParam, String address) {
+        asyncUpdateTaskExecutorMapping(triggerParam.getJobId(), address, triggerParam.getPartitionKey());
+        return new ReturnT<String>(address);
+    }
+
     @Override
     public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
-        StringBuffer idleBeatResultSB = new StringBuffer();
         Long jobId = triggerParam.getJobId();
-        //logger.info("任务分配开始 [任务ID:{}] [执行器列表:{}]", jobId, addressList);
-
-        for (String address : addressList) {
-            ReturnT<ExecutorStatus> executorStatusResult;
-            try {
-                executorStatusResult = XxlJobScheduler.getExecutorBiz(address).status();
-            } catch (Exception e) {
-                logger.error("获取执行器状态失败 [任务ID:{}] [地址:{}] [异常:{}]", jobId, address, e.getMessage());
-                return new ReturnT<String>(ReturnT.FAIL_CODE, "" + e);
-            }
-
-            ExecutorStatus content = executorStatusResult.getContent();
-            int threadCount = content.getThreadCount();
-            int pendingTaskCount = content.getPendingTaskCount();
-            int runningTaskCount = content.getRunningTaskCount();
-            int remainingThreadCount = threadCount - (pendingTaskCount + runningTaskCount);
 
-            logger.info("执行器状态 [任务ID:{}] [地址:{}] [总线程:{}] [运行:{}] [等待:{}] [可用:{}]",
-                    jobId, address, threadCount, runningTaskCount, pendingTaskCount, remainingThreadCount);
+        String address = findIdleExecutor(addressList);
+        if (address != null) {
+            logger.debug("选择执行器 [任务ID:{}] [地址:{}]", jobId, address);
+            // 异步更新任务执行器映射
+            asyncUpdateTaskExecutorMapping(jobId, address, triggerParam.getPartitionKey());
+            return new ReturnT<String>(address);
+        }
 
+        // 无可用节点，汇总负载表快照便于排查
+        StringBuffer idleBeatResultSB = new StringBuffer();
+        for (String item : addressList) {
+            ExecutorLoadTable.ExecutorLoad load = ExecutorLoadTable.getInstance().get(item);
             idleBeatResultSB.append((idleBeatResultSB.length() > 0) ? "<br><br>" : "")
                     .append(I18nUtil.getString("jobconf_idleBeat") + "：")
-                    .append("<br>address：").append(address)
-                    .append("<br>code：").append(executorStatusResult.getCode())
-                    .append("<br>msg：").append(executorStatusResult.getMsg())
-                    .append("<br>threadCount：").append(threadCount)
-                    .append("<br>runningTaskCount：").append(runningTaskCount)
-                    .append("<br>pendingTaskCount：").append(pendingTaskCount)
-                    .append("<br>remainingThreadCount：").append(remainingThreadCount);
-
-            if (remainingThreadCount > 0) {
-                logger.info("选择执行器 [任务ID:{}] [地址:{}] [可用线程:{}]", jobId, address, remainingThreadCount);
-                // 异步更新任务执行器映射
-                asyncUpdateTaskExecutorMapping(jobId, address);
-                return new ReturnT<String>(address);
-            } else {
-                logger.info("执行器繁忙转移 [任务ID:{}] [地址:{}] [原因:无可用线程]", jobId, address);
+                    .append("<br>address：").append(item);
+            if (load == null) {
+                idleBeatResultSB.append("<br>msg：executor load unknown or stale");
+                continue;
             }
+            idleBeatResultSB.append("<br>threadCount：").append(load.getCapacity())
+                    .append("<br>runningTaskCount：").append(load.getRunning())
+                    .append("<br>pendingTaskCount：").append(load.getPending())
+                    .append("<br>remainingThreadCount：").append(load.getFree());
         }
 
         logger.warn("任务分配失败 [任务ID:{}] [原因:无可用线程]", jobId);
@@ -0,0 +1,114 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个JOB在各执行器上的路由计数（LFU：使用次数；LRU：最近使用序号）
+ * <p>
+ * 计数器为 AtomicLong，读写无锁；地址变化时同步增删计数器，内存只与当前地址数相关。
+ * 由 {@link Cache} 统一管理，长时间未被路由的JOB会被淘汰，JOB总数有上限。
+ */
+class JobRouteCounters {
+
+    /**
+     * 地址 -> 计数
+     */
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * JOB内单调递增序号，LRU 用作"最近使用时间"，避免同一毫秒内无法区分先后
+     */
+    private final AtomicLong sequence = new AtomicLong(0);
+
+    /**
+     * 最近一次路由时间，用于淘汰空闲JOB
+     */
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    /**
+     * 同步地址列表：移除已下线地址的计数器
+     * 调用前地址列表中的每个地址都已通过 counter() 初始化，计数器数量多于地址数即说明存在已下线地址
+     */
+    void retain(List<String> addressList) {
+        if (counters.size() <= addressList.size()) {
+            return;
+        }
+        Set<String> addressSet = new HashSet<>(addressList);
+        counters.keySet().removeIf(address -> !addressSet.contains(address));
+    }
+
+    AtomicLong counter(String address, long initValue) {
+        AtomicLong counter = counters.get(address);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(address, key -> new AtomicLong(initValue));
+        }
+        return counter;
+    }
+
+    void resetAll() {
+        for (AtomicLong counter : counters.values()) {
+            counter.set(0);
+        }
+    }
+
+    AtomicLong sequence() {
+        return sequence;
+    }
+
+
+    /**
+     * JOB路由计数缓存
+     * <p>
+     * 1. 超过 idleTimeout 未路由的JOB，在下一次清理周期被淘汰；
+     * 2. JOB数量超过 maxJobCount 时立即触发一次清理，仍超限则整体清空（计数仅用于负载均衡，丢失无副作用）。
+     */
+    static class Cache {
+        private final ConcurrentMap<Long, JobRouteCounters> jobCounters = new ConcurrentHashMap<>();
+        private final int maxJobCount;
+        private final long idleTimeout;
+        private final AtomicLong nextSweepTime = new AtomicLong(0);
+
+        Cache(int maxJobCount, long idleTimeout) {
+            this.maxJobCount = maxJobCount;
+            this.idleTimeout = idleTimeout;
+        }
+
+        JobRouteCounters get(Long jobId) {
+            long now = System.currentTimeMillis();
+            sweepIfNecessary(now);
+
+            JobRouteCounters item = jobCounters.get(jobId);
+            if (item == null) {
+                item = jobCounters.computeIfAbsent(jobId, key -> new JobRouteCounters());
+            }
+            item.lastAccessTime = now;
+            return item;
+        }
+
+        int size() {
+            return jobCounters.size();
+        }
+
+        private void sweepIfNecessary(long now) {
+            long sweepTime = nextSweepTime.get();
+            boolean overflow = jobCounters.size() > maxJobCount;
+            if (!overflow && now < sweepTime) {
+                return;
+            }
+            // 只允许一个线程执行清理
+            if (!nextSweepTime.compareAndSet(sweepTime, now + idleTimeout)) {
+                return;
+            }
+            jobCounters.values().removeIf(item -> now - item.lastAccessTime > idleTimeout);
+            if (jobCounters.size() > maxJobCount) {
+                jobCounters.clear();
+            }
+        }
+    }
+
+}
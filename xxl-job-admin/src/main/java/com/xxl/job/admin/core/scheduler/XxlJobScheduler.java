@@ -53,6 +53,10 @@ public class XxlJobScheduler  {
         // 统计任务执行日志
         JobLogReportHelper.getInstance().start();
 
+        // 启动任务执行器映射写缓冲线程
+        // 路由结果去重后批量落库，需早于调度线程启动
+        TaskExecutorMappingWriteHelper.getInstance().start();
+
         // 启动任务调度线程
         // 依赖于触发线程池，负责任务的调度触发
         JobScheduleHelper.getInstance().start();
@@ -71,6 +75,9 @@ public class XxlJobScheduler  {
         // 停止调度线程
         JobScheduleHelper.getInstance().toStop();
 
+        // 停止任务执行器映射写缓冲线程（停止前写完缓冲中的映射）
+        TaskExecutorMappingWriteHelper.getInstance().toStop();
+
         // 停止日志报告线程
         JobLogReportHelper.getInstance().toStop();
 
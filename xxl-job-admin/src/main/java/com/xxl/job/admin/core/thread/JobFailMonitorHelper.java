@@ -1,5 +1,7 @@
 package com.xxl.job.admin.core.thread;
 
+import cn.hutool.extra.spring.SpringUtil;
+import com.xuxueli.springbootpriorityqueue.queue.RedisDelayQueue;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
@@ -7,6 +9,7 @@ import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.util.I18nUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -28,7 +31,17 @@ public class JobFailMonitorHelper {
 
 	private Thread monitorThread;
 	private volatile boolean toStop = false;
+
+	// 失败重试延迟队列：元素为待重试的日志ID，到期后由监控线程取出触发重试
+	private RedisDelayQueue<Long> retryQueue;
+
+	// 触发重试失败后再次重试的延迟
+	private static final long RETRY_AGAIN_DELAY_MS = 10 * 1000;
+
 	public void start(){
+		RedisTemplate<String, Object> redisTemplate = SpringUtil.getBean("redisTemplate");
+		retryQueue = new RedisDelayQueue<>(redisTemplate, "fail_retry", Long.class);
+
 		monitorThread = new Thread(new Runnable() {
 
 			@Override
@@ -36,8 +49,16 @@ public class JobFailMonitorHelper {
 
 				// monitor
 				while (!toStop) {
+					// 0、到期的延迟重试，单独捕获异常：延迟队列不可用时不影响失败扫描和告警
 					try {
+						retryReady();
+					} catch (Throwable e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, job fail delayed retry error:{}", e.getMessage(), e);
+						}
+					}
 
+					try {
 						List<Long> failLogIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findFailJobLogIds(1000);
 						if (failLogIds!=null && !failLogIds.isEmpty()) {
 							for (long failLogId: failLogIds) {
@@ -52,10 +73,10 @@ public class JobFailMonitorHelper {
 
 								// 1、fail retry monitor
 								if (log.getExecutorFailRetryCount() > 0) {
-									JobTriggerPoolHelper.triggerSharding(info.getId(), TriggerTypeEnum.RETRY, (log.getExecutorFailRetryCount()-1), log.getExecutorShardingParam(), log.getExecutorParam(), null,info.getIsAutomatic());
-									String retryMsg = "<br><br><span style=\"color:#F39C12;\" > >>>>>>>>>>>"+ I18nUtil.getString("jobconf_trigger_type_retry") +"<<<<<<<<<<< </span><br>";
-									log.setTriggerMsg(log.getTriggerMsg() + retryMsg);
-									XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(log);
+									long delayMs = retryDelayMs(info, log);
+									if (delayMs <= 0 || !scheduleRetry(failLogId, delayMs)) {
+										retry(log);
+									}
 								}
 
 								// 2、fail alarm monitor
@@ -96,6 +117,63 @@ public class JobFailMonitorHelper {
 		monitorThread.start();
 	}
 
+	/**
+	 * 取出到期的延迟重试逐个触发；pollReady 已从延迟队列移除，单个重试失败时重新登记，不影响其余重试
+	 */
+	private void retryReady() {
+		List<Long> retryLogIds = retryQueue.pollReady(1000);
+		for (long retryLogId: retryLogIds) {
+			try {
+				XxlJobLog log = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().load(retryLogId);
+				if (log != null) {
+					retry(log);
+				}
+			} catch (Throwable e) {
+				logger.error(">>>>>>>>>>> xxl-job, job fail retry error, logId:{}", retryLogId, e);
+				scheduleRetry(retryLogId, RETRY_AGAIN_DELAY_MS);
+			}
+		}
+	}
+
+	/**
+	 * 登记延迟重试
+	 *
+	 * @return 登记失败时返回false
+	 */
+	private boolean scheduleRetry(long logId, long delayMs) {
+		try {
+			retryQueue.schedule(logId, 0, System.currentTimeMillis() + delayMs);
+			return true;
+		} catch (Throwable e) {
+			logger.error(">>>>>>>>>>> xxl-job, job fail retry schedule error, logId:{}", logId, e);
+			return false;
+		}
+	}
+
+	/**
+	 * 重试退避时长：第n次重试等待 base * 2^(n-1)，不超过 max；base 为0时立即重试
+	 */
+	private long retryDelayMs(XxlJobInfo info, XxlJobLog log) {
+		long baseMs = XxlJobAdminConfig.getAdminConfig().getFailRetryBackoffBase() * 1000L;
+		if (baseMs <= 0 || info == null) {
+			return 0;
+		}
+		long maxMs = XxlJobAdminConfig.getAdminConfig().getFailRetryBackoffMax() * 1000L;
+		int attempt = Math.max(0, info.getExecutorFailRetryCount() - log.getExecutorFailRetryCount());
+		return attempt >= 30 ? maxMs : Math.min(baseMs << attempt, maxMs);
+	}
+
+	private void retry(XxlJobLog log) {
+		XxlJobInfo info = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(log.getJobId());
+		if (info == null) {
+			return;
+		}
+		JobTriggerPoolHelper.triggerSharding(info.getId(), TriggerTypeEnum.RETRY, (log.getExecutorFailRetryCount()-1), log.getExecutorShardingParam(), log.getExecutorParam(), null,info.getIsAutomatic());
+		String retryMsg = "<br><br><span style=\"color:#F39C12;\" > >>>>>>>>>>>"+ I18nUtil.getString("jobconf_trigger_type_retry") +"<<<<<<<<<<< </span><br>";
+		log.setTriggerMsg(log.getTriggerMsg() + retryMsg);
+		XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(log);
+	}
+
 	public void toStop(){
 		toStop = true;
 		// interrupt and wait
@@ -3,6 +3,7 @@ package com.xxl.job.admin.core.thread;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.enums.RegistryConfig;
@@ -182,6 +183,13 @@ public class JobRegistryHelper {
             return new ReturnT<String>(ReturnT.FAIL_CODE, "Illegal Argument.");
         }
 
+        // 心跳携带的运行数/容量同步到内存负载表，供负载感知路由使用
+        if (RegistryConfig.RegistType.EXECUTOR.name().equals(registryParam.getRegistryGroup())
+                && registryParam.getMaxThreadCount() > 0) {
+            ExecutorLoadTable.getInstance().heartbeat(registryParam.getRegistryValue(),
+                    registryParam.getThreadRunningCount(), registryParam.getMaxThreadCount());
+        }
+
         // 异步执行注册操作
         registryOrRemoveThreadPool.execute(new Runnable() {
             @Override
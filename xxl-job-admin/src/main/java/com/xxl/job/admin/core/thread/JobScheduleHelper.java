@@ -114,7 +114,7 @@ public class JobScheduleHelper {
                                     MisfireStrategyEnum misfireStrategyEnum = MisfireStrategyEnum.match(jobInfo.getMisfireStrategy(), MisfireStrategyEnum.DO_NOTHING);
                                     if (MisfireStrategyEnum.FIRE_ONCE_NOW == misfireStrategyEnum) {
                                         System.err.println("--- "  );
-                                        getXxlJobInfosPushQueue(taskService,jobInfo.getId());
+                                        getXxlJobInfosPushQueue(taskService,jobInfo.getId(),jobInfo.getJobGroup());
                                         // 立即执行一次
                                         //JobTriggerPoolHelper.triggerSharding(jobInfo, TriggerTypeEnum.MISFIRE, -1, null, null, null);
                                         logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId() );
@@ -126,7 +126,7 @@ public class JobScheduleHelper {
                                 } else if (nowTime > jobInfo.getTriggerNextTime()) {
                                     // 2.2、任务过期小于5秒：直接触发一次，并更新下次触发时间
                                     System.err.println("--- "  );
-                                    getXxlJobInfosPushQueue(taskService,jobInfo.getId());
+                                    getXxlJobInfosPushQueue(taskService,jobInfo.getId(),jobInfo.getJobGroup());
                                     //JobTriggerPoolHelper.triggerSharding(jobInfo, TriggerTypeEnum.CRON, -1, null, null, null);
                                     logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId() );
 
@@ -261,7 +261,7 @@ public class JobScheduleHelper {
                             TaskService taskService = (TaskService)SpringUtil.getBean("taskService");
                             for (XxlJobInfo xxlJobInfo: xxlJobInfos) {
                                 // 触发任务
-                                getXxlJobInfosPushQueue(taskService,xxlJobInfo.getId());
+                                getXxlJobInfosPushQueue(taskService,xxlJobInfo.getId(),xxlJobInfo.getJobGroup());
                                 //JobTriggerPoolHelper.triggerSharding(xxlJobInfo, TriggerTypeEnum.CRON, -1, null, null, null);
                             }
                             ringItemData.clear();
@@ -280,7 +280,7 @@ public class JobScheduleHelper {
         ringThread.start();
     }
 
-    private void getXxlJobInfosPushQueue(TaskService taskService,Long id) {
+    private void getXxlJobInfosPushQueue(TaskService taskService,Long id,int jobGroup) {
 
         List <XxlJobShardingInfo> xxlJobShardingInfos = XxlJobAdminConfig.getAdminConfig().getXxlJobShardingInfoDao().findLastExecuteBatchByParentJobId(id,1);
         if (!CollectionUtils.isEmpty(xxlJobShardingInfos)){
@@ -319,9 +319,19 @@ public class JobScheduleHelper {
             }
         }
         XxlJobAdminConfig.getAdminConfig().getXxlJobShardingInfoDao().bathSave(xxlJobShardingInfos);
+        // 以父任务ID作为公平键，公平模式下各父任务的分片轮流出队
+        String parentKey = String.valueOf(id);
+        // 同优先级的分片批量入队，一次往返写入一批
+        Map<Integer, List<Task>> tasksByPriority = new LinkedHashMap<>();
         for (XxlJobShardingInfo xxlJobShardingInfo : xxlJobShardingInfos) {
-            taskService.addTask(new Task(xxlJobShardingInfo.getId().toString(),xxlJobShardingInfo.getJobDesc(),xxlJobShardingInfo.getJobDesc()),xxlJobShardingInfo.getPriority());
+            tasksByPriority.computeIfAbsent(xxlJobShardingInfo.getPriority(), k -> new ArrayList<>())
+                    .add(new Task(xxlJobShardingInfo.getId().toString(),xxlJobShardingInfo.getJobDesc(),xxlJobShardingInfo.getJobDesc()));
         }
+        for (Map.Entry<Integer, List<Task>> entry : tasksByPriority.entrySet()) {
+            taskService.addTasks(jobGroup, entry.getValue(), entry.getKey(), parentKey);
+        }
+        // 唤醒执行器组的队列派发线程
+        TaskQueueHelper.getInstance().wakeup(jobGroup);
     }
 
     /**
@@ -12,13 +12,15 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * 任务触发线程池助手
  * <p>
- * 该类负责管理两个线程池：
+ * 该类负责管理三个线程池：
  * 1. 快速触发线程池(fastTriggerPool)：用于处理普通任务
  * 2. 慢速触发线程池(slowTriggerPool)：用于处理执行时间较长的任务
+ * 3. 广播触发线程池(broadcastTriggerPool)：用于分片广播时并行触发各个分片
  * <p>
  * 当任务在1分钟内出现超过10次超时(超过500ms)时，会被自动切换到慢速线程池处理
  *
@@ -45,6 +47,13 @@ public class JobTriggerPoolHelper {
      */
     private ThreadPoolExecutor slowTriggerPool = null;
 
+    /**
+     * 广播触发线程池
+     * 核心线程数/最大线程数：由配置文件指定，限制单次广播对执行器的并发扇出
+     * 队列容量：2000，队列满时由提交线程自行执行，保证分片不丢失
+     */
+    private ThreadPoolExecutor broadcastTriggerPool = null;
+
     /**
      * 启动触发线程池
      * 初始化快速和慢速两个线程池
@@ -67,6 +76,9 @@ public class JobTriggerPoolHelper {
                     @Override
                     public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
                         logger.error(">>>>>>>>>>> xxl-job, admin JobTriggerPoolHelper-fastTriggerPool execute too fast, Runnable=" + r.toString());
+                        if (r instanceof CallbackRunnable) {
+                            ((CallbackRunnable) r).rejected();
+                        }
                     }
                 });
 
@@ -87,8 +99,39 @@ public class JobTriggerPoolHelper {
                     @Override
                     public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
                         logger.error(">>>>>>>>>>> xxl-job, admin JobTriggerPoolHelper-slowTriggerPool execute too fast, Runnable=" + r.toString());
+                        if (r instanceof CallbackRunnable) {
+                            ((CallbackRunnable) r).rejected();
+                        }
+                    }
+                });
+
+        // 初始化广播触发线程池
+        int broadcastMax = XxlJobAdminConfig.getAdminConfig().getTriggerPoolBroadcastMax();
+        broadcastTriggerPool = new ThreadPoolExecutor(
+                broadcastMax,
+                broadcastMax,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(2000),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-broadcastTriggerPool-" + r.hashCode());
+                    }
+                },
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                        logger.warn(">>>>>>>>>>> xxl-job, admin JobTriggerPoolHelper-broadcastTriggerPool execute too fast, run in caller thread.");
+                        if (!executor.isShutdown()) {
+                            r.run();
+                        } else if (r instanceof Future) {
+                            // 线程池已关闭，取消分片避免等待方无限阻塞
+                            ((Future<?>) r).cancel(true);
+                        }
                     }
                 });
+        broadcastTriggerPool.allowCoreThreadTimeOut(true);
     }
 
     /**
@@ -98,6 +141,7 @@ public class JobTriggerPoolHelper {
     public void stop() {
         fastTriggerPool.shutdownNow();
         slowTriggerPool.shutdownNow();
+        broadcastTriggerPool.shutdownNow();
         logger.info(">>>>>>>>> xxl-job trigger thread pool shutdown success.");
     }
 
@@ -183,6 +227,8 @@ public class JobTriggerPoolHelper {
      * @param executorShardingParam 分片参数
      * @param executorParam         执行参数
      * @param addressList           执行器地址列表
+     * @param isAutomatic           是否自动任务
+     * @param triggerCallback       触发回调，可为空：触发正常返回回调 true，触发异常或被线程池拒绝回调 false
      */
     public void addTriggerSharding(final Long jobId,
                                    final TriggerTypeEnum triggerType,
@@ -190,7 +236,8 @@ public class JobTriggerPoolHelper {
                                    final String executorShardingParam,
                                    final String executorParam,
                                    final String addressList,
-                                   int isAutomatic) {
+                                   int isAutomatic,
+                                   final Consumer<Boolean> triggerCallback) {
 
         // 根据任务超时情况选择线程池
         ThreadPoolExecutor triggerPool_ = fastTriggerPool;
@@ -200,15 +247,19 @@ public class JobTriggerPoolHelper {
         }
 
         // 提交任务到选定的线程池
-        triggerPool_.execute(new Runnable() {
+        triggerPool_.execute(new CallbackRunnable(triggerCallback) {
             @Override
             public void run() {
                 long start = System.currentTimeMillis();
                 try {
                     // 触发任务执行
                     XxlJobTrigger.triggerSharding(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList, isAutomatic);
+                    // 回调触发完成
+                    triggered();
                 } catch (Throwable e) {
                     logger.error(e.getMessage(), e);
+                    // 触发异常(如数据库错误)，回调失败，由调用方退回任务
+                    failed();
                 } finally {
                     // 检查是否需要重置超时计数（每分钟重置一次）
                     long minTim_now = System.currentTimeMillis() / 60000;
@@ -235,6 +286,41 @@ public class JobTriggerPoolHelper {
         });
     }
 
+    /**
+     * 带触发回调的任务：触发正常返回回调 true，触发异常或被线程池拒绝回调 false
+     * 线程池关闭时队列中未执行的任务不会回调，由调用方的超时机制兜底(如任务队列租约到期)
+     */
+    private static abstract class CallbackRunnable implements Runnable {
+        private final Consumer<Boolean> triggerCallback;
+
+        CallbackRunnable(Consumer<Boolean> triggerCallback) {
+            this.triggerCallback = triggerCallback;
+        }
+
+        void triggered() {
+            callback(true);
+        }
+
+        void rejected() {
+            callback(false);
+        }
+
+        void failed() {
+            callback(false);
+        }
+
+        private void callback(boolean triggered) {
+            if (triggerCallback == null) {
+                return;
+            }
+            try {
+                triggerCallback.accept(triggered);
+            } catch (Throwable e) {
+                logger.error(">>>>>>>>>>> xxl-job, trigger callback error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
     // ---------------------- helper ----------------------
 
     /**
@@ -261,8 +347,33 @@ public class JobTriggerPoolHelper {
      * 通过单例实例调用addTrigger方法
      */
     public static void triggerSharding(Long jobId, TriggerTypeEnum triggerType, int failRetryCount, String executorShardingParam, String executorParam, String addressList, int isAutomatic) {
+        triggerSharding(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList, isAutomatic, null);
+    }
 
-        helper.addTriggerSharding(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList, isAutomatic);
+    /**
+     * 触发分片任务，并在触发完成或被线程池拒绝时回调
+     *
+     * @param triggerCallback 触发正常返回回调 true，触发异常或被线程池拒绝回调 false；拒绝时在提交线程中同步回调
+     */
+    public static void triggerSharding(Long jobId, TriggerTypeEnum triggerType, int failRetryCount, String executorShardingParam, String executorParam, String addressList, int isAutomatic, Consumer<Boolean> triggerCallback) {
+        helper.addTriggerSharding(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList, isAutomatic, triggerCallback);
+    }
+
+    /**
+     * 提交单个广播分片到广播触发线程池
+     * 线程池未启动时直接在当前线程执行
+     *
+     * @param shardTrigger 单个分片的触发逻辑
+     * @return 分片触发结果
+     */
+    public static <T> Future<T> submitBroadcast(Callable<T> shardTrigger) {
+        ThreadPoolExecutor broadcastTriggerPool_ = helper.broadcastTriggerPool;
+        if (broadcastTriggerPool_ == null || broadcastTriggerPool_.isShutdown()) {
+            FutureTask<T> futureTask = new FutureTask<T>(shardTrigger);
+            futureTask.run();
+            return futureTask;
+        }
+        return broadcastTriggerPool_.submit(shardTrigger);
     }
 
     /**
@@ -0,0 +1,278 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobTaskExecutorMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务执行器映射写缓冲
+ * <p>
+ * 路由成功后只把映射放入内存缓冲，由后台线程批量落库，路由线程不再等待数据库：
+ * 1. 按 jobId 去重，同一任务只保留最后一次路由结果；
+ * 2. 执行器组信息(groupId/appName/title)按地址缓存，过期后重新查询；
+ * 3. 缓冲达到 FLUSH_BATCH_SIZE 或距上次刷新超过 FLUSH_INTERVAL_MS 时，以多行 upsert 写入 xxl_job_task_executor_mapping。
+ *
+ * 映射仅用于展示和亲和路由，缓冲满时丢弃新增映射，不影响调度。
+ */
+public class TaskExecutorMappingWriteHelper {
+    private static Logger logger = LoggerFactory.getLogger(TaskExecutorMappingWriteHelper.class);
+
+    private static TaskExecutorMappingWriteHelper instance = new TaskExecutorMappingWriteHelper();
+    public static TaskExecutorMappingWriteHelper getInstance(){
+        return instance;
+    }
+
+    /**
+     * 单批最大行数，达到后立即刷新
+     */
+    private static final int FLUSH_BATCH_SIZE = 200;
+
+    /**
+     * 最长刷新间隔
+     */
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    /**
+     * 缓冲上限（去重后的任务数）
+     */
+    private static final int MAX_PENDING_SIZE = 10000;
+
+    /**
+     * 执行器组信息缓存有效期
+     */
+    private static final long GROUP_CACHE_VALID_MS = 60 * 1000;
+
+    /**
+     * 待写入映射
+     * key: jobId
+     */
+    private final ConcurrentMap<Long, XxlJobTaskExecutorMapping> pendingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 执行器组信息缓存
+     * key: 执行器地址
+     */
+    private final ConcurrentMap<String, GroupMeta> groupMetaCache = new ConcurrentHashMap<>();
+
+    /**
+     * 立即刷新信号
+     */
+    private final LinkedBlockingQueue<Boolean> flushSignal = new LinkedBlockingQueue<>(1);
+
+    private Thread writeThread;
+    private volatile boolean toStop = false;
+
+    public void start(){
+        writeThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!toStop) {
+                    try {
+                        flushSignal.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                        flush();
+                    } catch (InterruptedException e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, TaskExecutorMappingWriteHelper interrupted.", e);
+                        }
+                    } catch (Throwable e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> xxl-job, TaskExecutorMappingWriteHelper error:{}", e.getMessage(), e);
+                        }
+                    }
+                }
+
+                // 停止前写完剩余映射
+                try {
+                    flush();
+                } catch (Throwable e) {
+                    logger.error(">>>>>>>>>>> xxl-job, TaskExecutorMappingWriteHelper final flush error:{}", e.getMessage(), e);
+                }
+                logger.info(">>>>>>>>>>> xxl-job, TaskExecutorMappingWriteHelper stop");
+            }
+        });
+        writeThread.setDaemon(true);
+        writeThread.setName("xxl-job, admin TaskExecutorMappingWriteHelper");
+        writeThread.start();
+    }
+
+    public void toStop(){
+        toStop = true;
+        if (writeThread != null) {
+            writeThread.interrupt();
+            try {
+                writeThread.join();
+            } catch (InterruptedException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 提交一条映射，非阻塞
+     *
+     * @param jobId           任务ID
+     * @param executorAddress 执行器地址
+     * @param partitionKey    数据分区键，可为空
+     */
+    public void submit(Long jobId, String executorAddress, String partitionKey) {
+        if (jobId == null || executorAddress == null) {
+            return;
+        }
+        if (pendingMap.size() >= MAX_PENDING_SIZE && !pendingMap.containsKey(jobId)) {
+            logger.warn(">>>>>>>>>>> xxl-job, task executor mapping buffer full, drop jobId:{}", jobId);
+            return;
+        }
+
+        XxlJobTaskExecutorMapping mapping = new XxlJobTaskExecutorMapping();
+        mapping.setJobId(jobId);
+        mapping.setExecutorAddress(executorAddress);
+        mapping.setPartitionKey(partitionKey);
+        pendingMap.put(jobId, mapping);
+
+        if (pendingMap.size() >= FLUSH_BATCH_SIZE) {
+            flushSignal.offer(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 取出缓冲中的映射，分批多行 upsert
+     * 整批写入失败时逐行重试，只丢弃单独写入仍失败的行；逐行全部失败(多为数据库不可用)时放回缓冲，下次刷新再写
+     */
+    private void flush() {
+        while (!pendingMap.isEmpty()) {
+            List<XxlJobTaskExecutorMapping> taken = new ArrayList<>(FLUSH_BATCH_SIZE);
+            Iterator<Map.Entry<Long, XxlJobTaskExecutorMapping>> iterator = pendingMap.entrySet().iterator();
+            while (iterator.hasNext() && taken.size() < FLUSH_BATCH_SIZE) {
+                Map.Entry<Long, XxlJobTaskExecutorMapping> entry = iterator.next();
+                // 只移除取出时的值，期间被覆盖的新值留到下一批
+                if (pendingMap.remove(entry.getKey(), entry.getValue())) {
+                    taken.add(entry.getValue());
+                }
+            }
+            if (taken.isEmpty()) {
+                continue;
+            }
+
+            List<XxlJobTaskExecutorMapping> batch = new ArrayList<>(taken.size());
+            try {
+                for (XxlJobTaskExecutorMapping mapping : taken) {
+                    GroupMeta groupMeta = loadGroupMeta(mapping.getExecutorAddress());
+                    if (groupMeta == null) {
+                        logger.warn("更新任务执行器映射失败 [任务ID:{}] [执行器:{}] [原因:未找到执行器组]", mapping.getJobId(), mapping.getExecutorAddress());
+                        continue;
+                    }
+                    mapping.setGroupId(groupMeta.groupId);
+                    mapping.setAppName(groupMeta.appName);
+                    mapping.setTitle(groupMeta.title);
+                    batch.add(mapping);
+                }
+            } catch (Exception e) {
+                logger.error("查询执行器组信息失败，映射放回缓冲 [条数:{}]", taken.size(), e);
+                restore(taken);
+                return;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            try {
+                XxlJobAdminConfig.getAdminConfig().getXxlJobTaskExecutorMappingMapper().batchSaveOrUpdate(batch);
+                logger.debug("批量更新任务执行器映射 [条数:{}]", batch.size());
+            } catch (Exception e) {
+                logger.warn("批量更新任务执行器映射失败，逐行重试 [条数:{}]", batch.size(), e);
+                if (!saveOneByOne(batch)) {
+                    restore(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 逐行写入，单行失败只丢弃该行
+     *
+     * @return 全部失败时返回false，映射未丢弃，由调用方放回缓冲
+     */
+    private boolean saveOneByOne(List<XxlJobTaskExecutorMapping> batch) {
+        List<XxlJobTaskExecutorMapping> failed = new ArrayList<>();
+        List<Exception> errors = new ArrayList<>();
+        for (XxlJobTaskExecutorMapping mapping : batch) {
+            try {
+                XxlJobAdminConfig.getAdminConfig().getXxlJobTaskExecutorMappingMapper().batchSaveOrUpdate(Collections.singletonList(mapping));
+            } catch (Exception e) {
+                failed.add(mapping);
+                errors.add(e);
+            }
+        }
+        if (!failed.isEmpty() && failed.size() == batch.size()) {
+            logger.error("逐行更新任务执行器映射全部失败，映射放回缓冲 [条数:{}]", batch.size(), errors.get(errors.size() - 1));
+            return false;
+        }
+        for (int i = 0; i < failed.size(); i++) {
+            XxlJobTaskExecutorMapping mapping = failed.get(i);
+            logger.error("更新任务执行器映射失败，丢弃 [任务ID:{}] [执行器:{}] [分区键:{}]",
+                    mapping.getJobId(), mapping.getExecutorAddress(), mapping.getPartitionKey(), errors.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * 放回缓冲，期间已提交的新映射优先
+     */
+    private void restore(List<XxlJobTaskExecutorMapping> mappings) {
+        for (XxlJobTaskExecutorMapping mapping : mappings) {
+            pendingMap.putIfAbsent(mapping.getJobId(), mapping);
+        }
+    }
+
+    /**
+     * 按执行器地址查询执行器组信息，带缓存
+     */
+    private GroupMeta loadGroupMeta(String executorAddress) {
+        long now = System.currentTimeMillis();
+        GroupMeta groupMeta = groupMetaCache.get(executorAddress);
+        if (groupMeta != null && groupMeta.expireTime > now) {
+            return groupMeta;
+        }
+
+        List<Map<String, Object>> maps = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().selectByAddressList(executorAddress);
+        if (maps == null || maps.isEmpty()) {
+            groupMetaCache.remove(executorAddress);
+            return null;
+        }
+        Map<String, Object> group = maps.get(0);
+        groupMeta = new GroupMeta(
+                ((Number) group.get("id")).longValue(),
+                (String) group.get("app_name"),
+                (String) group.get("title"),
+                now + GROUP_CACHE_VALID_MS);
+        groupMetaCache.put(executorAddress, groupMeta);
+        return groupMeta;
+    }
+
+    private static class GroupMeta {
+        private final Long groupId;
+        private final String appName;
+        private final String title;
+        private final long expireTime;
+
+        private GroupMeta(Long groupId, String appName, String title, long expireTime) {
+            this.groupId = groupId;
+            this.appName = appName;
+            this.title = title;
+            this.expireTime = expireTime;
+        }
+    }
+
+}
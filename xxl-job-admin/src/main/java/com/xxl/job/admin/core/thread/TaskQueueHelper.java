@@ -1,36 +1,61 @@
 package com.xxl.job.admin.core.thread;
 
-import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import com.xuxueli.springbootpriorityqueue.model.SortedTask;
 import com.xuxueli.springbootpriorityqueue.model.Task;
+import com.xuxueli.springbootpriorityqueue.queue.PrefetchBuffer;
 import com.xuxueli.springbootpriorityqueue.service.SortedTaskService;
 import com.xuxueli.springbootpriorityqueue.service.TaskService;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobGroup;
-import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
 import com.xxl.job.admin.core.route.strategy.IdleThreadBasedTaskAllocator;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
-import com.xxl.job.admin.core.util.I18nUtil;
-import com.xxl.job.core.biz.model.ReturnT;
-import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.enums.RegistryConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ObjectUtils;
+import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
 
 /**
  * 作者: Mr.Z
  * 时间: 2025-03-11 00:00
+ * <p>
+ * 队列派发：每个执行器组拥有独立的任务队列(手动任务有序队列、自动任务优先级队列)和派发通道，组之间互不阻塞。
+ * 通道管理线程按 xxl_job_group 刷新：新增执行器组时创建通道，组被删除时停止通道；每类队列的并行通道数可配置。
+ * <p>
+ * 每条派发通道循环执行：
+ * 1. 统计组内所有执行器的空闲槽位并逐一预占；
+ * 2. 按预占槽位数从队列原子地租约取出等量任务；
+ * 3. 每个任务带着自己的槽位地址提交到触发线程池并行触发，未用完的槽位归还；
+ * 4. 没有空闲槽位或队列为空时阻塞等待，由执行器负载上报(容量增加)或本机入队唤醒，超时兜底重试。
+ * <p>
+ * 出队采用租约：任务先移入处理中集合，触发执行完成后确认，被触发线程池拒绝时立即退回；
+ * 调度中心在触发前宕机时，租约到期后由延迟转移线程每 5 秒回收重新入队，任务不丢失(至少触发一次)。
+ * <p>
+ * 预取：每个队列在本地保留少量已租约的任务，派发时优先从内存取出，低于水位时在预取线程池中异步补充；
+ * 停留过久的预取任务和停止时未派发的预取任务退回队列，由其他通道或调度中心处理。
+ * <p>
+ * 延迟：指定了最早触发时间的手动任务先写入执行器组的延迟队列，延迟转移线程每秒把到期任务原子地移入执行器组队列。
  */
 @Component
 public class TaskQueueHelper implements ApplicationRunner {
@@ -42,132 +67,588 @@ public class TaskQueueHelper implements ApplicationRunner {
         return instance;
     }
 
-    // 执行线程
-    private Thread taskThread;
-    private Thread sortTaskThread;
+    /**
+     * 升级前的全局队列由这两个执行器组的通道继续消费，直至清空
+     */
+    private static final String LEGACY_SORTED_APP_NAME = "vip-executor";
+    private static final String LEGACY_NORMAL_APP_NAME = "normal";
+
+    /**
+     * 单次派发的最大任务数
+     */
+    private static final int MAX_DISPATCH_BATCH = 100;
+
+    /**
+     * 没有空闲槽位时的最长等待时间，容量上报会提前唤醒
+     */
+    private static final long NO_CAPACITY_WAIT_MS = 1000;
+
+    /**
+     * 队列为空时的最长等待时间，本机入队会提前唤醒；其他调度中心入队依赖该超时发现
+     */
+    private static final long EMPTY_QUEUE_WAIT_MS = 200;
+
+    /**
+     * 租约回收周期及单次回收上限
+     */
+    private static final long REQUEUE_INTERVAL_MS = 5000;
+    private static final int REQUEUE_BATCH = 1000;
+
+    /**
+     * 延迟任务转移周期及单次转移上限：到期的延迟任务最多晚一个周期进入执行器组队列
+     */
+    private static final long DELAY_TICK_MS = 1000;
+    private static final int DELAY_TRANSFER_BATCH = 1000;
+
+    /**
+     * 执行器组派发通道
+     * key: 执行器组ID
+     */
+    private final ConcurrentMap<Integer, GroupLanes> groupLanesMap = new ConcurrentHashMap<>();
+    private final Runnable capacityListener = this::wakeup;
+
+    private SortedTaskService sortedTaskService;
+    private TaskService taskService;
+
+    // 通道管理线程
+    private Thread laneManagerThread;
+
+    // 延迟任务转移及租约回收线程
+    private Thread delayTickerThread;
+
+    // 预取补充线程池
+    private ThreadPoolExecutor prefetchPool;
 
     // 停止标志
-    private volatile boolean taskThreadToStop = false;
-    private volatile boolean sortTaskThreadToStop = false;
+    private volatile boolean toStop = false;
 
     /**
      * 启动任务队列监听器
      */
     public void start() {
-        // 启动普通任务执行线程
-        sortTaskThread = new Thread(new Runnable() {
+        sortedTaskService = (SortedTaskService) SpringUtil.getBean("sortedTaskService");
+        taskService = (TaskService) SpringUtil.getBean("taskService");
+        ExecutorLoadTable.getInstance().addCapacityListener(capacityListener);
+
+        prefetchPool = new ThreadPoolExecutor(
+                4,
+                4,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1000),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "xxl-job, admin TaskQueueHelper-prefetchPool-" + r.hashCode());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        prefetchPool.allowCoreThreadTimeOut(true);
+
+        laneManagerThread = new Thread(new Runnable() {
             @Override
             public void run() {
-                SortedTaskService taskService = (SortedTaskService) SpringUtil.getBean("sortedTaskService");
-                while (!sortTaskThreadToStop) {
+                while (!toStop) {
                     try {
-                        // 先通过路由策略是否可以找到执行器，找到了再取队列的子任务执行
-                        String address = IdleThreadBasedTaskAllocator.choiceIP("vip-executor");
-                        if (StrUtil.isBlank(address)){
-                            TimeUnit.SECONDS.sleep(5);
-                            continue;
-                        }
-
-                        // 获取并执行任务
-                        SortedTask nextTask = taskService.getNextTask();
-                        if (nextTask != null) {
-                            try {
-                                TimeUnit.SECONDS.sleep(1);
-                                String id = nextTask.getId();
-                                JobTriggerPoolHelper.triggerSharding(Long.parseLong(id), TriggerTypeEnum.MANUAL, -1, null, null, address,0);
-                            } catch (Exception e) {
-                                logger.error(">>>>>>>>>>> task execute error: {}", e.getMessage(), e);
-                            }
-                        } else {
-                            // 队列为空时等待
-                            TimeUnit.MILLISECONDS.sleep(100);
+                        refreshLanes();
+                    } catch (Throwable e) {
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> task lane refresh error: {}", e.getMessage(), e);
                         }
+                    }
+                    try {
+                        TimeUnit.SECONDS.sleep(RegistryConfig.BEAT_TIMEOUT);
                     } catch (InterruptedException e) {
-                        if (!taskThreadToStop) {
-                            logger.error(">>>>>>>>>>> task thread interrupted: {}", e.getMessage(), e);
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> task lane manager thread interrupted: {}", e.getMessage(), e);
                         }
                     }
                 }
-                logger.info(">>>>>>>>>>> task thread stop");
+                logger.info(">>>>>>>>>>> task lane manager thread stop");
             }
         });
-        sortTaskThread.setDaemon(true);
-        sortTaskThread.setName("xxl-job, admin TaskQueueHelper#taskThread");
-        sortTaskThread.start();
+        laneManagerThread.setDaemon(true);
+        laneManagerThread.setName("xxl-job, admin TaskQueueHelper#laneManagerThread");
+        laneManagerThread.start();
 
-        // 启动排序任务执行线程
-        taskThread = new Thread(new Runnable() {
+        // 多个调度中心同时转移是安全的：转移脚本原子执行，每个到期任务只会被移入一次
+        // 租约回收也在该线程按 REQUEUE_INTERVAL_MS 执行，不受通道管理线程的心跳周期影响
+        delayTickerThread = new Thread(new Runnable() {
             @Override
             public void run() {
-                TaskService taskService = (TaskService) SpringUtil.getBean("taskService");
-                while (!taskThreadToStop) {
-                    try {
-                        // 先通过路由策略是否可以找到执行器，找到了再取队列的子任务执行
-                        String address = IdleThreadBasedTaskAllocator.choiceIP("normal");
-                        if (StrUtil.isBlank(address)){
-                            TimeUnit.SECONDS.sleep(5);
-                            continue;
+                long nextRequeueTime = 0;
+                while (!toStop) {
+                    for (GroupLanes groupLanes : groupLanesMap.values()) {
+                        if (toStop) {
+                            break;
                         }
+                        groupLanes.transferDelayed();
+                    }
 
-                        // 获取并执行排序任务
-                        Task nextTask = taskService.getNextTask();
-                        if (nextTask != null) {
-                            try {
-                                TimeUnit.SECONDS.sleep(1);
-                                String id = nextTask.getId();
-                                JobTriggerPoolHelper.triggerSharding(Long.parseLong(id), TriggerTypeEnum.MANUAL, -1, null, null, address,1);
-                            } catch (Exception e) {
-                                logger.error(">>>>>>>>>>> sort task execute error: {}", e.getMessage(), e);
-                            }
-                        } else {
-                            // 队列为空时等待
-                            TimeUnit.MILLISECONDS.sleep(100);
+                    // 回收租约到期的任务(触发前调度中心宕机、确认失败)，退回停留过久的预取任务
+                    if (!toStop && System.currentTimeMillis() >= nextRequeueTime) {
+                        nextRequeueTime = System.currentTimeMillis() + REQUEUE_INTERVAL_MS;
+                        for (GroupLanes groupLanes : groupLanesMap.values()) {
+                            groupLanes.requeueExpired();
                         }
+                    }
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(DELAY_TICK_MS);
                     } catch (InterruptedException e) {
-                        if (!sortTaskThreadToStop) {
-                            logger.error(">>>>>>>>>>> sort task thread interrupted: {}", e.getMessage(), e);
+                        if (!toStop) {
+                            logger.error(">>>>>>>>>>> task delay ticker thread interrupted: {}", e.getMessage(), e);
                         }
                     }
                 }
-                logger.info(">>>>>>>>>>> sort task thread stop");
+                logger.info(">>>>>>>>>>> task delay ticker thread stop");
             }
         });
-        taskThread.setDaemon(true);
-        taskThread.setName("xxl-job, admin TaskQueueHelper#sortTaskThread");
-        taskThread.start();
+        delayTickerThread.setDaemon(true);
+        delayTickerThread.setName("xxl-job, admin TaskQueueHelper#delayTickerThread");
+        delayTickerThread.start();
     }
 
     /**
      * 停止任务队列监听器
      */
     public void toStop() {
-        // 停止普通任务线程
-        taskThreadToStop = true;
-        if (taskThread != null && taskThread.getState() != Thread.State.TERMINATED) {
-            taskThread.interrupt();
+        toStop = true;
+        ExecutorLoadTable.getInstance().removeCapacityListener(capacityListener);
+
+        if (laneManagerThread != null && laneManagerThread.getState() != Thread.State.TERMINATED) {
+            laneManagerThread.interrupt();
             try {
-                taskThread.join();
+                laneManagerThread.join();
             } catch (InterruptedException e) {
-                logger.error(">>>>>>>>>>> task thread stop error: {}", e.getMessage(), e);
+                logger.error(">>>>>>>>>>> task lane manager thread stop error: {}", e.getMessage(), e);
             }
         }
-
-        // 停止排序任务线程
-        sortTaskThreadToStop = true;
-        if (sortTaskThread != null && sortTaskThread.getState() != Thread.State.TERMINATED) {
-            sortTaskThread.interrupt();
+        if (delayTickerThread != null && delayTickerThread.getState() != Thread.State.TERMINATED) {
+            delayTickerThread.interrupt();
             try {
-                sortTaskThread.join();
+                delayTickerThread.join();
             } catch (InterruptedException e) {
-                logger.error(">>>>>>>>>>> sort task thread stop error: {}", e.getMessage(), e);
+                logger.error(">>>>>>>>>>> task delay ticker thread stop error: {}", e.getMessage(), e);
             }
         }
 
+        for (GroupLanes groupLanes : groupLanesMap.values()) {
+            groupLanes.toStop();
+        }
+        groupLanesMap.clear();
+
+        if (prefetchPool != null) {
+            prefetchPool.shutdownNow();
+        }
+
         logger.info(">>>>>>>>>>> TaskQueueHelper stop");
     }
 
+    /**
+     * 唤醒所有派发通道：执行器空闲槽位增加时调用，非阻塞
+     */
+    public void wakeup() {
+        for (GroupLanes groupLanes : groupLanesMap.values()) {
+            groupLanes.wakeup();
+        }
+    }
+
+    /**
+     * 唤醒指定执行器组的派发通道：任务入队后调用，非阻塞
+     *
+     * @param jobGroup 执行器组ID
+     */
+    public void wakeup(int jobGroup) {
+        GroupLanes groupLanes = groupLanesMap.get(jobGroup);
+        if (groupLanes != null) {
+            groupLanes.wakeup();
+        }
+    }
+
+    /**
+     * 按 xxl_job_group 同步派发通道：新增组创建通道，已删除组停止通道，其余组刷新地址列表
+     */
+    private void refreshLanes() {
+        List<XxlJobGroup> groupList = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().findAll();
+        Set<Integer> groupIds = new HashSet<>();
+        if (groupList != null) {
+            for (XxlJobGroup group : groupList) {
+                groupIds.add(group.getId());
+                GroupLanes groupLanes = groupLanesMap.get(group.getId());
+                if (groupLanes != null) {
+                    groupLanes.group = group;
+                    continue;
+                }
+                if (toStop) {
+                    return;
+                }
+                groupLanes = new GroupLanes(group);
+                groupLanesMap.put(group.getId(), groupLanes);
+                groupLanes.start();
+                logger.info(">>>>>>>>>>> task lanes start, appName:{}, lanes:{}", group.getAppname(), groupLanes.lanes.size());
+            }
+        }
+
+        for (Integer groupId : new ArrayList<>(groupLanesMap.keySet())) {
+            if (groupIds.contains(groupId)) {
+                continue;
+            }
+            GroupLanes groupLanes = groupLanesMap.remove(groupId);
+            if (groupLanes != null) {
+                groupLanes.toStop();
+                sortedTaskService.releaseGroupQueue(groupId);
+                taskService.releaseGroupQueue(groupId);
+                logger.info(">>>>>>>>>>> task lanes stop, appName:{}", groupLanes.group.getAppname());
+            }
+        }
+    }
+
     @Override
     public void run(ApplicationArguments args) throws Exception {
         TaskQueueHelper.getInstance().start();
     }
+
+
+    /**
+     * 单个执行器组的全部派发通道
+     */
+    private class GroupLanes {
+        private volatile XxlJobGroup group;
+        private final List<LaneQueue<?>> queues = new ArrayList<>();
+        private final List<DispatchLane<?>> lanes = new ArrayList<>();
+
+        GroupLanes(XxlJobGroup group) {
+            this.group = group;
+            final int groupId = group.getId();
+
+            // 手动任务有序队列(isAutomatic=0)、自动任务优先级队列(isAutomatic=1)
+            queues.add(new LaneQueue<SortedTask>("sorted_tasks:group:" + groupId, 0,
+                    (count, leaseTimeoutMs) -> sortedTaskService.leaseNextTasks(groupId, count, leaseTimeoutMs),
+                    task -> sortedTaskService.ackTask(groupId, task),
+                    task -> sortedTaskService.nackTask(groupId, task),
+                    limit -> sortedTaskService.requeueExpiredTasks(groupId, limit),
+                    SortedTask::getId));
+            queues.add(new LaneQueue<Task>("tasks:group:" + groupId, 1,
+                    (count, leaseTimeoutMs) -> taskService.leaseNextTasks(groupId, count, leaseTimeoutMs),
+                    task -> taskService.ackTask(groupId, task),
+                    task -> taskService.nackTask(groupId, task),
+                    limit -> taskService.requeueExpiredTasks(groupId, limit),
+                    Task::getId));
+
+            // 升级前的全局队列：有序队列由 vip-executor 组消费，优先级队列由 normal 组消费
+            if (LEGACY_SORTED_APP_NAME.equals(group.getAppname())) {
+                queues.add(new LaneQueue<SortedTask>("sorted_tasks", 0,
+                        sortedTaskService::leaseNextTasks,
+                        sortedTaskService::ackTask,
+                        sortedTaskService::nackTask,
+                        sortedTaskService::requeueExpiredTasks,
+                        SortedTask::getId));
+            }
+            if (LEGACY_NORMAL_APP_NAME.equals(group.getAppname())) {
+                queues.add(new LaneQueue<Task>("tasks", 1,
+                        taskService::leaseNextTasks,
+                        taskService::ackTask,
+                        taskService::nackTask,
+                        taskService::requeueExpiredTasks,
+                        Task::getId));
+            }
+
+            int prefetchSize = XxlJobAdminConfig.getAdminConfig().getTaskQueuePrefetchSize();
+            if (prefetchSize > 0) {
+                long leaseTimeoutMs = XxlJobAdminConfig.getAdminConfig().getTaskQueueLeaseTimeout() * 1000L;
+                for (LaneQueue<?> queue : queues) {
+                    queue.enablePrefetch(group.getAppname(), prefetchSize, leaseTimeoutMs, prefetchPool);
+                }
+            }
+
+            int parallelism = XxlJobAdminConfig.getAdminConfig().getTaskQueueLaneParallelism();
+            for (LaneQueue<?> queue : queues) {
+                for (int i = 0; i < parallelism; i++) {
+                    lanes.add(new DispatchLane<>(this, queue, "xxl-job, admin TaskQueueHelper#lane-" + group.getAppname() + "-" + queue.name + "-" + i));
+                }
+            }
+        }
+
+        void start() {
+            for (DispatchLane<?> lane : lanes) {
+                lane.start();
+            }
+        }
+
+        void toStop() {
+            for (DispatchLane<?> lane : lanes) {
+                lane.toStop = true;
+            }
+            for (DispatchLane<?> lane : lanes) {
+                lane.toStop();
+            }
+            // 通道停止后退回预取的任务
+            for (LaneQueue<?> queue : queues) {
+                queue.closePrefetch();
+            }
+        }
+
+        void wakeup() {
+            for (DispatchLane<?> lane : lanes) {
+                lane.wakeup();
+            }
+        }
+
+        /**
+         * 回收各队列中租约到期的任务，退回停留过久的预取任务，有回收时唤醒通道
+         */
+        void requeueExpired() {
+            long requeued = 0;
+            for (LaneQueue<?> queue : queues) {
+                try {
+                    requeued += queue.expirePrefetch();
+                    requeued += queue.requeueFunction.applyAsLong(REQUEUE_BATCH);
+                } catch (Exception e) {
+                    logger.error(">>>>>>>>>>> task lease requeue error, queue:{}, error:{}", queue.name, e.getMessage(), e);
+                }
+            }
+            if (requeued > 0) {
+                wakeup();
+            }
+        }
+
+        /**
+         * 把延迟队列中到期的手动任务移入执行器组队列，有转移时唤醒通道
+         */
+        void transferDelayed() {
+            try {
+                if (sortedTaskService.transferReadyTasks(group.getId(), DELAY_TRANSFER_BATCH) > 0) {
+                    wakeup();
+                }
+            } catch (Exception e) {
+                logger.error(">>>>>>>>>>> task delay transfer error, appName:{}, error:{}", group.getAppname(), e.getMessage(), e);
+            }
+        }
+    }
+
+
+    /**
+     * 派发通道使用的任务队列：租约出队、确认、退回、回收租约到期任务
+     */
+    private static class LaneQueue<T> {
+        private final String name;
+        private final int isAutomatic;
+        private final BiFunction<Integer, Long, List<T>> leaseFunction;
+        private final Consumer<T> ackFunction;
+        private final Consumer<T> nackFunction;
+        private final IntToLongFunction requeueFunction;
+        private final Function<T, String> idFunction;
+        private volatile PrefetchBuffer<T> prefetchBuffer;
+
+        LaneQueue(String name,
+                  int isAutomatic,
+                  BiFunction<Integer, Long, List<T>> leaseFunction,
+                  Consumer<T> ackFunction,
+                  Consumer<T> nackFunction,
+                  IntToLongFunction requeueFunction,
+                  Function<T, String> idFunction) {
+            this.name = name;
+            this.isAutomatic = isAutomatic;
+            this.leaseFunction = leaseFunction;
+            this.ackFunction = ackFunction;
+            this.nackFunction = nackFunction;
+            this.requeueFunction = requeueFunction;
+            this.idFunction = idFunction;
+        }
+
+        void enablePrefetch(String appName, int prefetchSize, long leaseTimeoutMs, Executor refillExecutor) {
+            prefetchBuffer = new PrefetchBuffer<>(appName + "-" + name,
+                    leaseFunction, nackFunction, prefetchSize, leaseTimeoutMs, refillExecutor);
+        }
+
+        /**
+         * 租约取出最多count个任务，启用预取时优先从本地缓冲取
+         */
+        List<T> take(int count, long leaseTimeoutMs) {
+            PrefetchBuffer<T> buffer = prefetchBuffer;
+            return buffer != null ? buffer.take(count) : leaseFunction.apply(count, leaseTimeoutMs);
+        }
+
+        int expirePrefetch() {
+            PrefetchBuffer<T> buffer = prefetchBuffer;
+            return buffer != null ? buffer.expireStale() : 0;
+        }
+
+        void closePrefetch() {
+            PrefetchBuffer<T> buffer = prefetchBuffer;
+            if (buffer != null) {
+                buffer.close();
+            }
+        }
+    }
+
+
+    /**
+     * 派发通道：一个执行器组 + 一个任务队列，对应一个派发线程
+     */
+    private class DispatchLane<T> {
+        private final GroupLanes owner;
+        private final LaneQueue<T> queue;
+        private final LinkedBlockingQueue<Boolean> wakeupSignal = new LinkedBlockingQueue<>(1);
+        private final Thread thread;
+        private volatile boolean toStop = false;
+
+        DispatchLane(GroupLanes owner, LaneQueue<T> queue, String threadName) {
+            this.owner = owner;
+            this.queue = queue;
+            this.thread = new Thread(this::runLoop);
+            this.thread.setDaemon(true);
+            this.thread.setName(threadName);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void toStop() {
+            toStop = true;
+            if (thread.getState() != Thread.State.TERMINATED) {
+                thread.interrupt();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    logger.error(">>>>>>>>>>> task dispatch thread stop error: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        void wakeup() {
+            wakeupSignal.offer(Boolean.TRUE);
+        }
+
+        private void runLoop() {
+            while (!toStop) {
+                try {
+                    long waitMs = dispatch();
+                    if (waitMs > 0) {
+                        wakeupSignal.poll(waitMs, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    if (!toStop) {
+                        logger.error(">>>>>>>>>>> task dispatch thread interrupted, thread:{}", thread.getName(), e);
+                    }
+                } catch (Throwable e) {
+                    if (!toStop) {
+                        logger.error(">>>>>>>>>>> task dispatch error, thread:{}, error:{}", thread.getName(), e.getMessage(), e);
+                        try {
+                            wakeupSignal.poll(NO_CAPACITY_WAIT_MS, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException ie) {
+                            // 停止时中断，交由循环条件退出
+                        }
+                    }
+                }
+            }
+            logger.info(">>>>>>>>>>> task dispatch thread stop, thread:{}", thread.getName());
+        }
+
+        /**
+         * 派发一批任务
+         *
+         * @return 下一轮前需要等待的毫秒数，0 表示槽位和任务都已用满，立即继续；有任务被触发线程池拒绝时退避
+         */
+        private long dispatch() {
+            // 先按组内空闲槽位预占，有槽位再租约等量任务
+            List<String> registryList = owner.group.getRegistryList();
+            if (CollectionUtils.isEmpty(registryList)) {
+                return NO_CAPACITY_WAIT_MS;
+            }
+            List<String> slots = IdleThreadBasedTaskAllocator.reserveIdleSlots(registryList, MAX_DISPATCH_BATCH);
+            if (slots.isEmpty()) {
+                return NO_CAPACITY_WAIT_MS;
+            }
+
+            long leaseTimeoutMs = XxlJobAdminConfig.getAdminConfig().getTaskQueueLeaseTimeout() * 1000L;
+            List<T> tasks;
+            try {
+                tasks = queue.take(slots.size(), leaseTimeoutMs);
+            } catch (RuntimeException e) {
+                releaseSlots(slots, 0);
+                throw e;
+            }
+
+            // 并行触发：每个任务提交到触发线程池，地址为各自预占的槽位；触发完成后确认，被拒绝则退回并归还槽位
+            int rejected = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (!dispatchTask(tasks.get(i), slots.get(i))) {
+                    rejected++;
+                }
+            }
+            releaseSlots(slots, tasks.size());
+
+            logger.debug(">>>>>>>>>>> task dispatch, thread:{}, slots:{}, tasks:{}, rejected:{}", thread.getName(), slots.size(), tasks.size(), rejected);
+            if (rejected > 0) {
+                // 触发线程池饱和，退回的任务仍在队首，立即重试只会反复租约和退回
+                return NO_CAPACITY_WAIT_MS;
+            }
+            return tasks.size() < slots.size() ? EMPTY_QUEUE_WAIT_MS : 0;
+        }
+
+        /**
+         * 提交一个任务到触发线程池
+         *
+         * @return 提交时被拒绝并已退回返回false
+         */
+        private boolean dispatchTask(final T task, final String address) {
+            String taskId = queue.idFunction.apply(task);
+            long jobId;
+            try {
+                jobId = Long.parseLong(taskId);
+            } catch (NumberFormatException e) {
+                // 无效任务直接确认丢弃，避免反复重新入队
+                logger.error(">>>>>>>>>>> task dispatch drop invalid taskId:{}", taskId);
+                ExecutorLoadTable.getInstance().release(address);
+                acknowledge(task, true);
+                return true;
+            }
+
+            // 被拒绝时在提交线程中同步回调，提交返回后即可判断
+            final Thread submitThread = Thread.currentThread();
+            final AtomicBoolean rejected = new AtomicBoolean(false);
+            try {
+                JobTriggerPoolHelper.triggerSharding(jobId, TriggerTypeEnum.MANUAL, -1, null, null, address, queue.isAutomatic, triggered -> {
+                    if (!triggered) {
+                        ExecutorLoadTable.getInstance().release(address);
+                        if (Thread.currentThread() == submitThread) {
+                            rejected.set(true);
+                        }
+                    }
+                    acknowledge(task, triggered);
+                });
+            } catch (Exception e) {
+                logger.error(">>>>>>>>>>> task dispatch error, taskId:{}, address:{}, error:{}", taskId, address, e.getMessage(), e);
+                ExecutorLoadTable.getInstance().release(address);
+                acknowledge(task, false);
+                return false;
+            }
+            return !rejected.get();
+        }
+
+        /**
+         * 确认或退回租约；失败时仅记录，租约到期后由回收兜底重新入队
+         */
+        private void acknowledge(T task, boolean ack) {
+            try {
+                if (ack) {
+                    queue.ackFunction.accept(task);
+                } else {
+                    queue.nackFunction.accept(task);
+                }
+            } catch (Exception e) {
+                logger.error(">>>>>>>>>>> task lease {} error, queue:{}, taskId:{}, error:{}", ack ? "ack" : "nack",
+                        queue.name, queue.idFunction.apply(task), e.getMessage(), e);
+            }
+        }
+
+        private void releaseSlots(List<String> slots, int fromIndex) {
+            for (int i = fromIndex; i < slots.size(); i++) {
+                ExecutorLoadTable.getInstance().release(slots.get(i));
+            }
+        }
+    }
 }
@@ -9,7 +9,9 @@ import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
+import com.xxl.job.admin.core.route.strategy.IdleThreadBasedTaskAllocator;
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
 import com.xxl.job.admin.core.util.I18nUtil;
 import cn.hutool.core.util.StrUtil;
 import com.xxl.job.admin.core.model.XxlJobShardingInfo;
@@ -24,7 +26,14 @@ import com.xxl.job.core.util.ThrowableUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -85,9 +94,8 @@ public class XxlJobTrigger {
         if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null)
                 && group.getRegistryList() != null && !group.getRegistryList().isEmpty()
                 && shardingParam == null) {
-            for (int i = 0; i < group.getRegistryList().size(); i++) {
-                processTrigger(group, jobInfo, finalFailRetryCount, triggerType, i, group.getRegistryList().size());
-            }
+            final int total = group.getRegistryList().size();
+            broadcastTrigger(jobInfo, total, index -> processTrigger(group, jobInfo, finalFailRetryCount, triggerType, index, total));
         } else {
             if (shardingParam == null) {
                 shardingParam = new int[]{0, 1};
@@ -109,7 +117,8 @@ public class XxlJobTrigger {
      * @param executorParam         null: use job param
      *                              not null: cover job param
      * @param addressList           null: use executor addressList
-     *                              not null: cover
+     *                              not null: cover, the address has been reserved by the task queue dispatcher,
+     *                              IDLE_THREAD_BASED_TASK_ALLOCATOR uses it directly without reserving again
      */
     public static void triggerSharding(Long jobId,
                                        TriggerTypeEnum triggerType,
@@ -137,7 +146,8 @@ public class XxlJobTrigger {
         group.setAddressInfoMap(addressInfo);
 
         // cover addressList
-        if (addressList != null && addressList.trim().length() > 0) {
+        final boolean reservedAddress = addressList != null && addressList.trim().length() > 0;
+        if (reservedAddress) {
             group.setAddressType(1);
             group.setAddressList(addressList.trim());
         }
@@ -155,14 +165,13 @@ public class XxlJobTrigger {
         if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null)
                 && group.getRegistryList() != null && !group.getRegistryList().isEmpty()
                 && shardingParam == null) {
-            for (int i = 0; i < group.getRegistryList().size(); i++) {
-                processTriggerSharding(group, jobInfo, finalFailRetryCount, triggerType, i, group.getRegistryList().size());
-            }
+            final int total = group.getRegistryList().size();
+            broadcastTrigger(jobInfo, total, index -> processTriggerSharding(group, jobInfo, finalFailRetryCount, triggerType, index, total, reservedAddress));
         } else {
             if (shardingParam == null) {
                 shardingParam = new int[]{0, 1};
             }
-            processTriggerSharding(group, jobInfo, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1]);
+            processTriggerSharding(group, jobInfo, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1], reservedAddress);
         }
 
     }
@@ -175,7 +184,7 @@ public class XxlJobTrigger {
      * @param index               sharding index
      * @param total               sharding index
      */
-    private static void processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total) {
+    private static ReturnT<String> processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total) {
 
         // param
         ExecutorBlockStrategyEnum blockStrategy = ExecutorBlockStrategyEnum.match(jobInfo.getExecutorBlockStrategy(), ExecutorBlockStrategyEnum.SERIAL_EXECUTION);  // block strategy
@@ -204,6 +213,7 @@ public class XxlJobTrigger {
         triggerParam.setGlueUpdatetime(jobInfo.getGlueUpdatetime().getTime());
         triggerParam.setBroadcastIndex(index);
         triggerParam.setBroadcastTotal(total);
+        // 非拆分任务不设置分区键，分区亲和路由按任务ID处理
 
         // 3、init address
         String address = null;
@@ -262,6 +272,101 @@ public class XxlJobTrigger {
         jobLog.setTriggerMsg(triggerMsgSb.toString());
         XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(jobLog);
         logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+        return triggerResult;
+    }
+
+    /**
+     * 分片广播并行触发
+     * <p>
+     * 每个分片的"写日志 -> 调用执行器 -> 更新日志"互相独立，提交到广播触发线程池并发执行，
+     * 并发度由 xxl.job.triggerpool.broadcast.max 限制；全部分片结束后汇总成功/失败数量并记录日志。
+     * 每个分片的触发结果已写入各自的调度日志，由失败重试/告警处理，汇总只用于日志，不返回给调用方；
+     * 等待期间被中断时不再等待，尚未结束的分片仍在执行，记为执行中而不是失败。
+     *
+     * @param jobInfo      任务信息
+     * @param total        分片总数
+     * @param shardTrigger 单个分片的触发逻辑，入参为分片序号
+     */
+    static void broadcastTrigger(XxlJobInfo jobInfo, int total, IntFunction<ReturnT<String>> shardTrigger) {
+        long start = System.currentTimeMillis();
+
+        // 1、fan-out
+        List<Future<ReturnT<String>>> futureList = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            final int index = i;
+            futureList.add(JobTriggerPoolHelper.submitBroadcast(() -> shardTrigger.apply(index)));
+        }
+
+        // 2、fan-in
+        awaitBroadcast(jobInfo, futureList, start);
+    }
+
+    /**
+     * 等待全部分片结束并汇总记录日志；被中断时不取消、不等待未结束的分片
+     *
+     * @param jobInfo    任务信息
+     * @param futureList 分片触发结果，下标即分片序号
+     * @param start      开始触发的时间
+     */
+    static void awaitBroadcast(XxlJobInfo jobInfo, List<Future<ReturnT<String>>> futureList, long start) {
+        int total = futureList.size();
+        int successCount = 0;
+        List<Integer> failIndexList = new ArrayList<>();
+        List<Integer> runningIndexList = new ArrayList<>();
+        boolean interrupted = false;
+        for (int i = 0; i < futureList.size(); i++) {
+            Future<ReturnT<String>> future = futureList.get(i);
+            if (interrupted && !future.isDone()) {
+                runningIndexList.add(i);
+                continue;
+            }
+            try {
+                ReturnT<String> shardResult = future.get();
+                if (shardResult != null && shardResult.getCode() == ReturnT.SUCCESS_CODE) {
+                    successCount++;
+                } else {
+                    failIndexList.add(i);
+                }
+            } catch (InterruptedException e) {
+                // 停止等待，剩余分片只统计已结束的
+                interrupted = true;
+                runningIndexList.add(i);
+            } catch (ExecutionException | CancellationException e) {
+                logger.error(">>>>>>>>>>> xxl-job broadcast trigger error, jobId:{}, index:{}", jobInfo.getId(), i, e);
+                failIndexList.add(i);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        long cost = System.currentTimeMillis() - start;
+        if (interrupted) {
+            logger.warn(">>>>>>>>>>> xxl-job broadcast trigger interrupted, jobId:{}, total:{}, success:{}, failIndex:{}, runningIndex:{}, cost:{}ms",
+                    jobInfo.getId(), total, successCount, failIndexList, runningIndexList, cost);
+        } else if (failIndexList.isEmpty()) {
+            logger.debug(">>>>>>>>>>> xxl-job broadcast trigger end, jobId:{}, total:{}, cost:{}ms", jobInfo.getId(), total, cost);
+        } else {
+            logger.warn(">>>>>>>>>>> xxl-job broadcast trigger end, jobId:{}, total:{}, success:{}, failIndex:{}, cost:{}ms",
+                    jobInfo.getId(), total, successCount, failIndexList, cost);
+        }
+    }
+
+    /**
+     * 数据分区键：父任务ID + 子任务参数(时间范围)的SHA-1，同一父任务同一时间范围的多次执行视为同一分区
+     * 子任务参数最长512字符，取摘要使分区键长度固定，不超出 partition_key 列宽
+     *
+     * @param jobInfo 分片子任务信息，remoteId 为父任务ID
+     * @return 分区键
+     */
+    private static String buildPartitionKey(XxlJobInfo jobInfo) {
+        String executorParam = jobInfo.getExecutorParam() != null ? jobInfo.getExecutorParam() : "";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(executorParam.getBytes(StandardCharsets.UTF_8));
+            return jobInfo.getRemoteId() + ":" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private static boolean isNumeric(String str) {
@@ -280,8 +385,9 @@ public class XxlJobTrigger {
      * @param triggerType
      * @param index               sharding index
      * @param total               sharding index
+     * @param reservedAddress     the group address list is the single address reserved by the task queue dispatcher
      */
-    private static void processTriggerSharding(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total) {
+    private static ReturnT<String> processTriggerSharding(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total, boolean reservedAddress) {
 
         // 根据任务信息中的阻塞策略名称匹配对应的阻塞策略枚举。
         // 如果没有匹配到，则使用默认的COVER_EARLY策略。
@@ -291,11 +397,11 @@ public class XxlJobTrigger {
         String shardingParam = (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) ? String.valueOf(index).concat("/").concat(String.valueOf(total)) : null;
 
         // 循环执行任务
-        triggerJobInfo(group, jobInfo, finalFailRetryCount, triggerType, index, total, blockStrategy, executorRouteStrategyEnum, shardingParam);
+        return triggerJobInfo(group, jobInfo, finalFailRetryCount, triggerType, index, total, blockStrategy, executorRouteStrategyEnum, shardingParam, reservedAddress);
 
     }
 
-    private static void triggerJobInfo(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total, ExecutorBlockStrategyEnum blockStrategy, ExecutorRouteStrategyEnum executorRouteStrategyEnum, String shardingParam) {
+    private static ReturnT<String> triggerJobInfo(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total, ExecutorBlockStrategyEnum blockStrategy, ExecutorRouteStrategyEnum executorRouteStrategyEnum, String shardingParam, boolean reservedAddress) {
         // 1、save log-id
         XxlJobLog jobLog = new XxlJobLog();
         jobLog.setJobGroup(jobInfo.getJobGroup());
@@ -318,6 +424,7 @@ public class XxlJobTrigger {
         triggerParam.setGlueUpdatetime(jobInfo.getGlueUpdatetime().getTime());
         triggerParam.setBroadcastIndex(index);
         triggerParam.setBroadcastTotal(total);
+        triggerParam.setPartitionKey(buildPartitionKey(jobInfo));
 
         // 3、init address
         String address = null;
@@ -329,6 +436,10 @@ public class XxlJobTrigger {
                 } else {
                     address = group.getRegistryList().get(0);
                 }
+            } else if (reservedAddress && ExecutorRouteStrategyEnum.IDLE_THREAD_BASED_TASK_ALLOCATOR == executorRouteStrategyEnum) {
+                // 派发线程已在负载表中预占该地址的槽位，不再经分配器重复预占
+                routeAddressResult = IdleThreadBasedTaskAllocator.routeReserved(triggerParam, group.getRegistryList().get(0));
+                address = routeAddressResult.getContent();
             } else {
                 routeAddressResult = executorRouteStrategyEnum.getRouter().route(triggerParam, group.getRegistryList());
                 if (routeAddressResult.getCode() == ReturnT.SUCCESS_CODE) {
@@ -379,6 +490,7 @@ public class XxlJobTrigger {
         //int statusCode = (triggerResult.getCode() == 200) ? ExecutionStatus.TRIGGERRING.getCode() : ExecutionStatus.NOT_TRIGGER.getCode();
         //XxlJobAdminConfig.getAdminConfig().getXxlJobShardingInfoDao().updateTriggerInfo(statusCode, jobInfo.getId());
         logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+        return triggerResult;
     }
 
     /**
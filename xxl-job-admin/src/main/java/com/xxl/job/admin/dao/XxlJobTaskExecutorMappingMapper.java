@@ -4,6 +4,8 @@ import com.xxl.job.admin.core.model.XxlJobTaskExecutorMapping;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * xxl_job_task_executor_mapping表的Mapper接口
  */
@@ -15,11 +17,21 @@ public interface XxlJobTaskExecutorMappingMapper {
      */
     String loadExecutorAddress(@Param("jobId") Long jobId);
 
+    /**
+     * 根据数据分区键查询最近一次处理该分区的执行器地址
+     */
+    String loadLatestAddressByPartitionKey(@Param("partitionKey") String partitionKey);
+
     /**
      * 保存或更新任务执行器映射
      */
     int saveOrUpdate(XxlJobTaskExecutorMapping mapping);
 
+    /**
+     * 批量保存或更新任务执行器映射（多行 upsert）
+     */
+    int batchSaveOrUpdate(@Param("list") List<XxlJobTaskExecutorMapping> mappingList);
+
     /**
      * 根据任务ID删除映射
      */
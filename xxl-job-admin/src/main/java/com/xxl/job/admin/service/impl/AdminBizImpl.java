@@ -1,10 +1,12 @@
 package com.xxl.job.admin.service.impl;
 
 import com.alibaba.fastjson.JSON;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
 import com.xxl.job.admin.core.thread.JobCompleteHelper;
 import com.xxl.job.admin.core.thread.JobRegistryHelper;
 import com.xxl.job.admin.dao.XxlJobInfoDao;
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -50,6 +52,9 @@ public class AdminBizImpl implements AdminBiz {
 
     @Override
     public ReturnT<String> registryRemove(RegistryParam registryParam) {
+        if (registryParam != null) {
+            ExecutorLoadTable.getInstance().remove(registryParam.getRegistryValue());
+        }
         return JobRegistryHelper.getInstance().registryRemove(registryParam);
     }
 
@@ -126,4 +131,10 @@ public class AdminBizImpl implements AdminBiz {
 
         return ReturnT.SUCCESS;
     }
+
+    @Override
+    public ReturnT<String> reportLoad(ExecutorLoadParam executorLoadParam) {
+        ExecutorLoadTable.getInstance().report(executorLoadParam);
+        return ReturnT.SUCCESS;
+    }
 }
@@ -14,6 +14,7 @@ import com.xxl.job.admin.core.scheduler.MisfireStrategyEnum;
 import com.xxl.job.admin.core.scheduler.ScheduleTypeEnum;
 import com.xxl.job.admin.core.thread.JobScheduleHelper;
 import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
+import com.xxl.job.admin.core.thread.TaskQueueHelper;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.util.*;
 import com.xxl.job.admin.dao.*;
@@ -466,7 +467,8 @@ public class XxlJobServiceImpl implements XxlJobService {
         saveTaskInfo(xxlJobInfo, xxlJobShardingInfos);
 
         // 7. 触发任务
-        triggerTask(xxlJobShardingInfos, handleShardingParam.getIsAutomatic());
+        long notBefore = handleShardingParam.getNotBefore() != null ? TimeConverterUtil.convertToTimestamp(handleShardingParam.getNotBefore()) : 0;
+        triggerTask(xxlJobInfo.getJobGroup(), xxlJobShardingInfos, handleShardingParam.getIsAutomatic(), notBefore);
 
         return ReturnT.SUCCESS;
     }
@@ -542,6 +544,9 @@ public class XxlJobServiceImpl implements XxlJobService {
         if (handleShardingParam.getEndTimeOfData() != null && !Pattern.matches(timePattern, handleShardingParam.getEndTimeOfData())) {
             throw new IllegalArgumentException("数据截止时间格式必须为yyyy-MM-dd HH:mm:ss");
         }
+        if (handleShardingParam.getNotBefore() != null && !Pattern.matches(timePattern, handleShardingParam.getNotBefore())) {
+            throw new IllegalArgumentException("最早触发时间格式必须为yyyy-MM-dd HH:mm:ss");
+        }
 
         // 校验数据时间间隔
         if (ObjectUtils.isEmpty(handleShardingParam.getDataInterval()) && handleShardingParam.getDataInterval() <= 0) {
@@ -617,7 +622,7 @@ public class XxlJobServiceImpl implements XxlJobService {
             xxlJobShardingInfo.setParentJobId(parentJobId);
             xxlJobShardingInfo.setTriggerTime(handleShardingParam.getIsAutomatic() == 1
                     ? DateUtil.parseDateTime(handleShardingParam.getFirstSchedulingTime())
-                    : new Date());
+                    : handleShardingParam.getNotBefore() != null ? DateUtil.parseDateTime(handleShardingParam.getNotBefore()) : new Date());
             xxlJobShardingInfo.setIsAutomatic(handleShardingParam.getIsAutomatic());
             xxlJobShardingInfo.setExecuteBatch(maxExecuteBatch + 1);
             xxlJobShardingInfo.setExecuteState(ExecutionStatus.NOT_EXECUTED.getCode());
@@ -638,14 +643,24 @@ public class XxlJobServiceImpl implements XxlJobService {
         }
     }
 
-    // 触发任务
-    private void triggerTask(List<XxlJobShardingInfo> xxlJobShardingInfos, Integer isAutomatic) {
+    // 触发任务，notBefore 晚于当前时间时先写入延迟队列，到期后由 TaskQueueHelper 移入执行器组队列
+    private void triggerTask(int jobGroup, List<XxlJobShardingInfo> xxlJobShardingInfos, Integer isAutomatic, long notBefore) {
         if (isAutomatic == null || isAutomatic != 1) {
-            // 把子任务放队列
+            // 把子任务放队列，一次往返批量写入
+            List<SortedTask> sortedTasks = new ArrayList<>();
+            for (XxlJobShardingInfo xxlJobShardingInfo : xxlJobShardingInfos) {
+                sortedTasks.add(new SortedTask(xxlJobShardingInfo.getId().toString(), xxlJobShardingInfo.getJobDesc(), xxlJobShardingInfo.getJobDesc(), 0));
+            }
+            if (notBefore > System.currentTimeMillis()) {
+                sortedTaskService.scheduleTasks(jobGroup, sortedTasks, notBefore);
+            } else {
+                sortedTaskService.addTasks(jobGroup, sortedTasks);
+            }
             for (XxlJobShardingInfo xxlJobShardingInfo : xxlJobShardingInfos) {
-                sortedTaskService.addTask(new SortedTask(xxlJobShardingInfo.getId().toString(), xxlJobShardingInfo.getJobDesc(), xxlJobShardingInfo.getJobDesc(), 0));
                 int i = XxlJobAdminConfig.getAdminConfig().getXxlJobShardingInfoDao().updateExecuteInfo(ExecutionStatus.TRIGGERRING.getCode(), xxlJobShardingInfo.getId());
             }
+            // 唤醒执行器组的队列派发线程
+            TaskQueueHelper.getInstance().wakeup(jobGroup);
         }
     }
 
@@ -3,6 +3,7 @@ package com.xxl.job.admin;
 import com.xuxueli.springbootpriorityqueue.model.SortedTask;
 import com.xuxueli.springbootpriorityqueue.queue.RedisSortedQueue;
 import com.xuxueli.springbootpriorityqueue.queue.RedisSortedQueueFactory;
+import com.xuxueli.springbootpriorityqueue.queue.ScoredPage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +15,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * RedisSortedQueue测试类
  * 
@@ -51,4 +54,33 @@ public class RedisSortedQueueTest {
         String dequeue = queue.dequeue();
         System.err.println(dequeue);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 测试按分数范围分页查询：游标翻页不重复、不遗漏
+     */
+    @Test
+    public void testScoreRangePaging() {
+        RedisSortedQueue<String> queue = queueFactory.getQueue("test_score_paging_", String.class, false);
+        queue.clear();
+        for (int i = 1; i <= 25; i++) {
+            queue.enqueue("item-" + i, i % 5);
+        }
+
+        List<String> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ScoredPage<String> page = queue.getItemsByScoreRange(1, 3.5, cursor, 4);
+            assertEquals(page.getItems().size(), page.getScores().size());
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // 分数1、2、3各5个元素
+        assertEquals(15, all.size());
+        assertEquals(15, Set.copyOf(all).size());
+        assertEquals(4, pages);
+        queue.clear();
+    }
+}
@@ -0,0 +1,107 @@
+package com.xxl.job.admin.core.route;
+
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorLoadTableTest {
+
+    @Test
+    public void choiceIdleShouldPreferMostFreeAndReserve() {
+        ExecutorLoadTable loadTable = new ExecutorLoadTable();
+        loadTable.report(new ExecutorLoadParam("app", "http://a:9999/", 1, 0, 2));
+        loadTable.report(new ExecutorLoadParam("app", "http://b:9999/", 0, 0, 2));
+        List<String> addressList = Arrays.asList("http://a:9999/", "http://b:9999/");
+
+        // b 空闲 2 个，a 空闲 1 个
+        assertEquals("http://b:9999/", loadTable.choiceIdle(addressList));
+        // b 预占后两者各空闲 1 个，再分配两次后全部占满
+        assertNotNull(loadTable.choiceIdle(addressList));
+        assertNotNull(loadTable.choiceIdle(addressList));
+        assertNull(loadTable.choiceIdle(addressList));
+
+        // 新的上报覆盖本地预占
+        loadTable.report(new ExecutorLoadParam("app", "http://a:9999/", 0, 0, 2));
+        assertEquals("http://a:9999/", loadTable.choiceIdle(addressList));
+    }
+
+    @Test
+    public void staleOrRemovedLoadShouldBeIgnored() {
+        ExecutorLoadTable loadTable = new ExecutorLoadTable();
+        loadTable.update("http://a:9999/", 0, 0, 1);
+        assertNotNull(loadTable.get("http://a:9999/"));
+
+        loadTable.remove("http://a:9999/");
+        assertNull(loadTable.get("http://a:9999/"));
+        assertNull(loadTable.choiceIdle(Arrays.asList("http://a:9999/")));
+    }
+
+    @Test
+    public void reserveIdleShouldSpreadSlotsAndRelease() {
+        ExecutorLoadTable loadTable = new ExecutorLoadTable();
+        loadTable.update("http://a:9999/", 0, 0, 3);
+        loadTable.update("http://b:9999/", 0, 1, 2);
+        List<String> addressList = Arrays.asList("http://a:9999/", "http://b:9999/");
+
+        // a 空闲 3 个，b 空闲 1 个，上限 10 时全部预占
+        List<String> slots = loadTable.reserveIdle(addressList, 10);
+        assertEquals(4, slots.size());
+        assertEquals(3, slots.stream().filter("http://a:9999/"::equals).count());
+        assertTrue(loadTable.reserveIdle(addressList, 10).isEmpty());
+
+        // 归还后可以再次预占
+        loadTable.release("http://b:9999/");
+        assertEquals(Arrays.asList("http://b:9999/"), loadTable.reserveIdle(addressList, 10));
+    }
+
+    @Test
+    public void reportShouldKeepReservationsNewerThanSampleTime() throws InterruptedException {
+        ExecutorLoadTable loadTable = new ExecutorLoadTable();
+        loadTable.update("http://a:9999/", 0, 0, 4);
+        List<String> addressList = Arrays.asList("http://a:9999/");
+
+        // 采样之前的预占已计入上报，采样之后的预占仍在途
+        assertEquals(1, loadTable.reserveIdle(addressList, 1).size());
+        Thread.sleep(5);
+        long sampleTime = System.currentTimeMillis();
+        Thread.sleep(5);
+        assertEquals(1, loadTable.reserveIdle(addressList, 1).size());
+
+        loadTable.update("http://a:9999/", 1, 0, 4, sampleTime);
+        assertEquals(1, loadTable.get("http://a:9999/").getReserved());
+        assertEquals(2, loadTable.get("http://a:9999/").getFree());
+    }
+
+    @Test
+    public void capacityListenerShouldFireWhenFreeSlotsIncrease() throws InterruptedException {
+        ExecutorLoadTable loadTable = new ExecutorLoadTable();
+        AtomicInteger fired = new AtomicInteger(0);
+        loadTable.addCapacityListener(fired::incrementAndGet);
+
+        loadTable.update("http://a:9999/", 2, 0, 2);
+        Thread.sleep(100);
+        assertEquals(0, fired.get());
+
+        // 监听器在通知线程异步执行
+        loadTable.update("http://a:9999/", 1, 0, 2);
+        waitUntil(() -> fired.get() == 1);
+        loadTable.update("http://a:9999/", 1, 0, 2);
+        Thread.sleep(100);
+        assertEquals(1, fired.get());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorRouteConsistentHashTest {
+
+    private static final int JOB_COUNT = 1000;
+
+    private final ExecutorRouteConsistentHash router = new ExecutorRouteConsistentHash();
+
+    private static List<String> addresses(int count) {
+        List<String> addressList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addressList.add("http://127.0.0." + i + ":9999/");
+        }
+        return addressList;
+    }
+
+    private Map<Long, String> route(List<String> addressList) {
+        Map<Long, String> result = new HashMap<>();
+        for (long jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            result.put(jobId, router.hashJob(jobId, addressList));
+        }
+        return result;
+    }
+
+    @Test
+    public void sameAddressesInAnyOrderShouldRouteTheSame() {
+        List<String> addressList = addresses(5);
+        Map<Long, String> before = route(addressList);
+
+        List<String> shuffled = new ArrayList<>(addressList);
+        Collections.reverse(shuffled);
+        assertEquals(before, route(shuffled));
+    }
+
+    @Test
+    public void addingNodeShouldOnlyMoveJobsToTheNewNode() {
+        List<String> addressList = addresses(5);
+        Map<Long, String> before = route(addressList);
+
+        List<String> grown = addresses(6);
+        String added = grown.get(5);
+        Map<Long, String> after = route(grown);
+
+        int moved = 0;
+        for (long jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            if (!before.get(jobId).equals(after.get(jobId))) {
+                // 只会迁移到新节点
+                assertEquals(added, after.get(jobId));
+                moved++;
+            }
+        }
+        // 理想迁移比例 1/6，留出余量
+        assertTrue(moved > 0 && moved < JOB_COUNT / 3, "moved=" + moved);
+    }
+
+    @Test
+    public void removingNodeShouldOnlyMoveJobsOfTheRemovedNode() {
+        List<String> addressList = addresses(5);
+        Map<Long, String> before = route(addressList);
+
+        String removed = addressList.get(2);
+        List<String> shrunk = new ArrayList<>(addressList);
+        shrunk.remove(removed);
+        Map<Long, String> after = route(shrunk);
+
+        for (long jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            if (!removed.equals(before.get(jobId))) {
+                assertEquals(before.get(jobId), after.get(jobId));
+            } else {
+                assertNotEquals(removed, after.get(jobId));
+            }
+        }
+    }
+
+    @Test
+    public void jobsShouldSpreadOverAllNodes() {
+        List<String> addressList = addresses(4);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String address : route(addressList).values()) {
+            counts.merge(address, 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > JOB_COUNT / 8, "counts=" + counts);
+        }
+    }
+
+    @Test
+    public void ringCacheShouldStayCorrectBeyondItsLimit() {
+        List<String> addressList = addresses(3);
+        Map<Long, String> before = route(addressList);
+
+        // 超过缓存上限的不同地址组合，触发 LRU 淘汰
+        for (int i = 0; i < 300; i++) {
+            List<String> other = addresses(2);
+            other.add("http://10.0.0." + i + ":9999/");
+            router.hashJob(1L, other);
+        }
+        assertEquals(before, route(addressList));
+    }
+
+}
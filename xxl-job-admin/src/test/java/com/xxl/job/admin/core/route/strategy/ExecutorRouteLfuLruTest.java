@@ -0,0 +1,115 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorRouteLfuLruTest {
+
+    private static final List<String> ADDRESS_LIST = Arrays.asList("http://a:9999/", "http://b:9999/", "http://c:9999/");
+
+    @Test
+    public void lfuShouldBalanceUsageCounts() {
+        ExecutorRouteLFU router = new ExecutorRouteLFU();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            counts.merge(router.route(1001L, ADDRESS_LIST), 1, Integer::sum);
+        }
+
+        // 初始计数随机在 [0, 地址数) 内，之后总是选使用次数最少的
+        assertEquals(3, counts.size());
+        int min = counts.values().stream().min(Integer::compare).get();
+        int max = counts.values().stream().max(Integer::compare).get();
+        assertTrue(max - min <= ADDRESS_LIST.size(), "counts=" + counts);
+    }
+
+    @Test
+    public void lfuShouldForgetRemovedAddresses() {
+        ExecutorRouteLFU router = new ExecutorRouteLFU();
+        for (int i = 0; i < 30; i++) {
+            router.route(1002L, ADDRESS_LIST);
+        }
+
+        List<String> shrunk = Arrays.asList("http://a:9999/", "http://b:9999/");
+        for (int i = 0; i < 30; i++) {
+            assertTrue(shrunk.contains(router.route(1002L, shrunk)));
+        }
+    }
+
+    @Test
+    public void lruShouldRotateThroughAllAddresses() {
+        ExecutorRouteLRU router = new ExecutorRouteLRU();
+        router.route(2001L, ADDRESS_LIST);
+        router.route(2001L, ADDRESS_LIST);
+        router.route(2001L, ADDRESS_LIST);
+
+        // 每连续 N 次路由恰好覆盖全部 N 个地址
+        for (int round = 0; round < 5; round++) {
+            Set<String> picked = new HashSet<>();
+            for (int i = 0; i < ADDRESS_LIST.size(); i++) {
+                picked.add(router.route(2001L, ADDRESS_LIST));
+            }
+            assertEquals(new HashSet<>(ADDRESS_LIST), picked);
+        }
+    }
+
+    @Test
+    public void lruShouldQueueNewAddressAfterExistingOnes() {
+        ExecutorRouteLRU router = new ExecutorRouteLRU();
+        List<String> two = Arrays.asList("http://a:9999/", "http://b:9999/");
+        router.route(2002L, two);
+        router.route(2002L, two);
+
+        // 新地址视为刚使用过，先轮到已有地址
+        Set<String> next = new HashSet<>();
+        next.add(router.route(2002L, ADDRESS_LIST));
+        next.add(router.route(2002L, ADDRESS_LIST));
+        assertEquals(new HashSet<>(two), next);
+        assertEquals("http://c:9999/", router.route(2002L, ADDRESS_LIST));
+    }
+
+    @Test
+    public void idleJobCountersShouldExpire() throws InterruptedException {
+        JobRouteCounters.Cache cache = new JobRouteCounters.Cache(100, 50);
+        JobRouteCounters first = cache.get(1L);
+        assertSame(first, cache.get(1L));
+
+        Thread.sleep(80);
+        cache.get(2L);
+        assertEquals(1, cache.size());
+        assertNotSame(first, cache.get(1L));
+    }
+
+    @Test
+    public void jobCountShouldBeBounded() {
+        JobRouteCounters.Cache cache = new JobRouteCounters.Cache(2, 60 * 60 * 1000);
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(3L);
+
+        // 超过上限且没有空闲JOB可淘汰时整体清空
+        cache.get(4L);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void retainShouldDropOfflineAddressCounters() {
+        JobRouteCounters counters = new JobRouteCounters();
+        for (String address : ADDRESS_LIST) {
+            counters.counter(address, 0).set(5);
+        }
+        counters.retain(Arrays.asList("http://a:9999/"));
+
+        // 重新上线的地址按初始值重新计数
+        assertEquals(5, counters.counter("http://a:9999/", 0).get());
+        assertEquals(0, counters.counter("http://b:9999/", 0).get());
+    }
+
+}
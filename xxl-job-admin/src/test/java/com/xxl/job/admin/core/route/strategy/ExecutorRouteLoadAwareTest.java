@@ -0,0 +1,99 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
+import com.xxl.job.admin.core.route.ExecutorRouter;
+import com.xxl.job.core.biz.model.TriggerParam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorRouteLoadAwareTest {
+
+    private static final String A = "http://load-a:9999/";
+    private static final String B = "http://load-b:9999/";
+    private static final String C = "http://load-c:9999/";
+
+    private final ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+
+    @AfterEach
+    public void clear() {
+        loadTable.remove(A);
+        loadTable.remove(B);
+        loadTable.remove(C);
+    }
+
+    private static String route(ExecutorRouter router, List<String> addressList) {
+        TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(1L);
+        return router.route(triggerParam, addressList).getContent();
+    }
+
+    @Test
+    public void leastLoadedShouldCompareUtilizationByCapacity() {
+        // a: (8+1)/10，b: (0+1)/2
+        loadTable.update(A, 8, 0, 10);
+        loadTable.update(B, 0, 0, 2);
+        ExecutorRouteLeastLoaded router = new ExecutorRouteLeastLoaded();
+
+        assertEquals(B, route(router, Arrays.asList(A, B)));
+        // b 预占一个槽位后为 (1+1)/2，a 更空闲
+        assertEquals(A, route(router, Arrays.asList(A, B)));
+    }
+
+    @Test
+    public void leastLoadedShouldSpreadInProportionToCapacity() {
+        loadTable.update(A, 0, 0, 8);
+        loadTable.update(B, 0, 0, 2);
+        ExecutorRouteLeastLoaded router = new ExecutorRouteLeastLoaded();
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            counts.merge(route(router, Arrays.asList(A, B)), 1, Integer::sum);
+        }
+        assertTrue(Math.abs(counts.getOrDefault(A, 0) - 8) <= 1, "counts=" + counts);
+    }
+
+    @Test
+    public void leastLoadedShouldTreatUnknownExecutorAsFullAfterOneTask() {
+        // 无快照按容量 1、负载 0 处理：(0+1)/1
+        loadTable.update(A, 1, 0, 4);
+        ExecutorRouteLeastLoaded router = new ExecutorRouteLeastLoaded();
+        assertEquals(A, route(router, Arrays.asList(A, C)));
+    }
+
+    @Test
+    public void p2cShouldPickTheLessLoadedOfTwo() {
+        loadTable.update(A, 9, 0, 10);
+        loadTable.update(B, 0, 0, 10);
+        ExecutorRouteP2C router = new ExecutorRouteP2C();
+
+        // 只有两台时总是比较这两台
+        for (int i = 0; i < 5; i++) {
+            assertEquals(B, route(router, Arrays.asList(A, B)));
+        }
+    }
+
+    @Test
+    public void p2cShouldNeverPickTheMostLoadedOfThree() {
+        loadTable.update(A, 100, 0, 10);
+        loadTable.update(B, 0, 0, 100);
+        loadTable.update(C, 0, 0, 100);
+        ExecutorRouteP2C router = new ExecutorRouteP2C();
+
+        for (int i = 0; i < 50; i++) {
+            assertNotEquals(A, route(router, Arrays.asList(A, B, C)));
+        }
+    }
+
+    @Test
+    public void p2cShouldReturnTheOnlyAddress() {
+        assertEquals(A, route(new ExecutorRouteP2C(), Arrays.asList(A)));
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.route.ExecutorLoadTable;
+import com.xxl.job.admin.dao.XxlJobTaskExecutorMappingMapper;
+import com.xxl.job.core.biz.model.TriggerParam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ExecutorRoutePartitionAffinityTest {
+
+    private static final String A = "http://affinity-a:9999/";
+    private static final String B = "http://affinity-b:9999/";
+    private static final List<String> ADDRESS_LIST = Arrays.asList(A, B);
+
+    private final ExecutorLoadTable loadTable = ExecutorLoadTable.getInstance();
+    private final ExecutorRoutePartitionAffinity router = new ExecutorRoutePartitionAffinity();
+    private XxlJobTaskExecutorMappingMapper mappingMapper;
+
+    @BeforeEach
+    public void setUp() {
+        mappingMapper = Mockito.mock(XxlJobTaskExecutorMappingMapper.class);
+        XxlJobAdminConfig adminConfig = Mockito.mock(XxlJobAdminConfig.class);
+        when(adminConfig.getXxlJobTaskExecutorMappingMapper()).thenReturn(mappingMapper);
+        ReflectionTestUtils.setField(XxlJobAdminConfig.class, "adminConfig", adminConfig);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.setField(XxlJobAdminConfig.class, "adminConfig", null);
+        loadTable.remove(A);
+        loadTable.remove(B);
+    }
+
+    private String route(String partitionKey) {
+        TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(1L);
+        triggerParam.setPartitionKey(partitionKey);
+        return router.route(triggerParam, ADDRESS_LIST).getContent();
+    }
+
+    @Test
+    public void missShouldFallBackToLeastLoadedAndStickAfterwards() {
+        loadTable.update(A, 0, 0, 10);
+        loadTable.update(B, 5, 0, 10);
+
+        // 库中没有亲和记录，按最小负载选中 a
+        assertEquals(A, route("p-miss"));
+        // a 负载升高后，同一分区仍命中 a
+        loadTable.update(A, 8, 0, 10);
+        assertEquals(A, route("p-miss"));
+        // 只查一次库，之后命中本地缓存
+        verify(mappingMapper, times(1)).loadLatestAddressByPartitionKey("p-miss");
+    }
+
+    @Test
+    public void latestMappingShouldBeUsedWhenNotCached() {
+        loadTable.update(A, 0, 0, 10);
+        loadTable.update(B, 5, 0, 10);
+        when(mappingMapper.loadLatestAddressByPartitionKey("p-db")).thenReturn(B);
+
+        assertEquals(B, route("p-db"));
+    }
+
+    @Test
+    public void busyAffinityShouldFallBackAndMoveTheAffinity() {
+        loadTable.update(A, 0, 0, 10);
+        loadTable.update(B, 2, 0, 2);
+        when(mappingMapper.loadLatestAddressByPartitionKey("p-busy")).thenReturn(B);
+
+        // b 没有空闲槽位
+        assertEquals(A, route("p-busy"));
+        // 亲和节点改为 a
+        loadTable.update(B, 0, 0, 2);
+        assertEquals(A, route("p-busy"));
+    }
+
+    @Test
+    public void offlineAffinityShouldFallBack() {
+        loadTable.update(A, 0, 0, 10);
+        loadTable.update(B, 0, 0, 10);
+        when(mappingMapper.loadLatestAddressByPartitionKey("p-offline")).thenReturn("http://affinity-gone:9999/");
+
+        assertTrue(ADDRESS_LIST.contains(route("p-offline")));
+    }
+
+    @Test
+    public void mappingLookupFailureShouldNotFailRouting() {
+        loadTable.update(A, 0, 0, 10);
+        when(mappingMapper.loadLatestAddressByPartitionKey(anyString())).thenThrow(new IllegalStateException("db down"));
+
+        assertNotNull(route("p-error"));
+    }
+
+}
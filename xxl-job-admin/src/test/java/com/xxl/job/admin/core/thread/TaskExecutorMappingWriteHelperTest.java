@@ -0,0 +1,105 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobTaskExecutorMapping;
+import com.xxl.job.admin.dao.XxlJobGroupDao;
+import com.xxl.job.admin.dao.XxlJobTaskExecutorMappingMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TaskExecutorMappingWriteHelperTest {
+
+    private static final String A = "http://mapping-a:9999/";
+    private static final String B = "http://mapping-b:9999/";
+
+    private XxlJobTaskExecutorMappingMapper mappingMapper;
+    private TaskExecutorMappingWriteHelper helper;
+
+    @BeforeEach
+    public void setUp() {
+        mappingMapper = Mockito.mock(XxlJobTaskExecutorMappingMapper.class);
+        XxlJobGroupDao groupDao = Mockito.mock(XxlJobGroupDao.class);
+        Map<String, Object> group = new HashMap<>();
+        group.put("id", 1);
+        group.put("app_name", "app");
+        group.put("title", "title");
+        when(groupDao.selectByAddressList(anyString())).thenReturn(Collections.singletonList(group));
+
+        XxlJobAdminConfig adminConfig = Mockito.mock(XxlJobAdminConfig.class);
+        when(adminConfig.getXxlJobTaskExecutorMappingMapper()).thenReturn(mappingMapper);
+        when(adminConfig.getXxlJobGroupDao()).thenReturn(groupDao);
+        ReflectionTestUtils.setField(XxlJobAdminConfig.class, "adminConfig", adminConfig);
+
+        helper = new TaskExecutorMappingWriteHelper();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        helper.toStop();
+        ReflectionTestUtils.setField(XxlJobAdminConfig.class, "adminConfig", null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<XxlJobTaskExecutorMapping> captureBatch(int times) {
+        ArgumentCaptor<List<XxlJobTaskExecutorMapping>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mappingMapper, timeout(5000).times(times)).batchSaveOrUpdate(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void sameJobShouldKeepOnlyTheLastMapping() {
+        helper.submit(1L, A, null);
+        helper.submit(1L, B, "p1");
+        helper.submit(2L, A, null);
+        helper.start();
+
+        // 一次刷新写入去重后的两行，并补全执行器组信息
+        List<XxlJobTaskExecutorMapping> batch = captureBatch(1);
+        assertEquals(2, batch.size());
+        Map<Long, XxlJobTaskExecutorMapping> byJob = batch.stream()
+                .collect(Collectors.toMap(XxlJobTaskExecutorMapping::getJobId, mapping -> mapping));
+        assertEquals(B, byJob.get(1L).getExecutorAddress());
+        assertEquals("p1", byJob.get(1L).getPartitionKey());
+        assertEquals("app", byJob.get(1L).getAppName());
+    }
+
+    @Test
+    public void failedMappingsShouldBeRestoredAndRetried() {
+        // 整批与逐行均失败(数据库不可用)时放回缓冲，下一次刷新成功写入
+        when(mappingMapper.batchSaveOrUpdate(anyList()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+        helper.submit(1L, A, null);
+        helper.start();
+
+        List<XxlJobTaskExecutorMapping> batch = captureBatch(3);
+        assertEquals(1, batch.size());
+        assertEquals(A, batch.get(0).getExecutorAddress());
+    }
+
+    @Test
+    public void stopShouldFlushPendingMappings() {
+        helper.start();
+        helper.submit(3L, A, null);
+        helper.toStop();
+
+        verify(mappingMapper, atLeastOnce()).batchSaveOrUpdate(anyList());
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.xxl.job.admin.core.trigger;
+
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.core.biz.model.ReturnT;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XxlJobTriggerBroadcastTest {
+
+    private static XxlJobInfo jobInfo() {
+        XxlJobInfo jobInfo = new XxlJobInfo();
+        jobInfo.setId(1L);
+        return jobInfo;
+    }
+
+    @Test
+    public void everyShardShouldBeTriggeredOnceEvenIfOneFails() {
+        List<Integer> triggered = Collections.synchronizedList(new ArrayList<>());
+
+        // 触发线程池未启动时在当前线程依次执行
+        XxlJobTrigger.broadcastTrigger(jobInfo(), 4, index -> {
+            triggered.add(index);
+            if (index == 1) {
+                throw new IllegalStateException("shard 1 down");
+            }
+            return (index == 2) ? new ReturnT<String>(ReturnT.FAIL_CODE, "fail") : ReturnT.SUCCESS;
+        });
+
+        triggered.sort(null);
+        assertEquals(Arrays.asList(0, 1, 2, 3), triggered);
+    }
+
+    @Test
+    public void interruptedWaitShouldNotBlockOrCancelRunningShards() {
+        CompletableFuture<ReturnT<String>> running = new CompletableFuture<>();
+        List<Future<ReturnT<String>>> futureList = Arrays.asList(
+                CompletableFuture.completedFuture(ReturnT.SUCCESS),
+                running,
+                CompletableFuture.completedFuture(new ReturnT<String>(ReturnT.FAIL_CODE, "fail")));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            Thread.currentThread().interrupt();
+            XxlJobTrigger.awaitBroadcast(jobInfo(), futureList, System.currentTimeMillis());
+            // 中断标记保留给调用方
+            assertTrue(Thread.interrupted());
+        });
+
+        // 未结束的分片继续执行，不被取消
+        assertFalse(running.isCancelled());
+        running.complete(ReturnT.SUCCESS);
+        assertTrue(running.isDone());
+    }
+
+}
@@ -0,0 +1,102 @@
+package symao.test;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.model.Task;
+import com.xuxueli.springbootpriorityqueue.queue.EmbeddedPriorityQueue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EmbeddedPriorityQueue单元测试类，不需要Redis
+ */
+public class EmbeddedPriorityQueueTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    @DisplayName("测试按优先级出队，同优先级先进先出")
+    public void testPriorityOrder() {
+        EmbeddedPriorityQueue<Task> queue = new EmbeddedPriorityQueue<>("test_embedded", Task.class);
+        queue.enqueue(new Task("1", "任务1", "描述1"), 5);
+        queue.enqueue(new Task("2", "任务2", "描述2"), 1);
+        queue.enqueue(new Task("3", "任务3", "描述3"), 5);
+        queue.enqueue(new Task("4", "任务4", "描述4"), 10);
+
+        assertEquals(4, queue.size());
+        long[] depths = queue.sizeByPriority();
+        assertEquals(1, depths[0]);
+        assertEquals(2, depths[4]);
+        assertEquals("2", queue.peek().getId());
+
+        List<Task> tasks = queue.dequeue(3);
+        assertEquals("2", tasks.get(0).getId());
+        assertEquals("1", tasks.get(1).getId());
+        assertEquals("3", tasks.get(2).getId());
+        assertEquals("4", queue.dequeue().getId());
+        assertNull(queue.dequeue(10L));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试租约、确认、退回和回收到期租约")
+    public void testLease() throws InterruptedException {
+        EmbeddedPriorityQueue<Task> queue = new EmbeddedPriorityQueue<>("test_embedded_lease", QueueCodecs.of(QueueCodecs.BINARY, Task.class), null);
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        Task task3 = new Task("3", "任务3", "描述3");
+        assertEquals(3, queue.enqueueAll(Arrays.asList(task1, task2, task3), 3));
+        // 使用负载时同一ID重复入队被忽略
+        assertFalse(queue.enqueue(task1, 1));
+
+        assertEquals(3, queue.lease(3, 10).size());
+        assertEquals(3, queue.leasedSize());
+        // 已租约未确认的成员重复入队同样被忽略
+        assertFalse(queue.enqueue(task3, 1));
+        assertEquals(0, queue.size());
+        assertTrue(queue.ack(task1));
+        assertFalse(queue.ack(task1));
+        assertTrue(queue.nack(task2));
+        assertEquals("2", queue.peek().getId());
+
+        Thread.sleep(20);
+        assertEquals(1, queue.requeueExpired(10));
+        assertEquals(0, queue.leasedSize());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    @DisplayName("测试由追加日志恢复队列，已租约未确认的元素回到队列")
+    public void testReplayLog() {
+        File logFile = new File(tempDir, "tasks.log");
+        EmbeddedPriorityQueue<Task> queue = new EmbeddedPriorityQueue<>("test_embedded_log", QueueCodecs.of(QueueCodecs.BINARY, Task.class), logFile);
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        Task task3 = new Task("3", "任务3", "描述3");
+        queue.enqueue(task1, 2);
+        queue.enqueue(task2, 1);
+        queue.enqueue(task3, 8);
+        assertEquals("2", queue.dequeue().getId());
+        assertEquals("1", queue.lease(1, 60000).get(0).getId());
+        queue.close();
+
+        EmbeddedPriorityQueue<Task> restored = new EmbeddedPriorityQueue<>("test_embedded_log", QueueCodecs.of(QueueCodecs.BINARY, Task.class), logFile);
+        assertEquals(2, restored.size());
+        Task first = restored.dequeue();
+        assertEquals("1", first.getId());
+        assertEquals("任务1", first.getName());
+        assertEquals("3", restored.dequeue().getId());
+
+        restored.enqueue(new Task("4", "任务4", "描述4"), 8);
+        restored.clear();
+        restored.close();
+        assertEquals(0, new EmbeddedPriorityQueue<>("test_embedded_log", QueueCodecs.of(QueueCodecs.BINARY, Task.class), logFile).size());
+    }
+}
@@ -0,0 +1,77 @@
+package symao.test;
+
+import com.xuxueli.springbootpriorityqueue.queue.PrefetchBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefetchBufferTest {
+
+    /**
+     * 内存队列：租约从队首取出，退回放回队首
+     */
+    private static class FakeQueue {
+        private final Deque<Integer> items = new ArrayDeque<>();
+        private int leaseCalls = 0;
+
+        synchronized List<Integer> lease(int count, long leaseTimeoutMs) {
+            leaseCalls++;
+            List<Integer> result = new ArrayList<>();
+            while (result.size() < count && !items.isEmpty()) {
+                result.add(items.pollFirst());
+            }
+            return result;
+        }
+
+        synchronized void nack(Integer item) {
+            items.addFirst(item);
+        }
+    }
+
+    @Test
+    public void takeShouldServeFromBufferAfterRefill() {
+        FakeQueue queue = new FakeQueue();
+        for (int i = 1; i <= 20; i++) {
+            queue.items.addLast(i);
+        }
+        // 同步执行补充，便于断言
+        PrefetchBuffer<Integer> buffer = new PrefetchBuffer<>("test", queue::lease, queue::nack, 6, 60000, Runnable::run);
+
+        // 缓冲为空：同步租约2个，随后补满6个
+        assertEquals(List.of(1, 2), buffer.take(2));
+        assertEquals(6, buffer.size());
+        assertEquals(2, queue.leaseCalls);
+
+        // 缓冲足够：只从内存取，不再租约
+        assertEquals(List.of(3, 4), buffer.take(2));
+        assertEquals(2, queue.leaseCalls);
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    public void closeAndStaleShouldReturnItems() {
+        FakeQueue queue = new FakeQueue();
+        for (int i = 1; i <= 10; i++) {
+            queue.items.addLast(i);
+        }
+        PrefetchBuffer<Integer> buffer = new PrefetchBuffer<>("test", queue::lease, queue::nack, 4, 60000, Runnable::run);
+        assertEquals(List.of(1), buffer.take(1));
+        assertEquals(4, buffer.size());
+
+        buffer.close();
+        assertEquals(0, buffer.size());
+        assertEquals(9, queue.items.size());
+
+        // 租约时长为0：缓冲中的元素立即视为停留过久
+        PrefetchBuffer<Integer> staleBuffer = new PrefetchBuffer<>("stale", queue::lease, queue::nack, 4, 0, Runnable::run);
+        staleBuffer.take(1);
+        assertEquals(4, staleBuffer.size());
+        assertEquals(4, staleBuffer.expireStale());
+        assertEquals(8, queue.items.size());
+    }
+}
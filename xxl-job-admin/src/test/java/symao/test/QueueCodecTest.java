@@ -0,0 +1,98 @@
+package symao.test;
+
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodec;
+import com.xuxueli.springbootpriorityqueue.codec.QueueCodecs;
+import com.xuxueli.springbootpriorityqueue.codec.SortedTaskBinaryCodec;
+import com.xuxueli.springbootpriorityqueue.codec.TaskBinaryCodec;
+import com.xuxueli.springbootpriorityqueue.model.SortedTask;
+import com.xuxueli.springbootpriorityqueue.model.Task;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue;
+import com.xxl.job.admin.XxlJobAdminApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 队列编解码器单元测试类
+ */
+@SpringBootTest(classes = XxlJobAdminApplication.class)
+public class QueueCodecTest {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisPriorityQueue<Task> taskQueue;
+    private final String TEST_QUEUE_NAME = "test_binary_codec_queue";
+
+    @BeforeEach
+    public void setUp() {
+        taskQueue = new RedisPriorityQueue<>(redisTemplate, TEST_QUEUE_NAME, new TaskBinaryCodec(), false);
+        taskQueue.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskQueue.clear();
+    }
+
+    @Test
+    @DisplayName("测试二进制编解码往返")
+    public void testBinaryRoundTrip() {
+        Task task = new Task("1001", "任务", null);
+        task.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456789));
+        QueueCodec<Task> codec = QueueCodecs.of(QueueCodecs.BINARY, Task.class);
+        assertTrue(codec instanceof TaskBinaryCodec);
+
+        Task decoded = codec.decode(codec.memberOf(task), codec.encode(task));
+        assertEquals("1001", decoded.getId());
+        assertEquals("任务", decoded.getName());
+        assertNull(decoded.getDescription());
+        assertEquals(task.getCreatedAt(), decoded.getCreatedAt());
+
+        SortedTask sortedTask = new SortedTask("2001", "排序任务", "描述", 3.5);
+        SortedTaskBinaryCodec sortedCodec = new SortedTaskBinaryCodec();
+        SortedTask decodedSorted = sortedCodec.decode(sortedCodec.memberOf(sortedTask), sortedCodec.encode(sortedTask));
+        assertEquals(3.5, decodedSorted.getPriority());
+        assertEquals("描述", decodedSorted.getDescription());
+
+        // 没有负载的JSON成员按旧格式解析
+        Task legacy = codec.decode("{\"id\":\"1002\",\"name\":\"旧任务\"}", null);
+        assertEquals("1002", legacy.getId());
+        assertEquals("旧任务", legacy.getName());
+    }
+
+    @Test
+    @DisplayName("测试同一分片重复入队被忽略，确认后可再次入队")
+    public void testIdempotentEnqueue() {
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        assertEquals(2, taskQueue.enqueueAll(Arrays.asList(task1, task2), 5));
+        assertFalse(taskQueue.enqueue(new Task("1", "任务1-重复", "描述1"), 1));
+        assertEquals(2, taskQueue.size());
+
+        List<Task> leased = taskQueue.lease(1, 60000);
+        assertEquals(1, leased.size());
+        assertEquals("任务1", leased.get(0).getName());
+        // 处理中的分片同样不会重复入队
+        assertFalse(taskQueue.enqueue(task1, 5));
+
+        assertTrue(taskQueue.ack(leased.get(0)));
+        assertTrue(taskQueue.enqueue(task1, 5));
+
+        Task next = taskQueue.dequeue();
+        assertEquals("2", next.getId());
+        assertEquals("描述2", next.getDescription());
+        assertTrue(taskQueue.enqueue(task2, 5));
+        assertEquals(2, taskQueue.size());
+    }
+}
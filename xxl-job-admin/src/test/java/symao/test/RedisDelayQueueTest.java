@@ -0,0 +1,89 @@
+package symao.test;
+
+import com.xuxueli.springbootpriorityqueue.model.Task;
+import com.xuxueli.springbootpriorityqueue.queue.RedisDelayQueue;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue;
+import com.xxl.job.admin.XxlJobAdminApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RedisDelayQueue单元测试类
+ */
+@SpringBootTest(classes = XxlJobAdminApplication.class)
+public class RedisDelayQueueTest {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisDelayQueue<Task> delayQueue;
+    private RedisPriorityQueue<Task> taskQueue;
+    private final String TEST_QUEUE_NAME = "test_delay_queue";
+
+    @BeforeEach
+    public void setUp() {
+        delayQueue = new RedisDelayQueue<>(redisTemplate, TEST_QUEUE_NAME, Task.class);
+        taskQueue = new RedisPriorityQueue<>(redisTemplate, TEST_QUEUE_NAME, Task.class);
+        delayQueue.clear();
+        taskQueue.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        delayQueue.clear();
+        taskQueue.clear();
+    }
+
+    @Test
+    @DisplayName("测试到期任务按优先级移入优先级队列，未到期任务保留")
+    public void testTransferReady() {
+        long now = System.currentTimeMillis();
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        Task task3 = new Task("3", "任务3", "描述3");
+
+        assertTrue(delayQueue.schedule(task1, 8, now - 1000));
+        assertTrue(delayQueue.schedule(task2, 2, now - 1000));
+        assertTrue(delayQueue.schedule(task3, 1, now + 60000));
+        assertEquals(3, delayQueue.size());
+
+        assertEquals(2, delayQueue.transferReady(taskQueue, 100));
+        assertEquals(1, delayQueue.size());
+        assertEquals(2, taskQueue.size());
+
+        List<Task> tasks = taskQueue.dequeue(2);
+        assertEquals("2", tasks.get(0).getId());
+        assertEquals("1", tasks.get(1).getId());
+        assertEquals(0, delayQueue.transferReady(taskQueue, 100));
+    }
+
+    @Test
+    @DisplayName("测试取出到期元素、重新写入推迟和取消")
+    public void testPollRescheduleRemove() {
+        long now = System.currentTimeMillis();
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        assertEquals(2, delayQueue.scheduleAll(Arrays.asList(task1, task2), 5, now - 1000));
+
+        // 再次写入覆盖就绪时间
+        assertTrue(delayQueue.schedule(task2, 5, now + 60000));
+        List<Task> ready = delayQueue.pollReady(10);
+        assertEquals(1, ready.size());
+        assertEquals("1", ready.get(0).getId());
+        assertTrue(delayQueue.pollReady(10).isEmpty());
+
+        assertTrue(delayQueue.remove(task2));
+        assertFalse(delayQueue.remove(task2));
+        assertEquals(0, delayQueue.size());
+    }
+}
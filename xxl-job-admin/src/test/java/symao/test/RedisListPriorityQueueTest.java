@@ -0,0 +1,114 @@
+package symao.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xuxueli.springbootpriorityqueue.model.Task;
+import com.xuxueli.springbootpriorityqueue.queue.RedisListPriorityQueue;
+import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueueFactory;
+import com.xxl.job.admin.XxlJobAdminApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RedisListPriorityQueue单元测试类
+ */
+@SpringBootTest(classes = XxlJobAdminApplication.class)
+public class RedisListPriorityQueueTest {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private RedisListPriorityQueue<Task> taskQueue;
+    private final String TEST_QUEUE_NAME = "test_list_priority_queue";
+
+    @BeforeEach
+    public void setUp() {
+        RedisPriorityQueueFactory factory = new RedisPriorityQueueFactory(redisTemplate, objectMapper);
+        taskQueue = factory.getListQueue(TEST_QUEUE_NAME, Task.class);
+        taskQueue.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskQueue.clear();
+    }
+
+    @Test
+    @DisplayName("测试按优先级出队，同优先级先进先出")
+    public void testDequeueOrder() {
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        Task task3 = new Task("3", "任务3", "描述3");
+        Task task4 = new Task("4", "任务4", "描述4");
+
+        assertEquals(2, taskQueue.enqueueAll(Arrays.asList(task1, task2), 5));
+        assertTrue(taskQueue.enqueue(task3, 2));
+        assertTrue(taskQueue.enqueue(task4, 8));
+        assertEquals(4, taskQueue.size());
+        assertEquals("3", taskQueue.peek().getId());
+
+        List<Task> tasks = taskQueue.dequeue(3);
+        assertEquals(3, tasks.size());
+        assertEquals("3", tasks.get(0).getId());
+        assertEquals("1", tasks.get(1).getId());
+        assertEquals("2", tasks.get(2).getId());
+
+        assertEquals("4", taskQueue.dequeue(1000L).getId());
+        assertNull(taskQueue.dequeue());
+        assertTrue(taskQueue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试租约出队、退回和确认")
+    public void testLeaseNackAck() {
+        Task task1 = new Task("1", "任务1", "描述1");
+        Task task2 = new Task("2", "任务2", "描述2");
+        assertTrue(taskQueue.enqueue(task1, 3));
+        assertTrue(taskQueue.enqueue(task2, 3));
+
+        List<Task> leased = taskQueue.lease(1, 60000);
+        assertEquals(1, leased.size());
+        assertEquals("1", leased.get(0).getId());
+        assertEquals(1, taskQueue.leasedSize());
+
+        // 退回的任务放回原优先级队首，下一次最先出队
+        assertTrue(taskQueue.nack(leased.get(0)));
+        assertEquals(0, taskQueue.leasedSize());
+        leased = taskQueue.lease(1, 60000);
+        assertEquals("1", leased.get(0).getId());
+
+        assertTrue(taskQueue.ack(leased.get(0)));
+        assertFalse(taskQueue.ack(leased.get(0)));
+        assertEquals(1, taskQueue.size());
+    }
+
+    @Test
+    @DisplayName("测试按优先级范围获取任务")
+    public void testGetItemsByPriorityRange() {
+        Task task1 = new Task("1", "高优先级任务", "描述1");
+        Task task2 = new Task("2", "中优先级任务", "描述2");
+        Task task3 = new Task("3", "低优先级任务", "描述3");
+        assertTrue(taskQueue.enqueue(task1, 1));
+        assertTrue(taskQueue.enqueue(task2, 5));
+        assertTrue(taskQueue.enqueue(task3, 9));
+
+        Set<Task> tasks = taskQueue.getItemsByPriorityRange(1, 5);
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.contains(task1));
+        assertTrue(tasks.contains(task2));
+        assertEquals(3, taskQueue.size());
+    }
+}
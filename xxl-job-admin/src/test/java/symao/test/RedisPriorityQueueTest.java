@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xuxueli.springbootpriorityqueue.model.Task;
 import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueue;
 import com.xuxueli.springbootpriorityqueue.queue.RedisPriorityQueueFactory;
+import com.xuxueli.springbootpriorityqueue.queue.ScoredPage;
 import com.xxl.job.admin.XxlJobAdminApplication;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -239,4 +242,54 @@ public class RedisPriorityQueueTest {
         assertNotNull(tasks);
         assertTrue(tasks.isEmpty());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试各优先级的队列长度")
+    public void testSizeByPriority() {
+        taskQueue.enqueue(new Task("1", "任务1", "描述1"), 1);
+        taskQueue.enqueue(new Task("2", "任务2", "描述2"), 5);
+        taskQueue.enqueue(new Task("3", "任务3", "描述3"), 5);
+        taskQueue.enqueue(new Task("4", "任务4", "描述4"), 10);
+
+        long[] depths = taskQueue.sizeByPriority();
+        assertEquals(10, depths.length);
+        assertEquals(1, depths[0]);
+        assertEquals(2, depths[4]);
+        assertEquals(1, depths[9]);
+        assertEquals(0, depths[1]);
+
+        taskQueue.dequeue();
+        assertEquals(0, taskQueue.sizeByPriority()[0]);
+    }
+
+    @Test
+    @DisplayName("测试公平模式按优先级范围分页")
+    public void testFairModePaging() {
+        RedisPriorityQueue<Task> fairQueue = new RedisPriorityQueueFactory(redisTemplate, objectMapper)
+                .getQueue(TEST_QUEUE_NAME + "_fair", Task.class, true);
+        fairQueue.clear();
+        try {
+            fairQueue.enqueue(new Task("1", "任务1", "描述1"), 5, "a");
+            fairQueue.enqueue(new Task("2", "任务2", "描述2"), 5, "b");
+            fairQueue.enqueue(new Task("3", "任务3", "描述3"), 2, "c");
+            fairQueue.enqueue(new Task("4", "任务4", "描述4"), 5, "a");
+            fairQueue.enqueue(new Task("5", "任务5", "描述5"), 9, "b");
+
+            // 跨子队列按分数合并，每页2个，不重复不遗漏
+            List<String> ids = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                ScoredPage<Task> page = fairQueue.getItemsByPriorityRange(1, 5, cursor, 2);
+                page.getItems().forEach(task -> ids.add(task.getId()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(2, pages);
+            assertEquals(List.of("3", "1", "2", "4"), ids);
+        } finally {
+            fairQueue.clear();
+        }
+    }
+}
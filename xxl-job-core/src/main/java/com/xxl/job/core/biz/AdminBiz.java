@@ -1,5 +1,6 @@
 package com.xxl.job.core.biz;
 
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -54,4 +55,12 @@ public interface AdminBiz {
      */
     public ReturnT<String> reportRunningThreads(List<ThreadInfo> threadInfoList);
 
+    /**
+     * report executor load (running, pending, capacity)
+     *
+     * @param executorLoadParam
+     * @return
+     */
+    public ReturnT<String> reportLoad(ExecutorLoadParam executorLoadParam);
+
 }
@@ -1,6 +1,7 @@
 package com.xxl.job.core.biz.client;
 
 import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -61,4 +62,9 @@ public class AdminBizClient implements AdminBiz {
         return XxlJobRemotingUtil.postBody(addressUrl + "api/reportRunningThreads", accessToken, timeout, threadInfoList, String.class);
     }
 
+    @Override
+    public ReturnT<String> reportLoad(ExecutorLoadParam executorLoadParam) {
+        return XxlJobRemotingUtil.postBody(addressUrl + "api/reportLoad", accessToken, timeout, executorLoadParam, String.class);
+    }
+
 }
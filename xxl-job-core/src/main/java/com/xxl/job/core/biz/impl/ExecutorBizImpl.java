@@ -4,7 +4,6 @@ import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.*;
 import com.xxl.job.core.context.JobThreadContext;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
-import com.xxl.job.core.enums.ThreadConstant;
 import com.xxl.job.core.executor.XxlJobExecutor;
 import com.xxl.job.core.glue.GlueFactory;
 import com.xxl.job.core.glue.GlueTypeEnum;
@@ -12,6 +11,7 @@ import com.xxl.job.core.handler.IJobHandler;
 import com.xxl.job.core.handler.impl.GlueJobHandler;
 import com.xxl.job.core.handler.impl.ScriptJobHandler;
 import com.xxl.job.core.log.XxlJobFileAppender;
+import com.xxl.job.core.thread.JobSlotHelper;
 import com.xxl.job.core.thread.JobThread;
 import com.xxl.job.core.thread.ExecutorRegistryThread;
 import org.slf4j.Logger;
@@ -192,14 +192,33 @@ public class ExecutorBizImpl implements ExecutorBiz {
             }
         }
 
-        // 如果没有可用线程，注册新线程，确保任务能够被执行
-        if (jobThread == null) {
-            jobThread = XxlJobExecutor.registJobThread(triggerParam.getJobId(), jobHandler, removeOldReason);
+        // 占用槽位，槽位用尽时拒绝，调度中心记为调度失败；须在替换或注册任务线程之前，避免被拒绝的触发终止正在执行的旧线程
+        if (!JobSlotHelper.getInstance().tryAcquire()) {
+            return new ReturnT<String>(ReturnT.FAIL_CODE, "executor slots exhausted, capacity:" + JobSlotHelper.getInstance().getCapacity());
         }
+        boolean pushed = false;
+        try {
+            // 如果没有可用线程，注册新线程，确保任务能够被执行
+            if (jobThread == null) {
+                jobThread = XxlJobExecutor.registJobThread(triggerParam.getJobId(), jobHandler, removeOldReason);
+            }
 
-        // 将触发参数推送到任务线程的执行队列，确保任务能够被调度执行
-        ReturnT<String> pushResult = jobThread.pushTriggerQueue(triggerParam);
-        return pushResult;
+            // 将触发参数推送到任务线程的执行队列，确保任务能够被调度执行
+            ReturnT<String> pushResult = jobThread.pushTriggerQueue(triggerParam);
+            if (pushResult.getCode() != ReturnT.SUCCESS_CODE && jobThread.isStopped()) {
+                // 任务线程恰好因空闲被释放，仍是该线程时重新注册，已被其他触发重新注册时推送到新线程
+                JobThread stoppedJobThread = jobThread;
+                jobThread = XxlJobExecutor.replaceStoppedJobThread(triggerParam.getJobId(), stoppedJobThread, jobHandler);
+                pushResult = jobThread.pushTriggerQueue(triggerParam);
+            }
+            pushed = pushResult.getCode() == ReturnT.SUCCESS_CODE;
+            return pushResult;
+        } finally {
+            if (!pushed) {
+                // 未能入队，归还槽位
+                JobSlotHelper.getInstance().release();
+            }
+        }
     }
 
     /**
@@ -251,7 +270,7 @@ public class ExecutorBizImpl implements ExecutorBiz {
     @Override
     public ReturnT<ExecutorStatus> status() {
         ExecutorStatus status = new ExecutorStatus(
-                ThreadConstant.MAX_THREAD_COUNT,
+                JobSlotHelper.getInstance().getCapacity(),
                 XxlJobExecutor.getRunningTaskCount(),
                 XxlJobExecutor.getPendingTaskCount()
         );
@@ -0,0 +1,113 @@
+package com.xxl.job.core.biz.model;
+
+import java.io.Serializable;
+
+/**
+ * 执行器负载上报参数
+ * 执行器在负载变化及心跳时主动推送给调度中心，调度中心据此维护内存负载表
+ */
+public class ExecutorLoadParam implements Serializable {
+    private static final long serialVersionUID = 42L;
+
+    /**
+     * 执行器 appname
+     */
+    private String appname;
+
+    /**
+     * 执行器地址，与注册地址(registryValue)一致
+     */
+    private String address;
+
+    /**
+     * 正在执行的任务数
+     */
+    private int runningTaskCount;
+
+    /**
+     * 等待执行的任务数
+     */
+    private int pendingTaskCount;
+
+    /**
+     * 执行器最大线程容量
+     */
+    private int maxThreadCount;
+
+    /**
+     * 上报时间戳(执行器本地时间)
+     */
+    private long reportTime;
+
+    public ExecutorLoadParam() {
+    }
+
+    public ExecutorLoadParam(String appname, String address, int runningTaskCount, int pendingTaskCount, int maxThreadCount) {
+        this.appname = appname;
+        this.address = address;
+        this.runningTaskCount = runningTaskCount;
+        this.pendingTaskCount = pendingTaskCount;
+        this.maxThreadCount = maxThreadCount;
+        this.reportTime = System.currentTimeMillis();
+    }
+
+    public String getAppname() {
+        return appname;
+    }
+
+    public void setAppname(String appname) {
+        this.appname = appname;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public int getRunningTaskCount() {
+        return runningTaskCount;
+    }
+
+    public void setRunningTaskCount(int runningTaskCount) {
+        this.runningTaskCount = runningTaskCount;
+    }
+
+    public int getPendingTaskCount() {
+        return pendingTaskCount;
+    }
+
+    public void setPendingTaskCount(int pendingTaskCount) {
+        this.pendingTaskCount = pendingTaskCount;
+    }
+
+    public int getMaxThreadCount() {
+        return maxThreadCount;
+    }
+
+    public void setMaxThreadCount(int maxThreadCount) {
+        this.maxThreadCount = maxThreadCount;
+    }
+
+    public long getReportTime() {
+        return reportTime;
+    }
+
+    public void setReportTime(long reportTime) {
+        this.reportTime = reportTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorLoadParam{" +
+                "appname='" + appname + '\'' +
+                ", address='" + address + '\'' +
+                ", runningTaskCount=" + runningTaskCount +
+                ", pendingTaskCount=" + pendingTaskCount +
+                ", maxThreadCount=" + maxThreadCount +
+                ", reportTime=" + reportTime +
+                '}';
+    }
+}
@@ -6,7 +6,7 @@ package com.xxl.job.core.biz.model;
 public class ExecutorStatus {
     
     /**
-     * 作业线程数
+     * 槽位容量，同时接收的触发数上限
      */
     private int threadCount;
     
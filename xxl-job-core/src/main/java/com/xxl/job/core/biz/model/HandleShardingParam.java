@@ -75,6 +75,11 @@ public class HandleShardingParam {
      */
     private TimeUnit timeUnit;
 
+    /**
+     * 最早触发时间(手动任务)，为空时立即入队
+     */
+    private String notBefore;
+
 
     public int getPriority() {
         return priority;
@@ -180,5 +185,13 @@ public class HandleShardingParam {
         this.timeUnit = timeUnit;
     }
 
+    public String getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(String notBefore) {
+        this.notBefore = notBefore;
+    }
+
 
 }
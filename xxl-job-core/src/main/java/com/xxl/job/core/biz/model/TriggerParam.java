@@ -25,6 +25,8 @@ public class TriggerParam implements Serializable{
     private int broadcastIndex;
     private int broadcastTotal;
 
+    private String partitionKey;        // 数据分区键：同一分区的触发尽量路由到同一执行器，执行器可据此复用本地缓存
+
 
     public Long getJobId() {
         return jobId;
@@ -122,6 +124,14 @@ public class TriggerParam implements Serializable{
         this.broadcastTotal = broadcastTotal;
     }
 
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
 
     @Override
     public String toString() {
@@ -138,6 +148,7 @@ public class TriggerParam implements Serializable{
                 ", glueUpdatetime=" + glueUpdatetime +
                 ", broadcastIndex=" + broadcastIndex +
                 ", broadcastTotal=" + broadcastTotal +
+                ", partitionKey='" + partitionKey + '\'' +
                 '}';
     }
 
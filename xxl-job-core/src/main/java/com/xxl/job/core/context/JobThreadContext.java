@@ -27,4 +27,15 @@ public class JobThreadContext {
         return JOB_THREAD_CONTEXT_MAP.remove(String.valueOf(jobId));
     }
 
+    /**
+     * 仅当指定任务ID仍映射到该线程时移除，避免工作线程复用后误删其他执行的注册
+     *
+     * @param jobId 任务ID
+     * @param thread 执行任务的线程
+     * @return 是否移除
+     */
+    public static boolean removeJobThread(Object jobId, Thread thread) {
+        return JOB_THREAD_CONTEXT_MAP.remove(String.valueOf(jobId), thread);
+    }
+
 }
@@ -2,11 +2,6 @@ package com.xxl.job.core.enums;
 
 public class ThreadConstant {
 
-    /**
-     * job thread repository最多存多少任务
-     */
-    public static final int MAX_THREAD_COUNT = 1;
-
     /**
      * job thread最多存活多久
      */
@@ -17,4 +12,9 @@ public class ThreadConstant {
      */
     public static final int MONITOR_SCAN_INTERVAL = 5;
 
+    /**
+     * 任务队列空闲多久后释放，销毁处理器（秒）
+     */
+    public static final int IDLE_TIMEOUT = 30;
+
 }
@@ -8,9 +8,13 @@ import com.xxl.job.core.handler.annotation.XxlJob;
 import com.xxl.job.core.handler.impl.MethodJobHandler;
 import com.xxl.job.core.log.XxlJobFileAppender;
 import com.xxl.job.core.server.EmbedServer;
+import com.xxl.job.core.thread.ExecutorLoadReportThread;
 import com.xxl.job.core.thread.JobLogFileCleanThread;
 import com.xxl.job.core.thread.JobThread;
+import com.xxl.job.core.thread.JobSlotHelper;
 import com.xxl.job.core.thread.JobThreadMonitorHelper;
+import com.xxl.job.core.thread.JobTimeoutHelper;
+import com.xxl.job.core.thread.JobWorkerPool;
 import com.xxl.job.core.thread.TriggerCallbackThread;
 import com.xxl.job.core.util.IpUtil;
 import com.xxl.job.core.util.NetUtil;
@@ -66,6 +70,12 @@ public class XxlJobExecutor  {
     private String logPath;
     // 日志保留天数
     private int logRetentionDays;
+    // 任务工作线程上限，小于等于0时使用默认值
+    private int workers;
+    // 是否在虚拟线程上执行任务(需要Java 21+)
+    private boolean virtualThreads;
+    // 槽位容量，同时接收的触发数上限，小于等于0时按CPU核数和内存推算
+    private int capacity;
 
     // 静态方法，用于获取执行器信息
     public static String getStaticAppname() {
@@ -115,6 +125,15 @@ public class XxlJobExecutor  {
     public void setLogRetentionDays(int logRetentionDays) {
         this.logRetentionDays = logRetentionDays;
     }
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
 
 
     // ---------------------- start + stop ----------------------
@@ -139,6 +158,16 @@ public class XxlJobExecutor  {
         // 初始化回调线程
         TriggerCallbackThread.getInstance().start();
 
+        // 初始化任务工作线程池
+        JobWorkerPool.getInstance().start(workers, virtualThreads);
+
+        // 初始化任务超时助手
+        JobTimeoutHelper.getInstance().start();
+
+        // 初始化槽位控制，虚拟线程不受工作线程上限约束
+        JobWorkerPool jobWorkerPool = JobWorkerPool.getInstance();
+        JobSlotHelper.getInstance().start(capacity, jobWorkerPool.isVirtualThreads() ? 0 : jobWorkerPool.getWorkers());
+
         // 初始化任务线程监控
         JobThreadMonitorHelper.getInstance().start();
 
@@ -172,6 +201,15 @@ public class XxlJobExecutor  {
         }
         jobHandlerRepository.clear();
 
+        // 停止任务工作线程池
+        JobWorkerPool.getInstance().toStop();
+
+        // 停止任务超时助手
+        JobTimeoutHelper.getInstance().toStop();
+
+        // 停止槽位控制
+        JobSlotHelper.getInstance().toStop();
+
         // 清理线程上下文映射
         JobThreadContext.getJobThreadContextMap().clear();
         logger.info(">>>>>>>>>>> xxl-job, JobThreadContext cleared");
@@ -473,7 +511,7 @@ public class XxlJobExecutor  {
         }
 
         // registry jobhandler
-        registJobHandler(name, new MethodJobHandler(bean, executeMethod, initMethod, destroyMethod));
+        registJobHandler(name, new MethodJobHandler(bean, executeMethod, initMethod, destroyMethod, xxlJob.virtualThread()));
 
     }
 
@@ -491,7 +529,6 @@ public class XxlJobExecutor  {
      */
     public static JobThread registJobThread(Long jobId, IJobHandler handler, String removeOldReason){
         JobThread newJobThread = new JobThread(jobId, handler);
-        newJobThread.start();
         logger.info(">>>>>>>>>>> xxl-job regist JobThread success, jobId:{}, handler:{}", new Object[]{jobId, handler});
         // 如果还存在旧的任务则直接打断
         JobThread oldJobThread = jobThreadRepository.put(jobId, newJobThread);	// putIfAbsent | oh my god, map's put method return the old value!!!
@@ -507,6 +544,31 @@ public class XxlJobExecutor  {
         return newJobThread;
     }
 
+    /**
+     * 替换已停止的作业线程
+     *
+     * @param jobId 作业ID
+     * @param stoppedJobThread 推送失败时已停止的作业线程
+     * @param handler 作业处理器
+     * @return 当前注册的作业线程：仍是已停止的线程(或已被移除)时注册新线程，其他触发已重新注册时返回其注册的线程
+     *
+     * 空闲回收停止线程后，可能有其他触发先注册了新线程；只在仓库中仍是已停止的线程时替换，不打断正在使用的新线程。
+     */
+    public static JobThread replaceStoppedJobThread(Long jobId, JobThread stoppedJobThread, IJobHandler handler){
+        JobThread[] created = new JobThread[1];
+        JobThread current = jobThreadRepository.compute(jobId, (key, registered) -> {
+            if (registered != null && registered != stoppedJobThread) {
+                return registered;
+            }
+            created[0] = new JobThread(jobId, handler);
+            return created[0];
+        });
+        if (created[0] != null) {
+            logger.info(">>>>>>>>>>> xxl-job regist JobThread success, replace stopped, jobId:{}, handler:{}", jobId, handler);
+        }
+        return current;
+    }
+
     /**
      * 移除作业线程
      *
@@ -523,6 +585,8 @@ public class XxlJobExecutor  {
 
             // 从任务线程上下文中移除
             JobThreadContext.removeJobThread(jobId);
+            // 通知负载变化
+            ExecutorLoadReportThread.loadChanged();
 
             return oldJobThread;
         }
@@ -533,6 +597,28 @@ public class XxlJobExecutor  {
         return jobThreadRepository.get(jobId);
     }
 
+    /**
+     * 释放空闲超时的作业线程，销毁其处理器
+     *
+     * @param idleTimeoutMs 空闲时长(毫秒)
+     * @return 释放的数量
+     */
+    public static int removeIdleJobThreads(long idleTimeoutMs){
+        int count = 0;
+        for (Map.Entry<Long, JobThread> item: jobThreadRepository.entrySet()) {
+            JobThread jobThread = item.getValue();
+            // 先停止再移除，停止后新的触发会重新注册作业线程
+            if (jobThread.stopIfIdle(idleTimeoutMs, "job thread idle timeout, released.")) {
+                jobThreadRepository.remove(item.getKey(), jobThread);
+                count++;
+            }
+        }
+        if (count > 0) {
+            ExecutorLoadReportThread.loadChanged();
+        }
+        return count;
+    }
+
     /**
      * 获取当前正在运行的作业线程数量
      *
@@ -1,5 +1,7 @@
 package com.xxl.job.core.handler;
 
+import java.lang.reflect.Modifier;
+
 /**
  * job handler
  *
@@ -35,4 +37,16 @@ public abstract class IJobHandler {
 	}
 
 
+	/**
+	 * whether the handler can run on virtual thread, synchronized execute falls back to platform thread
+	 */
+	public boolean isVirtualThreadSupported() {
+		try {
+			return !Modifier.isSynchronized(getClass().getMethod("execute").getModifiers());
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
+	}
+
+
 }
@@ -27,4 +27,10 @@ public @interface XxlJob {
      */
     String destroy() default "";
 
+    /**
+     * run on virtual thread when executor enables virtual threads;
+     * set false if handler blocks inside synchronized or native code, which pins the carrier thread
+     */
+    boolean virtualThread() default true;
+
 }
@@ -3,6 +3,7 @@ package com.xxl.job.core.handler.impl;
 import com.xxl.job.core.handler.IJobHandler;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * @author xuxueli 2019-12-11 21:12:18
@@ -13,13 +14,19 @@ public class MethodJobHandler extends IJobHandler {
     private final Method method;
     private Method initMethod;
     private Method destroyMethod;
+    private final boolean virtualThread;
 
     public MethodJobHandler(Object target, Method method, Method initMethod, Method destroyMethod) {
+        this(target, method, initMethod, destroyMethod, true);
+    }
+
+    public MethodJobHandler(Object target, Method method, Method initMethod, Method destroyMethod, boolean virtualThread) {
         this.target = target;
         this.method = method;
 
         this.initMethod = initMethod;
         this.destroyMethod = destroyMethod;
+        this.virtualThread = virtualThread;
     }
 
     @Override
@@ -46,6 +53,11 @@ public class MethodJobHandler extends IJobHandler {
         }
     }
 
+    @Override
+    public boolean isVirtualThreadSupported() {
+        return virtualThread && !Modifier.isSynchronized(method.getModifiers());
+    }
+
     @Override
     public String toString() {
         return super.toString()+"["+ target.getClass() + "#" + method.getName() +"]";
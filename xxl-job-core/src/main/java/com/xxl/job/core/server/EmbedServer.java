@@ -3,6 +3,7 @@ package com.xxl.job.core.server;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.impl.ExecutorBizImpl;
 import com.xxl.job.core.biz.model.*;
+import com.xxl.job.core.thread.ExecutorLoadReportThread;
 import com.xxl.job.core.thread.ExecutorRegistryThread;
 import com.xxl.job.core.util.GsonTool;
 import com.xxl.job.core.util.ThrowableUtil;
@@ -301,6 +302,8 @@ public class EmbedServer {
     public void startRegistry(final String appname, final String address) {
         // 启动注册
         ExecutorRegistryThread.getInstance().start(appname, address);
+        // 启动负载上报
+        ExecutorLoadReportThread.getInstance().start(appname, address);
     }
 
     /**
@@ -312,5 +315,7 @@ public class EmbedServer {
     public void stopRegistry() {
         // 停止注册
         ExecutorRegistryThread.getInstance().toStop();
+        // 停止负载上报
+        ExecutorLoadReportThread.getInstance().toStop();
     }
 }
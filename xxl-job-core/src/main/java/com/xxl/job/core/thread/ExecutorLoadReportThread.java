@@ -0,0 +1,145 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.model.ExecutorLoadParam;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.enums.RegistryConfig;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行器负载上报线程
+ *
+ * 职责：
+ * 1. 负载变化(任务入队、任务执行结束、工作线程销毁)时，合并变更后立即推送给所有调度中心
+ * 2. 无变化时按心跳周期(BEAT_TIMEOUT)推送一次，调度中心据此判断负载数据是否过期
+ *
+ * 注意：负载表保存在各调度中心内存中，因此需要推送给所有调度中心，而不是第一个成功即返回
+ */
+public class ExecutorLoadReportThread {
+    // 日志记录器
+    private static Logger logger = LoggerFactory.getLogger(ExecutorLoadReportThread.class);
+
+    // 单例实例
+    private static ExecutorLoadReportThread instance = new ExecutorLoadReportThread();
+
+    /**
+     * 获取ExecutorLoadReportThread单例
+     * @return ExecutorLoadReportThread实例
+     */
+    public static ExecutorLoadReportThread getInstance(){
+        return instance;
+    }
+
+    // 变更合并窗口，窗口内的多次变更只上报一次
+    private static final long MERGE_WINDOW_MS = 20;
+
+    // 变更信号队列，容量为1，天然合并重复信号
+    private final LinkedBlockingQueue<Boolean> changeSignal = new LinkedBlockingQueue<Boolean>(1);
+
+    /**
+     * 通知负载发生变化
+     * 非阻塞，调用方为任务执行的热路径
+     */
+    public static void loadChanged() {
+        getInstance().changeSignal.offer(Boolean.TRUE);
+    }
+
+    // 上报线程
+    private Thread reportThread;
+    // 线程停止标志
+    private volatile boolean toStop = false;
+
+    /**
+     * 启动负载上报线程
+     *
+     * @param appname 执行器名称
+     * @param address 执行器地址，与注册地址一致
+     */
+    public void start(final String appname, final String address){
+
+        // 参数校验
+        if (appname==null || appname.trim().length()==0) {
+            logger.warn(">>>>>>>>>>> xxl-job, 执行器负载上报配置失败, 应用名为空.");
+            return;
+        }
+        if (XxlJobExecutor.getAdminBizList() == null) {
+            logger.warn(">>>>>>>>>>> xxl-job, 执行器负载上报配置失败, 调度中心地址为空.");
+            return;
+        }
+
+        toStop = false;
+        reportThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+
+                int lastRunning = -1;
+                int lastPending = -1;
+                long lastReportTime = 0;
+                while (!toStop) {
+                    try {
+                        // 等待变更信号，超时即为心跳
+                        Boolean changed = changeSignal.poll(RegistryConfig.BEAT_TIMEOUT, TimeUnit.SECONDS);
+                        if (changed != null) {
+                            // 合并窗口内的连续变更
+                            TimeUnit.MILLISECONDS.sleep(MERGE_WINDOW_MS);
+                            changeSignal.clear();
+                        }
+
+                        int runningTaskCount = XxlJobExecutor.getRunningTaskCount();
+                        int pendingTaskCount = XxlJobExecutor.getPendingTaskCount();
+                        boolean heartbeat = System.currentTimeMillis() - lastReportTime >= RegistryConfig.BEAT_TIMEOUT * 1000L;
+                        if (!heartbeat && runningTaskCount == lastRunning && pendingTaskCount == lastPending) {
+                            continue;
+                        }
+
+                        ExecutorLoadParam loadParam = new ExecutorLoadParam(appname, address, runningTaskCount, pendingTaskCount, JobSlotHelper.getInstance().getCapacity());
+                        for (AdminBiz adminBiz: XxlJobExecutor.getAdminBizList()) {
+                            try {
+                                ReturnT<String> reportResult = adminBiz.reportLoad(loadParam);
+                                if (reportResult == null || ReturnT.SUCCESS_CODE != reportResult.getCode()) {
+                                    logger.debug(">>>>>>>>>>> xxl-job 负载上报失败, 上报参数:{}, 上报结果:{}", loadParam, reportResult);
+                                }
+                            } catch (Throwable e) {
+                                logger.debug(">>>>>>>>>>> xxl-job 负载上报异常, 上报参数:{}", loadParam, e);
+                            }
+                        }
+                        lastRunning = runningTaskCount;
+                        lastPending = pendingTaskCount;
+                        lastReportTime = System.currentTimeMillis();
+                    } catch (Throwable e) {
+                        if (!toStop) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+                }
+                logger.info(">>>>>>>>>>> xxl-job, 执行器负载上报线程已销毁.");
+            }
+        });
+        reportThread.setDaemon(true);
+        reportThread.setName("xxl-job, executor ExecutorLoadReportThread");
+        reportThread.start();
+    }
+
+    /**
+     * 停止负载上报线程
+     */
+    public void toStop() {
+        toStop = true;
+
+        // 中断线程并等待结束
+        if (reportThread != null) {
+            reportThread.interrupt();
+            try {
+                reportThread.join();
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+}
@@ -4,7 +4,6 @@ import com.xxl.job.core.biz.AdminBiz;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.enums.RegistryConfig;
-import com.xxl.job.core.enums.ThreadConstant;
 import com.xxl.job.core.executor.XxlJobExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,9 +77,9 @@ public class ExecutorRegistryThread {
                         int pendingTaskCount = XxlJobExecutor.getPendingTaskCount();
 
                         // 构建注册参数
-                        RegistryParam registryParam = new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), appname, address, runningTaskCount, ThreadConstant.MAX_THREAD_COUNT);
-                        logger.debug(">>>>>>>>>>> xxl-job, 执行器当前状态->作业线程数={}, 正在执行的任务数={}, 等待执行的任务数={}, 执行器最大线程容量={}",
-                                threadCount, runningTaskCount, pendingTaskCount, ThreadConstant.MAX_THREAD_COUNT);
+                        RegistryParam registryParam = new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), appname, address, runningTaskCount, JobSlotHelper.getInstance().getCapacity());
+                        logger.debug(">>>>>>>>>>> xxl-job, 执行器当前状态->作业线程数={}, 正在执行的任务数={}, 等待执行的任务数={}, 执行器槽位容量={}",
+                                threadCount, runningTaskCount, pendingTaskCount, JobSlotHelper.getInstance().getCapacity());
                         
                         // 遍历所有配置的调度中心地址
                         for (AdminBiz adminBiz: XxlJobExecutor.getAdminBizList()) {
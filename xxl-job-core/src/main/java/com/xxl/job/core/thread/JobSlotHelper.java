@@ -0,0 +1,100 @@
+package com.xxl.job.core.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * 执行器槽位助手
+ *
+ * 每个被接收的触发(执行中或在队列中等待)占用一个槽位，执行结束或被终止时释放；
+ * 槽位用尽时拒绝新的触发，调度中心记为调度失败，按任务的失败重试次数重试。
+ * 槽位容量随注册心跳和负载上报发送给调度中心，按负载路由时避开已满的执行器。
+ *
+ * 未配置容量时按CPU核数和最大堆内存推算：min(核数 * SLOTS_PER_CORE, 最大堆内存 / MEMORY_PER_SLOT)，
+ * 使用平台工作线程时不超过工作线程上限。
+ */
+public class JobSlotHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobSlotHelper.class);
+
+    private static JobSlotHelper instance = new JobSlotHelper();
+
+    public static JobSlotHelper getInstance() {
+        return instance;
+    }
+
+    /**
+     * 每个CPU核对应的槽位数，任务多为I/O密集，高于核数
+     */
+    private static final int SLOTS_PER_CORE = 4;
+
+    /**
+     * 每个槽位预留的堆内存
+     */
+    private static final long MEMORY_PER_SLOT = 32L * 1024 * 1024;
+
+    // 未启动时不限制，保持与单独使用 ExecutorBizImpl 时的行为一致
+    private volatile Semaphore slots;
+    private volatile int capacity = Integer.MAX_VALUE;
+
+    /**
+     * 启动槽位控制
+     *
+     * @param capacity 槽位容量，小于等于0时自动推算
+     * @param workers 工作线程上限，自动推算时使用；小于等于0时不限制
+     */
+    public void start(int capacity, int workers) {
+        this.capacity = capacity > 0 ? capacity : deriveCapacity(workers);
+        this.slots = new Semaphore(this.capacity);
+        logger.info(">>>>>>>>>>> xxl-job, JobSlotHelper started, capacity:{}", this.capacity);
+    }
+
+    /**
+     * 按CPU核数和最大堆内存推算槽位容量
+     */
+    private static int deriveCapacity(int workers) {
+        long byCores = (long) Runtime.getRuntime().availableProcessors() * SLOTS_PER_CORE;
+        long byMemory = Runtime.getRuntime().maxMemory() / MEMORY_PER_SLOT;
+        long derived = Math.min(byCores, byMemory);
+        if (workers > 0) {
+            derived = Math.min(derived, workers);
+        }
+        return (int) Math.max(1, derived);
+    }
+
+    /**
+     * 槽位容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 尝试占用一个槽位
+     *
+     * @return 槽位用尽时返回false
+     */
+    public boolean tryAcquire() {
+        Semaphore current = slots;
+        return current == null || current.tryAcquire();
+    }
+
+    /**
+     * 释放一个槽位，触发执行结束、被终止或未能入队时调用
+     */
+    public void release() {
+        Semaphore current = slots;
+        if (current != null) {
+            current.release();
+        }
+    }
+
+    /**
+     * 停止槽位控制，之后不再限制
+     */
+    public void toStop() {
+        slots = null;
+        capacity = Integer.MAX_VALUE;
+    }
+}
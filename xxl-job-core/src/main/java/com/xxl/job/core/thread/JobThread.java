@@ -6,8 +6,6 @@ import com.xxl.job.core.biz.model.TriggerParam;
 import com.xxl.job.core.context.JobThreadContext;
 import com.xxl.job.core.context.XxlJobContext;
 import com.xxl.job.core.context.XxlJobHelper;
-import com.xxl.job.core.enums.ThreadConstant;
-import com.xxl.job.core.executor.XxlJobExecutor;
 import com.xxl.job.core.handler.IJobHandler;
 import com.xxl.job.core.log.XxlJobFileAppender;
 import org.slf4j.Logger;
@@ -19,21 +17,28 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
- * 任务处理线程
- * 每个JobThread实例负责执行一个具体的任务
- * 每个任务ID对应一个JobThread实例
+ * 任务处理队列
+ * 每个任务ID对应一个JobThread实例，负责串行执行该任务的触发
+ *
+ * JobThread不再独占线程：触发进入队列后，由 JobWorkerPool 的工作线程逐次执行，
+ * 每次执行一个触发后让出工作线程；同一任务同一时刻只在一个工作线程上执行，保持串行语义。
+ * 处理器在首次执行前 init，任务停止(终止、覆盖、空闲释放)时 destroy。
  *
  * @author xuxueli 2016-1-16 19:52:47
  */
-public class JobThread extends Thread{
+public class JobThread implements Runnable {
 	// 日志记录器
 	private static Logger logger = LoggerFactory.getLogger(JobThread.class);
 
-	// 任务ID，用于标识当前线程负责的任务
+	// 任务ID，用于标识当前队列负责的任务
 	private Long jobId;
 	// 任务处理器，用于实际执行任务逻辑
 	private IJobHandler handler;
@@ -41,19 +46,39 @@ public class JobThread extends Thread{
 	private LinkedBlockingQueue<TriggerParam> triggerQueue;
 	// 已触发任务的日志ID集合，用于避免重复触发同一任务
 	private Set<Long> triggerLogIdSet;		// avoid repeat trigger for the same TRIGGER_LOG_ID
+	// 名称，执行期间作为工作线程名称，便于调试和监控
+	private final String name;
+	// 处理器是否支持在虚拟线程上执行
+	private final boolean virtualThread;
 
-	// 线程停止标志，volatile确保多线程间的可见性
+	// 停止标志，volatile确保多线程间的可见性
 	private volatile boolean toStop = false;
-	// 停止原因，记录线程为什么被停止
-	private String stopReason;
+	// 停止原因，记录任务为什么被停止
+	private volatile String stopReason;
 
     // 是否正在执行任务的标志
-    private boolean running = false;    // if running job
-    // 空闲次数计数，用于检测长时间空闲的线程
-	private int idleTimes = 0;			// idle times
-
-	// 线程启动时间
-	private long startTime = System.currentTimeMillis();
+    private volatile boolean running = false;    // if running job
+	// 是否已提交到工作线程池(排队或执行中)，保证同一任务同一时刻只占用一个工作线程
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	// 正在执行本任务的工作线程，只在持有本对象锁时修改，避免中断到已转去执行其他任务的工作线程
+	private Thread worker;
+	// 处理器是否已初始化，只由持有 scheduled 的工作线程访问
+	private boolean initialized = false;
+	// 本次执行是否登记了超时，只在持有本对象锁时修改，执行结束后超时不再中断工作线程
+	private boolean timing = false;
+	// 本次执行是否已超时
+	private volatile boolean timedOut = false;
+	// 超时中断后宽限期内处理器仍未结束(未响应中断)，工作线程和本任务的串行队列仍被占用
+	private volatile boolean timeoutOverrun = false;
+	// 登记超时的执行序号，只在持有本对象锁时修改，宽限期检查据此识别同一次执行
+	private long timingSeq = 0;
+	// 停止并销毁处理器后释放
+	private final CountDownLatch terminated = new CountDownLatch(1);
+
+	// 当前(或最近一次)执行的开始时间
+	private volatile long startTime = System.currentTimeMillis();
+	// 最近一次执行结束的时间，用于释放长时间空闲的任务
+	private volatile long lastActiveTime = System.currentTimeMillis();
 
     /**
      * 构造方法
@@ -70,13 +95,12 @@ public class JobThread extends Thread{
 		// 使用线程安全的Set存储触发日志ID
 		this.triggerLogIdSet = Collections.synchronizedSet(new HashSet<Long>());
 
-		// 设置线程名称，便于调试和监控
-		this.setName("xxl-job, JobThread-"+jobId+"-"+System.currentTimeMillis());
-		JobThreadContext.setJobThreadContextMap(jobId, this);
+		this.name = "xxl-job, JobThread-" + jobId + "-" + System.currentTimeMillis();
+		this.virtualThread = handler.isVirtualThreadSupported();
 	}
 
 	/**
-     * 获取当前线程使用的任务处理器
+     * 获取当前队列使用的任务处理器
      *
      * @return 任务处理器实例
      */
@@ -84,23 +108,30 @@ public class JobThread extends Thread{
 		return handler;
 	}
 
+	public String getName() {
+		return name;
+	}
+
 	/**
-	 * 获取线程启动时间
+	 * 获取当前(或最近一次)执行的开始时间
 	 *
-	 * @return 线程启动时间的时间戳
+	 * @return 执行开始时间的时间戳
 	 */
 	public long getStartTime() {
 	    return startTime;
 	}
 
     /**
-     * 将新的触发参数加入到任务队列中
+     * 将新的触发参数加入到任务队列中，并提交到工作线程池
      * 用于接收调度中心发送的任务执行请求
      *
      * @param triggerParam 任务触发参数
-     * @return 操作结果
+     * @return 操作结果，任务已停止时返回失败，由调用方改用新的JobThread；工作线程池拒绝时撤销入队并返回失败
      */
-	public ReturnT<String> pushTriggerQueue(TriggerParam triggerParam) {
+	public synchronized ReturnT<String> pushTriggerQueue(TriggerParam triggerParam) {
+		if (toStop) {
+			return new ReturnT<String>(ReturnT.FAIL_CODE, "job thread stopped, jobId:" + jobId);
+		}
 		// 避免重复触发同一任务
 		if (triggerLogIdSet.contains(triggerParam.getLogId())) {
 			logger.info(">>>>>>>>>>> repeate trigger job, logId:{}", triggerParam.getLogId());
@@ -111,28 +142,146 @@ public class JobThread extends Thread{
 		triggerLogIdSet.add(triggerParam.getLogId());
 		// 将触发参数添加到队列中，等待执行
 		triggerQueue.add(triggerParam);
+		if (!schedule()) {
+			// 工作线程池拒绝(已停止)，撤销入队，由调用方释放槽位
+			triggerQueue.remove(triggerParam);
+			triggerLogIdSet.remove(triggerParam.getLogId());
+			return new ReturnT<String>(ReturnT.FAIL_CODE, "job worker pool rejected, jobId:" + jobId);
+		}
+		// 通知负载变化
+		ExecutorLoadReportThread.loadChanged();
         return ReturnT.SUCCESS;
 	}
 
+	/**
+	 * 提交到工作线程池，已在排队或执行中时不重复提交
+	 *
+	 * @return 工作线程池拒绝时返回false
+	 */
+	private boolean schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				JobWorkerPool.getInstance().execute(this, virtualThread);
+			} catch (RejectedExecutionException e) {
+				scheduled.set(false);
+				logger.error(">>>>>>>>>>> xxl-job, JobWorkerPool rejected, jobId:{}", jobId, e);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 工作线程池拒绝提交时在当前线程停止并清理，避免排队的触发一直占用槽位
+	 */
+	private void terminateOnReject() {
+		synchronized (this) {
+			if (!toStop) {
+				stopReason = "job worker pool rejected";
+				toStop = true;
+			}
+		}
+		terminate();
+	}
+
     /**
-     * 停止任务线程
-     * 通过共享变量方式安全停止线程，而不是直接中断
+     * 停止任务
+     * 设置停止标志并提交到工作线程池，由工作线程终止排队的触发并销毁处理器；
+     * 正在执行的触发需要配合 interrupt 中断
      *
      * @param stopReason 停止原因
      */
-	public void toStop(String stopReason) {
+	public synchronized void toStop(String stopReason) {
 		/**
 		 * Thread.interrupt只支持终止线程的阻塞状态(wait、join、sleep)，
 		 * 在阻塞出抛出InterruptedException异常,但是并不会终止运行的线程本身；
-		 * 所以需要注意，此处彻底销毁本线程，需要通过共享变量方式；
+		 * 所以需要注意，此处彻底销毁本任务，需要通过共享变量方式；
 		 */
-		this.toStop = true;
+		if (this.toStop) {
+			return;
+		}
 		this.stopReason = stopReason;
+		this.toStop = true;
+		if (!schedule()) {
+			terminate();
+		}
+	}
+
+	/**
+	 * 中断正在执行本任务的工作线程，未在执行时忽略
+	 * 虚拟线程阻塞在I/O、sleep等处时同样响应中断
+	 */
+	public synchronized void interrupt() {
+		if (worker != null) {
+			worker.interrupt();
+		}
+	}
+
+	/**
+	 * 超时到期：本次执行仍在进行时中断工作线程，并登记宽限期检查
+	 */
+	private synchronized void onTimeout(final Thread current, final long seq, final long timeoutSeconds) {
+		if (timing && worker == current && timingSeq == seq) {
+			timedOut = true;
+			current.interrupt();
+			JobTimeoutHelper.getInstance().schedule(new Runnable() {
+				@Override
+				public void run() {
+					checkTimeoutOverrun(current, seq, timeoutSeconds);
+				}
+			}, JobTimeoutHelper.INTERRUPT_GRACE_SECONDS);
+		}
+	}
+
+	/**
+	 * 宽限期到期：处理器仍未结束说明未响应中断，超时没有生效，记录告警并标记
+	 */
+	private synchronized void checkTimeoutOverrun(Thread current, long seq, long timeoutSeconds) {
+		if (timing && worker == current && timingSeq == seq) {
+			timeoutOverrun = true;
+			logger.warn(">>>>>>>>>>> xxl-job JobThread handler still running {}s after timeout interrupt, the handler ignores interrupts and keeps holding the worker, jobId:{}, timeout:{}s, worker:{}",
+					JobTimeoutHelper.INTERRUPT_GRACE_SECONDS, jobId, timeoutSeconds, current.getName());
+		}
+	}
+
+	/**
+	 * 最近一次超时执行的处理器是否未响应超时中断(超时后宽限期内仍在执行)
+	 */
+	public boolean isTimeoutOverrun() {
+		return timeoutOverrun;
+	}
+
+	/**
+	 * 等待任务停止并销毁处理器
+	 */
+	public void join() throws InterruptedException {
+		terminated.await();
+	}
+
+	/**
+	 * 是否已停止，停止后不再接收触发
+	 */
+	public boolean isStopped() {
+		return toStop;
+	}
+
+	/**
+	 * 空闲超过指定时长时停止任务，用于释放长时间不再触发的任务的处理器
+	 *
+	 * @param idleTimeoutMs 空闲时长(毫秒)
+	 * @return 是否已停止
+	 */
+	public synchronized boolean stopIfIdle(long idleTimeoutMs, String stopReason) {
+		if (toStop || isRunningOrHasQueue() || System.currentTimeMillis() - lastActiveTime < idleTimeoutMs) {
+			return false;
+		}
+		toStop(stopReason);
+		return true;
 	}
 
     /**
      * 检查任务是否正在运行或队列中有等待执行的任务
-     * 用于外部判断此线程是否可以安全销毁
+     * 用于外部判断此任务是否可以安全销毁
      *
      * @return 如果正在运行或队列不为空，返回true；否则返回false
      */
@@ -153,6 +302,7 @@ public class JobThread extends Thread{
             if (param.getJobId() == jobId) {
                 removed = triggerQueue.remove(param);
                 if (removed) {
+                    JobSlotHelper.getInstance().release();
                     logger.info("任务从等待队列移除成功 [任务ID:{}]", jobId);
                 }
                 break;
@@ -170,168 +320,207 @@ public class JobThread extends Thread{
         return triggerQueue.size();
     }
 
-    /**
-     * 线程执行入口
-     * 实现了任务的执行、超时控制和回调处理等核心逻辑
-     */
-    @Override
+	/**
+	 * 工作线程执行入口：执行队列中的一个触发后让出工作线程
+	 * 队列中还有触发或任务已停止时重新提交，停止后由工作线程完成清理
+	 */
+	@Override
 	public void run() {
+		if (toStop) {
+			terminate();
+			return;
+		}
 
-    	// 初始化任务处理器
-    	try {
-			handler.init();
-		} catch (Throwable e) {
-    		logger.error(e.getMessage(), e);
+		Thread current = Thread.currentThread();
+		String workerName = current.getName();
+		synchronized (this) {
+			worker = current;
 		}
+		current.setName(name);
+		try {
+			// 初始化任务处理器
+			if (!initialized) {
+				initialized = true;
+				try {
+					handler.init();
+				} catch (Throwable e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
 
-		// 执行任务循环
-		while(!toStop){
-			running = false;
-			idleTimes++;
-
-            TriggerParam triggerParam = null;
-            try {
-				// 从队列中获取任务触发参数，设置超时以便检查停止信号
-				// 使用poll而不是take，以便定期检查toStop标志
-				triggerParam = triggerQueue.poll(1L, TimeUnit.SECONDS);
-				if (triggerParam!=null) {
-					// 设置执行状态和计数器
-					running = true;
-					idleTimes = 0;
-					// 从已触发集合中移除当前任务日志ID
-					triggerLogIdSet.remove(triggerParam.getLogId());
-
-					// 创建日志文件名，格式如 "logPath/yyyy-MM-dd/9999.log"
-					String logFileName = XxlJobFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
-					// 创建任务上下文，包含任务执行所需的各种参数和环境信息
-					XxlJobContext xxlJobContext = new XxlJobContext(
-							triggerParam.getJobId(),
-							triggerParam.getExecutorParams(),
-							logFileName,
-							triggerParam.getBroadcastIndex(),
-							triggerParam.getBroadcastTotal());
-
-					// 初始化任务上下文，设置线程本地变量
-					XxlJobContext.setXxlJobContext(xxlJobContext);
-
-					// 记录任务开始执行的日志
-					XxlJobHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + xxlJobContext.getJobParam());
-
-					// 判断是否设置了任务超时时间
-					if (triggerParam.getExecutorTimeout() > 0) {
-						// 使用Future实现超时控制
-						Thread futureThread = null;
-						try {
-							// 创建FutureTask封装任务执行
-							FutureTask<Boolean> futureTask = new FutureTask<Boolean>(new Callable<Boolean>() {
-								@Override
-								public Boolean call() throws Exception {
-									// 初始化任务上下文
-									XxlJobContext.setXxlJobContext(xxlJobContext);
-									// 执行任务
-									handler.execute();
-									return true;
-								}
-							});
-							// 创建并启动执行线程
-							futureThread = new Thread(futureTask);
-							futureThread.start();
-
-							// 等待任务执行完成，设置超时时间
-							Boolean tempResult = futureTask.get(triggerParam.getExecutorTimeout(), TimeUnit.SECONDS);
-						} catch (TimeoutException e) {
-							// 记录任务执行超时日志
-							XxlJobHelper.log("<br>----------- xxl-job job execute timeout");
-							XxlJobHelper.log(e);
-
-							// 处理超时结果
-							XxlJobHelper.handleTimeout("job execute timeout ");
-						} finally {
-							// 中断执行线程
-							futureThread.interrupt();
-						}
-					} else {
-						// 无超时限制，直接执行任务
-						handler.execute();
-					}
+			TriggerParam triggerParam = triggerQueue.poll();
+			if (triggerParam != null) {
+				execute(triggerParam, current);
+			}
+		} finally {
+			synchronized (this) {
+				worker = null;
+			}
+			// 清除残留的中断标记，工作线程继续执行其他任务
+			Thread.interrupted();
+			current.setName(workerName);
+			lastActiveTime = System.currentTimeMillis();
+
+			scheduled.set(false);
+			if ((toStop || triggerQueue.size() > 0) && !schedule()) {
+				terminateOnReject();
+			}
+		}
+	}
 
-					// 验证任务执行结果
-					if (XxlJobContext.getXxlJobContext().getHandleCode() <= 0) {
-						// 处理丢失执行结果的情况
-						XxlJobHelper.handleFail("job handle result lost.");
-					} else {
-						// 处理消息过长的情况，截断超过50000字符的消息
-						String tempHandleMsg = XxlJobContext.getXxlJobContext().getHandleMsg();
-						tempHandleMsg = (tempHandleMsg!=null&&tempHandleMsg.length()>50000)
-								?tempHandleMsg.substring(0, 50000).concat("...")
-								:tempHandleMsg;
-						XxlJobContext.getXxlJobContext().setHandleMsg(tempHandleMsg);
+	/**
+	 * 执行一次触发
+	 * 实现了任务的执行、超时控制和回调处理等核心逻辑
+	 */
+	private void execute(TriggerParam triggerParam, Thread current) {
+		// 设置执行状态
+		running = true;
+		startTime = System.currentTimeMillis();
+		JobThreadContext.setJobThreadContextMap(jobId, current);
+		try {
+			// 从已触发集合中移除当前任务日志ID
+			triggerLogIdSet.remove(triggerParam.getLogId());
+
+			// 创建日志文件名，格式如 "logPath/yyyy-MM-dd/9999.log"
+			String logFileName = XxlJobFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
+			// 创建任务上下文，包含任务执行所需的各种参数和环境信息
+			XxlJobContext xxlJobContext = new XxlJobContext(
+					triggerParam.getJobId(),
+					triggerParam.getExecutorParams(),
+					logFileName,
+					triggerParam.getBroadcastIndex(),
+					triggerParam.getBroadcastTotal());
+
+			// 初始化任务上下文，设置线程本地变量
+			XxlJobContext.setXxlJobContext(xxlJobContext);
+
+			// 记录任务开始执行的日志
+			XxlJobHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + xxlJobContext.getJobParam());
+
+			// 判断是否设置了任务超时时间
+			if (triggerParam.getExecutorTimeout() > 0) {
+				// 在当前工作线程上执行，到期时由 JobTimeoutHelper 中断当前工作线程
+				// 注意：处理器不再在独立线程中执行，超时只能中断、不能丢弃执行；不响应中断的处理器会超时后继续占用
+				// 工作线程和本任务的串行队列，宽限期后仍在执行时记录告警并标记 timeoutOverrun
+				final long seq;
+				final long timeoutSeconds = triggerParam.getExecutorTimeout();
+				synchronized (this) {
+					timedOut = false;
+					timeoutOverrun = false;
+					timing = true;
+					seq = ++timingSeq;
+				}
+				ScheduledFuture<?> timeoutFuture = JobTimeoutHelper.getInstance().schedule(new Runnable() {
+					@Override
+					public void run() {
+						onTimeout(current, seq, timeoutSeconds);
 					}
-
-					// 记录任务执行完成的日志
-					XxlJobHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
-							+ XxlJobContext.getXxlJobContext().getHandleCode()
-							+ ", handleMsg = "
-							+ XxlJobContext.getXxlJobContext().getHandleMsg()
-					);
-
-				} else {
-					// 这里修改源码，当任务结束且队列为空立马关闭线程
-					if(triggerQueue.size() == 0) {	// avoid concurrent trigger causes jobId-lost
-						XxlJobExecutor.removeJobThread(jobId, "长时间未获取到任务，终止工作线程！");
+				}, timeoutSeconds);
+				try {
+					handler.execute();
+				} catch (Throwable e) {
+					// 超时中断引起的异常按超时处理
+					if (!timedOut) {
+						throw e;
+					}
+				} finally {
+					// 执行结束，取消超时
+					synchronized (this) {
+						timing = false;
 					}
-					// 任务队列为空，检查空闲时间
-//					if (idleTimes > ThreadConstant.ATTEMPTS) {
-//						// 空闲超过30次且队列为空，移除任务线程
-//						if(triggerQueue.size() == 0) {	// avoid concurrent trigger causes jobId-lost
-//							XxlJobExecutor.removeJobThread(jobId, "长时间未获取到任务，终止工作线程！");
-//						}
-//					}
+					timeoutFuture.cancel(false);
 				}
-			} catch (Throwable e) {
-				// 检查是否是由于停止信号导致的异常
-				if (toStop) {
-					XxlJobHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+
+				if (timedOut) {
+					// 清除超时残留的中断标记
+					Thread.interrupted();
+					// 记录任务执行超时日志
+					XxlJobHelper.log("<br>----------- xxl-job job execute timeout, timeout:" + triggerParam.getExecutorTimeout() + "s");
+					if (timeoutOverrun) {
+						XxlJobHelper.log("<br>----------- xxl-job job handler ignored the timeout interrupt, cost:"
+								+ (System.currentTimeMillis() - startTime) + "ms");
+					}
+
+					// 处理超时结果
+					XxlJobHelper.handleTimeout("job execute timeout ");
 				}
+			} else {
+				// 无超时限制，直接执行任务
+				handler.execute();
+			}
 
-				// 处理异常结果
-				StringWriter stringWriter = new StringWriter();
-				e.printStackTrace(new PrintWriter(stringWriter));
-				String errorMsg = stringWriter.toString();
-
-				// 标记任务执行失败
-				XxlJobHelper.handleFail(errorMsg);
-
-				// 记录异常日志
-				XxlJobHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
-			} finally {
-                // 任务执行完毕后的回调处理
-                if(triggerParam != null) {
-                    // 创建回调参数
-                    if (!toStop) {
-                        // 正常情况下的回调
-                        // 创建HandleCallbackParam对象，封装任务执行结果信息
-                        TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-                        		triggerParam.getLogId(),      // 日志ID，用于标识任务实例
-								triggerParam.getLogDateTime(),// 日志时间
-								XxlJobContext.getXxlJobContext().getHandleCode(), // 处理结果代码
-								XxlJobContext.getXxlJobContext().getHandleMsg()   // 处理结果消息
-						));
-                    } else {
-                        // 任务被强制停止的情况
-                        TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-                        		triggerParam.getLogId(),      // 日志ID
-								triggerParam.getLogDateTime(),// 日志时间
-								XxlJobContext.HANDLE_CODE_FAIL, // 使用固定的失败状态码
-								stopReason + " [job running, killed]" // 停止原因
-						));
-                    }
-                }
-            }
-        }
+			// 验证任务执行结果
+			if (XxlJobContext.getXxlJobContext().getHandleCode() <= 0) {
+				// 处理丢失执行结果的情况
+				XxlJobHelper.handleFail("job handle result lost.");
+			} else {
+				// 处理消息过长的情况，截断超过50000字符的消息
+				String tempHandleMsg = XxlJobContext.getXxlJobContext().getHandleMsg();
+				tempHandleMsg = (tempHandleMsg!=null&&tempHandleMsg.length()>50000)
+						?tempHandleMsg.substring(0, 50000).concat("...")
+						:tempHandleMsg;
+				XxlJobContext.getXxlJobContext().setHandleMsg(tempHandleMsg);
+			}
+
+			// 记录任务执行完成的日志
+			XxlJobHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
+					+ XxlJobContext.getXxlJobContext().getHandleCode()
+					+ ", handleMsg = "
+					+ XxlJobContext.getXxlJobContext().getHandleMsg()
+			);
+		} catch (Throwable e) {
+			// 检查是否是由于停止信号导致的异常
+			if (toStop) {
+				XxlJobHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+			}
+
+			// 处理异常结果
+			StringWriter stringWriter = new StringWriter();
+			e.printStackTrace(new PrintWriter(stringWriter));
+			String errorMsg = stringWriter.toString();
+
+			// 标记任务执行失败
+			XxlJobHelper.handleFail(errorMsg);
+
+			// 记录异常日志
+			XxlJobHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
+		} finally {
+			// 任务执行完毕后的回调处理
+			if (!toStop) {
+				// 正常情况下的回调
+				// 创建HandleCallbackParam对象，封装任务执行结果信息
+				TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+						triggerParam.getLogId(),      // 日志ID，用于标识任务实例
+						triggerParam.getLogDateTime(),// 日志时间
+						XxlJobContext.getXxlJobContext().getHandleCode(), // 处理结果代码
+						XxlJobContext.getXxlJobContext().getHandleMsg()   // 处理结果消息
+				));
+			} else {
+				// 任务被强制停止的情况
+				TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+						triggerParam.getLogId(),      // 日志ID
+						triggerParam.getLogDateTime(),// 日志时间
+						XxlJobContext.HANDLE_CODE_FAIL, // 使用固定的失败状态码
+						stopReason + " [job running, killed]" // 停止原因
+				));
+			}
+			// 工作线程会被其他任务复用，清除本次执行的上下文
+			XxlJobContext.setXxlJobContext(null);
+			JobThreadContext.removeJobThread(jobId, current);
+			running = false;
+			// 释放本次触发占用的槽位
+			JobSlotHelper.getInstance().release();
+			// 通知负载变化
+			ExecutorLoadReportThread.loadChanged();
+		}
+	}
 
+	/**
+	 * 停止后的清理：终止排队的触发，销毁处理器
+	 */
+	private void terminate() {
 		// 处理队列中待执行的任务，将其标记为被终止
-		while(triggerQueue !=null && triggerQueue.size()>0){
+		while(triggerQueue.size()>0){
 			TriggerParam triggerParam = triggerQueue.poll();
 			if (triggerParam!=null) {
 				// 对于未执行的任务，报告被终止状态
@@ -341,20 +530,21 @@ public class JobThread extends Thread{
 						XxlJobContext.HANDLE_CODE_FAIL,
 						stopReason + " [job not executed, in the job queue, killed.]")
 				);
+				JobSlotHelper.getInstance().release();
 			}
 		}
 
 		// 销毁任务处理器
-		try {
-			handler.destroy();
-		} catch (Throwable e) {
-			logger.error(e.getMessage(), e);
+		if (initialized) {
+			try {
+				handler.destroy();
+			} catch (Throwable e) {
+				logger.error(e.getMessage(), e);
+			}
 		}
 
-		// 从任务线程上下文中移除当前线程
-		JobThreadContext.removeJobThread(jobId);
-
-		// 记录线程停止日志
-		logger.info("工作线程已停止, thread name:{}", Thread.currentThread());
+		terminated.countDown();
+		// 记录停止日志
+		logger.info("任务已停止, jobId:{}, stopReason:{}", jobId, stopReason);
 	}
 }
@@ -64,8 +64,8 @@ public class JobThreadMonitorHelper {
                                 
                                 // 获取JobThread实例（如果可能）
                                 long startTime = System.currentTimeMillis();
-                                if (thread instanceof JobThread) {
-                                    JobThread jobThread = (JobThread) thread;
+                                JobThread jobThread = XxlJobExecutor.loadJobThread(Long.valueOf(jobId));
+                                if (jobThread != null) {
                                     startTime = jobThread.getStartTime();
                                 }
                                 
@@ -134,6 +134,9 @@ public class JobThreadMonitorHelper {
                             logger.info("{}", sb.toString());
                         }
                         
+                        // 释放长时间空闲的任务，销毁其处理器
+                        XxlJobExecutor.removeIdleJobThreads(TimeUnit.SECONDS.toMillis(ThreadConstant.IDLE_TIMEOUT));
+
                         // 使用常量定义的扫描间隔
                         TimeUnit.SECONDS.sleep(ThreadConstant.MONITOR_SCAN_INTERVAL);
                     } catch (Throwable e) {
@@ -0,0 +1,86 @@
+package com.xxl.job.core.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务超时助手
+ *
+ * 所有任务共享一个定时线程登记超时：任务在工作线程上直接执行，到期时由定时线程中断工作线程，
+ * 执行结束时取消登记；每次带超时的执行只增加一个定时项，不再为每次执行创建和销毁线程。
+ * <p>
+ * 与原先在独立线程中执行、超时即放弃等待不同，超时现在只中断工作线程：不响应中断的处理器会继续占用工作线程，
+ * 并阻塞同一任务的后续触发。中断后 INTERRUPT_GRACE_SECONDS 仍在执行的处理器会记录告警(JobThread.isTimeoutOverrun)。
+ */
+public class JobTimeoutHelper {
+    private static Logger logger = LoggerFactory.getLogger(JobTimeoutHelper.class);
+
+    /**
+     * 超时中断后等待处理器结束的宽限期(秒)，到期仍在执行视为未响应中断
+     */
+    public static final long INTERRUPT_GRACE_SECONDS = 5;
+
+    private static JobTimeoutHelper instance = new JobTimeoutHelper();
+
+    public static JobTimeoutHelper getInstance() {
+        return instance;
+    }
+
+    private volatile ScheduledThreadPoolExecutor timer;
+
+    /**
+     * 启动超时定时线程
+     */
+    public void start() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "xxl-job, JobTimeoutHelper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // 执行大多在超时前结束，取消时立即移出队列，避免堆积
+        executor.setRemoveOnCancelPolicy(true);
+        this.timer = executor;
+        logger.info(">>>>>>>>>>> xxl-job, JobTimeoutHelper started");
+    }
+
+    /**
+     * 登记一次超时，未启动时先启动
+     *
+     * @param onTimeout 到期时执行，需自行判断执行是否仍在进行
+     * @param timeoutSeconds 超时时间(秒)
+     * @return 执行结束时用于取消
+     */
+    public ScheduledFuture<?> schedule(Runnable onTimeout, long timeoutSeconds) {
+        ScheduledThreadPoolExecutor executor = timer;
+        if (executor == null) {
+            synchronized (this) {
+                if (timer == null) {
+                    start();
+                }
+                executor = timer;
+            }
+        }
+        return executor.schedule(onTimeout, timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止超时定时线程，未到期的超时不再触发
+     */
+    public void toStop() {
+        ScheduledThreadPoolExecutor executor = timer;
+        timer = null;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        logger.info(">>>>>>>>>>> xxl-job, JobTimeoutHelper stopped");
+    }
+}
@@ -0,0 +1,187 @@
+package com.xxl.job.core.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务工作线程池
+ *
+ * 所有任务共享固定上限的工作线程，每个任务ID的 JobThread 是一条串行队列：
+ * 同一时刻最多占用一个工作线程，执行完一次触发后让出工作线程，队列中还有触发时重新排队，
+ * 保证同一任务串行执行(SERIAL_EXECUTION)，同时避免为每个任务ID创建和销毁线程。
+ * 空闲的工作线程保留 KEEP_ALIVE_SECONDS 秒供后续任务复用。
+ *
+ * 开启虚拟线程(需要Java 21+)时，每次执行在新的虚拟线程上运行，不受工作线程上限约束，
+ * 适合大量I/O密集的任务；不支持虚拟线程的处理器(synchronized 等会钉住载体线程)仍在平台工作线程上执行。
+ * 运行时不支持虚拟线程时回退到平台工作线程。
+ */
+public class JobWorkerPool {
+    private static Logger logger = LoggerFactory.getLogger(JobWorkerPool.class);
+
+    private static JobWorkerPool instance = new JobWorkerPool();
+
+    public static JobWorkerPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * 未配置时的工作线程上限，与 EmbedServer 业务线程池一致
+     */
+    public static final int DEFAULT_WORKERS = 200;
+
+    /**
+     * 空闲工作线程的保留时间(秒)
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private volatile ThreadPoolExecutor workerPool;
+    private volatile int workers = DEFAULT_WORKERS;
+    // 虚拟线程工厂，未开启或运行时不支持时为null
+    private volatile ThreadFactory virtualThreadFactory;
+    // 停止后拒绝新的执行，重新 start 后恢复
+    private volatile boolean stopped = false;
+
+    /**
+     * 启动工作线程池
+     *
+     * @param workers 工作线程上限，小于等于0时使用 DEFAULT_WORKERS
+     */
+    public void start(int workers) {
+        start(workers, false);
+    }
+
+    /**
+     * 启动工作线程池
+     *
+     * @param workers 工作线程上限，小于等于0时使用 DEFAULT_WORKERS
+     * @param virtualThreads 是否在虚拟线程上执行任务
+     */
+    public void start(int workers, boolean virtualThreads) {
+        this.virtualThreadFactory = virtualThreads ? loadVirtualThreadFactory() : null;
+        this.workers = workers > 0 ? workers : DEFAULT_WORKERS;
+        final AtomicInteger index = new AtomicInteger(0);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                this.workers,
+                this.workers,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                // 每个任务ID同一时刻最多排队一次，队列长度不超过任务数
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "xxl-job, JobWorker-" + index.incrementAndGet());
+                    }
+                });
+        pool.allowCoreThreadTimeOut(true);
+        this.workerPool = pool;
+        this.stopped = false;
+        logger.info(">>>>>>>>>>> xxl-job, JobWorkerPool started, workers:{}, virtualThreads:{}", this.workers, isVirtualThreads());
+    }
+
+    /**
+     * 通过反射获取虚拟线程工厂，兼容Java 21以下的编译和运行环境
+     */
+    private static ThreadFactory loadVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "xxl-job, VirtualJobWorker-", 1L);
+            Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn(">>>>>>>>>>> xxl-job, virtual threads not supported by java {}, fallback to platform threads.", System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    /**
+     * 是否在虚拟线程上执行任务
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreadFactory != null;
+    }
+
+    /**
+     * 提交一次执行，开启虚拟线程且处理器支持时在新的虚拟线程上执行
+     *
+     * @param virtual 处理器是否支持虚拟线程
+     */
+    public void execute(Runnable runnable, boolean virtual) {
+        ThreadFactory factory = virtualThreadFactory;
+        if (virtual && factory != null) {
+            factory.newThread(runnable).start();
+            return;
+        }
+        execute(runnable);
+    }
+
+    /**
+     * 提交一次执行，未启动时按默认上限启动
+     *
+     * @throws RejectedExecutionException 已停止时
+     */
+    public void execute(Runnable runnable) {
+        ThreadPoolExecutor pool = workerPool;
+        if (pool == null) {
+            synchronized (this) {
+                if (stopped) {
+                    throw new RejectedExecutionException("JobWorkerPool stopped");
+                }
+                if (workerPool == null) {
+                    start(0);
+                }
+                pool = workerPool;
+            }
+        }
+        pool.execute(runnable);
+    }
+
+    /**
+     * 工作线程上限
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * 正在执行任务的工作线程数
+     */
+    public int getActiveCount() {
+        ThreadPoolExecutor pool = workerPool;
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+
+    /**
+     * 停止工作线程池，已排队的执行继续完成，之后提交的执行被拒绝
+     */
+    public void toStop() {
+        ThreadPoolExecutor pool;
+        synchronized (this) {
+            stopped = true;
+            virtualThreadFactory = null;
+            pool = workerPool;
+            workerPool = null;
+        }
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn(">>>>>>>>>>> xxl-job, JobWorkerPool stop timeout, remaining workers:{}", pool.getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info(">>>>>>>>>>> xxl-job, JobWorkerPool stopped");
+    }
+}
@@ -0,0 +1,135 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.biz.impl.ExecutorBizImpl;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.handler.IJobHandler;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobSlotHelperTest {
+
+    private static final String HANDLER = "slotBlockingHandler";
+
+    private static volatile CountDownLatch release;
+
+    @BeforeAll
+    public static void start() throws Exception {
+        XxlJobFileAppender.initLogPath(Files.createTempDirectory("xxl-job-test").toString());
+        JobWorkerPool.getInstance().start(4);
+        JobSlotHelper.getInstance().start(2, 0);
+        XxlJobExecutor.registJobHandler(HANDLER, new IJobHandler() {
+            @Override
+            public void execute() throws Exception {
+                release.await();
+            }
+        });
+    }
+
+    @AfterAll
+    public static void stop() {
+        JobSlotHelper.getInstance().toStop();
+        JobWorkerPool.getInstance().toStop();
+    }
+
+    @BeforeEach
+    public void block() {
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void unblock() throws InterruptedException {
+        release.countDown();
+        for (long jobId = 5001; jobId <= 5003; jobId++) {
+            JobThread jobThread = XxlJobExecutor.removeJobThread(jobId, "test end");
+            if (jobThread != null) {
+                jobThread.join();
+            }
+        }
+    }
+
+    private static ReturnT<String> trigger(long jobId, long logId) {
+        return JobWorkerPoolTest.trigger(jobId, HANDLER, logId, null);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void exhaustedSlotsShouldRejectUntilReleased() throws Exception {
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500101).getCode());
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5002L, 500201).getCode());
+
+        ReturnT<String> rejected = trigger(5003L, 500301);
+        assertEquals(ReturnT.FAIL_CODE, rejected.getCode());
+        assertTrue(rejected.getMsg().contains("slots exhausted"));
+        assertEquals(2, new ExecutorBizImpl().status().getContent().getThreadCount());
+
+        // 执行结束归还槽位后可再次触发
+        release.countDown();
+        waitUntil(() -> !XxlJobExecutor.loadJobThread(5001L).isRunningOrHasQueue()
+                && !XxlJobExecutor.loadJobThread(5002L).isRunningOrHasQueue());
+        release = new CountDownLatch(1);
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5003L, 500302).getCode());
+    }
+
+    @Test
+    public void queuedTriggersShouldHoldSlots() {
+        // 同一任务一个执行中、一个排队，共占两个槽位
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500111).getCode());
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500112).getCode());
+        assertEquals(ReturnT.FAIL_CODE, trigger(5002L, 500211).getCode());
+    }
+
+    @Test
+    public void removedJobShouldReturnAllSlots() throws Exception {
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500121).getCode());
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500122).getCode());
+
+        // 终止任务：执行中的被中断，排队的被丢弃，槽位全部归还
+        XxlJobExecutor.removeJobThread(5001L, "kill").join();
+        JobSlotHelper slotHelper = JobSlotHelper.getInstance();
+        assertTrue(slotHelper.tryAcquire());
+        assertTrue(slotHelper.tryAcquire());
+        assertFalse(slotHelper.tryAcquire());
+        slotHelper.release();
+        slotHelper.release();
+    }
+
+    @Test
+    public void replaceShouldKeepALiveJobThread() throws InterruptedException {
+        IJobHandler handler = XxlJobExecutor.loadJobHandler(HANDLER);
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(5001L, 500131).getCode());
+        JobThread live = XxlJobExecutor.loadJobThread(5001L);
+
+        // 期望替换的线程已不是当前登记的线程时，保留当前线程
+        JobThread stale = new JobThread(5001L, handler);
+        assertSame(live, XxlJobExecutor.replaceStoppedJobThread(5001L, stale, handler));
+
+        // 当前登记的就是已停止的线程时替换
+        live.toStop("test stop");
+        JobThread replaced = XxlJobExecutor.replaceStoppedJobThread(5001L, live, handler);
+        assertNotSame(live, replaced);
+        assertSame(replaced, XxlJobExecutor.loadJobThread(5001L));
+
+        // 被替换的线程结束本次执行后归还槽位
+        release.countDown();
+        live.join();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.biz.impl.ExecutorBizImpl;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.glue.GlueTypeEnum;
+import com.xxl.job.core.handler.IJobHandler;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobTimeoutTest {
+
+    private static final ExecutorBizImpl executorBiz = new ExecutorBizImpl();
+
+    @BeforeAll
+    public static void start() throws Exception {
+        XxlJobFileAppender.initLogPath(Files.createTempDirectory("xxl-job-test").toString());
+        JobWorkerPool.getInstance().start(4);
+    }
+
+    @AfterAll
+    public static void stop() {
+        JobWorkerPool.getInstance().toStop();
+        JobTimeoutHelper.getInstance().toStop();
+    }
+
+    private static ReturnT<String> trigger(long jobId, String handler, long logId, int timeoutSeconds) {
+        TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(jobId);
+        triggerParam.setExecutorHandler(handler);
+        triggerParam.setGlueType(GlueTypeEnum.BEAN.name());
+        triggerParam.setExecutorBlockStrategy("SERIAL_EXECUTION");
+        triggerParam.setExecutorTimeout(timeoutSeconds);
+        triggerParam.setLogId(logId);
+        triggerParam.setLogDateTime(System.currentTimeMillis());
+        return executorBiz.run(triggerParam);
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void timeoutShouldInterruptTheHandler() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        XxlJobExecutor.registJobHandler("timeoutSleepHandler", new IJobHandler() {
+            @Override
+            public void execute() {
+                try {
+                    Thread.sleep(30000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(4901L, "timeoutSleepHandler", 490101, 1).getCode());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+
+        // 响应中断的处理器不标记为超时未生效，执行结束后释放工作线程
+        JobThread jobThread = XxlJobExecutor.loadJobThread(4901L);
+        waitUntil(() -> !jobThread.isRunningOrHasQueue(), 2000);
+        assertFalse(jobThread.isTimeoutOverrun());
+        XxlJobExecutor.removeJobThread(4901L, "test end");
+    }
+
+    @Test
+    public void handlerIgnoringInterruptShouldBeMarked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        XxlJobExecutor.registJobHandler("timeoutStubbornHandler", new IJobHandler() {
+            @Override
+            public void execute() {
+                // 吞掉中断继续等待，模拟不响应中断的处理器
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            }
+        });
+
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(4902L, "timeoutStubbornHandler", 490201, 1).getCode());
+        JobThread jobThread = XxlJobExecutor.loadJobThread(4902L);
+        try {
+            // 超时 1s + 宽限期后仍在执行
+            waitUntil(jobThread::isTimeoutOverrun, (1 + JobTimeoutHelper.INTERRUPT_GRACE_SECONDS + 3) * 1000L);
+            assertTrue(jobThread.isRunningOrHasQueue());
+        } finally {
+            release.countDown();
+        }
+        waitUntil(() -> !jobThread.isRunningOrHasQueue(), 2000);
+
+        // 下一次带超时的执行重新计算
+        assertEquals(ReturnT.SUCCESS_CODE, trigger(4902L, "timeoutStubbornHandler", 490202, 1).getCode());
+        waitUntil(() -> !jobThread.isRunningOrHasQueue(), 2000);
+        assertFalse(jobThread.isTimeoutOverrun());
+        XxlJobExecutor.removeJobThread(4902L, "test end");
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.biz.impl.ExecutorBizImpl;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.glue.GlueTypeEnum;
+import com.xxl.job.core.handler.IJobHandler;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobWorkerPoolTest {
+
+    private static final ExecutorBizImpl executorBiz = new ExecutorBizImpl();
+
+    @BeforeAll
+    public static void start() throws Exception {
+        XxlJobFileAppender.initLogPath(Files.createTempDirectory("xxl-job-test").toString());
+        JobWorkerPool.getInstance().start(4);
+    }
+
+    @AfterAll
+    public static void stop() {
+        JobWorkerPool.getInstance().toStop();
+    }
+
+    static ReturnT<String> trigger(long jobId, String handler, long logId, String param) {
+        TriggerParam triggerParam = new TriggerParam();
+        triggerParam.setJobId(jobId);
+        triggerParam.setExecutorHandler(handler);
+        triggerParam.setExecutorParams(param);
+        triggerParam.setGlueType(GlueTypeEnum.BEAN.name());
+        triggerParam.setExecutorBlockStrategy("SERIAL_EXECUTION");
+        triggerParam.setLogId(logId);
+        triggerParam.setLogDateTime(System.currentTimeMillis());
+        return executorBiz.run(triggerParam);
+    }
+
+    @Test
+    public void sameJobShouldRunSeriallyInTriggerOrder() throws Exception {
+        int count = 20;
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(count);
+        XxlJobExecutor.registJobHandler("workerPoolSerialHandler", new IJobHandler() {
+            @Override
+            public void execute() throws Exception {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                executed.add(XxlJobHelper.getJobParam());
+                concurrent.decrementAndGet();
+                done.countDown();
+            }
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(String.valueOf(i));
+            assertEquals(ReturnT.SUCCESS_CODE, trigger(4701L, "workerPoolSerialHandler", 470100 + i, String.valueOf(i)).getCode());
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(expected, executed);
+        assertEquals(1, maxConcurrent.get());
+        XxlJobExecutor.removeJobThread(4701L, "test end");
+    }
+
+    @Test
+    public void differentJobsShouldRunConcurrently() throws Exception {
+        // 三个任务必须同时在执行才能越过屏障
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        CountDownLatch done = new CountDownLatch(3);
+        XxlJobExecutor.registJobHandler("workerPoolBarrierHandler", new IJobHandler() {
+            @Override
+            public void execute() throws Exception {
+                barrier.await(5, TimeUnit.SECONDS);
+                done.countDown();
+            }
+        });
+
+        for (long jobId = 4711; jobId <= 4713; jobId++) {
+            assertEquals(ReturnT.SUCCESS_CODE, trigger(jobId, "workerPoolBarrierHandler", jobId * 100, null).getCode());
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (long jobId = 4711; jobId <= 4713; jobId++) {
+            XxlJobExecutor.removeJobThread(jobId, "test end");
+        }
+    }
+
+    @Test
+    public void stoppedPoolShouldRejectUntilRestarted() {
+        JobWorkerPool pool = JobWorkerPool.getInstance();
+        pool.toStop();
+        try {
+            assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+        } finally {
+            pool.start(4);
+        }
+
+        CountDownLatch ran = new CountDownLatch(1);
+        pool.execute(ran::countDown);
+        assertDoesNotThrow(() -> assertTrue(ran.await(5, TimeUnit.SECONDS)));
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.handler.IJobHandler;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobWorkerPoolVirtualThreadTest {
+
+    @BeforeAll
+    public static void start() throws Exception {
+        XxlJobFileAppender.initLogPath(Files.createTempDirectory("xxl-job-test").toString());
+        JobWorkerPool.getInstance().start(4, true);
+    }
+
+    @AfterAll
+    public static void stop() {
+        JobWorkerPool.getInstance().toStop();
+    }
+
+    /**
+     * Thread.isVirtual 在 Java 21 以下不存在，按平台线程处理
+     */
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static boolean runsOnVirtualThread(long jobId, IJobHandler handler) throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        XxlJobExecutor.registJobHandler("virtualThreadHandler" + jobId, new IJobHandler() {
+            @Override
+            public void execute() throws Exception {
+                handler.execute();
+                virtual.complete(isVirtual(Thread.currentThread()));
+            }
+
+            @Override
+            public boolean isVirtualThreadSupported() {
+                return handler.isVirtualThreadSupported();
+            }
+        });
+        ReturnT<String> result = JobWorkerPoolTest.trigger(jobId, "virtualThreadHandler" + jobId, jobId * 100, null);
+        assertEquals(ReturnT.SUCCESS_CODE, result.getCode());
+        try {
+            return virtual.get(5, TimeUnit.SECONDS);
+        } finally {
+            XxlJobExecutor.removeJobThread(jobId, "test end");
+        }
+    }
+
+    @Test
+    public void virtualModeShouldFollowTheRuntime() throws Exception {
+        // Java 21 及以上开启虚拟线程，以下回退为平台线程
+        boolean supported = Runtime.version().feature() >= 21;
+        assertEquals(supported, JobWorkerPool.getInstance().isVirtualThreads());
+
+        assertEquals(supported, runsOnVirtualThread(4801L, new IJobHandler() {
+            @Override
+            public void execute() {
+            }
+        }));
+    }
+
+    @Test
+    public void synchronizedHandlerShouldStayOnPlatformThread() throws Exception {
+        IJobHandler synchronizedHandler = new IJobHandler() {
+            @Override
+            public synchronized void execute() {
+            }
+        };
+        assertFalse(synchronizedHandler.isVirtualThreadSupported());
+        assertFalse(runsOnVirtualThread(4802L, synchronizedHandler));
+    }
+
+}
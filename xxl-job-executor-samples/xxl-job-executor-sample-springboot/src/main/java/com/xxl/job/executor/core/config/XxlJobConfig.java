@@ -43,6 +43,15 @@ public class XxlJobConfig {
     @Value("${xxl.job.executor.logretentiondays}")
     private int logRetentionDays;
 
+    @Value("${xxl.job.executor.workers:0}")
+    private int workers;
+
+    @Value("${xxl.job.executor.virtualthreads:false}")
+    private boolean virtualThreads;
+
+    @Value("${xxl.job.executor.capacity:0}")
+    private int capacity;
+
 
     @Bean
     public XxlJobSpringExecutor xxlJobExecutor() {
@@ -57,6 +66,9 @@ public class XxlJobConfig {
         xxlJobSpringExecutor.setTimeout(timeout);
         xxlJobSpringExecutor.setLogPath(logPath);
         xxlJobSpringExecutor.setLogRetentionDays(logRetentionDays);
+        xxlJobSpringExecutor.setWorkers(workers);
+        xxlJobSpringExecutor.setVirtualThreads(virtualThreads);
+        xxlJobSpringExecutor.setCapacity(capacity);
 
         return xxlJobSpringExecutor;
     }